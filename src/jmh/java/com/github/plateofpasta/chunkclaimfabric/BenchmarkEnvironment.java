@@ -0,0 +1,65 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric;
+
+import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimConfig;
+import com.github.plateofpasta.chunkclaimfabric.server.HeadlessServer;
+
+import java.io.File;
+
+/**
+ * Holds the server and configuration the benchmark datastores are created with, so that benchmarks
+ * can call into the claim code without a Minecraft server.
+ */
+public final class BenchmarkEnvironment {
+  /** Name of the world every benchmark claim is in. */
+  public static final String WORLD_NAME = "minecraft:overworld";
+  /** Server every benchmark runs on, with the benchmark world as its only world. */
+  public static final HeadlessServer SERVER = new HeadlessServer(new File("."), WORLD_NAME);
+
+  /** Configuration new datastores are created with. */
+  private static ChunkClaimConfig config;
+
+  private BenchmarkEnvironment() {}
+
+  /** Installs a default configuration unless one is installed already. */
+  public static synchronized void installConfig() {
+    if (null == config) {
+      config = new ChunkClaimConfig();
+    }
+  }
+
+  /**
+   * Installs the configuration, replacing any installed one. Datastores created before keep the
+   * configuration they were created with.
+   *
+   * @param claimConfig Configuration to install.
+   */
+  public static synchronized void installConfig(ChunkClaimConfig claimConfig) {
+    config = claimConfig;
+  }
+
+  /** @return Installed configuration, installing the default one if there is none. */
+  public static synchronized ChunkClaimConfig getConfig() {
+    installConfig();
+    return config;
+  }
+}
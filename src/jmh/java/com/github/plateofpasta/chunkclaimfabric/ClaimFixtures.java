@@ -0,0 +1,117 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric;
+
+import com.github.plateofpasta.chunkclaimfabric.datastore.InMemoryDataStore;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+
+import java.util.Random;
+
+/**
+ * Builds claim fixtures for benchmarks. Claims fill a square of chunks starting at the origin, row
+ * by row, with every {@link #CLAIMS_PER_OWNER} consecutive chunks belonging to one owner who trusts
+ * one builder.
+ */
+public final class ClaimFixtures {
+  /** Number of consecutive claims along X that share an owner. */
+  public static final int CLAIMS_PER_OWNER = 16;
+  /** Number of precomputed query positions, a power of two so indices wrap with a mask. */
+  public static final int QUERY_COUNT = 1 << 12;
+  /** Fixed seed so every run queries the same positions. */
+  private static final long SEED = 0x5EED;
+
+  private ClaimFixtures() {}
+
+  /**
+   * @param claimCount Number of claims in the fixture.
+   * @return Length of the side of the square holding the claims, in chunks.
+   */
+  public static int sideLength(int claimCount) {
+    return (int) Math.ceil(Math.sqrt(claimCount));
+  }
+
+  /**
+   * @param index Index of the claim in the fixture.
+   * @return Name of the claim's owner.
+   */
+  public static String ownerOf(int index) {
+    return "owner" + (index / CLAIMS_PER_OWNER);
+  }
+
+  /**
+   * @param index Index of the claim in the fixture.
+   * @return Name of the builder trusted in the claim.
+   */
+  public static String builderOf(int index) {
+    return "builder" + (index / CLAIMS_PER_OWNER);
+  }
+
+  /**
+   * Creates a claim of the fixture, not yet added to any datastore.
+   *
+   * @param index Index of the claim in the fixture.
+   * @param side Length of the side of the square holding the claims, see {@link #sideLength(int)}.
+   * @return Claimed chunk.
+   */
+  public static Chunk createClaim(int index, int side) {
+    Chunk chunk =
+        new Chunk(
+            (index % side) << 4,
+            (index / side) << 4,
+            BenchmarkEnvironment.WORLD_NAME,
+            ownerOf(index));
+    chunk.addBuilderName(builderOf(index));
+    return chunk;
+  }
+
+  /**
+   * Creates a datastore holding the claims.
+   *
+   * @param claimCount Number of claims to create.
+   * @return Populated datastore.
+   */
+  public static InMemoryDataStore populate(int claimCount) {
+    InMemoryDataStore dataStore =
+        new InMemoryDataStore(BenchmarkEnvironment.getConfig(), BenchmarkEnvironment.SERVER);
+    final int side = sideLength(claimCount);
+    for (int i = 0; i < claimCount; i++) {
+      dataStore.addClaim(createClaim(i, side));
+    }
+    return dataStore;
+  }
+
+  /**
+   * Creates chunk coordinates to query. A quarter of the area queried lies outside of the claims,
+   * so lookups are a mix of hits and misses.
+   *
+   * @param claimCount Number of claims in the fixture.
+   * @return Interleaved X and Z chunk coordinates, {@link #QUERY_COUNT} pairs.
+   */
+  public static int[] queryCoords(int claimCount) {
+    final int bound = (sideLength(claimCount) * 5) / 4 + 1;
+    Random random = new Random(SEED);
+    int[] coords = new int[QUERY_COUNT * 2];
+    for (int i = 0; i < coords.length; i++) {
+      coords[i] = random.nextInt(bound);
+    }
+    return coords;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.datastore;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ClaimFixtures;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks claim lookups through the datastore. Uses {@link DataStore#getChunkAtPos}, the lookup
+ * behind {@link DataStore#getChunkAt}, since building an {@code EdgestitchLocation} needs a live
+ * world.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkLookupBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  int claimCount;
+
+  private InMemoryDataStore dataStore;
+  private int[] queryCoords;
+  private int queryIndex;
+
+  @Setup
+  public void setUp() {
+    this.dataStore = ClaimFixtures.populate(this.claimCount);
+    this.queryCoords = ClaimFixtures.queryCoords(this.claimCount);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.dataStore.close();
+  }
+
+  /** @return Chunk at the next query position, or null. */
+  @Benchmark
+  public Chunk getChunkAtPos() {
+    final int i = (this.queryIndex++ & (ClaimFixtures.QUERY_COUNT - 1)) << 1;
+    return this.dataStore.getChunkAtPos(
+        this.queryCoords[i], this.queryCoords[i + 1], BenchmarkEnvironment.WORLD_NAME);
+  }
+
+  /** @return Chunk at the origin, always claimed. */
+  @Benchmark
+  public Chunk getChunkAtPosHit() {
+    return this.dataStore.getChunkAtPos(0, 0, BenchmarkEnvironment.WORLD_NAME);
+  }
+}
@@ -0,0 +1,186 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.datastore;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ClaimFixtures;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the bulk deletions of {@link FlatFileDataStore}: abandoning all of a player's claims
+ * and the periodic auto-delete sweep. Deleted claims are claimed again between operations, outside
+ * of the measurement, so every operation sees a full fixture. Reports throughput, the latency
+ * distribution (including p99) and the bytes written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlatFileDeleteBenchmark {
+  /** Claims sampled per sweep, as by the plugin's hourly clean up task. */
+  private static final int CLEAN_UP_SAMPLE = 50;
+
+  @Param({"10000", "100000", "1000000"})
+  int claimCount;
+
+  private File root;
+  private FlatFileDataStore dataStore;
+
+  /**
+   * Bytes written per iteration. Every deleted claim saves its owner's player data, so this is the
+   * number of deleted claims times the size of the player data file.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class DeleteCounters {
+    public long bytesWritten;
+    public long claimsDeleted;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      this.bytesWritten = 0;
+      this.claimsDeleted = 0;
+    }
+
+    /**
+     * Counts deleted claims and the player data written for them.
+     *
+     * @param dataStore Datastore the claims were deleted from.
+     * @param deleted Claims that were deleted.
+     */
+    void count(FlatFileDataStore dataStore, List<Chunk> deleted) {
+      for (Chunk chunk : deleted) {
+        this.bytesWritten +=
+            new File(dataStore.formFullPlayerDataFilePath(chunk.getOwnerName())).length();
+      }
+      this.claimsDeleted += deleted.size();
+    }
+  }
+
+  /** The next owner to abandon all of their claims. */
+  @State(Scope.Thread)
+  public static class OwnerDeletion {
+    private int ownerIndex;
+    private String ownerName;
+    private List<Chunk> ownerChunks;
+
+    @Setup(Level.Invocation)
+    public void pickOwner(FlatFileDeleteBenchmark benchmark) {
+      final int ownerCount =
+          (benchmark.claimCount + ClaimFixtures.CLAIMS_PER_OWNER - 1)
+              / ClaimFixtures.CLAIMS_PER_OWNER;
+      this.ownerName =
+          ClaimFixtures.ownerOf((this.ownerIndex++ % ownerCount) * ClaimFixtures.CLAIMS_PER_OWNER);
+      this.ownerChunks = benchmark.dataStore.getAllChunksForPlayer(this.ownerName);
+    }
+
+    @TearDown(Level.Invocation)
+    public void restoreClaims(FlatFileDeleteBenchmark benchmark, DeleteCounters counters) {
+      counters.count(benchmark.dataStore, this.ownerChunks);
+      benchmark.restore(this.ownerChunks);
+    }
+  }
+
+  /** The unbuilt claims, which the auto-delete sweep reclaims. */
+  @State(Scope.Thread)
+  public static class UnbuiltClaims {
+    private final List<Chunk> unbuiltChunks = new ArrayList<>();
+
+    @Setup
+    public void findUnbuilt(FlatFileDeleteBenchmark benchmark) {
+      for (Chunk chunk : benchmark.dataStore.chunks) {
+        if (!chunk.hasMetMinimum()) {
+          this.unbuiltChunks.add(chunk);
+        }
+      }
+    }
+
+    @TearDown(Level.Invocation)
+    public void restoreClaims(FlatFileDeleteBenchmark benchmark, DeleteCounters counters) {
+      List<Chunk> deleted = new ArrayList<>();
+      for (Chunk chunk : this.unbuiltChunks) {
+        if (!chunk.isInDataStore()) {
+          deleted.add(chunk);
+        }
+      }
+      counters.count(benchmark.dataStore, deleted);
+      benchmark.restore(deleted);
+    }
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    this.root = StorageFixtures.createRoot();
+    StorageFixtures.write(this.root, this.claimCount);
+    this.dataStore = StorageFixtures.open(this.root);
+    this.dataStore.loadWorldData(BenchmarkEnvironment.WORLD_NAME);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    this.dataStore.close();
+    StorageFixtures.delete(this.root);
+  }
+
+  /** @return Number of claims deleted. */
+  @Benchmark
+  public int deleteChunksForPlayer(OwnerDeletion deletion) {
+    return this.dataStore.deleteChunksForPlayer(deletion.ownerName);
+  }
+
+  @Benchmark
+  public void cleanUp(UnbuiltClaims unbuilt) {
+    this.dataStore.cleanUp(CLEAN_UP_SAMPLE);
+  }
+
+  /**
+   * Claims deleted chunks again for their previous owners.
+   *
+   * @param deleted Chunks deleted by the last operation.
+   */
+  private void restore(List<Chunk> deleted) {
+    for (Chunk chunk : deleted) {
+      this.dataStore.claimChunk(chunk.getOwnerName(), chunk);
+    }
+  }
+}
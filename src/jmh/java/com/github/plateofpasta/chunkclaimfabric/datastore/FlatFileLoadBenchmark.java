@@ -0,0 +1,86 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.datastore;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link FlatFileDataStore#loadWorldData(String)}, the server start cost of the flat
+ * file store. Each operation reads every claim file of the fixture, so operations are timed one at
+ * a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FlatFileLoadBenchmark {
+  @Param({"10000", "100000", "1000000"})
+  int claimCount;
+
+  private File root;
+  private FlatFileDataStore dataStore;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.root = StorageFixtures.createRoot();
+    StorageFixtures.write(this.root, this.claimCount);
+    this.dataStore = StorageFixtures.open(this.root);
+  }
+
+  @Setup(Level.Iteration)
+  public void unloadWorld() {
+    this.dataStore.unloadWorldData(BenchmarkEnvironment.WORLD_NAME);
+    System.gc();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    this.dataStore.close();
+    StorageFixtures.delete(this.root);
+  }
+
+  /** @return Claim at the origin, loaded from the fixture. */
+  @Benchmark
+  public Chunk loadWorldData() {
+    this.dataStore.loadWorldData(BenchmarkEnvironment.WORLD_NAME);
+    return this.dataStore.getChunkAtPos(0, 0, BenchmarkEnvironment.WORLD_NAME);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.datastore;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ClaimFixtures;
+import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the single file writes of {@link FlatFileDataStore}: rewriting a claim, as on every
+ * trust change or block count update, and saving a player's data, as on every credit change.
+ * Reports throughput, the latency distribution (including p99) and the bytes written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlatFileWriteBenchmark {
+  @Param({"10000", "100000", "1000000"})
+  int claimCount;
+
+  private File root;
+  private FlatFileDataStore dataStore;
+  private Chunk[] chunks;
+  private long[] chunkFileSizes;
+  private String[] playerNames;
+  private PlayerData[] playerData;
+  private long[] playerFileSizes;
+  private int writeIndex;
+
+  /** Bytes written per iteration, taken from the sizes of the fixture files being rewritten. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class WriteCounters {
+    public long bytesWritten;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      this.bytesWritten = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    this.root = StorageFixtures.createRoot();
+    StorageFixtures.write(this.root, this.claimCount);
+    this.dataStore = StorageFixtures.open(this.root);
+    this.dataStore.loadWorldData(BenchmarkEnvironment.WORLD_NAME);
+
+    final Random random = new Random(this.claimCount);
+    this.chunks = new Chunk[ClaimFixtures.QUERY_COUNT];
+    this.chunkFileSizes = new long[ClaimFixtures.QUERY_COUNT];
+    this.playerNames = new String[ClaimFixtures.QUERY_COUNT];
+    this.playerData = new PlayerData[ClaimFixtures.QUERY_COUNT];
+    this.playerFileSizes = new long[ClaimFixtures.QUERY_COUNT];
+    for (int i = 0; i < ClaimFixtures.QUERY_COUNT; i++) {
+      final Chunk chunk = this.dataStore.chunks.get(random.nextInt(this.claimCount));
+      this.chunks[i] = chunk;
+      this.chunkFileSizes[i] =
+          new File(this.dataStore.formFullChunkDataFilePath(chunk)).length();
+      this.playerNames[i] = chunk.getOwnerName();
+      this.playerData[i] = this.dataStore.getPlayerData(chunk.getOwnerName());
+      this.playerFileSizes[i] =
+          new File(this.dataStore.formFullPlayerDataFilePath(chunk.getOwnerName())).length();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    this.dataStore.close();
+    StorageFixtures.delete(this.root);
+  }
+
+  @Benchmark
+  public void writeChunkToStorage(WriteCounters counters) {
+    final int i = this.writeIndex++ & (ClaimFixtures.QUERY_COUNT - 1);
+    this.dataStore.writeChunkToStorage(this.chunks[i]);
+    counters.bytesWritten += this.chunkFileSizes[i];
+  }
+
+  @Benchmark
+  public void savePlayerData(WriteCounters counters) {
+    final int i = this.writeIndex++ & (ClaimFixtures.QUERY_COUNT - 1);
+    this.dataStore.savePlayerData(this.playerNames[i], this.playerData[i]);
+    counters.bytesWritten += this.playerFileSizes[i];
+  }
+}
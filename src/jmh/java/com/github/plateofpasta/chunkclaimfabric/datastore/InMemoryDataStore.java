@@ -0,0 +1,131 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.datastore;
+
+import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimConfig;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.SlowOperationWatchdog;
+import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.github.plateofpasta.chunkclaimfabric.server.Server;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+import com.github.plateofpasta.chunkclaimfabric.world.ChunkWorld;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Datastore that keeps everything in memory, for benchmarking the lookup paths without I/O. Saved
+ * player data is kept, so it outlives {@link #clearCachedPlayerData(String)} like stored data does.
+ */
+public class InMemoryDataStore extends DataStore {
+  /** Player data by player name, as last saved. */
+  private final Map<String, PlayerData> savedPlayerData = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the datastore with its own metrics registry, an unstarted watchdog and a recorder that
+   * is not recording.
+   *
+   * @param config Configuration of the mod.
+   * @param server Server the claims are on.
+   */
+  public InMemoryDataStore(ChunkClaimConfig config, Server server) {
+    this(config, server, new MetricsRegistry());
+  }
+
+  private InMemoryDataStore(ChunkClaimConfig config, Server server, MetricsRegistry metrics) {
+    super(
+        config, server, metrics, new SlowOperationWatchdog(metrics), new ProtectionEventRecorder());
+  }
+
+  /**
+   * Adds a claim to memory without charging its owner.
+   *
+   * @param chunk Claimed chunk to add.
+   */
+  public void addClaim(Chunk chunk) {
+    this.loadWorldData(chunk.getWorldName());
+    this.chunks.add(chunk);
+    this.worlds.get(chunk.getWorldName()).addChunk(chunk);
+    chunk.setDataStore(this);
+    chunk.setInDataStore(true);
+  }
+
+  /**
+   * Removes a claim from memory without refunding its owner.
+   *
+   * @param chunk Claimed chunk to remove.
+   */
+  public void removeClaim(Chunk chunk) {
+    this.chunks.remove(chunk);
+    this.worlds.get(chunk.getWorldName()).removeChunk(chunk);
+    chunk.setInDataStore(false);
+  }
+
+  @Override
+  public String getChunkPrimaryKey(Chunk chunk) {
+    return null;
+  }
+
+  @Override
+  public String getPlayerDataPrimaryKey(String playerName) {
+    return null;
+  }
+
+  @Override
+  public void loadWorldData(String worldName) {
+    this.worlds.computeIfAbsent(worldName, ChunkWorld::new);
+  }
+
+  @Override
+  public void writeChunkToStorage(Chunk chunk) {}
+
+  @Override
+  boolean deleteChunkFromSecondaryStorage(Chunk chunk) {
+    return true;
+  }
+
+  /** @return Number of players with saved player data. */
+  public int getSavedPlayerCount() {
+    return this.savedPlayerData.size();
+  }
+
+  @Override
+  PlayerData getPlayerDataFromStorage(String playerName) {
+    PlayerData playerData = this.savedPlayerData.get(playerName);
+    if (null == playerData) {
+      playerData = new PlayerData(this.config);
+      playerData.setPlayerName(playerName);
+    }
+    return playerData;
+  }
+
+  @Override
+  public void savePlayerData(String playerName, PlayerData playerData) {
+    playerData.accrueCredits();
+    this.savedPlayerData.put(playerName, playerData);
+  }
+
+  @Override
+  public void close() {
+    this.playerDataLoader.shutdown();
+  }
+}
@@ -0,0 +1,146 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.datastore;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.ClaimFixtures;
+import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimConfig;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.SlowOperationWatchdog;
+import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Builds on-disk fixtures for the {@link FlatFileDataStore} benchmarks. Fixtures hold the claims of
+ * {@link ClaimFixtures} plus one player data file per owner. One in {@link #UNBUILT_INTERVAL}
+ * claims is left unbuilt, which makes it a candidate for auto-deletion under {@link
+ * #storageConfig()}.
+ *
+ * <p>Fixtures are created below {@code java.io.tmpdir}, or below the folder named by the {@link
+ * #ROOT_PROPERTY} system property, e.g. to compare backends on a tmpfs mount.
+ */
+public final class StorageFixtures {
+  /** System property naming the folder fixtures are created in. */
+  public static final String ROOT_PROPERTY = "chunkclaimfabric.bench.dir";
+  /** One in this many claims is left unbuilt. */
+  public static final int UNBUILT_INTERVAL = 64;
+
+  private StorageFixtures() {}
+
+  /**
+   * Configuration for the storage benchmarks. Unbuilt claims are auto-deleted right away and
+   * deleted chunks are not regenerated, since there is no world to regenerate them in.
+   *
+   * @return Benchmark configuration.
+   */
+  public static ChunkClaimConfig storageConfig() {
+    return new ChunkClaimConfig() {
+      {
+        this.minModBlocks = 1;
+        this.autoDeleteDays = Double.MIN_VALUE;
+        this.regenerateChunk = false;
+      }
+    };
+  }
+
+  /**
+   * Installs the storage configuration and creates an empty fixture folder.
+   *
+   * @return Root folder of the fixture.
+   * @throws IOException The folder could not be created.
+   */
+  public static File createRoot() throws IOException {
+    BenchmarkEnvironment.installConfig(storageConfig());
+    // Auto-deletion logs every reclaimed claim.
+    ChunkClaimFabric.logger.setLevel(Level.WARNING);
+    String base = System.getProperty(ROOT_PROPERTY, System.getProperty("java.io.tmpdir"));
+    return Files.createTempDirectory(Paths.get(base), ChunkClaimFabric.MOD_ID + "-").toFile();
+  }
+
+  /**
+   * Opens a flat file datastore on the fixture, with its own metrics registry. No world is loaded.
+   *
+   * @param root Root folder of the fixture.
+   * @return Opened datastore.
+   */
+  public static FlatFileDataStore open(File root) {
+    final MetricsRegistry metrics = new MetricsRegistry();
+    return new FlatFileDataStore(
+        BenchmarkEnvironment.getConfig(),
+        BenchmarkEnvironment.SERVER,
+        metrics,
+        new SlowOperationWatchdog(metrics),
+        new ProtectionEventRecorder(),
+        new File(root, "PlayerData"),
+        new File(root, "ChunkData"));
+  }
+
+  /**
+   * Writes the claims and their owners' player data through a flat file datastore.
+   *
+   * @param root Root folder of the fixture.
+   * @param claimCount Number of claims to write.
+   */
+  public static void write(File root, int claimCount) {
+    FlatFileDataStore dataStore = open(root);
+    final int side = ClaimFixtures.sideLength(claimCount);
+    for (int i = 0; i < claimCount; i++) {
+      Chunk chunk = ClaimFixtures.createClaim(i, side);
+      if (0 == i % UNBUILT_INTERVAL) {
+        dataStore.writeChunkToStorage(chunk);
+      } else {
+        // Writes the chunk once it has met the minimum.
+        chunk.modify();
+      }
+      if (0 == i % ClaimFixtures.CLAIMS_PER_OWNER) {
+        PlayerData playerData = dataStore.getPlayerData(ClaimFixtures.ownerOf(i));
+        playerData.addBuilderName(ClaimFixtures.builderOf(i));
+        dataStore.savePlayerData(ClaimFixtures.ownerOf(i), playerData);
+      }
+    }
+    dataStore.close();
+  }
+
+  /**
+   * Deletes the fixture.
+   *
+   * @param root Root folder of the fixture.
+   * @throws IOException A file could not be deleted.
+   */
+  public static void delete(File root) throws IOException {
+    try (Stream<Path> paths = Files.walk(root.toPath())) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.handler;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ClaimFixtures;
+import com.github.plateofpasta.chunkclaimfabric.datastore.InMemoryDataStore;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the spread check shared by fluids, fire, hoppers and tree growth: two claim lookups
+ * followed by {@link BlockEventHandler#onFromToChunk(Chunk, Chunk)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FromToChunkBenchmark {
+  private static final Direction[] HORIZONTAL = {
+    Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST
+  };
+
+  @Param({"1000", "100000", "1000000"})
+  int claimCount;
+
+  private InMemoryDataStore dataStore;
+  private BlockEventHandler handler;
+  /** Interleaved from X, from Z, to X and to Z chunk coordinates. */
+  private int[] spreadCoords;
+  private int spreadIndex;
+
+  @Setup
+  public void setUp() {
+    this.dataStore = ClaimFixtures.populate(this.claimCount);
+    this.handler = new BlockEventHandler(this.dataStore);
+    final int[] queryCoords = ClaimFixtures.queryCoords(this.claimCount);
+    final Random random = new Random(queryCoords.length);
+    this.spreadCoords = new int[ClaimFixtures.QUERY_COUNT * 4];
+    for (int i = 0; i < ClaimFixtures.QUERY_COUNT; i++) {
+      final Direction direction = HORIZONTAL[random.nextInt(HORIZONTAL.length)];
+      final int fromX = queryCoords[2 * i];
+      final int fromZ = queryCoords[2 * i + 1];
+      this.spreadCoords[4 * i] = fromX;
+      this.spreadCoords[4 * i + 1] = fromZ;
+      this.spreadCoords[4 * i + 2] = fromX + direction.getOffsetX();
+      this.spreadCoords[4 * i + 3] = fromZ + direction.getOffsetZ();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.dataStore.close();
+  }
+
+  /** @return Result of a spread across the edge of the next queried chunk. */
+  @Benchmark
+  public ActionResult spreadAcrossChunkEdge() {
+    final int i = (this.spreadIndex++ & (ClaimFixtures.QUERY_COUNT - 1)) << 2;
+    final Chunk fromChunk =
+        this.dataStore.getChunkAtPos(
+            this.spreadCoords[i], this.spreadCoords[i + 1], BenchmarkEnvironment.WORLD_NAME);
+    final Chunk toChunk =
+        this.dataStore.getChunkAtPos(
+            this.spreadCoords[i + 2], this.spreadCoords[i + 3], BenchmarkEnvironment.WORLD_NAME);
+    return this.handler.onFromToChunk(fromChunk, toChunk);
+  }
+}
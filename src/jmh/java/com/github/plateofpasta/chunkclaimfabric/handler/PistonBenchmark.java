@@ -0,0 +1,111 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.handler;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ClaimFixtures;
+import com.github.plateofpasta.chunkclaimfabric.datastore.InMemoryDataStore;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link PistonClaimEvaluator} for a piston in a claim pushing a full row of blocks
+ * east, where only the last block is moved into the chunk claimed by someone else. This is the
+ * denied case that has to check every block before it finds the conflict.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PistonBenchmark {
+  /** Most blocks a piston can push. */
+  private static final int PUSH_LIMIT = 12;
+
+  @Param({"1000", "100000", "1000000"})
+  int claimCount;
+
+  private InMemoryDataStore dataStore;
+  private PistonClaimEvaluator evaluator;
+  private BlockPos pistonPos;
+  private List<BlockPos> movedBlocks;
+
+  @Setup
+  public void setUp() {
+    this.dataStore = ClaimFixtures.populate(this.claimCount);
+    this.evaluator = new PistonClaimEvaluator(this.dataStore);
+    // Last chunk of the first owner's row, so the neighbor to the east belongs to the next owner.
+    // The pushed blocks span x 4 to 15 of the chunk, the last one is moved into the neighbor.
+    final int pistonX = ((ClaimFixtures.CLAIMS_PER_OWNER - 1) << 4) + 3;
+    this.pistonPos = new BlockPos(pistonX, 64, 8);
+    this.movedBlocks = new ArrayList<>(PUSH_LIMIT);
+    for (int i = 1; i <= PUSH_LIMIT; i++) {
+      this.movedBlocks.add(this.pistonPos.east(i));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.dataStore.close();
+  }
+
+  /** @return Result with the verdict for the piston cached. */
+  @Benchmark
+  public ActionResult extendCached() {
+    return this.extend();
+  }
+
+  /** @return Result with the verdict recomputed each time, as after every claim change. */
+  @Benchmark
+  public ActionResult extendAfterClaimChange() {
+    this.dataStore.markClaimsChanged();
+    return this.extend();
+  }
+
+  private ActionResult extend() {
+    return this.evaluator.evaluate(
+        BenchmarkEnvironment.WORLD_NAME,
+        this.pistonPos,
+        Direction.EAST,
+        this.movedBlocks,
+        Collections.emptyList(),
+        true);
+  }
+}
@@ -0,0 +1,321 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.handler;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.datastore.InMemoryDataStore;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEvent;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventReader;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventType;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a log written by the {@link ProtectionEventRecorder} through the claim engine at maximum
+ * speed, without a minecraft server. Every run starts from the claims captured when the recording
+ * started, applies the recorded claim changes in order and evaluates every recorded decision with
+ * the claim logic of the handlers.
+ *
+ * <p>Reports the throughput of the claim engine and every decision that differs from the recorded
+ * one, so a log recorded on one version checks the decisions of another. Decoding the log is timed
+ * in a separate pass and subtracted.
+ *
+ * <p>Run with {@code ./gradlew replay -Plog=<file> [-Pruns=<runs>]}. Exits with status 1 if any
+ * decision differs.
+ */
+public class ProtectionReplay {
+  /** Differing decisions printed in full. */
+  private static final int MAX_PRINTED_DIFFS = 20;
+
+  private final File log;
+  private InMemoryDataStore dataStore;
+  private BlockEventHandler handler;
+  private PistonClaimEvaluator pistonEvaluator;
+  private final Map<ProtectionEventType, long[]> decisionCounts =
+      new EnumMap<>(ProtectionEventType.class);
+  private final List<String> diffs = new ArrayList<>();
+  private long diffCount;
+  /** Sink for the decoded coordinates, so the timed decoding isn't optimized away. */
+  private int decodeChecksum;
+
+  /** @param log Log to replay. */
+  public ProtectionReplay(File log) {
+    this.log = log;
+  }
+
+  /**
+   * Replays a log.
+   *
+   * @param args Log file, optionally followed by the number of timed runs.
+   * @throws IOException Thrown if the log can't be read.
+   */
+  public static void main(String[] args) throws IOException {
+    if (1 > args.length) {
+      System.err.println("Usage: ProtectionReplay <log> [runs]");
+      System.exit(2);
+    }
+    final ProtectionReplay replay = new ProtectionReplay(new File(args[0]));
+    final int runs = (1 < args.length) ? Integer.parseInt(args[1]) : 5;
+    final long diffCount = replay.run(runs);
+    System.exit((0 == diffCount) ? 0 : 1);
+  }
+
+  /**
+   * Replays the log, printing the results to standard out.
+   *
+   * @param runs Number of timed runs, after one run checking the decisions.
+   * @return Number of decisions differing from the recorded ones.
+   * @throws IOException Thrown if the log can't be read.
+   */
+  public long run(int runs) throws IOException {
+    BenchmarkEnvironment.installConfig();
+    final long events = this.replay(true);
+    System.out.printf("Replayed %d decisions of %s%n", events, this.log);
+    for (Map.Entry<ProtectionEventType, long[]> counts : this.decisionCounts.entrySet()) {
+      System.out.printf(
+          "  %-12s %10d decisions, %10d denied, %6d differ%n",
+          counts.getKey(), counts.getValue()[0], counts.getValue()[1], counts.getValue()[2]);
+    }
+    for (String diff : this.diffs) {
+      System.out.println("  differs: " + diff);
+    }
+    if (this.diffs.size() < this.diffCount) {
+      System.out.printf("  ... %d more differing decisions%n", this.diffCount - this.diffs.size());
+    }
+
+    for (int run = 1; run <= runs; run++) {
+      final long decodeNanos = this.decode();
+      final long start = System.nanoTime();
+      this.replay(false);
+      final long engineNanos = Math.max(1, System.nanoTime() - start - decodeNanos);
+      System.out.printf(
+          "Run %d: %.1f ms in the claim engine, %.0f ns per decision, %.2f M decisions/s%n",
+          run, engineNanos / 1e6, (double) engineNanos / events, events * 1e3 / engineNanos);
+    }
+    return this.diffCount;
+  }
+
+  /**
+   * Decodes the log without evaluating it.
+   *
+   * @return Nanoseconds spent decoding the decisions and claim changes after the snapshot.
+   * @throws IOException Thrown if the log can't be read.
+   */
+  private long decode() throws IOException {
+    try (ProtectionEventReader reader = new ProtectionEventReader(this.log)) {
+      ProtectionEvent event = reader.next();
+      while (null != event && ProtectionEventType.SNAPSHOT_END != event.getType()) {
+        event = reader.next();
+      }
+      final long start = System.nanoTime();
+      int checksum = 0;
+      while (null != (event = reader.next())) {
+        checksum += event.getX();
+      }
+      final long elapsed = System.nanoTime() - start;
+      this.decodeChecksum += checksum;
+      return elapsed;
+    }
+  }
+
+  /**
+   * Replays the log from the snapshot onwards on a fresh datastore.
+   *
+   * @param check {@code true} to compare the decisions to the recorded ones.
+   * @return Number of decisions replayed.
+   * @throws IOException Thrown if the log can't be read.
+   */
+  private long replay(boolean check) throws IOException {
+    if (null != this.dataStore) {
+      this.dataStore.close();
+    }
+    this.dataStore =
+        new InMemoryDataStore(BenchmarkEnvironment.getConfig(), BenchmarkEnvironment.SERVER);
+    this.handler = new BlockEventHandler(this.dataStore);
+    this.pistonEvaluator = new PistonClaimEvaluator(this.dataStore);
+
+    long decisions = 0;
+    try (ProtectionEventReader reader = new ProtectionEventReader(this.log)) {
+      ProtectionEvent event;
+      while (null != (event = reader.next())) {
+        final ProtectionEventType type = event.getType();
+        if (!type.isDecision()) {
+          this.apply(event);
+          continue;
+        }
+        final ActionResult result = this.evaluate(event);
+        decisions++;
+        if (check) {
+          this.check(event, result);
+        }
+      }
+    }
+    return decisions;
+  }
+
+  /**
+   * Applies a recorded claim change to the datastore.
+   *
+   * @param event Claim change.
+   */
+  private void apply(ProtectionEvent event) {
+    switch (event.getType()) {
+      case CLAIM:
+        Chunk chunk =
+            this.dataStore.getChunkAtPos(event.getX(), event.getZ(), event.getWorldName());
+        if (null == chunk) {
+          chunk =
+              new Chunk(
+                  event.getX() << 4,
+                  event.getZ() << 4,
+                  event.getWorldName(),
+                  event.getPlayerName());
+          this.dataStore.addClaim(chunk);
+        } else {
+          chunk.setOwnerName(event.getPlayerName());
+          new ArrayList<>(chunk.getBuilderNames()).forEach(chunk::removeBuilderName);
+        }
+        event.getBuilderNames().forEach(chunk::addBuilderName);
+        break;
+      case UNCLAIM:
+        final Chunk unclaimed =
+            this.dataStore.getChunkAtPos(event.getX(), event.getZ(), event.getWorldName());
+        if (null != unclaimed) {
+          this.dataStore.removeClaim(unclaimed);
+        }
+        break;
+      case IGNORE:
+        this.dataStore
+            .getPlayerData(event.getPlayerName())
+            .setIgnoreChunks(event.hasFlag(ProtectionEvent.IGNORING));
+        break;
+      default:
+        return;
+    }
+    this.dataStore.markClaimsChanged();
+  }
+
+  /**
+   * Evaluates a recorded decision with the claim logic of the handler that made it.
+   *
+   * @param event Decision to evaluate.
+   * @return PASS if the action is allowed, else FAIL.
+   */
+  private ActionResult evaluate(ProtectionEvent event) {
+    final String worldName = event.getWorldName();
+    final Chunk chunk =
+        this.dataStore.getChunkAtPos(event.getX() >> 4, event.getZ() >> 4, worldName);
+    switch (event.getType()) {
+      case BED:
+        return allowIf(null == chunk || chunk.canModify(event.getPlayerName()));
+      case BLOCK_USE:
+      case PROJECTILE:
+        return allowIf(null != chunk && chunk.canModify(event.getPlayerName()));
+      case BLOCK_BREAK:
+        return allowIf(
+            this.dataStore.getPlayerData(event.getPlayerName()).canIgnoreChunkClaims()
+                || (null != chunk && chunk.canModify(event.getPlayerName())));
+      case BLOCK_PLACE:
+        return allowIf(
+            this.dataStore.getPlayerData(event.getPlayerName()).canIgnoreChunkClaims()
+                || (null != chunk
+                    && (chunk.canModify(event.getPlayerName())
+                        || event.hasFlag(ProtectionEvent.EXEMPT))));
+      case ENTITY:
+        return allowIf(
+            null == chunk
+                || event.hasFlag(ProtectionEvent.EXEMPT)
+                || chunk.canModify(event.getPlayerName()));
+      case SPREAD:
+      case FLUID:
+      case DISPENSE:
+      case HOPPER:
+        return this.handler.onFromToChunk(
+            chunk,
+            this.dataStore.getChunkAtPos(event.getToX() >> 4, event.getToZ() >> 4, worldName));
+      case PISTON:
+        return this.pistonEvaluator.evaluate(
+            worldName,
+            new BlockPos(event.getX(), event.getY(), event.getZ()),
+            event.getFacing(),
+            event.getMovedBlocks(),
+            event.getBrokenBlocks(),
+            event.hasFlag(ProtectionEvent.EXTENDING));
+      case TREE:
+        return this.handler.onTreeGrow(
+            worldName,
+            new BlockPos(event.getX(), event.getY(), event.getZ()),
+            event.getToX(),
+            event.getToZ());
+      default:
+        throw new IllegalArgumentException("Not a decision: " + event.getType());
+    }
+  }
+
+  /**
+   * Compares a replayed decision to the recorded one.
+   *
+   * @param event Recorded decision.
+   * @param result Replayed decision.
+   */
+  private void check(ProtectionEvent event, ActionResult result) {
+    final long[] counts = this.decisionCounts.computeIfAbsent(event.getType(), t -> new long[3]);
+    counts[0]++;
+    final boolean recordedDenied = event.hasFlag(ProtectionEvent.DENIED);
+    if (recordedDenied) {
+      counts[1]++;
+    }
+    if (recordedDenied != (ActionResult.FAIL == result)) {
+      counts[2]++;
+      this.diffCount++;
+      if (MAX_PRINTED_DIFFS > this.diffs.size()) {
+        this.diffs.add(
+            String.format(
+                "%s in %s at (%d, %d, %d) by %s, recorded %s, replayed %s",
+                event.getType(),
+                event.getWorldName(),
+                event.getX(),
+                event.getY(),
+                event.getZ(),
+                event.getPlayerName(),
+                recordedDenied ? ActionResult.FAIL : ActionResult.PASS,
+                result));
+      }
+    }
+  }
+
+  /**
+   * @param allowed If the action is allowed.
+   * @return PASS if allowed, else FAIL.
+   */
+  private static ActionResult allowIf(boolean allowed) {
+    return allowed ? ActionResult.PASS : ActionResult.FAIL;
+  }
+}
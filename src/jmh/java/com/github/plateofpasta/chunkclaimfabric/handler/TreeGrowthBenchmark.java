@@ -0,0 +1,130 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.handler;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ClaimFixtures;
+import com.github.plateofpasta.chunkclaimfabric.datastore.InMemoryDataStore;
+import com.github.plateofpasta.chunkclaimfabric.event.SaplingGrowCallback;
+import com.github.plateofpasta.chunkclaimfabric.util.arborist.GrowthType;
+import com.github.plateofpasta.chunkclaimfabric.util.arborist.TreeGrowthFilter;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the claim checks of a player grown tree whose canopy reaches over a claim border. Each
+ * operation filters every trunk and foliage position through a fresh {@link TreeGrowthFilter}, as
+ * the tree feature mixin does for a single growth.
+ *
+ * <p>The registered {@link SaplingGrowCallback} listener calls the tree growth handler of {@link
+ * BlockEventHandler} past the configured world check, which needs a live world.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeGrowthBenchmark {
+  /** Trunk height of the benchmarked tree. */
+  private static final int TRUNK_HEIGHT = 6;
+  /** Horizontal radius of the benchmarked tree's canopy. */
+  private static final int CANOPY_RADIUS = 3;
+
+  private static volatile BlockEventHandler listenerHandler;
+  private static boolean listenerRegistered;
+
+  @Param({"1000", "100000", "1000000"})
+  int claimCount;
+
+  private InMemoryDataStore dataStore;
+  private BlockPos rootBlockPos;
+  private List<BlockPos> treePositions;
+
+  @Setup
+  public void setUp() {
+    this.dataStore = ClaimFixtures.populate(this.claimCount);
+    listenerHandler = new BlockEventHandler(this.dataStore);
+    registerListener();
+
+    // Sapling two blocks from the east edge of the first owner's last chunk, so the canopy reaches
+    // into the next owner's claim.
+    this.rootBlockPos = new BlockPos(((ClaimFixtures.CLAIMS_PER_OWNER - 1) << 4) + 14, 64, 8);
+    this.treePositions = new ArrayList<>();
+    for (int y = 0; y < TRUNK_HEIGHT; y++) {
+      this.treePositions.add(this.rootBlockPos.up(y));
+    }
+    for (int y = TRUNK_HEIGHT - 2; y <= TRUNK_HEIGHT; y++) {
+      for (int x = -CANOPY_RADIUS; x <= CANOPY_RADIUS; x++) {
+        for (int z = -CANOPY_RADIUS; z <= CANOPY_RADIUS; z++) {
+          if (Math.abs(x) + Math.abs(z) <= CANOPY_RADIUS + 1) {
+            this.treePositions.add(this.rootBlockPos.add(x, y, z));
+          }
+        }
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.dataStore.close();
+  }
+
+  /** @return Number of tree positions allowed by the claims. */
+  @Benchmark
+  public int filterTree() {
+    TreeGrowthFilter filter =
+        new TreeGrowthFilter(GrowthType.PLAYER_GROWTH, null, null, this.rootBlockPos);
+    int allowed = 0;
+    for (int i = 0, size = this.treePositions.size(); i < size; i++) {
+      if (filter.allows(this.treePositions.get(i))) {
+        allowed++;
+      }
+    }
+    return allowed;
+  }
+
+  /** Registers the listener once per JVM, Fabric events do not support unregistering. */
+  private static synchronized void registerListener() {
+    if (!listenerRegistered) {
+      SaplingGrowCallback.EVENT.register(
+          (growthType, feature, world, rootBlockPos, chunkX, chunkZ) ->
+              listenerHandler.onTreeGrow(
+                  BenchmarkEnvironment.WORLD_NAME, rootBlockPos, chunkX, chunkZ));
+      listenerRegistered = true;
+    }
+  }
+}
@@ -0,0 +1,770 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.handler;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimConfig;
+import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
+import com.github.plateofpasta.chunkclaimfabric.datastore.InMemoryDataStore;
+import com.github.plateofpasta.chunkclaimfabric.datastore.StorageFixtures;
+import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.server.SimulatedClock;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Simulates a season of players on the claim engine without a minecraft server. Players join over
+ * the first days of the season, log in for a few hours on most days, earn credits, claim chunks
+ * next to their claims, trust each other, build, try to build in other claims and abandon claims.
+ * Sooner or later every player stops playing, leaving unbuilt claims to the hourly clean up and,
+ * if enabled, inactive players' claims to an admin purge.
+ *
+ * <p>Time is simulated by a {@link SimulatedClock} on the headless server, so claim and login dates
+ * age as they would on a live server. Every player action goes through the datastore and the claim
+ * logic of the handlers, on the flat file datastore by default.
+ *
+ * <p>Reports the throughput of the claim engine, the retained heap and the number of files per
+ * simulated day, to size hardware before a season starts. Run with {@code ./gradlew workload
+ * [-Psettings="players=5000 days=60"]}, see {@link Settings} for the settings.
+ */
+public class WorkloadGenerator {
+  private static final long HOUR_MILLIS = 60L * 60 * 1000;
+  private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+  /** Credit deliveries per hour, as scheduled by the plugin. */
+  private static final int DELIVERIES_PER_HOUR = 12;
+  /** Claims checked by the clean up, which the plugin schedules hourly. */
+  private static final int CLEAN_UP_CHECKS = 50;
+  /** Distance in chunks between the first claims of two players. */
+  private static final int HOME_SPACING = 16;
+  /** Attempts at finding an unclaimed chunk before a claim is given up. */
+  private static final int CLAIM_ATTEMPTS = 8;
+  private static final int[][] NEIGHBOR_OFFSETS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+  /** Kinds of simulated activity, counted separately. */
+  private enum Activity {
+    LOGIN,
+    CREDIT_DELIVERY,
+    CLAIM,
+    TRUST,
+    ABANDON,
+    BUILD,
+    BUILD_DENIED,
+    SPREAD_CHECK,
+    CLEAN_UP,
+    PURGE
+  }
+
+  private final Settings settings;
+  private final Random random;
+  private final SimulatedClock clock = new SimulatedClock(System.currentTimeMillis());
+  private final List<SimulatedPlayer> players = new ArrayList<>();
+  private final long[] activityCounts = new long[Activity.values().length];
+  private File root;
+  private DataStore dataStore;
+  private BlockEventHandler handler;
+  private long operations;
+  private long claimsMade;
+  private long claimsAbandoned;
+  private long claimsPurged;
+
+  /** @param settings Settings of the simulation. */
+  public WorkloadGenerator(Settings settings) {
+    this.settings = settings;
+    this.random = new Random(settings.seed);
+  }
+
+  /**
+   * Runs a simulation.
+   *
+   * @param args Settings as {@code key=value} pairs.
+   * @throws IOException Thrown if the flat file datastore can't be set up or cleaned up.
+   */
+  public static void main(String[] args) throws IOException {
+    final Settings settings;
+    try {
+      settings = Settings.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println("Usage: WorkloadGenerator [key=value]...");
+      System.exit(2);
+      return;
+    }
+    new WorkloadGenerator(settings).run();
+    System.exit(0);
+  }
+
+  /**
+   * Runs the simulation, printing a report per simulated day and a summary to standard out.
+   *
+   * @throws IOException Thrown if the flat file datastore can't be set up or cleaned up.
+   */
+  public void run() throws IOException {
+    System.out.println("Simulating " + this.settings);
+    this.setUp();
+    final long baselineHeap = usedHeap();
+    final long start = System.nanoTime();
+    long simulatedNanos = 0;
+    for (int day = 0; day < this.settings.days; day++) {
+      final long dayOperations = this.operations;
+      final long dayClaims = this.claimCount();
+      final long dayStart = System.nanoTime();
+      final int online = this.simulateDay(day);
+      final long dayNanos = Math.max(1, System.nanoTime() - dayStart);
+      simulatedNanos += dayNanos;
+      final long claims = this.claimCount();
+      System.out.printf(
+          "Day %3d: %6d online, %8d claims (%+6d), %9d ops in %6d ms, %8.1f k ops/s, "
+              + "heap %+8.1f MB, %s%n",
+          day + 1,
+          online,
+          claims,
+          claims - dayClaims,
+          this.operations - dayOperations,
+          dayNanos / 1_000_000,
+          (this.operations - dayOperations) * 1e6 / dayNanos,
+          (usedHeap() - baselineHeap) / 1e6,
+          this.describeFiles());
+    }
+    final long elapsedNanos = System.nanoTime() - start;
+    this.printSummary(simulatedNanos, elapsedNanos, usedHeap() - baselineHeap);
+    this.tearDown();
+  }
+
+  /**
+   * Creates the datastore and the simulated players.
+   *
+   * @throws IOException Thrown if the flat file datastore can't be set up.
+   */
+  private void setUp() throws IOException {
+    BenchmarkEnvironment.SERVER.setClock(this.clock);
+    if (this.settings.flatFile) {
+      this.root = StorageFixtures.createRoot();
+      BenchmarkEnvironment.installConfig(workloadConfig(this.settings));
+      this.dataStore = StorageFixtures.open(this.root);
+      System.out.println("Flat file datastore at " + this.root);
+    } else {
+      BenchmarkEnvironment.installConfig(workloadConfig(this.settings));
+      ChunkClaimFabric.logger.setLevel(Level.WARNING);
+      this.dataStore =
+          new InMemoryDataStore(BenchmarkEnvironment.getConfig(), BenchmarkEnvironment.SERVER);
+    }
+    this.dataStore.loadWorldData(BenchmarkEnvironment.WORLD_NAME);
+    this.handler = new BlockEventHandler(this.dataStore);
+
+    final int side = (int) Math.ceil(Math.sqrt(this.settings.players));
+    for (int i = 0; i < this.settings.players; i++) {
+      final int joinDay = this.random.nextInt(Math.max(1, this.settings.joinDays));
+      // Exponentially distributed play time, so a few players stay all season.
+      final int playDays =
+          1 + (int) (-Math.log(1 - this.random.nextDouble()) * this.settings.retentionDays);
+      this.players.add(
+          new SimulatedPlayer(
+              "player" + i,
+              (i % side - side / 2) * HOME_SPACING,
+              (i / side - side / 2) * HOME_SPACING,
+              joinDay,
+              joinDay + playDays));
+    }
+  }
+
+  /**
+   * Closes the datastore and deletes its files unless they are to be kept.
+   *
+   * @throws IOException Thrown if a file could not be deleted.
+   */
+  private void tearDown() throws IOException {
+    this.dataStore.close();
+    if (null != this.root && !this.settings.keepFiles) {
+      StorageFixtures.delete(this.root);
+    }
+  }
+
+  /**
+   * Simulates one day, hour by hour.
+   *
+   * @param day Day of the season, starting at 0.
+   * @return Number of players that played on the day.
+   */
+  private int simulateDay(int day) {
+    if (0 < this.settings.purgeDays) {
+      this.purgeInactivePlayers();
+    }
+
+    final List<SimulatedPlayer> playing = new ArrayList<>();
+    for (SimulatedPlayer player : this.players) {
+      if (day < player.joinDay || player.lastDay < day) {
+        continue;
+      }
+      if (day == player.joinDay || this.random.nextDouble() < this.settings.loginChance) {
+        player.sessionStart = this.random.nextInt(24);
+        final int hours = 1 + this.random.nextInt(Math.max(1, 2 * this.settings.sessionHours - 1));
+        player.sessionEnd = Math.min(24, player.sessionStart + hours);
+        playing.add(player);
+      }
+    }
+
+    for (int hour = 0; hour < 24; hour++) {
+      for (SimulatedPlayer player : playing) {
+        if (hour == player.sessionStart) {
+          this.login(player);
+        }
+      }
+      for (SimulatedPlayer player : playing) {
+        if (player.sessionStart <= hour && hour < player.sessionEnd) {
+          this.playHour(player);
+        }
+      }
+      this.dataStore.cleanUp(CLEAN_UP_CHECKS);
+      this.count(Activity.CLEAN_UP);
+      for (SimulatedPlayer player : playing) {
+        if (hour + 1 == player.sessionEnd) {
+          this.logout(player);
+        }
+      }
+      this.clock.advance(HOUR_MILLIS);
+    }
+    return playing.size();
+  }
+
+  /**
+   * Logs a player in like the player event handler does, then lets them trust another player or
+   * abandon their newest claim.
+   *
+   * @param player Player logging in.
+   */
+  private void login(SimulatedPlayer player) {
+    BenchmarkEnvironment.SERVER.addOnlinePlayer(player.name);
+    final PlayerData playerData = this.dataStore.getPlayerData(player.name);
+    playerData.setLastLogin(new Date(this.clock.millis()));
+    if (!player.joined) {
+      playerData.setFirstJoin(new Date(this.clock.millis()));
+      player.joined = true;
+    }
+    this.dataStore.savePlayerData(player.name, playerData);
+    player.lastLoginMillis = this.clock.millis();
+    this.count(Activity.LOGIN);
+
+    // Claims may have been cleaned up while the player was away.
+    player.claims.removeIf(chunk -> !chunk.isInDataStore());
+    if (this.random.nextDouble() < this.settings.trustChance) {
+      this.trust(player, this.players.get(this.random.nextInt(this.players.size())));
+    }
+    if (!player.claims.isEmpty() && this.random.nextDouble() < this.settings.abandonChance) {
+      final Chunk chunk = player.claims.remove(player.claims.size() - 1);
+      if (this.dataStore.deleteChunk(chunk)) {
+        this.claimsAbandoned++;
+      }
+      this.count(Activity.ABANDON);
+    }
+  }
+
+  /**
+   * Logs a player out like the player event handler does.
+   *
+   * @param player Player logging out.
+   */
+  private void logout(SimulatedPlayer player) {
+    this.dataStore.savePlayerData(player.name, this.dataStore.getPlayerData(player.name));
+    this.dataStore.clearCachedPlayerData(player.name);
+    BenchmarkEnvironment.SERVER.removeOnlinePlayer(player.name);
+  }
+
+  /**
+   * Simulates an hour of play of an online player.
+   *
+   * @param player Online player.
+   */
+  private void playHour(SimulatedPlayer player) {
+    final PlayerData playerData = this.dataStore.getPlayerData(player.name);
+    // Same credits as the accrual of a player that isn't AFK, in 5 minute windows.
+    for (int i = 0; i < DELIVERIES_PER_HOUR; i++) {
+      if (0 > Double.compare(playerData.getCredits(), this.settings.maxCredits)) {
+        playerData.addCredits(this.settings.creditsPerHour / DELIVERIES_PER_HOUR);
+      }
+      this.count(Activity.CREDIT_DELIVERY);
+    }
+
+    while (playerData.canAffordClaim() && this.claim(player, playerData)) {
+      this.count(Activity.CLAIM);
+    }
+
+    for (int i = 0; i < this.settings.blocksPerHour; i++) {
+      this.build(player, this.pickBuildChunk(player));
+    }
+    for (int i = 0; i < this.settings.visitsPerHour; i++) {
+      final SimulatedPlayer other = this.players.get(this.random.nextInt(this.players.size()));
+      this.build(player, other.claims.isEmpty() ? null : this.pick(other.claims));
+    }
+    for (int i = 0; i < this.settings.spreadsPerHour && !player.claims.isEmpty(); i++) {
+      final Chunk fromChunk = this.pick(player.claims);
+      if (!fromChunk.isInDataStore()) {
+        continue;
+      }
+      final int[] offset = NEIGHBOR_OFFSETS[this.random.nextInt(NEIGHBOR_OFFSETS.length)];
+      final Chunk toChunk =
+          this.dataStore.getChunkAtPos(
+              fromChunk.getCoordX() + offset[0],
+              fromChunk.getCoordZ() + offset[1],
+              BenchmarkEnvironment.WORLD_NAME);
+      this.handler.onFromToChunk(fromChunk, toChunk);
+      this.count(Activity.SPREAD_CHECK);
+    }
+  }
+
+  /**
+   * Claims an unclaimed chunk next to the player's claims, or near their home for their first
+   * claim, like the claim command does.
+   *
+   * @param player Player claiming.
+   * @param playerData Data of the player.
+   * @return {@code true} if a chunk was claimed, else {@code false}.
+   */
+  private boolean claim(SimulatedPlayer player, PlayerData playerData) {
+    for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+      final int x;
+      final int z;
+      if (player.claims.isEmpty()) {
+        x = player.homeX + this.random.nextInt(5) - 2;
+        z = player.homeZ + this.random.nextInt(5) - 2;
+      } else {
+        final Chunk nextTo = this.pick(player.claims);
+        final int[] offset = NEIGHBOR_OFFSETS[this.random.nextInt(NEIGHBOR_OFFSETS.length)];
+        x = nextTo.getCoordX() + offset[0];
+        z = nextTo.getCoordZ() + offset[1];
+      }
+      if (null != this.dataStore.getChunkAtPos(x, z, BenchmarkEnvironment.WORLD_NAME)) {
+        continue;
+      }
+      final Chunk chunk =
+          new Chunk(
+              x << 4,
+              z << 4,
+              BenchmarkEnvironment.WORLD_NAME,
+              player.name,
+              playerData.getBuilderNames().toArray(new String[0]));
+      // Claims age against the simulated clock.
+      chunk.setClaimDate(new Date(this.clock.millis()));
+      this.dataStore.claimChunk(player.name, chunk);
+      playerData.setLastChunk(chunk);
+      player.claims.add(chunk);
+      this.claimsMade++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Trusts a player in all claims of another, like the trust command does.
+   *
+   * @param player Player trusting.
+   * @param target Player being trusted.
+   */
+  private void trust(SimulatedPlayer player, SimulatedPlayer target) {
+    final PlayerData playerData = this.dataStore.getPlayerData(player.name);
+    if (player == target || playerData.getBuilderNames().contains(target.name)) {
+      return;
+    }
+    for (Chunk chunk : this.dataStore.getAllChunksForPlayer(player.name)) {
+      if (!chunk.canModify(target.name)) {
+        chunk.addBuilderName(target.name);
+        this.dataStore.writeChunkToStorage(chunk);
+      }
+    }
+    this.dataStore.markClaimsChanged();
+    playerData.addBuilderName(target.name);
+    this.dataStore.savePlayerData(player.name, playerData);
+    target.trustedBy.add(player);
+    this.count(Activity.TRUST);
+  }
+
+  /**
+   * Places a block like the block event handler does.
+   *
+   * @param player Player placing the block.
+   * @param chunk Claim the block is placed in, or null for the wilderness.
+   */
+  private void build(SimulatedPlayer player, Chunk chunk) {
+    // Wilderness is only protected against auto-claims, which aren't simulated. Claims deleted
+    // since the owner's last login count as wilderness too.
+    if (null == chunk || !chunk.isInDataStore()) {
+      return;
+    }
+    if (chunk.canModify(player.name)) {
+      chunk.modify();
+      this.count(Activity.BUILD);
+    } else {
+      this.count(Activity.BUILD_DENIED);
+    }
+  }
+
+  /**
+   * Picks a claim the player builds in, one of their own or of a player trusting them.
+   *
+   * @param player Player building.
+   * @return Claim to build in, or null for the wilderness.
+   */
+  private Chunk pickBuildChunk(SimulatedPlayer player) {
+    if (!player.trustedBy.isEmpty() && 0 == this.random.nextInt(4)) {
+      final SimulatedPlayer friend = this.pick(player.trustedBy);
+      if (!friend.claims.isEmpty()) {
+        return this.pick(friend.claims);
+      }
+    }
+    return player.claims.isEmpty() ? null : this.pick(player.claims);
+  }
+
+  /** Deletes all claims of the players who didn't log in for the configured number of days. */
+  private void purgeInactivePlayers() {
+    final long cutoffMillis = this.clock.millis() - this.settings.purgeDays * DAY_MILLIS;
+    for (SimulatedPlayer player : this.players) {
+      if (player.joined && !player.claims.isEmpty() && player.lastLoginMillis < cutoffMillis) {
+        this.claimsPurged += this.dataStore.deleteChunksForPlayer(player.name);
+        player.claims.clear();
+        this.count(Activity.PURGE);
+      }
+    }
+  }
+
+  /**
+   * Prints the totals of the simulation.
+   *
+   * @param simulatedNanos Nanoseconds spent simulating, without the daily heap measurements.
+   * @param elapsedNanos Nanoseconds the simulation took.
+   * @param heapGrowth Bytes the retained heap grew by.
+   */
+  private void printSummary(long simulatedNanos, long elapsedNanos, long heapGrowth) {
+    System.out.printf(
+        "Simulated %d days of %d players in %.1f s (%.1f s with heap measurements)%n",
+        this.settings.days, this.settings.players, simulatedNanos / 1e9, elapsedNanos / 1e9);
+    System.out.printf(
+        "  %d ops, %.1f k ops/s%n", this.operations, this.operations * 1e6 / simulatedNanos);
+    for (Activity activity : Activity.values()) {
+      System.out.printf("  %-16s %12d%n", activity, this.activityCounts[activity.ordinal()]);
+    }
+    final long claims = this.claimCount();
+    System.out.printf(
+        "  %d claims made, %d abandoned, %d purged, %d cleaned up, %d left%n",
+        this.claimsMade,
+        this.claimsAbandoned,
+        this.claimsPurged,
+        this.claimsMade - this.claimsAbandoned - this.claimsPurged - claims,
+        claims);
+    System.out.printf(
+        "  %d chunks regenerated%n", BenchmarkEnvironment.SERVER.getRegeneratedChunks());
+    System.out.printf("  heap grew by %.1f MB, %s%n", heapGrowth / 1e6, this.describeFiles());
+  }
+
+  /** @return Files and disk space used by the datastore, or the saved players if in memory. */
+  private String describeFiles() {
+    if (null == this.root) {
+      return ((InMemoryDataStore) this.dataStore).getSavedPlayerCount() + " saved players";
+    }
+    long chunkFiles = 0;
+    long playerFiles = 0;
+    long bytes = 0;
+    try (Stream<Path> paths = Files.walk(this.root.toPath())) {
+      for (Path path : (Iterable<Path>) paths::iterator) {
+        if (!Files.isRegularFile(path)) {
+          continue;
+        }
+        if (path.startsWith(this.root.toPath().resolve("ChunkData"))) {
+          chunkFiles++;
+        } else {
+          playerFiles++;
+        }
+        bytes += Files.size(path);
+      }
+    } catch (IOException e) {
+      return "files unavailable: " + e.getMessage();
+    }
+    return String.format(
+        "%d chunk files, %d player files, %.1f MB", chunkFiles, playerFiles, bytes / 1e6);
+  }
+
+  /** @return Number of claims in the datastore. */
+  private long claimCount() {
+    return this.dataStore.getWorlds().get(BenchmarkEnvironment.WORLD_NAME).chunkTable.size();
+  }
+
+  /** @param activity Activity that was simulated once. */
+  private void count(Activity activity) {
+    this.activityCounts[activity.ordinal()]++;
+    this.operations++;
+  }
+
+  /**
+   * @param list Non-empty list to pick from.
+   * @param <T> Element type.
+   * @return Random element of the list.
+   */
+  private <T> T pick(List<T> list) {
+    return list.get(this.random.nextInt(list.size()));
+  }
+
+  /** @return Bytes of heap in use after a full collection. */
+  private static long usedHeap() {
+    final Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Configuration of the simulated server. Deleted chunks are regenerated, which the headless
+   * server only counts.
+   *
+   * @param settings Settings of the simulation.
+   * @return Simulation configuration.
+   */
+  private static ChunkClaimConfig workloadConfig(Settings settings) {
+    return new ChunkClaimConfig() {
+      {
+        this.autoDeleteDays = settings.autoDeleteDays;
+        this.minModBlocks = settings.minModBlocks;
+        this.chunkPrice = settings.chunkPrice;
+        this.creditsPerHour = settings.creditsPerHour;
+        this.maxCredits = settings.maxCredits;
+        this.startCredits = settings.startCredits;
+        this.nextToForce = true;
+      }
+    };
+  }
+
+  /** Simulated player, with what the simulation knows without asking the datastore. */
+  private static final class SimulatedPlayer {
+    private final String name;
+    private final int homeX;
+    private final int homeZ;
+    private final int joinDay;
+    private final int lastDay;
+    /** Claims of the player, may hold claims the clean up deleted since the last login. */
+    private final List<Chunk> claims = new ArrayList<>();
+    /** Players who trusted this player. */
+    private final List<SimulatedPlayer> trustedBy = new ArrayList<>();
+    private boolean joined;
+    private long lastLoginMillis;
+    private int sessionStart;
+    private int sessionEnd;
+
+    /**
+     * @param name Name of the player.
+     * @param homeX Chunk X-coordinate of the first claim of the player.
+     * @param homeZ Chunk Z-coordinate of the first claim of the player.
+     * @param joinDay Day the player first logs in.
+     * @param lastDay Last day the player may log in.
+     */
+    private SimulatedPlayer(String name, int homeX, int homeZ, int joinDay, int lastDay) {
+      this.name = name;
+      this.homeX = homeX;
+      this.homeZ = homeZ;
+      this.joinDay = joinDay;
+      this.lastDay = lastDay;
+    }
+  }
+
+  /** Settings of a simulation, each given as a {@code key=value} argument. */
+  public static final class Settings {
+    /** {@code players}: Number of players in the season. */
+    int players = 1000;
+    /** {@code days}: Number of days to simulate. */
+    int days = 30;
+    /** {@code joinDays}: Players first log in over this many days at the start of the season. */
+    int joinDays = 7;
+    /** {@code retentionDays}: Average number of days a player keeps playing. */
+    double retentionDays = 14;
+    /** {@code loginChance}: Chance of a player that still plays to log in on a day. */
+    double loginChance = 0.6;
+    /** {@code sessionHours}: Average hours a player plays per login. */
+    int sessionHours = 2;
+    /** {@code blocksPerHour}: Blocks a player places per hour. */
+    int blocksPerHour = 300;
+    /** {@code visitsPerHour}: Blocks a player tries to place in random claims per hour. */
+    int visitsPerHour = 20;
+    /** {@code spreadsPerHour}: Fluid or fire spreads out of a player's claims per hour. */
+    int spreadsPerHour = 50;
+    /** {@code trustChance}: Chance of a player trusting another random player on a login. */
+    double trustChance = 0.1;
+    /** {@code abandonChance}: Chance of a player abandoning their newest claim on a login. */
+    double abandonChance = 0.05;
+    /** {@code purgeDays}: Admins delete the claims of players inactive this long, 0 never. */
+    int purgeDays = 0;
+    /** {@code autoDeleteDays}: See the mod configuration. */
+    double autoDeleteDays = 3;
+    /** {@code minModBlocks}: See the mod configuration. */
+    int minModBlocks = 100;
+    /** {@code chunkPrice}: See the mod configuration. */
+    double chunkPrice = 1;
+    /** {@code creditsPerHour}: See the mod configuration. */
+    double creditsPerHour = 1;
+    /** {@code maxCredits}: See the mod configuration. */
+    double maxCredits = 20;
+    /** {@code startCredits}: See the mod configuration. */
+    double startCredits = 2;
+    /** {@code backend}: {@code flatfile} or {@code memory}. */
+    boolean flatFile = true;
+    /** {@code keepFiles}: Keep the flat file datastore after the simulation. */
+    boolean keepFiles = false;
+    /** {@code seed}: Seed of the simulation, the same seed simulates the same season. */
+    long seed = 1;
+
+    /**
+     * Parses settings, using the defaults for missing ones.
+     *
+     * @param args Settings as {@code key=value} pairs.
+     * @return Parsed settings.
+     * @throws IllegalArgumentException Thrown if a setting is unknown or malformed.
+     */
+    public static Settings parse(String... args) {
+      final Settings settings = new Settings();
+      for (String arg : args) {
+        final int separator = arg.indexOf('=');
+        if (0 > separator) {
+          throw new IllegalArgumentException("Expected key=value: " + arg);
+        }
+        final String key = arg.substring(0, separator);
+        final String value = arg.substring(separator + 1);
+        try {
+          settings.set(key, value);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Malformed value for " + key + ": " + value);
+        }
+      }
+      return settings;
+    }
+
+    /**
+     * @param key Name of the setting.
+     * @param value Value of the setting.
+     */
+    private void set(String key, String value) {
+      switch (key) {
+        case "players":
+          this.players = Integer.parseInt(value);
+          break;
+        case "days":
+          this.days = Integer.parseInt(value);
+          break;
+        case "joinDays":
+          this.joinDays = Integer.parseInt(value);
+          break;
+        case "retentionDays":
+          this.retentionDays = Double.parseDouble(value);
+          break;
+        case "loginChance":
+          this.loginChance = Double.parseDouble(value);
+          break;
+        case "sessionHours":
+          this.sessionHours = Integer.parseInt(value);
+          break;
+        case "blocksPerHour":
+          this.blocksPerHour = Integer.parseInt(value);
+          break;
+        case "visitsPerHour":
+          this.visitsPerHour = Integer.parseInt(value);
+          break;
+        case "spreadsPerHour":
+          this.spreadsPerHour = Integer.parseInt(value);
+          break;
+        case "trustChance":
+          this.trustChance = Double.parseDouble(value);
+          break;
+        case "abandonChance":
+          this.abandonChance = Double.parseDouble(value);
+          break;
+        case "purgeDays":
+          this.purgeDays = Integer.parseInt(value);
+          break;
+        case "autoDeleteDays":
+          this.autoDeleteDays = Double.parseDouble(value);
+          break;
+        case "minModBlocks":
+          this.minModBlocks = Integer.parseInt(value);
+          break;
+        case "chunkPrice":
+          this.chunkPrice = Double.parseDouble(value);
+          break;
+        case "creditsPerHour":
+          this.creditsPerHour = Double.parseDouble(value);
+          break;
+        case "maxCredits":
+          this.maxCredits = Double.parseDouble(value);
+          break;
+        case "startCredits":
+          this.startCredits = Double.parseDouble(value);
+          break;
+        case "backend":
+          if (!"flatfile".equals(value) && !"memory".equals(value)) {
+            throw new IllegalArgumentException("Unknown backend: " + value);
+          }
+          this.flatFile = "flatfile".equals(value);
+          break;
+        case "keepFiles":
+          this.keepFiles = Boolean.parseBoolean(value);
+          break;
+        case "seed":
+          this.seed = Long.parseLong(value);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown setting: " + key);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "players=%d days=%d joinDays=%d retentionDays=%s loginChance=%s sessionHours=%d "
+              + "blocksPerHour=%d visitsPerHour=%d spreadsPerHour=%d trustChance=%s "
+              + "abandonChance=%s purgeDays=%d autoDeleteDays=%s minModBlocks=%d chunkPrice=%s "
+              + "creditsPerHour=%s maxCredits=%s startCredits=%s backend=%s seed=%d",
+          this.players,
+          this.days,
+          this.joinDays,
+          this.retentionDays,
+          this.loginChance,
+          this.sessionHours,
+          this.blocksPerHour,
+          this.visitsPerHour,
+          this.spreadsPerHour,
+          this.trustChance,
+          this.abandonChance,
+          this.purgeDays,
+          this.autoDeleteDays,
+          this.minModBlocks,
+          this.chunkPrice,
+          this.creditsPerHour,
+          this.maxCredits,
+          this.startCredits,
+          this.flatFile ? "flatfile" : "memory",
+          this.seed);
+    }
+  }
+}
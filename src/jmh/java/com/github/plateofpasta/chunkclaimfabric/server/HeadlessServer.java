@@ -0,0 +1,135 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+import com.github.plateofpasta.edgestitch.world.EdgestitchWorld;
+import net.minecraft.util.math.ChunkPos;
+
+import java.io.File;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory {@link Server} for running the claim engine without minecraft. Worlds are names only,
+ * so {@link #getWorld(String)} always returns null, and regenerating a chunk only counts the call.
+ */
+public class HeadlessServer implements Server {
+  private final Set<String> worldNames = ConcurrentHashMap.newKeySet();
+  private final Set<String> onlinePlayerNames = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger regeneratedChunks = new AtomicInteger();
+  private final File runDirectory;
+  private volatile Thread serverThread;
+  private volatile Clock clock = Clock.systemUTC();
+  private volatile double averageTickMillis;
+
+  /**
+   * Creates a server whose thread is the calling thread.
+   *
+   * @param runDirectory Run directory of the server.
+   * @param worldNames Names of the worlds of the server.
+   */
+  public HeadlessServer(File runDirectory, String... worldNames) {
+    this.runDirectory = runDirectory;
+    this.serverThread = Thread.currentThread();
+    this.worldNames.addAll(Arrays.asList(worldNames));
+  }
+
+  /** @param thread Thread to treat as the server thread. */
+  public void setServerThread(Thread thread) {
+    this.serverThread = thread;
+  }
+
+  /** @param clock Clock to age claims against, e.g. a simulated one. */
+  public void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  /** @param averageTickMillis Average tick time to report, e.g. to simulate a lagging server. */
+  public void setAverageTickMillis(double averageTickMillis) {
+    this.averageTickMillis = averageTickMillis;
+  }
+
+  /** @param playerName Name of the player joining. */
+  public void addOnlinePlayer(String playerName) {
+    this.onlinePlayerNames.add(playerName);
+  }
+
+  /** @param playerName Name of the player leaving. */
+  public void removeOnlinePlayer(String playerName) {
+    this.onlinePlayerNames.remove(playerName);
+  }
+
+  /** @return Number of chunk regenerations requested so far. */
+  public int getRegeneratedChunks() {
+    return this.regeneratedChunks.get();
+  }
+
+  @Override
+  public EdgestitchWorld getWorld(String worldName) {
+    return null;
+  }
+
+  @Override
+  public boolean hasWorld(String worldName) {
+    return this.worldNames.contains(worldName);
+  }
+
+  @Override
+  public void regenerateChunk(String worldName, ChunkPos chunkPos) {
+    this.regeneratedChunks.incrementAndGet();
+  }
+
+  @Override
+  public List<String> getAvailableWorldNames() {
+    return Collections.unmodifiableList(new ArrayList<>(this.worldNames));
+  }
+
+  @Override
+  public String[] getOnlinePlayerNames() {
+    return this.onlinePlayerNames.toArray(new String[0]);
+  }
+
+  @Override
+  public boolean isOnThread() {
+    return Thread.currentThread() == this.serverThread;
+  }
+
+  @Override
+  public File getRunDirectory() {
+    return this.runDirectory;
+  }
+
+  @Override
+  public Clock getClock() {
+    return this.clock;
+  }
+
+  @Override
+  public double getAverageTickMillis() {
+    return this.averageTickMillis;
+  }
+}
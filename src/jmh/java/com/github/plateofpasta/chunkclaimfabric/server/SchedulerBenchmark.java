@@ -0,0 +1,94 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+import net.minecraft.server.MinecraftServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Benchmarks the {@link Scheduler} driven without a server. The scheduler holds the given number
+ * of repeating tasks with intervals of up to a minute, like the visualization and credit tasks, and
+ * every tick operation ends one tick.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+  /** Longest task interval, one minute of ticks. */
+  private static final int MAX_INTERVAL = 1200;
+
+  @Param({"1000", "100000"})
+  int pendingTasks;
+
+  private Scheduler scheduler;
+  private int tick;
+  private long tasksRun;
+  private final Consumer<MinecraftServer> noop = minecraftServer -> {};
+
+  @Setup
+  public void setUp() {
+    this.scheduler = new Scheduler();
+    final Random random = new Random(this.pendingTasks);
+    final Consumer<MinecraftServer> task = minecraftServer -> this.tasksRun++;
+    for (int i = 0; i < this.pendingTasks; i++) {
+      final int interval = 1 + random.nextInt(MAX_INTERVAL);
+      this.scheduler.repeating("benchmark", task, random.nextInt(interval), interval);
+    }
+  }
+
+  /** @return Number of tasks run so far. */
+  @Benchmark
+  public long tick() {
+    this.scheduler.tick(this.tick++, null);
+    return this.tasksRun;
+  }
+
+  /**
+   * Queues and cancels the two tasks of a visualization that is replaced before it is shown.
+   *
+   * @return Number of pending tasks.
+   */
+  @Benchmark
+  public int queueAndCancel() {
+    final TaskHandle application = this.scheduler.queue("visualization_apply", this.noop, 10);
+    final TaskHandle clear = this.scheduler.queue("visualization_clear", this.noop, 400);
+    application.cancel();
+    clear.cancel();
+    return this.scheduler.getPendingTaskCount();
+  }
+}
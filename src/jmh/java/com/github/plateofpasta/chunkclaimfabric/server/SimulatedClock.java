@@ -0,0 +1,76 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/** Clock that only moves when advanced, so days of play can be simulated in seconds. */
+public class SimulatedClock extends Clock {
+  private final ZoneId zone;
+  private volatile long millis;
+
+  /** @param startMillis Epoch milliseconds the clock starts at. */
+  public SimulatedClock(long startMillis) {
+    this(startMillis, ZoneOffset.UTC);
+  }
+
+  /**
+   * @param startMillis Epoch milliseconds the clock starts at.
+   * @param zone Time zone of the clock.
+   */
+  private SimulatedClock(long startMillis, ZoneId zone) {
+    this.millis = startMillis;
+    this.zone = zone;
+  }
+
+  /**
+   * Moves the clock forward. Only the thread driving the simulation may advance the clock.
+   *
+   * @param deltaMillis Milliseconds to move the clock by.
+   */
+  public void advance(long deltaMillis) {
+    this.millis += deltaMillis;
+  }
+
+  @Override
+  public long millis() {
+    return this.millis;
+  }
+
+  @Override
+  public Instant instant() {
+    return Instant.ofEpochMilli(this.millis);
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return this.zone;
+  }
+
+  /** The returned clock starts at the current time of this one, but is advanced separately. */
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return new SimulatedClock(this.millis, zone);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.world;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ClaimFixtures;
+import com.github.plateofpasta.chunkclaimfabric.datastore.InMemoryDataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Chunk#canModify(String)} against claims with large builder lists. Builders are
+ * checked before the owner, so the owner pays for a full scan of the list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanModifyBenchmark {
+  /** Claims in the datastore, which sizes the player data map behind the ignore check. */
+  @Param({"1000", "100000", "1000000"})
+  int claimCount;
+
+  @Param({"16", "1024", "65536"})
+  int builderCount;
+
+  private Chunk chunk;
+  private String ownerName;
+  private String firstBuilderName;
+  private String lastBuilderName;
+  private String strangerName;
+
+  @Setup
+  public void setUp() {
+    final InMemoryDataStore dataStore = ClaimFixtures.populate(this.claimCount);
+    this.ownerName = ClaimFixtures.ownerOf(0);
+    this.chunk = new Chunk(0, 0, BenchmarkEnvironment.WORLD_NAME, this.ownerName);
+    // Strangers are checked against the ignore list of the datastore.
+    this.chunk.setDataStore(dataStore);
+    for (int i = 0; i < this.builderCount; i++) {
+      this.chunk.addBuilderName("trusted" + i);
+    }
+    // Fresh strings, so the checks compare contents rather than hitting the identity shortcut.
+    this.firstBuilderName = new String("trusted0");
+    this.lastBuilderName = new String("trusted" + (this.builderCount - 1));
+    this.strangerName = new String("stranger");
+  }
+
+  @Benchmark
+  public boolean owner() {
+    return this.chunk.canModify(this.ownerName);
+  }
+
+  @Benchmark
+  public boolean firstBuilder() {
+    return this.chunk.canModify(this.firstBuilderName);
+  }
+
+  @Benchmark
+  public boolean lastBuilder() {
+    return this.chunk.canModify(this.lastBuilderName);
+  }
+
+  /** Worst case: scans every builder, compares the owner and checks the ignore state. */
+  @Benchmark
+  public boolean stranger() {
+    return this.chunk.canModify(this.strangerName);
+  }
+}
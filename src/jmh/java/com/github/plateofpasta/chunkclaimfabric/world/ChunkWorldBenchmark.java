@@ -0,0 +1,85 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.world;
+
+import com.github.plateofpasta.chunkclaimfabric.BenchmarkEnvironment;
+import com.github.plateofpasta.chunkclaimfabric.ClaimFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks the per-world chunk table on its own, without the datastore lock around it. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkWorldBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  int claimCount;
+
+  private ChunkWorld chunkWorld;
+  private int[] queryCoords;
+  private Chunk churnChunk;
+  private int queryIndex;
+
+  @Setup
+  public void setUp() {
+    this.chunkWorld = new ChunkWorld(BenchmarkEnvironment.WORLD_NAME);
+    final int side = ClaimFixtures.sideLength(this.claimCount);
+    for (int i = 0; i < this.claimCount; i++) {
+      this.chunkWorld.addChunk(
+          new Chunk(
+              (i % side) << 4,
+              (i / side) << 4,
+              BenchmarkEnvironment.WORLD_NAME,
+              ClaimFixtures.ownerOf(i)));
+    }
+    this.queryCoords = ClaimFixtures.queryCoords(this.claimCount);
+    this.churnChunk = this.chunkWorld.getChunk(0, 0);
+  }
+
+  /** @return Chunk at the next query position, or null. */
+  @Benchmark
+  public Chunk getChunk() {
+    final int i = (this.queryIndex++ & (ClaimFixtures.QUERY_COUNT - 1)) << 1;
+    return this.chunkWorld.getChunk(this.queryCoords[i], this.queryCoords[i + 1]);
+  }
+
+  /** @return Chunk read back after removing and re-adding a claim, as claim and abandon do. */
+  @Benchmark
+  public Chunk removeAndAdd() {
+    this.chunkWorld.removeChunk(this.churnChunk);
+    this.chunkWorld.addChunk(this.churnChunk);
+    return this.chunkWorld.getChunk(0, 0);
+  }
+}
@@ -23,10 +23,19 @@ package com.github.plateofpasta.chunkclaimfabric;
 
 import com.github.plateofpasta.chunkclaimfabric.command.ChunkCommands;
 import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimConfig;
+import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimTags;
+import com.github.plateofpasta.chunkclaimfabric.datastore.CreditLedger;
 import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
 import com.github.plateofpasta.chunkclaimfabric.datastore.FlatFileDataStore;
 import com.github.plateofpasta.chunkclaimfabric.handler.*;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsMBean;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.PrometheusTextfile;
+import com.github.plateofpasta.chunkclaimfabric.metrics.SlowOperationWatchdog;
 import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.github.plateofpasta.chunkclaimfabric.server.AsyncScope;
+import com.github.plateofpasta.chunkclaimfabric.server.FabricServer;
 import com.github.plateofpasta.chunkclaimfabric.server.Scheduler;
 import com.github.plateofpasta.chunkclaimfabric.server.Server;
 import me.sargunvohra.mcmods.autoconfig1u.AutoConfig;
@@ -35,6 +44,8 @@ import net.fabricmc.api.DedicatedServerModInitializer;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.minecraft.server.MinecraftServer;
 
+import javax.management.JMException;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,13 +53,23 @@ import java.util.logging.Logger;
 public class ChunkClaimFabric implements DedicatedServerModInitializer {
   public static final Logger logger = Logger.getLogger("Minecraft");
   public static final String MOD_ID = "chunkclaimfabric";
-  protected static final ChunkClaimConfig CONFIG =
-      AutoConfig.register(ChunkClaimConfig.class, JanksonConfigSerializer::new).getConfig();
+  /**
+   * Registered with AutoConfig on first use, since AutoConfig needs a running Fabric loader. Code
+   * running without one (e.g. benchmarks) only gets the configuration it is constructed with.
+   */
+  private static volatile ChunkClaimConfig config;
   protected static final Scheduler scheduler = new Scheduler();
+  protected static final MetricsRegistry metrics = new MetricsRegistry();
+  protected static final SlowOperationWatchdog watchdog = new SlowOperationWatchdog(metrics);
+  protected static final ProtectionEventRecorder recorder = new ProtectionEventRecorder();
   protected static ChunkClaimFabric plugin;
   protected DataStore dataStore;
   protected Server server;
+  protected MetricsMBean metricsMBean;
+  protected PrometheusTextfile metricsTextfile;
   private boolean initializationFailed = false;
+  /** Running compaction of the credit ledger, or null. */
+  private CompletableFuture<Void> creditLedgerCompaction = null;
 
   /**
    * Static getter for the singleton instance of the plugin.
@@ -74,7 +95,24 @@ public class ChunkClaimFabric implements DedicatedServerModInitializer {
    * @return Configuration object.
    */
   public static ChunkClaimConfig getClaimConfig() {
-    return CONFIG;
+    ChunkClaimConfig claimConfig = config;
+    if (null == claimConfig) {
+      claimConfig = registerClaimConfig();
+    }
+    return claimConfig;
+  }
+
+  /**
+   * Registers the plugin configuration with AutoConfig exactly once.
+   *
+   * @return Configuration object.
+   */
+  private static synchronized ChunkClaimConfig registerClaimConfig() {
+    if (null == config) {
+      config =
+          AutoConfig.register(ChunkClaimConfig.class, JanksonConfigSerializer::new).getConfig();
+    }
+    return config;
   }
 
   /** @return Scheduler associate with this mod. */
@@ -82,13 +120,36 @@ public class ChunkClaimFabric implements DedicatedServerModInitializer {
     return scheduler;
   }
 
+  /** @return Metrics registry of this mod. */
+  public static MetricsRegistry getMetrics() {
+    return metrics;
+  }
+
+  /** @return Watchdog logging the slow operations of this mod. */
+  public static SlowOperationWatchdog getWatchdog() {
+    return watchdog;
+  }
+
+  /** @return Recorder of the protection decisions of this mod. */
+  public static ProtectionEventRecorder getRecorder() {
+    return recorder;
+  }
+
   /** Override for FabricMC initialization. */
   @Override
   public void onInitializeServer() {
     ChunkClaimFabric.plugin = this;
+    // Load the configuration up front so that errors surface during mod initialization.
+    getClaimConfig();
+    scheduler.register();
+    // Registered after the scheduler so that scheduled tasks count towards the tick they run in.
+    metrics.register();
     // Initialize server events.
     ServerLifecycleEvents.SERVER_STARTED.register(this::initializeOnServerStart);
     ServerLifecycleEvents.SERVER_STOPPED.register(this::shutdownOnServerStop);
+    // Recompile tags whenever data packs are reloaded.
+    ServerLifecycleEvents.END_DATA_PACK_RELOAD.register(
+        (server, serverResourceManager, success) -> ChunkClaimTags.rebuild(server));
     // Initialize commands.
     ChunkCommands.init();
   }
@@ -99,13 +160,15 @@ public class ChunkClaimFabric implements DedicatedServerModInitializer {
    * @param server Server tied to this mod.
    */
   public void initializeOnServerStart(MinecraftServer server) {
-    this.server = new Server(server);
+    this.server = new FabricServer(server);
+    watchdog.start(getClaimConfig().getSlowOperationMillis());
     logInfo(
         String.format(
             "List of worlds found in this server: %s",
             String.join(", ", this.server.getAvailableWorldNames())));
     try {
-      this.dataStore = new FlatFileDataStore();
+      this.dataStore =
+          new FlatFileDataStore(getClaimConfig(), this.server, metrics, watchdog, recorder);
     } catch (Exception e) {
       logger.log(
           Level.SEVERE,
@@ -126,27 +189,94 @@ public class ChunkClaimFabric implements DedicatedServerModInitializer {
 
     // Perform remaining init if previous initialization hasn't failed.
     if (!this.initializationFailed) {
+      // Compile tags before any handler can query them.
+      ChunkClaimTags.rebuild(server);
       // Initialize handlers.
-      // Deliver credits every 5 minutes, which is a frequency of 12 runs per hour.
+      // Accrue credits from the active play time of players, sampled as they move.
+      CreditAccrualHandler.initHandlers(this.getDataStore(), this.server);
       getScheduler()
-          .repeating(
-              new DeliverCreditsHandler(
-                  this.getDataStore(), ChunkClaimFabric.getClaimConfig().getCreditsPerHour(), 12),
-              0,
-              6000);
-      // Run cleanup on 50 random chunks every hour.
+          .getAsync()
+          .start(
+              getClaimConfig().getAsyncIoThreads(),
+              getClaimConfig().getAsyncIoQueueCapacity(),
+              getClaimConfig().getAsyncCpuThreads());
+      getScheduler().setOverrunMillis(getClaimConfig().getSchedulerOverrunMillis());
+      // Budget maintenance work per tick, shrinking as the server falls behind.
+      getScheduler()
+          .getWorkQueue()
+          .configure(
+              getClaimConfig().getMaintenanceBudgetMillis(), this.server::getAverageTickMillis);
+      // Run cleanup on 50 random chunks every hour, spread over as many ticks as needed.
       getScheduler()
           .repeating(
+              "cleanup",
               minecraftServer -> {
-                this.getDataStore().cleanUp(50);
+                getScheduler().submit("cleanup", this.getDataStore().cleanUpTask(50));
               },
               72000,
               72000);
+      // Commit credit changes to the ledger in batches off the server thread.
+      final int commitTicks = 20 * getClaimConfig().getCreditLedgerCommitSeconds();
+      getScheduler()
+          .repeating(
+              "credit_ledger_commit",
+              minecraftServer -> this.commitCreditLedger(),
+              commitTicks,
+              commitTicks);
       // Initialize remaining handlers.
       BlockEventHandler.initHandlers(this.getDataStore());
       EntityEventHandler.initHandlers(this.getDataStore());
       PlayerEventHandler.initHandlers(this.getDataStore());
       WorldEventHandler.initHandlers(this.getDataStore());
+      this.startMetricsExport();
+    }
+  }
+
+  /**
+   * Commits the credit ledger on an I/O thread. Once the ledger has grown large, compacts it into
+   * the player data with the work queue.
+   */
+  private void commitCreditLedger() {
+    final CreditLedger ledger = this.getDataStore().getCreditLedger();
+    if (null == ledger || 0 == ledger.getPendingCount()) {
+      return;
+    }
+    getScheduler()
+        .getAsync()
+        .supplyIo(AsyncScope.SERVER, "credit_ledger_commit", ledger::commit)
+        .thenRun(
+            () -> {
+              // Completes on the server thread.
+              final boolean compacting =
+                  null != this.creditLedgerCompaction && !this.creditLedgerCompaction.isDone();
+              if (ledger.needsCompaction() && !compacting) {
+                this.creditLedgerCompaction =
+                    getScheduler()
+                        .submit(
+                            "credit_ledger_compaction",
+                            this.getDataStore().compactCreditLedgerTask());
+              }
+            });
+  }
+
+  /** Starts the configured metrics exports. Failing exports are logged, but never fatal. */
+  private void startMetricsExport() {
+    if (getClaimConfig().isExportMetricsJmx()) {
+      this.metricsMBean = new MetricsMBean(getMetrics());
+      try {
+        this.metricsMBean.register();
+      } catch (JMException e) {
+        logger.log(
+            Level.WARNING,
+            String.format("%s: Unable to register the metrics MBean.", ChunkClaimFabric.MOD_ID),
+            e);
+        this.metricsMBean = null;
+      }
+    }
+    final int textfileSeconds = getClaimConfig().getMetricsTextfileSeconds();
+    if (0 < textfileSeconds) {
+      this.metricsTextfile = new PrometheusTextfile(getMetrics(), this.server.getRunDirectory());
+      this.metricsTextfile.start(textfileSeconds);
     }
   }
 
@@ -156,8 +286,18 @@ public class ChunkClaimFabric implements DedicatedServerModInitializer {
    * @param server Server tied to this mod that is stopping.
    */
   public void shutdownOnServerStop(MinecraftServer server) {
+    recorder.stop();
+    if (null != this.metricsMBean) {
+      this.metricsMBean.unregister();
+    }
+    if (null != this.metricsTextfile) {
+      this.metricsTextfile.stop();
+    }
     // Guard shutdown in case initialization failed.
     if (null != this.dataStore) {
+      // Finish queued maintenance, e.g. chunk writes after a trust change.
+      getScheduler().getWorkQueue().drain();
+      getScheduler().getAsync().stop();
       // Save all online player data to the datastore.
       for (String playerName : this.server.getOnlinePlayerNames()) {
         PlayerData playerData = this.getDataStore().getPlayerData(playerName);
@@ -166,6 +306,7 @@ public class ChunkClaimFabric implements DedicatedServerModInitializer {
       // Close datastore.
       this.dataStore.close();
     }
+    watchdog.stop();
   }
 
   /** @return Server object associated with this mod. */
@@ -21,8 +21,11 @@
 
 package com.github.plateofpasta.chunkclaimfabric.command;
 
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
 import com.github.plateofpasta.chunkclaimfabric.command.admin.*;
+import com.github.plateofpasta.chunkclaimfabric.metrics.SlowOperationWatchdog;
 import com.github.plateofpasta.chunkclaimfabric.player.ChunkClaimPlayer;
+import com.mojang.brigadier.Command;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
@@ -46,8 +49,8 @@ public class ChunkCommands {
                         CommandManager.argument(
                                 // Minimum 0 max 10.
                                 Abandon.ARG0_NAMESPACE, IntegerArgumentType.integer(0, 10))
-                            .executes(new Abandon()))
-                    .executes(new Abandon()))
+                            .executes(watched(new Abandon())))
+                    .executes(watched(new Abandon())))
             // Bonus admin command.
             .then(
                 CommandManager.literal(Bonus.NAMESPACE)
@@ -58,11 +61,11 @@ public class ChunkCommands {
                                 CommandManager.argument(
                                         // Minimum 1.
                                         Bonus.ARG1_NAMESPACE, IntegerArgumentType.integer(1))
-                                    .executes(new Bonus()))))
+                                    .executes(watched(new Bonus())))))
             // Claim command.
-            .then(CommandManager.literal(Claim.NAMESPACE).executes(new Claim()))
+            .then(CommandManager.literal(Claim.NAMESPACE).executes(watched(new Claim())))
             // Credits command.
-            .then(CommandManager.literal(Credits.NAMESPACE).executes(new Credits()))
+            .then(CommandManager.literal(Credits.NAMESPACE).executes(watched(new Credits())))
             // Delete admin command.
             .then(
                 CommandManager.literal(Delete.NAMESPACE)
@@ -73,8 +76,8 @@ public class ChunkCommands {
                                 CommandManager.argument(
                                         // Minimum 0 max 10.
                                         Delete.ARG1_NAMESPACE, IntegerArgumentType.integer(0, 10))
-                                    .executes(new Delete()))
-                            .executes(new Delete())))
+                                    .executes(watched(new Delete())))
+                            .executes(watched(new Delete()))))
             // DeleteAll admin command.
             .then(
                 CommandManager.literal(DeleteAll.NAMESPACE)
@@ -82,14 +85,14 @@ public class ChunkCommands {
                     .then(
                         CommandManager.argument(
                                 DeleteAll.ARG0_NAMESPACE, EntityArgumentType.player())
-                            .executes(new DeleteAll())))
+                            .executes(watched(new DeleteAll()))))
             // Help command.
-            .then(CommandManager.literal(Help.NAMESPACE).executes(new Help()))
+            .then(CommandManager.literal(Help.NAMESPACE).executes(watched(new Help())))
             // Ignore admin command.
             .then(
                 CommandManager.literal(Ignore.NAMESPACE)
                     .requires(adminPredicate)
-                    .executes(new Ignore()))
+                    .executes(watched(new Ignore())))
             // List admin command.
             .then(
                 CommandManager.literal(ListCommand.NAMESPACE)
@@ -97,26 +100,36 @@ public class ChunkCommands {
                     .then(
                         CommandManager.argument(
                                 ListCommand.ARG0_NAMESPACE, EntityArgumentType.player())
-                            .executes(new ListCommand())))
+                            .executes(watched(new ListCommand()))))
             // Next command.
             .then(
                 CommandManager.literal(Next.NAMESPACE)
                     .requires(adminPredicate)
                     .then(
                         CommandManager.argument(Next.ARG0_NAMESPACE, EntityArgumentType.player())
-                            .executes(new Next())))
+                            .executes(watched(new Next()))))
+            // Record admin command.
+            .then(
+                CommandManager.literal(RecordCommand.NAMESPACE)
+                    .requires(adminPredicate)
+                    .executes(watched(new RecordCommand())))
+            // Stats admin command.
+            .then(
+                CommandManager.literal(Stats.NAMESPACE)
+                    .requires(adminPredicate)
+                    .executes(watched(new Stats())))
             // Trust command.
             .then(
                 CommandManager.literal(Trust.NAMESPACE)
                     .then(
                         CommandManager.argument(Trust.ARG0_NAMESPACE, EntityArgumentType.player())
-                            .executes(new Trust())))
+                            .executes(watched(new Trust()))))
             // Untrust command.
             .then(
                 CommandManager.literal(Untrust.NAMESPACE)
                     .then(
                         CommandManager.argument(Untrust.ARG0_NAMESPACE, EntityArgumentType.player())
-                            .executes(new Untrust())))
+                            .executes(watched(new Untrust()))))
             // Testing command.
             .then(
                 CommandManager.literal("test")
@@ -126,7 +139,7 @@ public class ChunkCommands {
                           return 0;
                         }))
             // Base chunk command executor.
-            .executes(new BaseCommand());
+            .executes(watched(new BaseCommand()));
 
     CommandRegistrationCallback.EVENT.register(
         (dispatcher, dedicated) -> {
@@ -136,6 +149,25 @@ public class ChunkCommands {
         });
   }
 
+  /**
+   * Wraps a command so that slow executions are logged by the mod's {@link SlowOperationWatchdog}.
+   *
+   * @param command Command to wrap.
+   * @return Watched command.
+   */
+  private static Command<ServerCommandSource> watched(Command<ServerCommandSource> command) {
+    return context -> {
+      final SlowOperationWatchdog watchdog = ChunkClaimFabric.getWatchdog();
+      final SlowOperationWatchdog.Operation operation =
+          watchdog.begin("command", context.getInput());
+      try {
+        return command.run(context);
+      } finally {
+        watchdog.end(operation);
+      }
+    };
+  }
+
   /**
    * Helper to parse integer arguments with a default value.
    *
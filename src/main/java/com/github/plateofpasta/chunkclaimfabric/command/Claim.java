@@ -85,7 +85,11 @@ public class Claim implements Command<ServerCommandSource> {
 
         // Else allow them to claim.
         Chunk newChunk = new Chunk(location, playerName, playerData.getBuilderNames());
-        dataStore.claimChunk(playerName, newChunk);
+        if (!dataStore.claimChunk(playerName, newChunk)) {
+          // Credits were spent elsewhere since the check above.
+          player.sendMessage(ChunkClaimPrompt.get("prompt.chunkclaim.not_enough_credits_claim"));
+          return 0;
+        }
         playerData.setLastChunk(newChunk);
 
         Visualization.applyWithMessage(
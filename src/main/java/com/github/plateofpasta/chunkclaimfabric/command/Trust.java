@@ -33,6 +33,9 @@ import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.text.MutableText;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Trust implements Command<ServerCommandSource> {
   public static final String NAMESPACE = "trust";
   public static final String ARG0_NAMESPACE = "player";
@@ -68,12 +71,17 @@ public class Trust implements Command<ServerCommandSource> {
     // todo refactor Chunk#builderNames, because it's horribly inefficient.
     MutableText message;
     if (!playerData.getBuilderNames().contains(tName)) {
+      // Changes apply in memory at once, the chunk files are written over the following ticks.
+      List<Chunk> changedChunks = new ArrayList<>();
       for (Chunk inRadius : dataStore.getAllChunksForPlayer(player.getName())) {
         if (!inRadius.canModify(tName)) {
           inRadius.addBuilderName(tName);
-          dataStore.writeChunkToStorage(inRadius);
+          changedChunks.add(inRadius);
         }
       }
+      dataStore.markClaimsChanged();
+      ChunkClaimFabric.getScheduler()
+          .submit(NAMESPACE, dataStore.writeChunksTask(changedChunks));
       playerData.addBuilderName(tName);
       dataStore.savePlayerData(player.getName(), playerData);
       message = ChunkClaimPrompt.trustedBuilder(tName);
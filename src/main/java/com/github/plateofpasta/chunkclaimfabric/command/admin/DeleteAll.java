@@ -54,8 +54,13 @@ public class DeleteAll implements Command<ServerCommandSource> {
     if (null == targetPlayerData) {
       player.sendMessage(ChunkClaimPrompt.get("prompt.chunkclaim.player_not_found"));
     } else {
-      player.sendMessage(
-          ChunkClaimPrompt.chunksDeleted(dataStore.deleteChunksForPlayer(targetPlayer.getName())));
+      // Deletes over the following ticks, the prompt is sent once done.
+      ChunkClaimFabric.getScheduler()
+          .submit(
+              NAMESPACE,
+              dataStore.deleteChunksForPlayerTask(
+                  targetPlayer.getName(),
+                  count -> player.sendMessage(ChunkClaimPrompt.chunksDeleted(count))));
     }
 
     return 0;
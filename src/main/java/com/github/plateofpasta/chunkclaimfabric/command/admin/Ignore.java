@@ -50,7 +50,10 @@ public class Ignore implements Command<ServerCommandSource> {
     PlayerData playerData = dataStore.getPlayerData(player.getName());
 
     MutableText message;
-    if (playerData.toggleIgnoreChunks()) {
+    boolean ignoreChunks = playerData.toggleIgnoreChunks();
+    dataStore.markClaimsChanged();
+    ChunkClaimFabric.getRecorder().ignore(player.getName(), ignoreChunks);
+    if (ignoreChunks) {
       message = ChunkClaimPrompt.get("prompt.chunkclaim.you_ignore_chunks");
     } else {
       message = ChunkClaimPrompt.get("prompt.chunkclaim.you_respect_chunks");
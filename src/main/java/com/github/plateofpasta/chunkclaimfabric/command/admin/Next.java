@@ -136,7 +136,11 @@ public class Next implements Command<ServerCommandSource> {
     private NextCache(DataStore dataStore) {
       this.dataStore = dataStore;
       ChunkClaimFabric.getScheduler()
-          .repeating(this::cleanup, NextCache.CLEANUP_TICKS, NextCache.CLEANUP_TICKS);
+          .repeating(
+              "next_cache_cleanup",
+              this::cleanup,
+              NextCache.CLEANUP_TICKS,
+              NextCache.CLEANUP_TICKS);
     }
 
     /** @return Singleton instance. */
@@ -0,0 +1,76 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.command.admin;
+
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.player.ChunkClaimPlayer;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.server.command.ServerCommandSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Record admin command - toggles recording the protection decisions of the mod to a file in {@link
+ * ProtectionEventRecorder#RECORDINGS_FOLDER_PATH}, for replaying them offline.
+ */
+public class RecordCommand implements Command<ServerCommandSource> {
+  public static String NAMESPACE = "record";
+
+  /**
+   * Command execution logic.
+   *
+   * @param context Context for the command.
+   * @return {@code 0} if success, else {@code -1}.
+   * @throws CommandSyntaxException Throws if an error occurred parsing the context.
+   */
+  @Override
+  public int run(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+    ChunkClaimPlayer player = new ChunkClaimPlayer(context.getSource().getPlayer());
+    ProtectionEventRecorder recorder = ChunkClaimFabric.getRecorder();
+    if (recorder.isRecording()) {
+      long eventCount = recorder.stop();
+      player.sendMessage(
+          String.format("Recorded %d protection events to %s.", eventCount, recorder.getFile()));
+      return 0;
+    }
+
+    File file =
+        new File(
+            ProtectionEventRecorder.RECORDINGS_FOLDER_PATH,
+            new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date())
+                + ProtectionEventRecorder.FILE_EXTENSION);
+    try {
+      recorder.start(file, ChunkClaimFabric.getPlugin().getDataStore());
+    } catch (IOException | IllegalStateException e) {
+      player.sendMessage("Unable to start recording: " + e.getMessage());
+      return -1;
+    }
+    player.sendMessage(
+        String.format("Recording protection events to %s, run the command again to stop.", file));
+    return 0;
+  }
+}
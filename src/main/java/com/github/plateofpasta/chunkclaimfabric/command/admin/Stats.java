@@ -0,0 +1,150 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.command.admin;
+
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
+import com.github.plateofpasta.chunkclaimfabric.metrics.WindowStats;
+import com.github.plateofpasta.chunkclaimfabric.player.ChunkClaimPlayer;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.server.command.ServerCommandSource;
+
+import java.util.Map;
+
+/**
+ * Stats admin command prints the mod's performance over the last minute. Everything is read from
+ * the precomputed {@link WindowStats}, so running the command doesn't touch the claims or storage.
+ */
+public class Stats implements Command<ServerCommandSource> {
+  public static String NAMESPACE = "stats";
+
+  /**
+   * Command execution logic.
+   *
+   * @param context Context for the command.
+   * @return {@code 0} if success, else {@code -1}.
+   * @throws CommandSyntaxException Throws if an error occurred parsing the context.
+   */
+  @Override
+  public int run(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+    ChunkClaimPlayer player = new ChunkClaimPlayer(context.getSource().getPlayer());
+    WindowStats stats = ChunkClaimFabric.getMetrics().getWindowStats();
+    if (0 == stats.getSpanNanos()) {
+      player.sendMessage("No stats yet, try again in a few seconds.");
+      return 0;
+    }
+
+    StringBuilder statsBuilder = new StringBuilder();
+    statsBuilder.append(
+        String.format("ChunkClaim stats for the last %.0f seconds:\n", stats.getSpanNanos() / 1e9));
+    // Claims.
+    statsBuilder.append(String.format("Claims: %d", stats.getGauge("datastore.claims")));
+    String separator = " (";
+    for (Map.Entry<String, Long> gauge : stats.getGauges().entrySet()) {
+      if (gauge.getKey().startsWith(DataStore.WORLD_CLAIMS_GAUGE_PREFIX)) {
+        statsBuilder.append(
+            String.format(
+                "%s%s: %d",
+                separator,
+                gauge.getKey().substring(DataStore.WORLD_CLAIMS_GAUGE_PREFIX.length()),
+                gauge.getValue()));
+        separator = ", ";
+      }
+    }
+    statsBuilder.append(", ".equals(separator) ? ")\n" : "\n");
+    // Time spent in the mod.
+    WindowStats.TimerStats tick = stats.getTick();
+    statsBuilder.append(
+        String.format(
+            "Mod time per tick: avg %s, p99 %s\n",
+            millis(tick.getMeanNanos()), millis(tick.getP99Nanos())));
+    // Caches.
+    statsBuilder.append(
+        String.format(
+            "Cache hits: hopper %s, piston %s, player data %s\n",
+            hitRate(stats, "hopper"), hitRate(stats, "piston"), hitRate(stats, "player_data")));
+    // Storage.
+    statsBuilder.append(
+        String.format(
+            "Storage: %.1f reads/s, %.1f writes/s, %.1f deletes/s, %d pending loads\n",
+            stats.perSecond(
+                stats.getTimer("datastore.read_chunk").getCount()
+                    + stats.getTimer("datastore.read_player").getCount()),
+            stats.perSecond(
+                stats.getTimer("datastore.write_chunk").getCount()
+                    + stats.getTimer("datastore.write_player").getCount()),
+            stats.perSecond(stats.getTimer("datastore.delete_chunk").getCount()),
+            stats.getGauge("datastore.pending_loads")));
+    // Scheduler, queued work includes the deferred chunk writes.
+    statsBuilder.append(
+        String.format(
+            "Scheduler: %d pending tasks, %d queued work, %.1f tasks/s, p99 %s per tick\n",
+            stats.getGauge("scheduler.pending_tasks"),
+            stats.getGauge("scheduler.pending_work"),
+            stats.getRate("scheduler.tasks_run"),
+            millis(stats.getTimer("scheduler.tick").getP99Nanos())));
+    // Handlers that ran within the window.
+    statsBuilder.append("Handlers (calls/s, avg, p99):");
+    for (Map.Entry<String, WindowStats.TimerStats> timer : stats.getTimers().entrySet()) {
+      WindowStats.TimerStats timerStats = timer.getValue();
+      if (timer.getKey().startsWith("callback.") && 0 < timerStats.getCount()) {
+        statsBuilder.append(
+            String.format(
+                "\n  %s: %.1f/s, %s, %s",
+                timer.getKey().substring("callback.".length()),
+                stats.perSecond(timerStats.getCount()),
+                millis(timerStats.getMeanNanos()),
+                millis(timerStats.getP99Nanos())));
+      }
+    }
+    player.sendMessages(statsBuilder.toString());
+    return 0;
+  }
+
+  /**
+   * Formats a latency in milliseconds.
+   *
+   * @param nanos Latency in nanoseconds.
+   * @return Formatted latency.
+   */
+  private static String millis(double nanos) {
+    return String.format("%.3f ms", nanos / 1e6);
+  }
+
+  /**
+   * Formats the hit rate of a cache from its {@code <cache>.cache_lookups} and {@code
+   * <cache>.cache_misses} counters.
+   *
+   * @param stats Stats to read the counters from.
+   * @param cache Name of the cache.
+   * @return Formatted hit rate, or "n/a" without lookups.
+   */
+  private static String hitRate(WindowStats stats, String cache) {
+    long lookups = stats.getCount(cache + ".cache_lookups");
+    if (0 == lookups) {
+      return "n/a";
+    }
+    long misses = stats.getCount(cache + ".cache_misses");
+    return String.format("%.1f%%", 100.0 * (lookups - misses) / lookups);
+  }
+}
@@ -25,6 +25,7 @@ import me.sargunvohra.mcmods.autoconfig1u.ConfigData;
 import me.sargunvohra.mcmods.autoconfig1u.annotation.Config;
 import me.sargunvohra.mcmods.autoconfig1u.shadowed.blue.endless.jankson.Comment;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /** Class for containing plugin configurations. */
@@ -44,7 +45,12 @@ public class ChunkClaimConfig implements ConfigData {
   @Comment(value = "Credits price to claim a single chunk. A price of zero is valid.")
   protected double chunkPrice = 1.0;
 
-  @Comment(value = "Number of credits acquired per hour of continuous and non-idle play time.")
+  @Comment(
+      value =
+          "Number of credits acquired per hour of continuous and non-idle play time.\n"
+              + "Activity is sampled from player movement every 5 minutes, so a player earns\n"
+              + "credits for a 5 minute window if they moved at least 5 blocks outside of a\n"
+              + "vehicle in it.")
   protected double creditsPerHour = 1.0;
 
   @Comment(value = "Maximum number of credits a player can have.")
@@ -103,6 +109,120 @@ public class ChunkClaimConfig implements ConfigData {
           "The amount of credits a player is given when they join the server for the first time.")
   protected double startCredits = 1;
 
+  @Comment(
+      value =
+          "Additional item IDs that require claim permission to be used on blocks.\n"
+              + "Example: \"minecraft:shears\".\n"
+              + "Data packs can also add entries with the tag "
+              + "\"chunkclaimfabric:checked_items\".")
+  protected List<String> extraCheckedItems = new ArrayList<>();
+
+  @Comment(
+      value =
+          "Additional item IDs that players are allowed to drop.\n"
+              + "Example: \"minecraft:map\".\n"
+              + "Data packs can also add entries with the tag "
+              + "\"chunkclaimfabric:allowed_droppable_items\".")
+  protected List<String> extraDroppableItems = new ArrayList<>();
+
+  @Comment(
+      value =
+          "Additional item IDs whose placement is checked.\n"
+              + "Example: \"minecraft:tnt\".\n"
+              + "Data packs can also add entries with the tag "
+              + "\"chunkclaimfabric:checked_placed_blocks\".")
+  protected List<String> extraCheckedPlacedBlocks = new ArrayList<>();
+
+  @Comment(
+      value =
+          "Additional item IDs that are treated as spawn eggs.\n"
+              + "Example: \"minecraft:fox_spawn_egg\".\n"
+              + "Data packs can also add entries with the tag "
+              + "\"chunkclaimfabric:checked_spawn_eggs\".")
+  protected List<String> extraSpawnEggItems = new ArrayList<>();
+
+  @Comment(
+      value =
+          "Additional entity IDs that are protected inside claims.\n"
+              + "Example: \"minecraft:armor_stand\".\n"
+              + "Data packs can also add entries with the tag "
+              + "\"chunkclaimfabric:protected_entities\".")
+  protected List<String> extraProtectedEntities = new ArrayList<>();
+
+  @Comment(
+      value =
+          "Additional entity IDs of thrown entities that are removed.\n"
+              + "Example: \"minecraft:egg\".\n"
+              + "Data packs can also add entries with the tag "
+              + "\"chunkclaimfabric:checked_thrown_entities\".")
+  protected List<String> extraCheckedThrownEntities = new ArrayList<>();
+
+  @Comment(
+      value =
+          "Additional block IDs that are protected as switches.\n"
+              + "Example: \"minecraft:repeater\".\n"
+              + "Data packs can also add entries with the tag "
+              + "\"chunkclaimfabric:protected_switches\".")
+  protected List<String> extraProtectedSwitches = new ArrayList<>();
+
+  @Comment(
+      value =
+          "If true, logs a warning with a stack trace whenever claim or player data is read "
+              + "from or written to disk on the server thread.\n"
+              + "Intended for debugging lag spikes, leave disabled otherwise.")
+  protected boolean debugTickThreadIo = false;
+
+  @Comment(
+      value =
+          "Milliseconds from which a datastore operation, command or scheduled task is logged "
+              + "as slow, with a sampled stack trace.\n"
+              + "Logging is rate-limited. Set to 0 to disable.")
+  protected double slowOperationMillis = 0;
+
+  @Comment(value = "If true, the mod's metrics are exposed as a JMX MBean.")
+  protected boolean exportMetricsJmx = true;
+
+  @Comment(
+      value =
+          "Seconds between writes of the mod's metrics to chunkclaimfabric.prom in the server "
+              + "folder, in the Prometheus text format.\n"
+              + "Point the textfile collector of node-exporter at it. A value of zero disables it.")
+  protected int metricsTextfileSeconds = 0;
+
+  @Comment(
+      value =
+          "Milliseconds per tick that long maintenance work may run for, e.g. the hourly cleanup, "
+              + "deleting all claims of a player or saving the claims after a trust change.\n"
+              + "Shrinks automatically while the server is lagging. At least one step runs per "
+              + "tick.")
+  protected double maintenanceBudgetMillis = 2;
+
+  @Comment(
+      value =
+          "Milliseconds of scheduled work per tick from which the tick is counted and logged as "
+              + "an overrun, naming the slowest task.\n"
+              + "Logged at most once per minute. Set to 0 to disable.")
+  protected double schedulerOverrunMillis = 5;
+
+  @Comment(value = "Threads running storage work off the server thread.")
+  protected int asyncIoThreads = 2;
+
+  @Comment(
+      value = "Storage tasks queued off the server thread before further tasks are rejected.")
+  protected int asyncIoQueueCapacity = 256;
+
+  @Comment(
+      value =
+          "Threads running computations off the server thread. Set to 0 to use half of the "
+              + "available processors.")
+  protected int asyncCpuThreads = 0;
+
+  @Comment(
+      value =
+          "Seconds between appending the buffered credit changes to the credit ledger.\n"
+              + "A crash loses at most the credit changes of this many seconds.")
+  protected int creditLedgerCommitSeconds = 5;
+
   /** @return List of world names specified to be managed by ChunkClaim. */
   public List<String> getWorlds() {
     return worlds;
@@ -189,4 +309,89 @@ public class ChunkClaimConfig implements ConfigData {
   public boolean getRegenerateChunk() {
     return regenerateChunk;
   }
+
+  /** @return Configured identifiers added to the {@code checked_items} tag. */
+  public List<String> getExtraCheckedItems() {
+    return extraCheckedItems;
+  }
+
+  /** @return Configured identifiers added to the {@code allowed_droppable_items} tag. */
+  public List<String> getExtraDroppableItems() {
+    return extraDroppableItems;
+  }
+
+  /** @return Configured identifiers added to the {@code checked_placed_blocks} tag. */
+  public List<String> getExtraCheckedPlacedBlocks() {
+    return extraCheckedPlacedBlocks;
+  }
+
+  /** @return Configured identifiers added to the {@code checked_spawn_eggs} tag. */
+  public List<String> getExtraSpawnEggItems() {
+    return extraSpawnEggItems;
+  }
+
+  /** @return Configured identifiers added to the {@code protected_entities} tag. */
+  public List<String> getExtraProtectedEntities() {
+    return extraProtectedEntities;
+  }
+
+  /** @return Configured identifiers added to the {@code checked_thrown_entities} tag. */
+  public List<String> getExtraCheckedThrownEntities() {
+    return extraCheckedThrownEntities;
+  }
+
+  /** @return Configured identifiers added to the {@code protected_switches} tag. */
+  public List<String> getExtraProtectedSwitches() {
+    return extraProtectedSwitches;
+  }
+
+  /** @return {@code true} if storage I/O on the server thread is logged, else false. */
+  public boolean isDebugTickThreadIo() {
+    return debugTickThreadIo;
+  }
+
+  /** @return Milliseconds from which operations are logged as slow, zero if disabled. */
+  public double getSlowOperationMillis() {
+    return slowOperationMillis;
+  }
+
+  /** @return {@code true} if the metrics are exposed over JMX, else false. */
+  public boolean isExportMetricsJmx() {
+    return exportMetricsJmx;
+  }
+
+  /** @return Seconds between writes of the metrics textfile, zero if disabled. */
+  public int getMetricsTextfileSeconds() {
+    return metricsTextfileSeconds;
+  }
+
+  /** @return Milliseconds per tick for maintenance work while the server keeps up. */
+  public double getMaintenanceBudgetMillis() {
+    return maintenanceBudgetMillis;
+  }
+
+  /** @return Milliseconds of scheduled work per tick from which it overran, zero if disabled. */
+  public double getSchedulerOverrunMillis() {
+    return schedulerOverrunMillis;
+  }
+
+  /** @return Threads of the async I/O pool. */
+  public int getAsyncIoThreads() {
+    return asyncIoThreads;
+  }
+
+  /** @return Tasks the async I/O pool queues before rejecting more. */
+  public int getAsyncIoQueueCapacity() {
+    return asyncIoQueueCapacity;
+  }
+
+  /** @return Threads of the async CPU pool, zero for half of the available processors. */
+  public int getAsyncCpuThreads() {
+    return asyncCpuThreads;
+  }
+
+  /** @return Seconds between credit ledger commits, at least one. */
+  public int getCreditLedgerCommitSeconds() {
+    return Math.max(1, creditLedgerCommitSeconds);
+  }
 }
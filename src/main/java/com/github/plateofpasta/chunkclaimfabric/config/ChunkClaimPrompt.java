@@ -278,6 +278,8 @@ public abstract class ChunkClaimPrompt {
         get("prompt.chunkclaim.cmd.admin.usage.delete_all"),
         get("prompt.chunkclaim.cmd.admin.usage.ignore"),
         get("prompt.chunkclaim.cmd.admin.usage.list"),
-        get("prompt.chunkclaim.cmd.admin.usage.next"));
+        get("prompt.chunkclaim.cmd.admin.usage.next"),
+        get("prompt.chunkclaim.cmd.admin.usage.record"),
+        get("prompt.chunkclaim.cmd.admin.usage.stats"));
   }
 }
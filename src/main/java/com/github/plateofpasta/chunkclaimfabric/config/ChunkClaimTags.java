@@ -21,21 +21,29 @@
 package com.github.plateofpasta.chunkclaimfabric.config;
 
 import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
-import com.github.plateofpasta.chunkclaimfabric.util.TagBuilderHelper;
+import com.github.plateofpasta.chunkclaimfabric.util.RegistryBitSet;
 import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.entity.EntityType;
 import net.minecraft.item.Item;
 import net.minecraft.item.Items;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.tag.BlockTags;
 import net.minecraft.tag.ItemTags;
-import net.minecraft.tag.Tag;
+import net.minecraft.tag.TagManager;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.registry.Registry;
 
-/** Wrapper class for holding custom tags. */
+/**
+ * Wrapper class for holding custom tags. Each tag is compiled into a {@link RegistryBitSet}, so
+ * hot paths pay for one raw id lookup and an array read. Entries can be extended with data pack
+ * tags in the {@code chunkclaimfabric} namespace (e.g. {@code
+ * data/chunkclaimfabric/tags/items/checked_items.json}) or through the mod configuration.
+ */
 public class ChunkClaimTags {
-  public static final Tag<Item> CHECKED_ITEMS =
-      (new TagBuilderHelper<>(ChunkClaimFabric.MOD_ID + "-checked-items", Registry.ITEM))
+  public static final RegistryBitSet<Item> CHECKED_ITEMS =
+      (new RegistryBitSet<>(
+              Registry.ITEM, new Identifier(ChunkClaimFabric.MOD_ID, "checked_items")))
           .add(
               Items.BUCKET,
               Items.WATER_BUCKET,
@@ -43,19 +51,19 @@ public class ChunkClaimTags {
               Items.COD_BUCKET,
               Items.PUFFERFISH_BUCKET,
               Items.SALMON_BUCKET,
-              Items.TROPICAL_FISH_BUCKET)
-          .build();
-  public static final Tag<Item> ALLOWED_DROPPABLE_ITEMS =
-      (new TagBuilderHelper<>(ChunkClaimFabric.MOD_ID + "-allowed-droppable-items", Registry.ITEM))
-          .add(Items.BOOK, Items.WRITABLE_BOOK, Items.WRITTEN_BOOK)
-          .build();
-  public static final Tag<Item> CHECKED_PLACED_BLOCKS =
-      (new TagBuilderHelper<>(ChunkClaimFabric.MOD_ID + "-checked-placed-blocks", Registry.ITEM))
+              Items.TROPICAL_FISH_BUCKET);
+  public static final RegistryBitSet<Item> ALLOWED_DROPPABLE_ITEMS =
+      (new RegistryBitSet<>(
+              Registry.ITEM, new Identifier(ChunkClaimFabric.MOD_ID, "allowed_droppable_items")))
+          .add(Items.BOOK, Items.WRITABLE_BOOK, Items.WRITTEN_BOOK);
+  public static final RegistryBitSet<Item> CHECKED_PLACED_BLOCKS =
+      (new RegistryBitSet<>(
+              Registry.ITEM, new Identifier(ChunkClaimFabric.MOD_ID, "checked_placed_blocks")))
           .add(Items.FIRE_CHARGE, Items.FLINT_AND_STEEL)
-          .add(ItemTags.SAPLINGS)
-          .build();
-  public static final Tag<Item> SPAWN_EGG_ITEMS =
-      (new TagBuilderHelper<>(ChunkClaimFabric.MOD_ID + "-checked-spawn-eggs", Registry.ITEM))
+          .add(ItemTags.SAPLINGS);
+  public static final RegistryBitSet<Item> SPAWN_EGG_ITEMS =
+      (new RegistryBitSet<>(
+              Registry.ITEM, new Identifier(ChunkClaimFabric.MOD_ID, "checked_spawn_eggs")))
           .add(
               Items.BAT_SPAWN_EGG,
               Items.BEE_SPAWN_EGG,
@@ -115,11 +123,10 @@ public class ChunkClaimTags {
               Items.ZOMBIE_SPAWN_EGG,
               Items.ZOMBIE_HORSE_SPAWN_EGG,
               Items.ZOMBIFIED_PIGLIN_SPAWN_EGG,
-              Items.ZOMBIE_VILLAGER_SPAWN_EGG)
-          .build();
-  public static final Tag<EntityType<?>> PROTECTED_ENTITY =
-      (new TagBuilderHelper<>(
-              ChunkClaimFabric.MOD_ID + "-protected-entities", Registry.ENTITY_TYPE))
+              Items.ZOMBIE_VILLAGER_SPAWN_EGG);
+  public static final RegistryBitSet<EntityType<?>> PROTECTED_ENTITY =
+      (new RegistryBitSet<>(
+              Registry.ENTITY_TYPE, new Identifier(ChunkClaimFabric.MOD_ID, "protected_entities")))
           .add(
               EntityType.BAT,
               EntityType.BEE,
@@ -160,16 +167,35 @@ public class ChunkClaimTags {
               EntityType.HOPPER_MINECART,
               EntityType.MINECART,
               EntityType.SPAWNER_MINECART,
-              EntityType.TNT_MINECART)
-          .build();
-  public static final Tag<EntityType<?>> CHECKED_THROWN_ENTITIES =
-      (new TagBuilderHelper<>(
-              ChunkClaimFabric.MOD_ID + "-checked-thrown-entities", Registry.ENTITY_TYPE))
-          .add(EntityType.EXPERIENCE_BOTTLE, EntityType.POTION)
-          .build();
-  public static final Tag<Block> PROTECTED_SWITCHES =
-      (new TagBuilderHelper<>(ChunkClaimFabric.MOD_ID + "-protected-switches", Registry.BLOCK))
+              EntityType.TNT_MINECART);
+  public static final RegistryBitSet<EntityType<?>> CHECKED_THROWN_ENTITIES =
+      (new RegistryBitSet<>(
+              Registry.ENTITY_TYPE,
+              new Identifier(ChunkClaimFabric.MOD_ID, "checked_thrown_entities")))
+          .add(EntityType.EXPERIENCE_BOTTLE, EntityType.POTION);
+  public static final RegistryBitSet<Block> PROTECTED_SWITCHES =
+      (new RegistryBitSet<>(
+              Registry.BLOCK, new Identifier(ChunkClaimFabric.MOD_ID, "protected_switches")))
           .add(BlockTags.BUTTONS)
-          .add(Blocks.LEVER)
-          .build();
+          .add(Blocks.LEVER);
+
+  /**
+   * Recompiles every tag from its defaults, the server's currently loaded data pack tags and the
+   * mod configuration. Must be called once the server has loaded its tags and again after every
+   * data pack reload.
+   *
+   * @param server Server whose loaded tags are compiled.
+   */
+  public static void rebuild(MinecraftServer server) {
+    final TagManager tagManager = server.getTagManager();
+    final ChunkClaimConfig config = ChunkClaimFabric.getClaimConfig();
+    CHECKED_ITEMS.compile(tagManager.getItems(), config.getExtraCheckedItems());
+    ALLOWED_DROPPABLE_ITEMS.compile(tagManager.getItems(), config.getExtraDroppableItems());
+    CHECKED_PLACED_BLOCKS.compile(tagManager.getItems(), config.getExtraCheckedPlacedBlocks());
+    SPAWN_EGG_ITEMS.compile(tagManager.getItems(), config.getExtraSpawnEggItems());
+    PROTECTED_ENTITY.compile(tagManager.getEntityTypes(), config.getExtraProtectedEntities());
+    CHECKED_THROWN_ENTITIES.compile(
+        tagManager.getEntityTypes(), config.getExtraCheckedThrownEntities());
+    PROTECTED_SWITCHES.compile(tagManager.getBlocks(), config.getExtraProtectedSwitches());
+  }
 }
@@ -0,0 +1,371 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.datastore;
+
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Counter;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Timer;
+import com.github.plateofpasta.chunkclaimfabric.metrics.jfr.FlightEvents;
+import com.github.plateofpasta.chunkclaimfabric.player.CreditListener;
+import com.google.common.io.CountingInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Append-only log of credit changes, so that credits stay durable without rewriting a player data
+ * file per change. Changes are buffered in memory and appended by {@link #commit()} in batches that
+ * are made durable with a single sync each. Player data remembers the sequence number of the last
+ * entry its saved credits include, so after a crash the entries logged since are replayed onto it.
+ * Compaction saves the changed players and drops their entries from the file. Until then the file
+ * doubles as an audit trail of credit changes.
+ *
+ * <p>The file starts with a magic number and an epoch, which is incremented every time the ledger
+ * is opened. Sequence numbers start at the epoch shifted into the upper 32 bits, so they keep
+ * growing across restarts even if entries were never committed. Each entry holds its sequence
+ * number, time, player name, change and resulting balance, the latter two in {@link
+ * com.github.plateofpasta.chunkclaimfabric.player.CreditBalance} units. An entry torn by a crash
+ * ends the log.
+ */
+public class CreditLedger implements CreditListener {
+  /** Number of entries in the file from which it should be compacted. */
+  public static final int COMPACT_ENTRIES = 10_000;
+  /** Marks ledger files, "CCL1". */
+  private static final int MAGIC = 0x43434c31;
+
+  private final File file;
+  private final Clock clock;
+  /** Serializes file access, so batches are appended in sequence order. */
+  private final Object fileLock = new Object();
+  // Guarded by this.
+  private List<Entry> pending = new ArrayList<>();
+  private Set<String> changedPlayers = new HashSet<>();
+  private long nextSequence = 1;
+  // Guarded by the file lock.
+  private int epoch = 0;
+  private int fileEntries = 0;
+  // Ledger metrics of the datastore's metrics registry.
+  private final Counter entriesCounter;
+  private final Timer commitTimer;
+
+  /**
+   * The ledger is unusable until opened, see {@link #open()}.
+   *
+   * @param file Ledger file, created if missing.
+   * @param clock Clock to time the entries.
+   * @param metrics Registry of the ledger's metrics.
+   */
+  public CreditLedger(File file, Clock clock, MetricsRegistry metrics) {
+    this.file = file;
+    this.clock = clock;
+    this.entriesCounter = metrics.counter("credit_ledger.entries");
+    this.commitTimer = metrics.timer("credit_ledger.commit");
+    metrics.gauge("credit_ledger.pending", this::getPendingCount);
+    metrics.gauge("credit_ledger.file_entries", this::getFileEntries);
+  }
+
+  /**
+   * Opens the ledger, starting a new epoch. Drops an entry torn by a crash from the file.
+   *
+   * @return Entries in the file, in sequence order, to replay onto the player data.
+   * @throws IOException The file couldn't be read or written.
+   */
+  List<Entry> open() throws IOException {
+    synchronized (this.fileLock) {
+      final List<Entry> entries = new ArrayList<>();
+      if (this.file.exists()) {
+        final long validBytes = this.read(entries);
+        try (RandomAccessFile raf = new RandomAccessFile(this.file, "rw")) {
+          if (validBytes < raf.length()) {
+            ChunkClaimFabric.logInfo(
+                String.format(
+                    "Dropping %d bytes of a torn entry from the credit ledger at %s.",
+                    raf.length() - validBytes, this.file));
+            raf.setLength(validBytes);
+          }
+          this.epoch++;
+          raf.seek(4);
+          raf.writeInt(this.epoch);
+          raf.getFD().sync();
+        }
+      } else {
+        this.epoch = 1;
+        this.writeFile(this.file, entries);
+      }
+      this.fileEntries = entries.size();
+      synchronized (this) {
+        this.nextSequence = ((long) this.epoch << 32) + 1;
+      }
+      return entries;
+    }
+  }
+
+  /**
+   * Buffers an entry for the next commit. Implements the listener interface, so the ledger can be
+   * handed to player data directly.
+   *
+   * @param playerName Name of the player.
+   * @param deltaUnits Change of the balance in fixed-point units.
+   * @param balanceUnits Balance after the change in fixed-point units.
+   */
+  @Override
+  public synchronized void creditsChanged(String playerName, long deltaUnits, long balanceUnits) {
+    this.pending.add(
+        new Entry(
+            this.nextSequence++, this.clock.millis(), playerName, deltaUnits, balanceUnits));
+    this.changedPlayers.add(playerName);
+    this.entriesCounter.increment();
+  }
+
+  /** @return Sequence number of the last entry, committed or not. */
+  public synchronized long getSequence() {
+    return this.nextSequence - 1;
+  }
+
+  /** @return Number of entries waiting for a commit. */
+  public synchronized int getPendingCount() {
+    return this.pending.size();
+  }
+
+  /** @return Number of entries in the file. */
+  public int getFileEntries() {
+    synchronized (this.fileLock) {
+      return this.fileEntries;
+    }
+  }
+
+  /** @return {@code true} if the file has grown enough to be compacted, else {@code false}. */
+  public boolean needsCompaction() {
+    return COMPACT_ENTRIES <= this.getFileEntries();
+  }
+
+  /**
+   * Takes the names of the players with entries since the last call, to save their data during
+   * compaction.
+   *
+   * @return Player names.
+   */
+  synchronized Set<String> takeChangedPlayers() {
+    final Set<String> playerNames = this.changedPlayers;
+    this.changedPlayers = new HashSet<>();
+    return playerNames;
+  }
+
+  /**
+   * Appends the buffered entries to the file and syncs it, a group commit. Does file I/O, so it
+   * should be called off the server thread. On failure the entries are kept for the next commit.
+   *
+   * @return Number of entries committed.
+   */
+  public int commit() {
+    synchronized (this.fileLock) {
+      final List<Entry> batch;
+      synchronized (this) {
+        if (this.pending.isEmpty()) {
+          return 0;
+        }
+        batch = this.pending;
+        this.pending = new ArrayList<>();
+      }
+
+      final long start = this.commitTimer.start();
+      try (FileChannel channel =
+          FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE)) {
+        final long committedBytes = channel.size();
+        try {
+          final ByteBuffer buffer = ByteBuffer.wrap(encode(batch));
+          channel.position(committedBytes);
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          channel.force(false);
+        } catch (IOException e) {
+          // Drop the partial batch so that the next commit doesn't append after a torn entry.
+          channel.truncate(committedBytes);
+          throw e;
+        }
+        this.fileEntries += batch.size();
+        return batch.size();
+      } catch (IOException e) {
+        ChunkClaimFabric.logger.log(
+            Level.WARNING,
+            String.format(
+                "%s: Unable to commit %d credit ledger entries to %s, retrying.",
+                ChunkClaimFabric.MOD_ID, batch.size(), this.file),
+            e);
+        synchronized (this) {
+          this.pending.addAll(0, batch);
+        }
+        return 0;
+      } finally {
+        this.commitTimer.stop(start);
+        FlightEvents.storageIo("commit_credit_ledger", this.file.getPath(), start);
+      }
+    }
+  }
+
+  /**
+   * Drops the entries up to the sequence number from the file, once the player data including them
+   * has been saved. Rewrites the file atomically.
+   *
+   * @param throughSequence Sequence number of the last entry to drop.
+   * @throws IOException The file couldn't be read or written.
+   */
+  void truncate(long throughSequence) throws IOException {
+    synchronized (this.fileLock) {
+      final List<Entry> entries = new ArrayList<>();
+      this.read(entries);
+      entries.removeIf(entry -> entry.sequence <= throughSequence);
+      final File tempFile = new File(this.file.getPath() + ".tmp");
+      this.writeFile(tempFile, entries);
+      Files.move(
+          tempFile.toPath(),
+          this.file.toPath(),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      this.fileEntries = entries.size();
+    }
+  }
+
+  /**
+   * Reads the entries of the file, up to the first torn entry.
+   *
+   * @param entries List to add the entries to.
+   * @return Number of bytes of the file holding whole entries.
+   * @throws IOException The file couldn't be read or isn't a ledger.
+   */
+  private long read(List<Entry> entries) throws IOException {
+    try (CountingInputStream counting =
+            new CountingInputStream(new BufferedInputStream(new FileInputStream(this.file)));
+        DataInputStream in = new DataInputStream(counting)) {
+      if (MAGIC != in.readInt()) {
+        throw new IOException("Not a credit ledger: " + this.file);
+      }
+      this.epoch = in.readInt();
+      long validBytes = counting.getCount();
+      try {
+        while (true) {
+          entries.add(
+              new Entry(
+                  in.readLong(), in.readLong(), in.readUTF(), in.readLong(), in.readLong()));
+          validBytes = counting.getCount();
+        }
+      } catch (EOFException e) {
+        // End of the log, possibly in the middle of a torn entry.
+      }
+      return validBytes;
+    }
+  }
+
+  /**
+   * Writes a complete ledger file with the current epoch and syncs it.
+   *
+   * @param target File to write.
+   * @param entries Entries of the file.
+   * @throws IOException The file couldn't be written.
+   */
+  private void writeFile(File target, List<Entry> entries) throws IOException {
+    final File parent = target.getAbsoluteFile().getParentFile();
+    if (null != parent) {
+      parent.mkdirs();
+    }
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(this.epoch);
+    out.write(encode(entries));
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+    try (FileChannel channel =
+        FileChannel.open(
+            target.toPath(),
+            StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    }
+  }
+
+  /**
+   * Encodes entries in the file format.
+   *
+   * @param entries Entries to encode.
+   * @return Encoded entries.
+   * @throws IOException Never, the entries are written to memory.
+   */
+  private static byte[] encode(List<Entry> entries) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(48 * entries.size());
+    final DataOutputStream out = new DataOutputStream(bytes);
+    for (Entry entry : entries) {
+      out.writeLong(entry.sequence);
+      out.writeLong(entry.timeMillis);
+      out.writeUTF(entry.playerName);
+      out.writeLong(entry.deltaUnits);
+      out.writeLong(entry.balanceUnits);
+    }
+    return bytes.toByteArray();
+  }
+
+  /** Credit change of a player. */
+  static final class Entry {
+    final long sequence;
+    final long timeMillis;
+    final String playerName;
+    final long deltaUnits;
+    final long balanceUnits;
+
+    /**
+     * @param sequence Sequence number, unique and increasing.
+     * @param timeMillis Time of the change.
+     * @param playerName Name of the player.
+     * @param deltaUnits Change of the balance in fixed-point units.
+     * @param balanceUnits Balance after the change in fixed-point units.
+     */
+    Entry(long sequence, long timeMillis, String playerName, long deltaUnits, long balanceUnits) {
+      this.sequence = sequence;
+      this.timeMillis = timeMillis;
+      this.playerName = playerName;
+      this.deltaUnits = deltaUnits;
+      this.balanceUnits = balanceUnits;
+    }
+  }
+}
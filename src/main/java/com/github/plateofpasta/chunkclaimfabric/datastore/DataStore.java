@@ -22,14 +22,29 @@
 package com.github.plateofpasta.chunkclaimfabric.datastore;
 
 import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimConfig;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Counter;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.SlowOperationWatchdog;
+import com.github.plateofpasta.chunkclaimfabric.metrics.jfr.FlightEvents;
 import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.github.plateofpasta.chunkclaimfabric.server.IncrementalTask;
+import com.github.plateofpasta.chunkclaimfabric.server.Server;
+import com.github.plateofpasta.chunkclaimfabric.server.WorkQueue;
 import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
 import com.github.plateofpasta.chunkclaimfabric.world.ChunkWorld;
 import com.github.plateofpasta.edgestitch.world.EdgestitchLocation;
-import com.github.plateofpasta.edgestitch.world.EdgestitchWorld;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 /** Abstract class for ChunkClaim datastores. */
@@ -37,13 +52,91 @@ public abstract class DataStore {
 
   protected static final String DATA_LAYER_FOLDER_PATH =
       "plugins" + File.separator + "ChunkClaimFabric";
-  static final int MIN_MODIFIED_BLOCKS = ChunkClaimFabric.getClaimConfig().getMinModBlocks();
-  static final double CHUNK_PRICE = ChunkClaimFabric.getClaimConfig().getChunkPrice();
+  /** Prefix of the per world claim count gauges. */
+  public static final String WORLD_CLAIMS_GAUGE_PREFIX = "datastore.claims.";
+  /** Configuration of the mod. */
+  protected final ChunkClaimConfig config;
+  /** Server the claims are on. */
+  protected final Server server;
+  /** Registry of the datastore's metrics. */
+  protected final MetricsRegistry metrics;
+  /** Watchdog logging slow datastore operations. */
+  protected final SlowOperationWatchdog watchdog;
+  /** Recorder of the claim changes. */
+  protected final ProtectionEventRecorder recorder;
   protected HashMap<String, PlayerData> playerNameToPlayerDataMap =
       new HashMap<String, PlayerData>();
   ArrayList<Chunk> chunks = new ArrayList<Chunk>();
   ArrayList<Chunk> unusedChunks = new ArrayList<Chunk>();
   HashMap<String, ChunkWorld> worlds = new HashMap<String, ChunkWorld>();
+  /** Incremented on any change that can alter the outcome of a claim permission check. */
+  private final AtomicInteger claimGeneration = new AtomicInteger();
+  /** Loads player data off the server thread for {@link #prefetchPlayerData(String)}. */
+  protected final ExecutorService playerDataLoader =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, ChunkClaimFabric.MOD_ID + " player data loader");
+            thread.setDaemon(true);
+            return thread;
+          });
+  /**
+   * Names of players whose data is currently being prefetched, mapped to their load epoch. The
+   * epoch is bumped whenever the player's cached data is loaded or dropped while the prefetch
+   * runs, which makes the prefetched data stale. Changed under the datastore lock.
+   */
+  private final Map<String, Integer> pendingPlayerDataLoads = new ConcurrentHashMap<>();
+  private final Counter playerDataCacheLookups;
+  private final Counter playerDataCacheMisses;
+  /** Ledger logging the credit changes of the player data, or null if credits aren't logged. */
+  protected CreditLedger creditLedger = null;
+  /**
+   * Names of players whose last save failed. Credit ledger entries are only dropped while this is
+   * empty, so the ledger keeps the credits of a failed save until the player is saved again.
+   */
+  protected final Set<String> unsavedPlayerNames = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Takes the configuration, server and metrics explicitly instead of reading the plugin
+   * singletons, so that datastores can be run without a minecraft server. The chunks and player
+   * data of the datastore read them through the datastore.
+   *
+   * @param config Configuration of the mod.
+   * @param server Server the claims are on.
+   * @param metrics Registry of the datastore's metrics.
+   * @param watchdog Watchdog logging slow datastore operations.
+   * @param recorder Recorder of the claim changes.
+   */
+  protected DataStore(
+      ChunkClaimConfig config,
+      Server server,
+      MetricsRegistry metrics,
+      SlowOperationWatchdog watchdog,
+      ProtectionEventRecorder recorder) {
+    this.config = config;
+    this.server = server;
+    this.metrics = metrics;
+    this.watchdog = watchdog;
+    this.recorder = recorder;
+    this.playerDataCacheLookups = metrics.counter("player_data.cache_lookups");
+    this.playerDataCacheMisses = metrics.counter("player_data.cache_misses");
+    metrics.gauge("datastore.claims", () -> this.chunks.size());
+    metrics.gauge("datastore.pending_loads", this.pendingPlayerDataLoads::size);
+  }
+
+  /** @return Configuration of the mod. */
+  public ChunkClaimConfig getConfig() {
+    return this.config;
+  }
+
+  /** @return Registry of the datastore's metrics, shared with the handlers of its claims. */
+  public MetricsRegistry getMetrics() {
+    return this.metrics;
+  }
+
+  /** @return Recorder of the claim changes, shared with the handlers of its claims. */
+  public ProtectionEventRecorder getRecorder() {
+    return this.recorder;
+  }
 
   /**
    * Initializes the datastore.
@@ -110,7 +203,9 @@ public abstract class DataStore {
   abstract PlayerData getPlayerDataFromStorage(String playerName);
 
   /**
-   * Interface for implementing the player data save operation.
+   * Interface for implementing the player data save operation. Implementations writing to storage
+   * save a copy taken with {@link PlayerData#copyForSave(java.util.function.LongSupplier)}, whose
+   * credits are accrued and include exactly the credit ledger entries up to its sequence number.
    *
    * @param playerName Name of player whose data we're saving.
    * @param playerData Data to save.
@@ -120,6 +215,38 @@ public abstract class DataStore {
   /** Interface for shutting closing the datastore. */
   public abstract void close();
 
+  /**
+   * Gets the claim generation. Caches of claim decisions should remember the generation they were
+   * computed at and treat themselves as stale once it changes.
+   *
+   * @return Current claim generation.
+   */
+  public int getClaimGeneration() {
+    return this.claimGeneration.get();
+  }
+
+  /**
+   * Invalidates all cached claim decisions. Must be called after claims are added or removed, after
+   * trusted builders or owners change, and after a player's ignore state changes.
+   */
+  public void markClaimsChanged() {
+    this.claimGeneration.incrementAndGet();
+  }
+
+  /**
+   * Registers an empty world, replacing any loaded data of the world. Its claim count is exposed as
+   * a gauge named {@link #WORLD_CLAIMS_GAUGE_PREFIX} followed by the world name.
+   *
+   * @param worldName Name of the world.
+   * @return Claims of the world.
+   */
+  protected synchronized ChunkWorld addWorld(String worldName) {
+    final ChunkWorld chunkWorld = new ChunkWorld(worldName);
+    this.worlds.put(worldName, chunkWorld);
+    this.metrics.gauge(WORLD_CLAIMS_GAUGE_PREFIX + worldName, () -> chunkWorld.chunkTable.size());
+    return chunkWorld;
+  }
+
   /**
    * Remove from runtime memory all chunk data for a world.
    *
@@ -127,7 +254,9 @@ public abstract class DataStore {
    */
   public synchronized void unloadWorldData(String worldName) {
     this.worlds.remove(worldName);
+    this.metrics.removeGauge(WORLD_CLAIMS_GAUGE_PREFIX + worldName);
     this.chunks.removeIf(chunk -> chunk.getWorldName().equals(worldName));
+    this.markClaimsChanged();
   }
 
   /**
@@ -136,33 +265,20 @@ public abstract class DataStore {
    * @param n Number of chunks to randomly check for clean up.
    */
   public void cleanUp(int n) {
-    if (this.chunks.isEmpty()) {
-      return;
+    final IncrementalTask cleanUp = this.cleanUpTask(n);
+    while (cleanUp.runSlice()) {
+      // Runs to completion.
     }
+  }
 
-    long autoDeleteMillis = (long) ChunkClaimFabric.getClaimConfig().getAutoDeleteMillis();
-    long now = new Date().getTime();
-    Random random = new Random();
-
-    for (int i = 0, reclaimCount = 0;
-        (i < n) && (50 > reclaimCount) && !this.chunks.isEmpty();
-        i++) {
-      Chunk chunk = chunks.get(random.nextInt(this.chunks.size()));
-      long claimAgeMillis = now - chunk.getClaimDate().getTime();
-      // Cleanup the chunk.
-      if (chunk.isMarked()
-          || (!ChunkClaimFabric.getClaimConfig().isAutoDeleteDisabled()
-              && (!chunk.hasMetMinimum() && (claimAgeMillis > autoDeleteMillis)))) {
-        // Reclaim the chunk.
-        this.deleteChunk(chunk);
-        this.clearCachedPlayerData(chunk.getOwnerName());
-        ChunkClaimFabric.logInfo(
-            String.format(
-                "Auto-deleted %s's chunk at %s.",
-                chunk.getOwnerName(), chunk.getChunkCoordString()));
-        reclaimCount++;
-      }
-    }
+  /**
+   * Creates a {@link #cleanUp(int)} for the {@link WorkQueue} that checks one chunk per slice.
+   *
+   * @param n Number of chunks to randomly check for clean up.
+   * @return Clean up task.
+   */
+  public IncrementalTask cleanUpTask(int n) {
+    return new CleanUp(n);
   }
 
   /**
@@ -171,7 +287,13 @@ public abstract class DataStore {
    * @param playerName Name of player whose data we're unloading.
    */
   public synchronized void clearCachedPlayerData(String playerName) {
-    this.playerNameToPlayerDataMap.remove(playerName);
+    final PlayerData playerData = this.playerNameToPlayerDataMap.remove(playerName);
+    this.bumpPlayerDataLoadEpoch(playerName);
+    if (null != playerData && playerData.canIgnoreChunkClaims()) {
+      this.recorder.ignore(playerName, false);
+    }
+    // Dropping the player data also drops their ignore state.
+    this.markClaimsChanged();
   }
 
   /**
@@ -185,39 +307,61 @@ public abstract class DataStore {
    * @throws Exception
    */
   public synchronized void changeChunkOwner(Chunk chunk, String newOwnerName) throws Exception {
-    PlayerData ownerData = this.getPlayerData(chunk.getOwnerName());
-    PlayerData newOwnerData = this.getPlayerData(newOwnerName);
-
-    // Modify chunk.
-    chunk.setOwnerName(newOwnerName);
-    this.writeChunkToStorage(chunk);
+    final SlowOperationWatchdog.Operation operation =
+        this.watchdog.begin("datastore.change_chunk_owner", this.getChunkPrimaryKey(chunk));
+    try {
+      PlayerData ownerData = this.getPlayerData(chunk.getOwnerName());
+      PlayerData newOwnerData = this.getPlayerData(newOwnerName);
+
+      // Modify chunk.
+      chunk.setOwnerName(newOwnerName);
+      this.writeChunkToStorage(chunk);
+      this.markClaimsChanged();
 
-    // Modify previous owner data
-    ownerData.removeCredits(CHUNK_PRICE);
-    this.savePlayerData(chunk.getOwnerName(), ownerData);
+      // Modify previous owner data
+      ownerData.removeCredits(this.config.getChunkPrice());
+      this.savePlayerData(chunk.getOwnerName(), ownerData);
 
-    // modify new owner data
-    newOwnerData.addCredits(CHUNK_PRICE);
-    this.savePlayerData(newOwnerName, newOwnerData);
+      // modify new owner data
+      newOwnerData.addCredits(this.config.getChunkPrice());
+      this.savePlayerData(newOwnerName, newOwnerData);
+    } finally {
+      this.watchdog.end(operation);
+    }
   }
 
   /**
-   * Adds the claimed chunk to the datastore. Subtracts the claim cost from the
+   * Adds the claimed chunk to the datastore. Subtracts the claim cost from the player's credits,
+   * checking that they can afford it in the same atomic step.
    *
    * @param playerName Name of player claiming chunk.
    * @param chunk New chunk that has just been claimed.
+   * @return {@code true} if the player paid for the chunk, else {@code false} and nothing changed.
    */
-  public synchronized void claimChunk(String playerName, Chunk chunk) {
-    this.chunks.add(chunk);
-
-    if (this.worlds.containsKey(chunk.getWorldName())) {
-      this.worlds.get(chunk.getWorldName()).addChunk(chunk);
-      chunk.setInDataStore(true);
-      this.writeChunkToStorage(chunk);
-      // Update player data.
+  public synchronized boolean claimChunk(String playerName, Chunk chunk) {
+    final SlowOperationWatchdog.Operation operation =
+        this.watchdog.begin("datastore.claim_chunk", this.getChunkPrimaryKey(chunk));
+    try {
       PlayerData targetPlayerData = this.getPlayerData(playerName);
-      targetPlayerData.removeCredits(CHUNK_PRICE);
-      this.savePlayerData(playerName, targetPlayerData);
+      if (!targetPlayerData.tryRemoveCredits(this.config.getChunkPrice())) {
+        return false;
+      }
+      this.chunks.add(chunk);
+
+      if (this.worlds.containsKey(chunk.getWorldName())) {
+        this.worlds.get(chunk.getWorldName()).addChunk(chunk);
+        chunk.setDataStore(this);
+        chunk.setInDataStore(true);
+        this.markClaimsChanged();
+        this.writeChunkToStorage(chunk);
+        // Update player data.
+        this.savePlayerData(playerName, targetPlayerData);
+      } else {
+        targetPlayerData.addCredits(this.config.getChunkPrice());
+      }
+      return true;
+    } finally {
+      this.watchdog.end(operation);
     }
   }
 
@@ -228,22 +372,31 @@ public abstract class DataStore {
    * @return {@code true} a chunk was deleted, else false.
    */
   public synchronized boolean deleteChunk(Chunk chunk) {
-    if (this.deleteChunkFromSecondaryStorage(chunk)) {
-      if (this.chunks.removeIf(c -> c.equals(chunk))) {
-        this.worlds.get(chunk.getWorldName()).removeChunk(chunk);
-        chunk.setInDataStore(false);
-      }
-      PlayerData targetPlayerData = this.getPlayerData(chunk.getOwnerName());
-      targetPlayerData.addCredits(CHUNK_PRICE);
-      this.savePlayerData(chunk.getOwnerName(), targetPlayerData);
-      if (ChunkClaimFabric.getClaimConfig().getRegenerateChunk()) {
-        EdgestitchWorld world =
-            ChunkClaimFabric.getPlugin().getServer().getWorld(chunk.getWorldName());
-        world.regenerateChunk(chunk.getChunkPos());
+    final SlowOperationWatchdog.Operation operation =
+        this.watchdog.begin("datastore.delete_chunk", this.getChunkPrimaryKey(chunk));
+    try {
+      if (this.deleteChunkFromSecondaryStorage(chunk)) {
+        if (this.chunks.removeIf(c -> c.equals(chunk))) {
+          this.worlds.get(chunk.getWorldName()).removeChunk(chunk);
+          chunk.setInDataStore(false);
+          this.markClaimsChanged();
+          this.recorder.unclaim(chunk);
+        }
+        PlayerData targetPlayerData = this.getPlayerData(chunk.getOwnerName());
+        targetPlayerData.addCredits(this.config.getChunkPrice());
+        this.savePlayerData(chunk.getOwnerName(), targetPlayerData);
+        if (this.config.getRegenerateChunk()) {
+          final long start = System.nanoTime();
+          this.server.regenerateChunk(chunk.getWorldName(), chunk.getChunkPos());
+          FlightEvents.regeneration(
+              chunk.getWorldName(), chunk.getCoordX(), chunk.getCoordZ(), start);
+        }
+        return true;
       }
-      return true;
+      return false;
+    } finally {
+      this.watchdog.end(operation);
     }
-    return false;
   }
 
   /**
@@ -263,7 +416,8 @@ public abstract class DataStore {
   }
 
   /**
-   * Gets the player's data from the datastore.
+   * Gets the player's data from the datastore. Reads from storage if it is not in memory, so
+   * permission checks should use {@link #getCachedPlayerData(String)} instead.
    *
    * @param playerName Name of the player.
    * @return Player data.
@@ -273,11 +427,102 @@ public abstract class DataStore {
     if (playerData == null) {
       playerData = this.getPlayerDataFromStorage(playerName);
       this.playerNameToPlayerDataMap.put(playerName, playerData);
+      this.bumpPlayerDataLoadEpoch(playerName);
     }
 
     return this.playerNameToPlayerDataMap.get(playerName);
   }
 
+  /**
+   * Gets the player's data only if it is already in memory. Never reads from storage, so it is safe
+   * to use from permission checks on the server thread. Missing data is prefetched.
+   *
+   * @param playerName Name of the player.
+   * @return Player data, or null while it is not loaded yet.
+   */
+  public synchronized PlayerData getCachedPlayerData(String playerName) {
+    PlayerData playerData = this.playerNameToPlayerDataMap.get(playerName);
+    this.playerDataCacheLookups.increment();
+    if (null == playerData) {
+      this.playerDataCacheMisses.increment();
+      FlightEvents.playerDataCacheMiss(playerName);
+      this.prefetchPlayerData(playerName);
+    }
+    return playerData;
+  }
+
+  /**
+   * Loads the player's data into memory off the server thread, unless it is loaded or already
+   * being loaded. The loaded data is discarded if the player's cached data was loaded or dropped
+   * in the meantime, e.g. loaded, changed, saved and dropped by the server thread, since the read
+   * may predate that save.
+   *
+   * @param playerName Name of the player.
+   */
+  public void prefetchPlayerData(String playerName) {
+    synchronized (this) {
+      if (this.playerNameToPlayerDataMap.containsKey(playerName)
+          || null != this.pendingPlayerDataLoads.putIfAbsent(playerName, 0)) {
+        return;
+      }
+    }
+    this.playerDataLoader.execute(
+        () -> {
+          PlayerData playerData = null;
+          try {
+            // Read without holding the datastore lock so the server thread is never blocked on it.
+            playerData = this.getPlayerDataFromStorage(playerName);
+          } finally {
+            synchronized (this) {
+              // Only this task removes the entry, so it is always present.
+              final int epoch = this.pendingPlayerDataLoads.remove(playerName);
+              if (null != playerData && 0 == epoch) {
+                this.playerNameToPlayerDataMap.putIfAbsent(playerName, playerData);
+              }
+            }
+          }
+        });
+  }
+
+  /**
+   * Marks a running prefetch of the player's data as stale. Called with the datastore lock held
+   * whenever the player's cached data is loaded or dropped.
+   *
+   * @param playerName Name of the player.
+   */
+  private void bumpPlayerDataLoadEpoch(String playerName) {
+    this.pendingPlayerDataLoads.computeIfPresent(playerName, (name, epoch) -> epoch + 1);
+  }
+
+  /**
+   * Checks if the player is ignoring chunk claims. Ignore state is never persisted, so a player
+   * whose data is not in memory cannot be ignoring claims. The check is strictly in memory and
+   * conservatively answers false while data is not loaded.
+   *
+   * @param playerName Name of the player.
+   * @return {@code true} if the player can ignore chunk claims, else false.
+   */
+  public synchronized boolean canIgnoreChunkClaims(String playerName) {
+    PlayerData playerData = this.playerNameToPlayerDataMap.get(playerName);
+    return (null != playerData) && playerData.canIgnoreChunkClaims();
+  }
+
+  /**
+   * Flags storage I/O done on the server thread when the {@code debugTickThreadIo} option is
+   * enabled. Logs the operation with the stack trace of the caller.
+   *
+   * @param operation Description of the I/O operation.
+   */
+  protected void checkStorageThread(String operation) {
+    if (this.config.isDebugTickThreadIo() && this.server.isOnThread()) {
+      ChunkClaimFabric.logger.log(
+          Level.WARNING,
+          String.format(
+              "%s: Storage I/O on the server thread: %s", ChunkClaimFabric.MOD_ID, operation),
+          new Throwable("Storage I/O call site"));
+    }
+  }
+
   /**
    * Tries to get the chunk at the location.
    *
@@ -335,10 +580,142 @@ public abstract class DataStore {
    * @return Number of chunks deleted.
    */
   public synchronized int deleteChunksForPlayer(String playerName) {
-    List<Chunk> playerChunks = getAllChunksForPlayer(playerName);
-    playerChunks.forEach(this::deleteChunk);
-    this.getPlayerData(playerName).addCredits(playerChunks.size() * CHUNK_PRICE);
-    return playerChunks.size();
+    final int[] deleted = new int[1];
+    final IncrementalTask deletion =
+        this.deleteChunksForPlayerTask(playerName, count -> deleted[0] = count);
+    while (deletion.runSlice()) {
+      // Runs to completion.
+    }
+    return deleted[0];
+  }
+
+  /**
+   * Creates a {@link #deleteChunksForPlayer(String)} for the {@link WorkQueue} that deletes one
+   * chunk per slice. Chunks the player claims after the task is created are kept.
+   *
+   * @param playerName Name of the player.
+   * @param onDone Receives the number of chunks deleted once the task is done.
+   * @return Deletion task.
+   */
+  public IncrementalTask deleteChunksForPlayerTask(String playerName, IntConsumer onDone) {
+    final Iterator<Chunk> playerChunks = this.getAllChunksForPlayer(playerName).iterator();
+    final int[] deleted = new int[1];
+    return () -> {
+      if (playerChunks.hasNext()) {
+        final Chunk chunk = playerChunks.next();
+        // Skips chunks deleted in between slices, which would otherwise be refunded twice.
+        if (chunk.isInDataStore() && this.deleteChunk(chunk)) {
+          deleted[0]++;
+        }
+      }
+      if (playerChunks.hasNext()) {
+        return true;
+      }
+      this.getPlayerData(playerName).addCredits(deleted[0] * this.config.getChunkPrice());
+      onDone.accept(deleted[0]);
+      return false;
+    };
+  }
+
+  /**
+   * Creates a task for the {@link WorkQueue} that writes one of the chunks to storage per slice,
+   * e.g. after changing the builders of all claims of a player in memory. A running recording sees
+   * the changed claims right away. Chunks deleted in between slices are skipped.
+   *
+   * @param changedChunks Chunks to write.
+   * @return Write task.
+   */
+  public IncrementalTask writeChunksTask(List<Chunk> changedChunks) {
+    changedChunks.forEach(this.recorder::claim);
+    return IncrementalTask.forEach(
+        changedChunks,
+        chunk -> {
+          if (chunk.isInDataStore()) {
+            this.writeChunkToStorage(chunk);
+          }
+        });
+  }
+
+  /** @return Ledger logging the credit changes of the player data, or null. */
+  public CreditLedger getCreditLedger() {
+    return this.creditLedger;
+  }
+
+  /**
+   * Opens the credit ledger and replays its entries onto the saved player data, then drops them
+   * from the ledger. Called while initializing, before any player data is loaded.
+   *
+   * @throws IOException The ledger couldn't be read or written.
+   */
+  void replayCreditLedger() throws IOException {
+    final Map<String, List<CreditLedger.Entry>> entriesByPlayer = new LinkedHashMap<>();
+    for (CreditLedger.Entry entry : this.creditLedger.open()) {
+      entriesByPlayer.computeIfAbsent(entry.playerName, name -> new ArrayList<>()).add(entry);
+    }
+    int replayed = 0;
+    for (Map.Entry<String, List<CreditLedger.Entry>> playerEntries : entriesByPlayer.entrySet()) {
+      final PlayerData playerData = this.getPlayerDataFromStorage(playerEntries.getKey());
+      int playerReplayed = 0;
+      for (CreditLedger.Entry entry : playerEntries.getValue()) {
+        if (playerData.replayLedgerEntry(entry.sequence, entry.deltaUnits)) {
+          playerReplayed++;
+        }
+      }
+      if (0 < playerReplayed) {
+        this.savePlayerData(playerEntries.getKey(), playerData);
+        replayed += playerReplayed;
+      }
+    }
+    if (!this.unsavedPlayerNames.isEmpty()) {
+      // Keep the entries, they are replayed again on the next start.
+      ChunkClaimFabric.logInfo("Unable to save replayed credits, keeping the credit ledger.");
+    } else {
+      // Every entry is in the saved player data now.
+      this.creditLedger.truncate(this.creditLedger.getSequence());
+    }
+    if (0 < replayed) {
+      ChunkClaimFabric.logInfo(
+          String.format("Replayed %d credit changes from the credit ledger.", replayed));
+    }
+  }
+
+  /**
+   * Creates a task for the {@link WorkQueue} that compacts the credit ledger. Saves the data of one
+   * player with ledger entries per slice, then drops the entries logged before the task was
+   * created from the ledger. Data of players no longer in memory was saved when it was dropped.
+   * Nothing is dropped while the last save of any player failed.
+   *
+   * @return Compaction task.
+   */
+  public IncrementalTask compactCreditLedgerTask() {
+    final long throughSequence = this.creditLedger.getSequence();
+    final Iterator<String> playerNames = this.creditLedger.takeChangedPlayers().iterator();
+    return () -> {
+      if (playerNames.hasNext()) {
+        final String playerName = playerNames.next();
+        final PlayerData playerData;
+        synchronized (this) {
+          playerData = this.playerNameToPlayerDataMap.get(playerName);
+        }
+        if (null != playerData) {
+          this.savePlayerData(playerName, playerData);
+        }
+        return true;
+      }
+      if (!this.unsavedPlayerNames.isEmpty()) {
+        ChunkClaimFabric.logInfo("Unable to save player data, skipping credit ledger compaction.");
+        return false;
+      }
+      try {
+        this.creditLedger.truncate(throughSequence);
+      } catch (IOException e) {
+        ChunkClaimFabric.logger.log(
+            Level.WARNING,
+            String.format("%s: Unable to compact the credit ledger.", ChunkClaimFabric.MOD_ID),
+            e);
+      }
+      return false;
+    };
   }
 
   /**
@@ -374,8 +751,87 @@ public abstract class DataStore {
     }
   }
 
+  /** @return Names of the players ignoring claims, see {@link #canIgnoreChunkClaims(String)}. */
+  public synchronized List<String> getIgnoringPlayerNames() {
+    List<String> playerNames = new ArrayList<>();
+    for (PlayerData playerData : this.playerNameToPlayerDataMap.values()) {
+      if (playerData.canIgnoreChunkClaims()) {
+        playerNames.add(playerData.getPlayerName());
+      }
+    }
+    return playerNames;
+  }
+
   /** @return Map worlds and their chunk data. */
   public Map<String, ChunkWorld> getWorlds() {
     return worlds;
   }
+
+  /** Clean up checking one random chunk per slice, see {@link #cleanUp(int)}. */
+  private final class CleanUp implements IncrementalTask {
+    /** Most chunks reclaimed by one clean up. */
+    private static final int MAX_RECLAIMED = 50;
+
+    private final int n;
+    private final Random random = new Random();
+    private long startNanos;
+    private int checked = 0;
+    private int reclaimed = 0;
+
+    /** @param n Number of chunks to randomly check for clean up. */
+    private CleanUp(int n) {
+      this.n = n;
+    }
+
+    @Override
+    public boolean runSlice() {
+      if (0 == this.checked) {
+        this.startNanos = System.nanoTime();
+      }
+      if (this.hasChunksLeft()) {
+        final SlowOperationWatchdog.Operation operation =
+            DataStore.this.watchdog.begin("datastore.clean_up", this.n);
+        try {
+          this.check(chunks.get(this.random.nextInt(chunks.size())));
+        } finally {
+          DataStore.this.watchdog.end(operation);
+        }
+      }
+      if (this.hasChunksLeft()) {
+        return true;
+      }
+      // Spans every tick the clean up ran in when run by the work queue.
+      FlightEvents.cleanup(this.checked, this.reclaimed, this.startNanos);
+      return false;
+    }
+
+    /** @return {@code true} if more chunks are to be checked, else {@code false}. */
+    private boolean hasChunksLeft() {
+      return (this.checked < this.n) && (MAX_RECLAIMED > this.reclaimed) && !chunks.isEmpty();
+    }
+
+    /**
+     * Checks a chunk, reclaiming it if it is marked or unbuilt for too long.
+     *
+     * @param chunk Chunk to check.
+     */
+    private void check(Chunk chunk) {
+      this.checked++;
+      final long autoDeleteMillis = (long) config.getAutoDeleteMillis();
+      final long claimAgeMillis = server.getClock().millis() - chunk.getClaimDate().getTime();
+      // Cleanup the chunk.
+      if (chunk.isMarked()
+          || (!config.isAutoDeleteDisabled()
+              && (!chunk.hasMetMinimum() && (claimAgeMillis > autoDeleteMillis)))) {
+        // Reclaim the chunk.
+        DataStore.this.deleteChunk(chunk);
+        DataStore.this.clearCachedPlayerData(chunk.getOwnerName());
+        ChunkClaimFabric.logInfo(
+            String.format(
+                "Auto-deleted %s's chunk at %s.",
+                chunk.getOwnerName(), chunk.getChunkCoordString()));
+        this.reclaimed++;
+      }
+    }
+  }
 }
@@ -22,17 +22,28 @@
 package com.github.plateofpasta.chunkclaimfabric.datastore;
 
 import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimConfig;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.SlowOperationWatchdog;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Timer;
+import com.github.plateofpasta.chunkclaimfabric.metrics.jfr.FlightEvents;
 import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.github.plateofpasta.chunkclaimfabric.server.Server;
 import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
-import com.github.plateofpasta.chunkclaimfabric.world.ChunkWorld;
 import com.google.gson.Gson;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Date;
 
 /** Implements parent interface as a flat file store. */
@@ -42,16 +53,80 @@ public class FlatFileDataStore extends DataStore {
   private static final String WORLD_DATA_FOLDER_PATH =
       DATA_LAYER_FOLDER_PATH + File.separator + "ChunkData";
   private static final String FILE_EXTENSION = ".json";
+  private static final String CREDIT_LEDGER_FILE_PATH =
+      DATA_LAYER_FOLDER_PATH + File.separator + "credits.ledger";
+  /**
+   * Serializes player file access. Kept separate from the datastore lock so that prefetching player
+   * data off the server thread never blocks claim lookups.
+   */
+  private final Object playerFileLock = new Object();
+  /** Folder holding one file per player. */
+  private final File playerDataFolder;
+  /** Folder holding one subfolder per world, each with one file per claimed chunk. */
+  private final File worldDataFolder;
+  // Storage timers of the datastore's metrics registry.
+  private final Timer loadWorldTimer = this.metrics.timer("datastore.load_world");
+  private final Timer readChunkTimer = this.metrics.timer("datastore.read_chunk");
+  private final Timer writeChunkTimer = this.metrics.timer("datastore.write_chunk");
+  private final Timer deleteChunkTimer = this.metrics.timer("datastore.delete_chunk");
+  private final Timer readPlayerTimer = this.metrics.timer("datastore.read_player");
+  private final Timer writePlayerTimer = this.metrics.timer("datastore.write_player");
 
   /**
    * Runs the datastore initializer.
    *
+   * @param config Configuration of the mod.
+   * @param server Server the claims are on.
+   * @param metrics Registry of the datastore's metrics.
+   * @param watchdog Watchdog logging slow datastore operations.
+   * @param recorder Recorder of the claim changes.
    * @throws Exception Something went wrong during initialization of the datastore.
    */
-  public FlatFileDataStore() throws Exception {
+  public FlatFileDataStore(
+      ChunkClaimConfig config,
+      Server server,
+      MetricsRegistry metrics,
+      SlowOperationWatchdog watchdog,
+      ProtectionEventRecorder recorder)
+      throws Exception {
+    this(
+        config,
+        server,
+        metrics,
+        watchdog,
+        recorder,
+        new File(PLAYER_DATA_FOLDER_PATH),
+        new File(server.getRunDirectory(), WORLD_DATA_FOLDER_PATH));
+    this.creditLedger =
+        new CreditLedger(new File(CREDIT_LEDGER_FILE_PATH), server.getClock(), metrics);
     this.initialize();
   }
 
+  /**
+   * Creates a datastore on the given folders without initializing it, so no worlds are loaded.
+   * Package-private for the benchmarks, which run against fixture folders.
+   *
+   * @param config Configuration of the mod.
+   * @param server Server the claims are on.
+   * @param metrics Registry of the datastore's metrics.
+   * @param watchdog Watchdog logging slow datastore operations.
+   * @param recorder Recorder of the claim changes.
+   * @param playerDataFolder Folder holding the player data files.
+   * @param worldDataFolder Folder holding the chunk data folders of the worlds.
+   */
+  FlatFileDataStore(
+      ChunkClaimConfig config,
+      Server server,
+      MetricsRegistry metrics,
+      SlowOperationWatchdog watchdog,
+      ProtectionEventRecorder recorder,
+      File playerDataFolder,
+      File worldDataFolder) {
+    super(config, server, metrics, watchdog, recorder);
+    this.playerDataFolder = playerDataFolder;
+    this.worldDataFolder = worldDataFolder;
+  }
+
   /**
    * Abstracts how the string filename is formed for a chunk.
    *
@@ -90,10 +165,8 @@ public class FlatFileDataStore extends DataStore {
    * @param worldName Worldname to form the path.
    * @return String name.
    */
-  private static String formChunkDataFolderPath(String worldName) {
-    return ChunkClaimFabric.getPlugin().getServer().getRunDirectory().toString()
-        + File.separator
-        + WORLD_DATA_FOLDER_PATH
+  private String formChunkDataFolderPath(String worldName) {
+    return this.worldDataFolder.toString()
         + File.separator
         + (worldName.replaceAll("[\\\\\\/\\*\\?\\\"\\<\\>\\|\\:]", "-"));
   }
@@ -104,7 +177,7 @@ public class FlatFileDataStore extends DataStore {
    * @param chunk Chunk to get the path of.
    * @return String path.
    */
-  private static String formFullChunkDataFilePath(Chunk chunk) {
+  String formFullChunkDataFilePath(Chunk chunk) {
     return (formChunkDataFolderPath(chunk.getWorldName())
         + File.separator
         + formChunkFileName(chunk));
@@ -116,8 +189,8 @@ public class FlatFileDataStore extends DataStore {
    * @param playerName Name of the player.
    * @return String filepath.
    */
-  private static String formFullPlayerDataFilePath(String playerName) {
-    return (PLAYER_DATA_FOLDER_PATH + File.separator + playerName + FILE_EXTENSION);
+  String formFullPlayerDataFilePath(String playerName) {
+    return (this.playerDataFolder.toString() + File.separator + playerName + FILE_EXTENSION);
   }
 
   /**
@@ -137,7 +210,7 @@ public class FlatFileDataStore extends DataStore {
    *
    * @return Chunk read from storage.
    */
-  private synchronized PlayerData readPlayerDataFromStorage(String filePath) throws IOException {
+  private PlayerData readPlayerDataFromStorage(String filePath) throws IOException {
     try (FileReader fileReader = new FileReader(filePath)) {
       return readData(fileReader, PlayerData.class);
     }
@@ -152,12 +225,17 @@ public class FlatFileDataStore extends DataStore {
   void initialize() throws Exception {
 
     // Ensure data folders exist.
-    new File(PLAYER_DATA_FOLDER_PATH).mkdirs();
-    new File(WORLD_DATA_FOLDER_PATH).mkdirs();
+    this.playerDataFolder.mkdirs();
+    this.worldDataFolder.mkdirs();
+
+    // Recover the credit changes not in the player data files yet.
+    if (null != this.creditLedger) {
+      this.replayCreditLedger();
+    }
 
     // Load worlds.
-    for (String worldName : ChunkClaimFabric.getClaimConfig().getWorlds()) {
-      if (null != ChunkClaimFabric.getPlugin().getServer().getWorld(worldName)) {
+    for (String worldName : this.config.getWorlds()) {
+      if (this.server.hasWorld(worldName)) {
         this.loadWorldData(worldName);
       }
     }
@@ -193,8 +271,27 @@ public class FlatFileDataStore extends DataStore {
    */
   @Override
   public synchronized void loadWorldData(String worldName) {
+    final long start = this.loadWorldTimer.start();
+    final SlowOperationWatchdog.Operation operation =
+        this.watchdog.begin("datastore.load_world", worldName);
+    try {
+      this.readWorldData(worldName);
+    } finally {
+      this.watchdog.end(operation);
+      this.loadWorldTimer.stop(start);
+    }
+  }
+
+  /**
+   * Reads every chunk file of the world into memory, see {@link #loadWorldData(String)}.
+   *
+   * @param worldName World to load.
+   */
+  private void readWorldData(String worldName) {
+    this.checkStorageThread("load chunk data for world " + worldName);
     // Create a new world object and register it.
-    this.worlds.put(worldName, new ChunkWorld(worldName));
+    this.addWorld(worldName);
+    this.markClaimsChanged();
 
     // Load chunks data into memory.
     // Get a list of all the chunks in the world folder.
@@ -234,6 +331,7 @@ public class FlatFileDataStore extends DataStore {
         chunk.setModifiedDate(new Date(file.lastModified()));
 
         // todo add helper for this remaining block?
+        chunk.setDataStore(this);
         this.chunks.add(chunk);
         if (!chunk.hasMetMinimum()) {
           this.unusedChunks.add(chunk);
@@ -243,6 +341,7 @@ public class FlatFileDataStore extends DataStore {
         chunk.setInDataStore(true);
       }
     }
+    this.markClaimsChanged();
   }
 
   /**
@@ -251,26 +350,37 @@ public class FlatFileDataStore extends DataStore {
    * @param chunk Chunk to write to the datastore.
    */
   public synchronized void writeChunkToStorage(Chunk chunk) {
-    String chunkDataFilePath = formFullChunkDataFilePath(chunk);
-    // Ensure that the world folder exists.
-    makeParentDirs(chunkDataFilePath);
-
-    // Open the chunk's file for overwriting.
-    File chunkFile = new File(chunkDataFilePath);
-
-    try (FileWriter writer = new FileWriter(chunkFile)) {
-      // Write chunk to the file.
-      this.writeData(chunk, writer);
-    } catch (IOException e) {
-      ChunkClaimFabric.logInfo(
-          "IOException when saving data for chunk at path: "
-              + formFullChunkDataFilePath(chunk)
-              + System.lineSeparator()
-              + "Error: "
-              + e.getMessage());
+    final long start = this.writeChunkTimer.start();
+    final String chunkDataFilePath = formFullChunkDataFilePath(chunk);
+    final SlowOperationWatchdog.Operation operation =
+        this.watchdog.begin("datastore.write_chunk", chunkDataFilePath);
+    try {
+      this.checkStorageThread("write chunk data at " + chunkDataFilePath);
+      // Ensure that the world folder exists.
+      makeParentDirs(chunkDataFilePath);
+
+      // Open the chunk's file for overwriting.
+      File chunkFile = new File(chunkDataFilePath);
+
+      try (FileWriter writer = new FileWriter(chunkFile)) {
+        // Write chunk to the file.
+        this.writeData(chunk, writer);
+      } catch (IOException e) {
+        ChunkClaimFabric.logInfo(
+            "IOException when saving data for chunk at path: "
+                + formFullChunkDataFilePath(chunk)
+                + System.lineSeparator()
+                + "Error: "
+                + e.getMessage());
+      } finally {
+        // Update date.
+        chunk.setModifiedDate(new Date(chunkFile.lastModified()));
+      }
+      this.recorder.claim(chunk);
     } finally {
-      // Update date.
-      chunk.setModifiedDate(new Date(chunkFile.lastModified()));
+      this.watchdog.end(operation);
+      this.writeChunkTimer.stop(start);
+      FlightEvents.storageIo("write_chunk", chunkDataFilePath, start);
     }
   }
 
@@ -280,8 +390,15 @@ public class FlatFileDataStore extends DataStore {
    * @return Chunk read from storage.
    */
   synchronized Chunk readChunkFromStorage(String filePath) throws IOException {
+    final long start = this.readChunkTimer.start();
+    final SlowOperationWatchdog.Operation operation =
+        this.watchdog.begin("datastore.read_chunk", filePath);
     try (FileReader fileReader = new FileReader(filePath)) {
       return readData(fileReader, Chunk.class);
+    } finally {
+      this.watchdog.end(operation);
+      this.readChunkTimer.stop(start);
+      FlightEvents.storageIo("read_chunk", filePath, start);
     }
   }
 
@@ -293,46 +410,71 @@ public class FlatFileDataStore extends DataStore {
    */
   @Override
   boolean deleteChunkFromSecondaryStorage(Chunk chunk) {
-    String fullPathName = formFullChunkDataFilePath(chunk);
-    // remove from disk
-    File chunkFile = new File(fullPathName);
+    final long start = this.deleteChunkTimer.start();
+    final String fullPathName = formFullChunkDataFilePath(chunk);
+    final SlowOperationWatchdog.Operation operation =
+        this.watchdog.begin("datastore.delete_chunk_file", fullPathName);
+    try {
+      this.checkStorageThread("delete chunk data at " + fullPathName);
+      // remove from disk
+      File chunkFile = new File(fullPathName);
 
-    if (chunkFile.exists() && !chunkFile.delete()) {
-      ChunkClaimFabric.logInfo("Error: Unable to delete chunk file at path" + fullPathName);
-      return false;
+      if (chunkFile.exists() && !chunkFile.delete()) {
+        ChunkClaimFabric.logInfo("Error: Unable to delete chunk file at path" + fullPathName);
+        return false;
+      }
+      return true;
+    } finally {
+      this.watchdog.end(operation);
+      this.deleteChunkTimer.stop(start);
+      FlightEvents.storageIo("delete_chunk", fullPathName, start);
     }
-    return true;
   }
 
   /**
-   * Satisfies parent interface for flat file datastore.
+   * Satisfies parent interface for flat file datastore. Does not take the datastore lock, so it may
+   * be called off the server thread.
    *
    * @param playerName Name of the player whose data we're reading.
    * @return PlayerData object filled with the non-transient data in their file.
    */
   @Override
-  synchronized PlayerData getPlayerDataFromStorage(String playerName) {
-    File file = new File(formFullPlayerDataFilePath(playerName));
-
-    PlayerData playerData = new PlayerData();
-    playerData.setPlayerName(playerName);
-
-    if (!file.exists()) {
-      // Create a file with defaults if it doesn't exist.
-      this.savePlayerData(playerName, playerData);
-    } else {
-      try {
-        playerData = readPlayerDataFromStorage(file.getAbsolutePath());
-      } catch (IOException e) {
-        ChunkClaimFabric.logInfo(
-            "IOException saving player data at path: "
-                + file.toString()
-                + System.lineSeparator()
-                + "Error: "
-                + e.getMessage());
+  PlayerData getPlayerDataFromStorage(String playerName) {
+    final long start = this.readPlayerTimer.start();
+    final File file = new File(formFullPlayerDataFilePath(playerName));
+    final SlowOperationWatchdog.Operation operation =
+        this.watchdog.begin("datastore.read_player", file);
+    try {
+      this.checkStorageThread("read player data at " + file);
+
+      PlayerData playerData = new PlayerData(this.config);
+      playerData.setPlayerName(playerName);
+
+      synchronized (this.playerFileLock) {
+        if (!file.exists()) {
+          // Create a file with defaults if it doesn't exist.
+          this.savePlayerData(playerName, playerData);
+        } else {
+          try {
+            playerData = readPlayerDataFromStorage(file.getAbsolutePath());
+          } catch (IOException e) {
+            ChunkClaimFabric.logInfo(
+                "IOException saving player data at path: "
+                    + file.toString()
+                    + System.lineSeparator()
+                    + "Error: "
+                    + e.getMessage());
+          }
+        }
       }
+      playerData.setConfig(this.config);
+      playerData.setCreditListener(this.creditLedger);
+      return playerData;
+    } finally {
+      this.watchdog.end(operation);
+      this.readPlayerTimer.stop(start);
+      FlightEvents.storageIo("read_player", file.getPath(), start);
     }
-    return playerData;
   }
 
   /**
@@ -342,52 +484,88 @@ public class FlatFileDataStore extends DataStore {
    * @param playerData PlayerData object to store.
    */
   @Override
-  public synchronized void savePlayerData(String playerName, PlayerData playerData) {
-    playerData.setPlayerName(playerName); // This might be redundant.
-    writePlayerDataToStorage(playerData);
+  public void savePlayerData(String playerName, PlayerData playerData) {
+    synchronized (this.playerFileLock) {
+      playerData.setPlayerName(playerName); // This might be redundant.
+      // The copy's credits include exactly the ledger entries up to its sequence number, even with
+      // credit changes racing with the save.
+      writePlayerDataToStorage(
+          playerData.copyForSave(
+              null == this.creditLedger
+                  ? playerData::getLedgerSequence
+                  : this.creditLedger::getSequence));
+    }
   }
 
   /**
-   * PlayerData datastore writer. Writes only the non-transient data.
+   * PlayerData datastore writer. Writes only the non-transient data. The data is written to a
+   * temporary file and synced before it replaces the player's file, so a crash leaves either the
+   * old or the new file and never a partial one.
    *
    * @param playerData PlayerData to write to the datastore.
    */
-  private synchronized void writePlayerDataToStorage(PlayerData playerData) {
-    String playerFullDataFilePath = formFullPlayerDataFilePath(playerData.getPlayerName());
-    makeParentDirs(playerFullDataFilePath);
-
-    // Open the file for overwriting.
-    File playerFile = new File(playerFullDataFilePath);
-
-    try (FileWriter writer = new FileWriter(playerFile)) {
-      // Write to the file.
-      this.writeData(playerData, writer);
-    } catch (IOException e) {
-      ChunkClaimFabric.logInfo(
-          "IOException when saving player data at path: "
-              + playerFullDataFilePath
-              + System.lineSeparator()
-              + "Error: "
-              + e.getMessage());
+  private void writePlayerDataToStorage(PlayerData playerData) {
+    final long start = this.writePlayerTimer.start();
+    final String playerFullDataFilePath = formFullPlayerDataFilePath(playerData.getPlayerName());
+    final SlowOperationWatchdog.Operation operation =
+        this.watchdog.begin("datastore.write_player", playerFullDataFilePath);
+    try {
+      this.checkStorageThread("write player data at " + playerFullDataFilePath);
+      makeParentDirs(playerFullDataFilePath);
+
+      final File playerFile = new File(playerFullDataFilePath);
+      final File temporaryFile = new File(playerFullDataFilePath + ".tmp");
+
+      try {
+        try (FileOutputStream out = new FileOutputStream(temporaryFile);
+            Writer writer = new OutputStreamWriter(out)) {
+          this.writeData(playerData, writer);
+          writer.flush();
+          out.getChannel().force(false);
+        }
+        Files.move(
+            temporaryFile.toPath(),
+            playerFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        this.unsavedPlayerNames.remove(playerData.getPlayerName());
+      } catch (IOException e) {
+        this.unsavedPlayerNames.add(playerData.getPlayerName());
+        ChunkClaimFabric.logInfo(
+            "IOException when saving player data at path: "
+                + playerFullDataFilePath
+                + System.lineSeparator()
+                + "Error: "
+                + e.getMessage());
+      }
+    } finally {
+      this.watchdog.end(operation);
+      this.writePlayerTimer.stop(start);
+      FlightEvents.storageIo("write_player", playerFullDataFilePath, start);
     }
   }
 
   /**
-   * Implements the parent interface. Does nothing since files are opened/closed on the fly for the
-   * FlatFileDataStore.
+   * Implements the parent interface. Stops the player data prefetching and commits the credit
+   * ledger, files are opened/closed on the fly for the FlatFileDataStore.
    */
   @Override
-  public synchronized void close() {}
+  public synchronized void close() {
+    this.playerDataLoader.shutdown();
+    if (null != this.creditLedger) {
+      this.creditLedger.commit();
+    }
+  }
 
   /**
    * Handles writing data to a file.
    *
    * @param data Data to write.
-   * @param writer FileWriter to write with.
+   * @param writer Writer to write with.
    * @param <T> Type of data.
-   * @throws IOException There was a problem with the file writer.
+   * @throws IOException There was a problem with the writer.
    */
-  private synchronized <T> void writeData(T data, FileWriter writer) throws IOException {
+  private <T> void writeData(T data, Writer writer) throws IOException {
     Gson gson = new Gson();
     try {
       gson.toJson(data, writer);
@@ -406,7 +584,7 @@ public class FlatFileDataStore extends DataStore {
    * @throws IOException There was a problem with the file reader, related to either file I/O or
    *     parsing.
    */
-  private synchronized <T> T readData(FileReader reader, Class<T> classOfT) throws IOException {
+  private <T> T readData(FileReader reader, Class<T> classOfT) throws IOException {
     Gson gson = new Gson();
     try {
       return gson.fromJson(reader, classOfT);
@@ -0,0 +1,49 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.event;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * Callback for movement packets of players, handled on the server thread. Clients send one at least
+ * every second, even while standing still, so listeners must be cheap.
+ */
+@FunctionalInterface
+public interface PlayerMoveCallback {
+  Event<PlayerMoveCallback> EVENT =
+      EventFactory.createArrayBacked(
+          PlayerMoveCallback.class,
+          (listeners) ->
+              (player) -> {
+                for (PlayerMoveCallback event : listeners) {
+                  event.move(player);
+                }
+              });
+
+  /**
+   * Callback for this interface. Provides the player after the movement was applied.
+   *
+   * @param player Player that sent the movement packet.
+   */
+  void move(ServerPlayerEntity player);
+}
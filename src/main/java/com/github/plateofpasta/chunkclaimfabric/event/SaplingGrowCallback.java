@@ -29,13 +29,11 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.gen.feature.TreeFeature;
 
-import java.util.Set;
-
 /**
- * Fabric API event interface for when a tree is grown by a player. Note, this occurs after all of
- * the blocks have been generated in the game world. Thus, it is recommended to iterate over the
- * collection of block positions for the logs/leaves and utilize the interface {@link
- * TreeFeature#setBlockStateWithoutUpdatingNeighbors} to edit the blocks as necessary. \n Note: the
+ * Fabric API event interface for when a tree is grown by a player. The event is invoked once for
+ * each chunk column the tree reaches into, before the tree's logs and leaves are placed, so a
+ * rejected chunk never has tree blocks written to it. Decorations (e.g. vines, cocoa, bee nests)
+ * are placed afterwards and are removed from rejected chunks. \n Note: the {@link
  * com.github.plateofpasta.chunkclaimfabric.util.arborist.GrowthType#WORLD_GEN} growth type is
  * excluded from this event.
  *
@@ -47,23 +45,10 @@ public interface SaplingGrowCallback {
       EventFactory.createArrayBacked(
           SaplingGrowCallback.class,
           (listeners) ->
-              (growthType,
-                  feature,
-                  world,
-                  rootBlockPos,
-                  logPositions,
-                  leavesPositions,
-                  decoratorPositions) -> {
+              (growthType, feature, world, rootBlockPos, chunkX, chunkZ) -> {
                 for (SaplingGrowCallback event : listeners) {
                   ActionResult result =
-                      event.grow(
-                          growthType,
-                          feature,
-                          world,
-                          rootBlockPos,
-                          logPositions,
-                          leavesPositions,
-                          decoratorPositions);
+                      event.grow(growthType, feature, world, rootBlockPos, chunkX, chunkZ);
 
                   if (result != ActionResult.PASS) {
                     return result;
@@ -79,18 +64,16 @@ public interface SaplingGrowCallback {
    * @param feature Feature used to generate the tree.
    * @param world World the tree growth is occurring in.
    * @param rootBlockPos The "root" position of the tree growth.
-   * @param logPositions Collection of block positions for the tree's log blocks.
-   * @param leavesPositions Collection of block positions for the tree's leaf blocks.
-   * @param decoratorPositions Collection of block positions for the tree's decoration blocks.
-   * @return PASS if the tree growth should proceed as normal, FAIL if the blocks in each set should
-   *     be replaced with an air block.
+   * @param chunkX X coordinate of the chunk the tree reaches into.
+   * @param chunkZ Z coordinate of the chunk the tree reaches into.
+   * @return PASS if the tree may place blocks in the chunk, FAIL if none of the tree's blocks
+   *     should be placed in the chunk.
    */
   ActionResult grow(
       GrowthType growthType,
       TreeFeature feature,
       World world,
       BlockPos rootBlockPos,
-      Set<BlockPos> logPositions,
-      Set<BlockPos> leavesPositions,
-      Set<BlockPos> decoratorPositions);
+      int chunkX,
+      int chunkZ);
 }
@@ -21,7 +21,6 @@
 
 package com.github.plateofpasta.chunkclaimfabric.handler;
 
-import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
 import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimConfig;
 import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimPrompt;
 import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimTags;
@@ -30,9 +29,16 @@ import com.github.plateofpasta.chunkclaimfabric.event.BlockSpreadCallback;
 import com.github.plateofpasta.chunkclaimfabric.event.DispenseCallback;
 import com.github.plateofpasta.chunkclaimfabric.event.SaplingGrowCallback;
 import com.github.plateofpasta.chunkclaimfabric.event.UseBedCallback;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Counter;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Timer;
+import com.github.plateofpasta.chunkclaimfabric.metrics.jfr.FlightEvents;
 import com.github.plateofpasta.chunkclaimfabric.player.ChunkClaimPlayer;
 import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventType;
 import com.github.plateofpasta.chunkclaimfabric.util.ChunkClaimUtil;
+import com.github.plateofpasta.chunkclaimfabric.util.HopperClaimCache;
 import com.github.plateofpasta.chunkclaimfabric.util.arborist.GrowthType;
 import com.github.plateofpasta.chunkclaimfabric.visual.Visualization;
 import com.github.plateofpasta.chunkclaimfabric.visual.VisualizationType;
@@ -41,11 +47,11 @@ import com.github.plateofpasta.edgestitch.event.FluidFlowCallback;
 import com.github.plateofpasta.edgestitch.event.HopperInsertCallback;
 import com.github.plateofpasta.edgestitch.event.PistonEvents;
 import com.github.plateofpasta.edgestitch.world.EdgestitchLocation;
+import com.github.plateofpasta.edgestitch.world.EdgestitchWorld;
 import net.fabricmc.fabric.api.event.player.AttackBlockCallback;
 import net.fabricmc.fabric.api.event.player.UseBlockCallback;
 import net.minecraft.block.AbstractChestBlock;
 import net.minecraft.block.BlockState;
-import net.minecraft.block.Blocks;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.block.entity.HopperBlockEntity;
 import net.minecraft.block.entity.LockableContainerBlockEntity;
@@ -59,50 +65,181 @@ import net.minecraft.util.ActionResult;
 import net.minecraft.util.Hand;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 import net.minecraft.world.gen.feature.TreeFeature;
 
-import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-import java.util.function.Predicate;
 
 /** Handler for block events. */
 public class BlockEventHandler {
 
   private final DataStore dataStore;
+  private final PistonClaimEvaluator pistonEvaluator;
+  private final ProtectionEventRecorder recorder;
+  private final Counter hopperCacheLookups;
+  private final Counter hopperCacheMisses;
 
   /**
-   * The handler requires a reference to the datastore.
+   * The handler requires a reference to the datastore. Package-private for the benchmarks, use
+   * {@link #initHandlers(DataStore)} otherwise.
    *
    * @param dataStore Chunk claim datastore of the plugin's server.
    */
-  private BlockEventHandler(DataStore dataStore) {
+  BlockEventHandler(DataStore dataStore) {
     this.dataStore = dataStore;
+    this.pistonEvaluator = new PistonClaimEvaluator(dataStore);
+    this.recorder = dataStore.getRecorder();
+    this.hopperCacheLookups = dataStore.getMetrics().counter("hopper.cache_lookups");
+    this.hopperCacheMisses = dataStore.getMetrics().counter("hopper.cache_misses");
   }
 
   /**
-   * Bootstrap static method for initializing the callbacks for events.
+   * Bootstrap static method for initializing the callbacks for events. Every callback is timed
+   * under {@code callback.<name>} in the mod's metrics registry.
    *
    * @param dataStore Chunk claim datastore of the plugin's server.
    */
   public static void initHandlers(DataStore dataStore) {
     BlockEventHandler handler = new BlockEventHandler(dataStore);
-    UseBedCallback.EVENT.register(handler::onUseBedBlock);
-    AttackBlockCallback.EVENT.register(handler::onBlockBreak);
-    UseBlockCallback.EVENT.register(handler::onBlockPlace);
-    UseBlockCallback.EVENT.register(handler::onSpawnEggUse);
-    UseBlockCallback.EVENT.register(handler::onItemUseBlock);
-    BlockSpreadCallback.EVENT.register(handler::onSpreadFromTo);
-    FluidFlowCallback.EVENT.register(handler::onFluidFromTo);
-    DispenseCallback.EVENT.register(handler::onDispenseFromTo);
-    HopperInsertCallback.EVENT.register(handler::onHopperInsert);
-    SaplingGrowCallback.EVENT.register(handler::onTreeGrow);
-    PistonEvents.PISTON_EXTEND.register(handler::onPistonExtend);
-    PistonEvents.PISTON_RETRACT.register(handler::onPistonRetract);
+    final MetricsRegistry metrics = dataStore.getMetrics();
+    final ProtectionEventRecorder recorder = handler.recorder;
+    final Timer bedTimer = metrics.timer("callback.bed");
+    UseBedCallback.EVENT.register(
+        (playerEntity, world, blockPos) ->
+            bedTimer.time(
+                () ->
+                    handler
+                        .onUseBedBlock(playerEntity, world, blockPos)
+                        .record(recorder, ProtectionEventType.BED, world, blockPos, playerEntity)));
+    final Timer blockBreakTimer = metrics.timer("callback.block_break");
+    AttackBlockCallback.EVENT.register(
+        (playerEntity, world, hand, blockPos, direction) ->
+            blockBreakTimer.time(
+                () -> {
+                  final PlayerDecision decision =
+                      handler.onBlockBreak(playerEntity, world, hand, blockPos, direction);
+                  final ActionResult result =
+                      decision.record(
+                          recorder, ProtectionEventType.BLOCK_BREAK, world, blockPos, playerEntity);
+                  // Claimed after recording the denied break, the claim is recorded on its own.
+                  if (PlayerDecision.CLAIM == decision) {
+                    handler.tryClaim(playerEntity, world, blockPos);
+                  }
+                  return result;
+                }));
+    final Timer blockPlaceTimer = metrics.timer("callback.block_place");
+    UseBlockCallback.EVENT.register(
+        (playerEntity, world, hand, hitResult) ->
+            blockPlaceTimer.time(
+                () ->
+                    handler
+                        .onBlockPlace(playerEntity, world, hand, hitResult)
+                        .record(
+                            recorder,
+                            ProtectionEventType.BLOCK_PLACE,
+                            world,
+                            hitResult.getBlockPos(),
+                            playerEntity)));
+    final Timer spawnEggTimer = metrics.timer("callback.spawn_egg");
+    UseBlockCallback.EVENT.register(
+        (playerEntity, world, hand, hitResult) ->
+            spawnEggTimer.time(() -> handler.onSpawnEggUse(playerEntity, world, hand, hitResult)));
+    final Timer blockUseTimer = metrics.timer("callback.block_use");
+    UseBlockCallback.EVENT.register(
+        (playerEntity, world, hand, hitResult) ->
+            blockUseTimer.time(
+                () ->
+                    handler
+                        .onItemUseBlock(playerEntity, world, hand, hitResult)
+                        .record(
+                            recorder,
+                            ProtectionEventType.BLOCK_USE,
+                            world,
+                            hitResult.getBlockPos(),
+                            playerEntity)));
+    final Timer spreadTimer = metrics.timer("callback.spread");
+    BlockSpreadCallback.EVENT.register(
+        (world, fromBlockPos, toBlockPos, blockState) ->
+            spreadTimer.time(
+                () ->
+                    recorder.fromTo(
+                        ProtectionEventType.SPREAD,
+                        world,
+                        fromBlockPos,
+                        toBlockPos,
+                        handler.onSpreadFromTo(world, fromBlockPos, toBlockPos, blockState))));
+    final Timer fluidTimer = metrics.timer("callback.fluid");
+    FluidFlowCallback.EVENT.register(
+        (world, toBlockPos, toBlockState, direction, fluidState) ->
+            fluidTimer.time(
+                () ->
+                    recorder.fluid(
+                        world,
+                        toBlockPos,
+                        direction,
+                        handler.onFluidFromTo(
+                            world, toBlockPos, toBlockState, direction, fluidState))));
+    final Timer dispenseTimer = metrics.timer("callback.dispense");
+    DispenseCallback.EVENT.register(
+        (world, fromBlockPos, toBlockPos) ->
+            dispenseTimer.time(
+                () ->
+                    recorder.fromTo(
+                        ProtectionEventType.DISPENSE,
+                        world,
+                        fromBlockPos,
+                        toBlockPos,
+                        handler.onDispenseFromTo(world, fromBlockPos, toBlockPos))));
+    final Timer hopperTimer = metrics.timer("callback.hopper");
+    HopperInsertCallback.EVENT.register(
+        (hopper, toBlockPos) ->
+            hopperTimer.time(
+                () ->
+                    recorder.fromTo(
+                        ProtectionEventType.HOPPER,
+                        hopper.getWorld(),
+                        hopper.getPos(),
+                        toBlockPos,
+                        handler.onHopperInsert(hopper, toBlockPos))));
+    final Timer treeTimer = metrics.timer("callback.tree");
+    SaplingGrowCallback.EVENT.register(
+        (growthType, feature, world, rootBlockPos, chunkX, chunkZ) ->
+            treeTimer.time(
+                () ->
+                    recorder.tree(
+                        world,
+                        rootBlockPos,
+                        chunkX,
+                        chunkZ,
+                        handler.onTreeGrow(
+                            growthType, feature, world, rootBlockPos, chunkX, chunkZ))));
+    final Timer pistonExtendTimer = metrics.timer("callback.piston_extend");
+    PistonEvents.PISTON_EXTEND.register(
+        (world, pistonPos, facingDir, pistonHandler) ->
+            pistonExtendTimer.time(
+                () ->
+                    recorder.piston(
+                        world,
+                        pistonPos,
+                        facingDir,
+                        pistonHandler.getMovedBlocks(),
+                        pistonHandler.getBrokenBlocks(),
+                        true,
+                        handler.onPistonExtend(world, pistonPos, facingDir, pistonHandler))));
+    final Timer pistonRetractTimer = metrics.timer("callback.piston_retract");
+    PistonEvents.PISTON_RETRACT.register(
+        (world, pistonPos, facingDir, pistonHandler) ->
+            pistonRetractTimer.time(
+                () ->
+                    recorder.piston(
+                        world,
+                        pistonPos,
+                        facingDir,
+                        pistonHandler.getMovedBlocks(),
+                        pistonHandler.getBrokenBlocks(),
+                        false,
+                        handler.onPistonRetract(world, pistonPos, facingDir, pistonHandler))));
   }
 
   /**
@@ -156,45 +293,13 @@ public class BlockEventHandler {
     if (!ChunkClaimUtil.isConfiguredWorld(world)) {
       return ActionResult.PASS;
     }
-
-    final DataStore datastore = ChunkClaimFabric.getPlugin().getDataStore();
-    final Chunk pistonChunk = datastore.getChunkAt(new EdgestitchLocation(world, pistonPos), null);
-    if (null == pistonChunk) {
-      return ActionResult.FAIL;
-    }
-    if (ChunkClaimPlayer.hasIgnorePermission(pistonChunk.getOwnerName())) {
-      return ActionResult.PASS;
-    }
-    final ChunkPos neighborChunkPos = pistonChunk.offset(facingDir);
-    final Chunk neighborChunk =
-        datastore.getChunkAtPos(neighborChunkPos.x, neighborChunkPos.z, pistonChunk.getWorldName());
-    final boolean cannotModifyNeighbor =
-        (null == neighborChunk || !neighborChunk.canModify(pistonChunk.getOwnerName()));
-    final Direction motionDir = isExtending ? facingDir : facingDir.getOpposite();
-
-    // Claim conflict exists if the checked block position is in or will be moved to the neighbor
-    // chunk AND the owner of the pistonChunk cannot modify other chunks.
-    // TODO: This creates a weird scenario when admins are ignoring chunks and trusted builders can
-    // use piston blocks in their claims.
-    Predicate<BlockPos> isClaimConflict =
-        (sourcePos) -> {
-          // Where a pushed block starts (source).
-          ChunkPos sourceChunkPos = new ChunkPos(sourcePos);
-          // Where a pushed block ends up (destination).
-          ChunkPos destChunkPos = new ChunkPos(sourcePos.offset(motionDir));
-          return ((sourceChunkPos.equals(neighborChunkPos))
-                  || (destChunkPos.equals(neighborChunkPos)))
-              && cannotModifyNeighbor;
-        };
-
-    int numConflicts = 0;
-    numConflicts += pistonHandler.getMovedBlocks().stream().filter(isClaimConflict).count();
-    numConflicts += pistonHandler.getBrokenBlocks().stream().filter(isClaimConflict).count();
-    // Fail operation if ANY of the blocks are owned by someone other than the piston owner.
-    if (0 != numConflicts) {
-      return ActionResult.FAIL;
-    }
-    return ActionResult.PASS;
+    return this.pistonEvaluator.evaluate(
+        EdgestitchWorld.Companion.getName(world),
+        pistonPos,
+        facingDir,
+        pistonHandler.getMovedBlocks(),
+        pistonHandler.getBrokenBlocks(),
+        isExtending);
   }
 
   /**
@@ -203,10 +308,11 @@ public class BlockEventHandler {
    * @param playerEntity Player using (right-clicking) the bed block.
    * @param world World event occurred.
    * @param blockPos Position of the block in the world.
+   * @return Decision on the use of the bed.
    */
-  private ActionResult onUseBedBlock(PlayerEntity playerEntity, World world, BlockPos blockPos) {
+  private PlayerDecision onUseBedBlock(PlayerEntity playerEntity, World world, BlockPos blockPos) {
     if (!ChunkClaimUtil.isConfiguredWorld(world)) {
-      return ActionResult.PASS;
+      return PlayerDecision.UNCHECKED;
     }
     ChunkClaimPlayer player = new ChunkClaimPlayer(playerEntity);
     Chunk chunk = this.dataStore.getChunkAt(new EdgestitchLocation(world, blockPos), null);
@@ -215,12 +321,13 @@ public class BlockEventHandler {
       player.sendMessage(ChunkClaimPrompt.get("prompt.chunkclaim.no_permission"));
     } else {
       if (!chunk.canModify(player.getName())) {
+        FlightEvents.permissionDenied("bed", player.getName(), chunk);
         player.sendMessage(ChunkClaimPrompt.get("prompt.chunkclaim.no_permission"));
-        return ActionResult.FAIL;
+        return PlayerDecision.DENY;
       }
     }
 
-    return ActionResult.PASS;
+    return PlayerDecision.ALLOW;
   }
 
   /**
@@ -229,19 +336,19 @@ public class BlockEventHandler {
    * @param playerEntity Player using the item.
    * @param world World the player is in.
    * @param hand Player hand that the used item is in.
-   * @return Typed action result PASS if the player is allowed to use the item at the current
-   *     location, else FAIL. Does not modify the ItemStack in the player's hand.
+   * @return ALLOW if the player is allowed to use the item at the current location, else DENY.
+   *     Does not modify the ItemStack in the player's hand.
    */
-  private ActionResult onItemUseBlock(
+  private PlayerDecision onItemUseBlock(
       PlayerEntity playerEntity, World world, Hand hand, BlockHitResult blockHitResult) {
     final ItemStack itemStack = playerEntity.getStackInHand(hand);
     if (!ChunkClaimUtil.isConfiguredWorld(world)) {
-      return ActionResult.PASS;
+      return PlayerDecision.UNCHECKED;
     }
 
     final Item item = itemStack.getItem();
     if (!ChunkClaimTags.CHECKED_ITEMS.contains(item)) {
-      return ActionResult.PASS;
+      return PlayerDecision.UNCHECKED;
     }
 
     EdgestitchLocation location = new EdgestitchLocation(world, blockHitResult.getBlockPos());
@@ -249,15 +356,16 @@ public class BlockEventHandler {
 
     // Usage on unclaimed chunk is invalid.
     if (chunk == null) {
-      return ActionResult.FAIL;
+      return PlayerDecision.DENY;
     }
 
     ChunkClaimPlayer player = new ChunkClaimPlayer(playerEntity);
     if (chunk.canModify(player.getName())) {
-      return ActionResult.PASS;
+      return PlayerDecision.ALLOW;
     } else {
+      FlightEvents.permissionDenied("block_use", player.getName(), chunk);
       player.sendMessage("You don't have " + chunk.getOwnerName() + "'s permission to build here.");
-      return ActionResult.FAIL;
+      return PlayerDecision.DENY;
     }
   }
 
@@ -269,7 +377,7 @@ public class BlockEventHandler {
    * @param location Location player is trying to modify.
    */
   private void handleOwnsNearBlockModify(ChunkClaimPlayer player, EdgestitchLocation location) {
-    if (!ChunkClaimFabric.getClaimConfig().getNextToForce() && !player.hasModPermission()) {
+    if (!this.dataStore.getConfig().getNextToForce() && !player.hasModPermission()) {
       player.sendMessages(
           ChunkClaimPrompt.get("prompt.chunkclaim.dont_own_next_to"),
           ChunkClaimPrompt.get("prompt.chunkclaim.how_to_confirm"));
@@ -290,6 +398,22 @@ public class BlockEventHandler {
             new Chunk(location), location.getY(), VisualizationType.PUBLIC, location));
   }
 
+  /**
+   * Lets a player try to claim the chunk of a block they were denied to break, see {@link
+   * PlayerDecision#CLAIM}.
+   *
+   * @param playerEntity Player breaking the block.
+   * @param world World the player is in.
+   * @param blockPos Block position in the world.
+   */
+  private void tryClaim(PlayerEntity playerEntity, World world, BlockPos blockPos) {
+    final ChunkClaimPlayer player = new ChunkClaimPlayer(playerEntity);
+    tryClaim(
+        player,
+        new EdgestitchLocation(world, blockPos),
+        this.dataStore.getPlayerData(player.getName()));
+  }
+
   /**
    * Helper for when a player tries to break a block in a non-claimed chunk - the chunk will be
    * automatically claimed without the `/chunk claim` command if claim conditions are met.
@@ -314,10 +438,12 @@ public class BlockEventHandler {
 
     if (!dataStore.ownsNear(location, playerName)) {
       handleOwnsNearBlockModify(player, location);
-    } else if (playerData.canAffordClaim()) {
-      // Claim chunk and add it to the datastore.
-      Chunk newChunk = new Chunk(location, playerName, playerData.getBuilderNames());
-      this.dataStore.claimChunk(playerName, newChunk);
+      return;
+    }
+
+    // Claim chunk and add it to the datastore if the player can pay for it.
+    Chunk newChunk = new Chunk(location, playerName, playerData.getBuilderNames());
+    if (this.dataStore.claimChunk(playerName, newChunk)) {
       playerData.setLastChunk(newChunk);
 
       // Send success prompt and visualization to player.
@@ -345,12 +471,12 @@ public class BlockEventHandler {
    * @param hand Player hand performing the action.
    * @param blockPos Block position in the world.
    * @param direction Which face of the block is being attacked (broken).
-   * @return PASS if the action is allowed, else FAIL.
+   * @return ALLOW if the action is allowed, CLAIM if the chunk is unclaimed, else DENY.
    */
-  private ActionResult onBlockBreak(
+  private PlayerDecision onBlockBreak(
       PlayerEntity playerEntity, World world, Hand hand, BlockPos blockPos, Direction direction) {
     if (!ChunkClaimUtil.isConfiguredWorld(world)) {
-      return ActionResult.PASS;
+      return PlayerDecision.UNCHECKED;
     }
     final ChunkClaimPlayer player = new ChunkClaimPlayer(playerEntity);
     final EdgestitchLocation location = new EdgestitchLocation(world, blockPos);
@@ -358,15 +484,16 @@ public class BlockEventHandler {
     final Chunk chunk = dataStore.getChunkAt(location, playerData.getLastChunk());
 
     if (playerData.canIgnoreChunkClaims()) {
-      return ActionResult.PASS;
+      return PlayerDecision.ALLOW;
     }
 
     if (chunk == null) {
-      // Try claim, but the action should always cancel the block break.
-      tryClaim(player, location, playerData);
+      // The callback tries to claim, but the action should always cancel the block break.
+      return PlayerDecision.CLAIM;
     } else if (chunk.canModify(player.getName())) {
-      return ActionResult.PASS;
+      return PlayerDecision.ALLOW;
     } else {
+      FlightEvents.permissionDenied("block_break", player.getName(), chunk);
       player.sendMessage(ChunkClaimPrompt.noBuildPermissionFrom(chunk.getOwnerName()));
       if (playerData.getLastChunk() != chunk) {
         playerData.setLastChunk(chunk);
@@ -376,7 +503,7 @@ public class BlockEventHandler {
                 chunk, location.getY(), VisualizationType.ERROR_CHUNK, location));
       }
     }
-    return ActionResult.FAIL;
+    return PlayerDecision.DENY;
   }
 
   /**
@@ -386,12 +513,12 @@ public class BlockEventHandler {
    * @param world World the player is in.
    * @param hand Player hand performing the action.
    * @param hitResult Hit result of the action.
-   * @return PASS if the action is allowed, else FAIL.
+   * @return ALLOW or EXEMPT if the action is allowed, else DENY.
    */
-  private ActionResult onBlockPlace(
+  private PlayerDecision onBlockPlace(
       PlayerEntity playerEntity, World world, Hand hand, BlockHitResult hitResult) {
     if (!ChunkClaimUtil.isConfiguredWorld(world)) {
-      return ActionResult.PASS;
+      return PlayerDecision.UNCHECKED;
     }
     final ChunkClaimPlayer player = new ChunkClaimPlayer(playerEntity);
     final EdgestitchLocation location = new EdgestitchLocation(world, hitResult.getBlockPos());
@@ -399,7 +526,7 @@ public class BlockEventHandler {
     final Chunk chunk = dataStore.getChunkAt(location, playerData.getLastChunk());
 
     if (playerData.canIgnoreChunkClaims()) {
-      return ActionResult.PASS;
+      return PlayerDecision.ALLOW;
     }
 
     // Interaction that will consume the player's action. For example, pressing buttons/levers or
@@ -409,20 +536,20 @@ public class BlockEventHandler {
             && (!playerEntity.getMainHandStack().isEmpty()
                 || !playerEntity.getOffHandStack().isEmpty()));
     if (chunk == null) {
-      return ActionResult.FAIL;
+      return PlayerDecision.DENY;
     } else if (chunk.canModify(player.getName())) {
       // We want the modify counter to increase when players place blocks, not when they right
       // click blocks.
       if (!probablyConsumableInteraction) {
         chunk.modify();
       }
-      return ActionResult.PASS;
+      return PlayerDecision.ALLOW;
     } else {
       if (probablyConsumableInteraction) {
-        ChunkClaimConfig config = ChunkClaimFabric.getClaimConfig();
+        ChunkClaimConfig config = this.dataStore.getConfig();
         if (!config.getProtectSwitches()) {
           if (ChunkClaimTags.PROTECTED_SWITCHES.contains(location.getBlockState().getBlock())) {
-            return ActionResult.PASS;
+            return PlayerDecision.EXEMPT;
           }
         }
         if (!config.getProtectContainers()) {
@@ -430,10 +557,11 @@ public class BlockEventHandler {
           if (blockEntity != null
               && (blockEntity instanceof LockableContainerBlockEntity
                   || blockEntity.getCachedState().getBlock() instanceof AbstractChestBlock)) {
-            return ActionResult.PASS;
+            return PlayerDecision.EXEMPT;
           }
         }
       }
+      FlightEvents.permissionDenied("block_place", player.getName(), chunk);
       player.sendMessage(ChunkClaimPrompt.noBuildPermissionFrom(chunk.getOwnerName()));
       if (playerData.getLastChunk() != chunk) {
         playerData.setLastChunk(chunk);
@@ -442,7 +570,7 @@ public class BlockEventHandler {
             Visualization.fromChunk(
                 chunk, location.getY(), VisualizationType.ERROR_CHUNK, location));
       }
-      return ActionResult.FAIL;
+      return PlayerDecision.DENY;
     }
   }
 
@@ -466,9 +594,10 @@ public class BlockEventHandler {
       // Purchase the mob spawn with credits.
       ChunkClaimPlayer player = new ChunkClaimPlayer(playerEntity);
       PlayerData playerData = this.dataStore.getPlayerData(player.getName());
-      if (playerData.canAffordMob()) {
-        if (!ChunkClaimFabric.getClaimConfig().areMobsFree()) {
-          playerData.removeCredits(ChunkClaimFabric.getClaimConfig().getMobPrice());
+      // Checks the price and pays it in one step, free mobs only need a balance of zero.
+      final ChunkClaimConfig config = this.dataStore.getConfig();
+      if (playerData.tryRemoveCredits(config.getMobPrice())) {
+        if (!config.areMobsFree()) {
           this.dataStore.savePlayerData(player.getName(), playerData);
           player.sendMessages(
               ChunkClaimPrompt.joinText(
@@ -538,14 +667,29 @@ public class BlockEventHandler {
 
   /**
    * Ensures hoppers cannot be used to insert items into a container across a claim boundary.
-   * Delegates to onFromTo.
+   * Delegates to onFromTo, caching the decision on the hopper until the claims change.
    *
    * @param hopper Hopper trying to insert items.
    * @param toBlockPos Position being inserted into.
    * @return PASS if the insert is allowed, else FAIL.
    */
   private ActionResult onHopperInsert(HopperBlockEntity hopper, BlockPos toBlockPos) {
-    return onFromTo(hopper.getWorld(), hopper.getPos(), toBlockPos);
+    final HopperClaimCache cache = (HopperClaimCache) hopper;
+    final int claimGeneration = this.dataStore.getClaimGeneration();
+    final long toPos = toBlockPos.asLong();
+    this.hopperCacheLookups.increment();
+    ActionResult decision = cache.getCachedClaimDecision(claimGeneration, toPos);
+    if (null == decision) {
+      this.hopperCacheMisses.increment();
+      FlightEvents.claimCacheMiss(
+          "hopper",
+          EdgestitchWorld.Companion.getName(hopper.getWorld()),
+          toBlockPos.getX() >> 4,
+          toBlockPos.getZ() >> 4);
+      decision = onFromTo(hopper.getWorld(), hopper.getPos(), toBlockPos);
+      cache.setCachedClaimDecision(claimGeneration, toPos, decision);
+    }
+    return decision;
   }
 
   /**
@@ -608,39 +752,42 @@ public class BlockEventHandler {
    * @param feature Tree feature that performs generation.
    * @param world World tree is being grown in.
    * @param rootBlockPos Root position of the growth.
-   * @param logPositions Set of coordinates for the tree logs.
-   * @param leavesPositions Set of coordinates for the tree leaves.
-   * @return {@code PASS} always.
+   * @param chunkX X coordinate of the chunk the tree reaches into.
+   * @param chunkZ Z coordinate of the chunk the tree reaches into.
+   * @return {@code PASS} if the tree may grow into the chunk, else {@code FAIL}.
    */
   private ActionResult onTreeGrow(
       GrowthType growthType,
       TreeFeature feature,
       World world,
       BlockPos rootBlockPos,
-      Set<BlockPos> logPositions,
-      Set<BlockPos> leavesPositions,
-      Set<BlockPos> decoratorPositions) {
-
+      int chunkX,
+      int chunkZ) {
     if (!ChunkClaimUtil.isConfiguredWorld(world)) {
       return ActionResult.PASS;
     }
+    return onTreeGrow(EdgestitchWorld.Companion.getName(world), rootBlockPos, chunkX, chunkZ);
+  }
 
+  /**
+   * Primary implementation for determining tree growth validity in a configured world.
+   *
+   * @param worldName Name of the world the tree is being grown in.
+   * @param rootBlockPos Root position of the growth.
+   * @param chunkX X coordinate of the chunk the tree reaches into.
+   * @param chunkZ Z coordinate of the chunk the tree reaches into.
+   * @return {@code PASS} if the tree may grow into the chunk, else {@code FAIL}.
+   */
+  ActionResult onTreeGrow(String worldName, BlockPos rootBlockPos, int chunkX, int chunkZ) {
     // From where?
-    Chunk fromChunk = this.dataStore.getChunkAt(new EdgestitchLocation(world, rootBlockPos), null);
-
-    // To where?
-    Chunk toChunk = null;
-    for (Set<BlockPos> posSet : Arrays.asList(logPositions, leavesPositions, decoratorPositions)) {
-      for (Iterator<BlockPos> iterator = posSet.iterator(); iterator.hasNext(); ) {
-        BlockPos toPos = iterator.next();
-        toChunk = this.dataStore.getChunkAt(new EdgestitchLocation(world, toPos), toChunk);
-        if (ActionResult.FAIL == onFromToChunk(fromChunk, toChunk)) {
-          TreeFeature.setBlockStateWithoutUpdatingNeighbors(
-              world, toPos, Blocks.AIR.getDefaultState());
-          iterator.remove();
-        }
-      }
+    final int rootChunkX = rootBlockPos.getX() >> 4;
+    final int rootChunkZ = rootBlockPos.getZ() >> 4;
+    if (rootChunkX == chunkX && rootChunkZ == chunkZ) {
+      return ActionResult.PASS;
     }
-    return ActionResult.PASS;
+    final Chunk fromChunk = this.dataStore.getChunkAtPos(rootChunkX, rootChunkZ, worldName);
+    // To where?
+    final Chunk toChunk = this.dataStore.getChunkAtPos(chunkX, chunkZ, worldName);
+    return onFromToChunk(fromChunk, toChunk);
   }
 }
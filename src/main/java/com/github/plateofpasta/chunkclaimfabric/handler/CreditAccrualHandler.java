@@ -0,0 +1,123 @@
+/*
+   ChunkClaim Plugin for Minecraft Bukkit Servers
+   Copyright (C) 2012 Felix Schmidt
+   Copyright (C) 2020 PlateOfPasta: Notice of modification for ChunkClaimFabric
+
+   This file is part of ChunkClaim.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.github.plateofpasta.chunkclaimfabric.handler;
+
+import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
+import com.github.plateofpasta.chunkclaimfabric.event.PlayerMoveCallback;
+import com.github.plateofpasta.chunkclaimfabric.player.ChunkClaimPlayer;
+import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.server.Server;
+import com.github.plateofpasta.edgestitch.event.ServerPlayerEvents;
+import com.github.plateofpasta.edgestitch.world.EdgestitchLocation;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * Tracks the active, non-AFK play time of online players from their movement, which {@link
+ * PlayerData} turns into credits at every sample. Every {@link
+ * PlayerData#ACTIVITY_SAMPLE_MILLIS} a movement packet of a player takes an activity sample: the
+ * player was active since the previous sample unless they sit in a vehicle or moved less than 5
+ * blocks. No task iterates the online players.
+ */
+public class CreditAccrualHandler {
+  private final DataStore dataStore;
+  private final Server server;
+  /** Time of the next activity sample by player name, due right away for unknown players. */
+  private final Object2LongOpenHashMap<String> nextSampleMillis = new Object2LongOpenHashMap<>();
+
+  /**
+   * The handler requires a reference to the datastore.
+   *
+   * @param dataStore Datastore holding the player data.
+   * @param server Server whose clock times the samples.
+   */
+  private CreditAccrualHandler(DataStore dataStore, Server server) {
+    this.dataStore = dataStore;
+    this.server = server;
+  }
+
+  /**
+   * Bootstrap static method for initializing the callbacks for events.
+   *
+   * @param dataStore Datastore holding the player data.
+   * @param server Server whose clock times the samples.
+   */
+  public static void initHandlers(DataStore dataStore, Server server) {
+    CreditAccrualHandler handler = new CreditAccrualHandler(dataStore, server);
+    PlayerMoveCallback.EVENT.register(handler::onPlayerMove);
+    ServerPlayerEvents.PLAYER_DISCONNECT.register(handler::onPlayerQuit);
+  }
+
+  /**
+   * Helper to check if the player is AFK.
+   *
+   * @param player Player.
+   * @param location Their current location.
+   * @param lastLocation Their last AFK check location.
+   * @return {@code true} if AFK, else {@code false}.
+   */
+  private static boolean isAFK(
+      ChunkClaimPlayer player, EdgestitchLocation location, EdgestitchLocation lastLocation) {
+    // Vehicle check prevents naive attempts to get around distance check.
+    // todo Players may be able to devise a more complex method because we do not check for world
+    // sameness in the distance check.
+    return !(!player.isInsideVehicle()
+        && (lastLocation == null || lastLocation.distanceSquaredUnsafe(location) >= 25));
+  }
+
+  /**
+   * When a player sent a movement packet. Takes an activity sample if one is due.
+   *
+   * @param playerEntity Player that moved.
+   */
+  private void onPlayerMove(ServerPlayerEntity playerEntity) {
+    final String playerName = playerEntity.getEntityName();
+    final long now = this.server.getClock().millis();
+    if (now < this.nextSampleMillis.getLong(playerName)) {
+      return;
+    }
+    // Only sample data in memory, the datastore loads it in the meantime.
+    final PlayerData playerData = this.dataStore.getCachedPlayerData(playerName);
+    if (null == playerData) {
+      return;
+    }
+    this.nextSampleMillis.put(playerName, now + PlayerData.ACTIVITY_SAMPLE_MILLIS);
+
+    final ChunkClaimPlayer player = new ChunkClaimPlayer(playerEntity);
+    final EdgestitchLocation location = player.getLocation();
+    final boolean active = !isAFK(player, location, playerData.getLastAfkCheckLocation());
+    playerData.sampleActivity(active, now);
+    if (active) {
+      // Remember current location for next time.
+      playerData.setLastAfkCheckLocation(location);
+    }
+  }
+
+  /**
+   * When a player quits, forgets their sample time. Their player data is saved and dropped, which
+   * accrues their credits.
+   *
+   * @param playerName Player.
+   */
+  private void onPlayerQuit(String playerName) {
+    this.nextSampleMillis.removeLong(playerName);
+  }
+}
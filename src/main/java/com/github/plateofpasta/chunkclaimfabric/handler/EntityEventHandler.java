@@ -24,7 +24,12 @@ package com.github.plateofpasta.chunkclaimfabric.handler;
 import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimPrompt;
 import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimTags;
 import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Timer;
+import com.github.plateofpasta.chunkclaimfabric.metrics.jfr.FlightEvents;
 import com.github.plateofpasta.chunkclaimfabric.player.ChunkClaimPlayer;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventType;
 import com.github.plateofpasta.chunkclaimfabric.util.AlwaysMissHitResult;
 import com.github.plateofpasta.chunkclaimfabric.util.ChunkClaimUtil;
 import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
@@ -38,16 +43,17 @@ import net.minecraft.entity.ExperienceOrbEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.projectile.ProjectileEntity;
 import net.minecraft.entity.projectile.thrown.ThrownEntity;
-import net.minecraft.util.ActionResult;
 import net.minecraft.util.Hand;
 import net.minecraft.util.TypedActionResult;
 import net.minecraft.util.hit.EntityHitResult;
 import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
 /** Handler for entity events. */
 public class EntityEventHandler {
   private final DataStore dataStore;
+  private final ProtectionEventRecorder recorder;
 
   /**
    * The handler requires a reference to the datastore.
@@ -56,19 +62,52 @@ public class EntityEventHandler {
    */
   public EntityEventHandler(DataStore dataStore) {
     this.dataStore = dataStore;
+    this.recorder = dataStore.getRecorder();
   }
 
   /**
-   * Bootstrap static method for initializing the callbacks for world events.
+   * Bootstrap static method for initializing the callbacks for world events. Every callback is
+   * timed under {@code callback.<name>} in the mod's metrics registry.
    *
    * @param dataStore Chunk claim datastore of the plugin's server.
    */
   public static void initHandlers(DataStore dataStore) {
     EntityEventHandler handler = new EntityEventHandler(dataStore);
-    UseEntityCallback.EVENT.register(handler::onPlayerInteractEntity);
-    AttackEntityCallback.EVENT.register(handler::onPlayerInteractEntity);
-    ServerWorldEvents.ENTITY_SPAWN.register(handler::onExpOrbSpawn);
-    ProjectileHitCallback.EVENT.register(handler::onProjectileHit);
+    final MetricsRegistry metrics = dataStore.getMetrics();
+    final ProtectionEventRecorder recorder = handler.recorder;
+    final Timer entityUseTimer = metrics.timer("callback.entity_use");
+    UseEntityCallback.EVENT.register(
+        (playerEntity, world, hand, entity, hitResult) ->
+            entityUseTimer.time(
+                () ->
+                    handler
+                        .onPlayerInteractEntity(playerEntity, world, hand, entity, hitResult)
+                        .record(
+                            recorder,
+                            ProtectionEventType.ENTITY,
+                            world,
+                            entity.getBlockPos(),
+                            playerEntity)));
+    final Timer entityAttackTimer = metrics.timer("callback.entity_attack");
+    AttackEntityCallback.EVENT.register(
+        (playerEntity, world, hand, entity, hitResult) ->
+            entityAttackTimer.time(
+                () ->
+                    handler
+                        .onPlayerInteractEntity(playerEntity, world, hand, entity, hitResult)
+                        .record(
+                            recorder,
+                            ProtectionEventType.ENTITY,
+                            world,
+                            entity.getBlockPos(),
+                            playerEntity)));
+    final Timer entitySpawnTimer = metrics.timer("callback.entity_spawn");
+    ServerWorldEvents.ENTITY_SPAWN.register(
+        (world, entity) -> entitySpawnTimer.time(() -> handler.onExpOrbSpawn(world, entity)));
+    final Timer projectileTimer = metrics.timer("callback.projectile");
+    ProjectileHitCallback.EVENT.register(
+        (projectileEntity, hitResult) ->
+            projectileTimer.time(() -> handler.onProjectileHit(projectileEntity, hitResult)));
   }
 
   /**
@@ -80,10 +119,10 @@ public class EntityEventHandler {
    * @param hand Which hand is interacting. Ignored.
    * @param entity Target entity.
    * @param hitResult Hit result on the entity. Ignored.
-   * @return Action result for this callback, whether we want to cancel the interaction or not.
+   * @return Decision for this callback, whether we want to cancel the interaction or not.
    * @see net.fabricmc.fabric.api.event.player.UseEntityCallback
    */
-  private ActionResult onPlayerInteractEntity(
+  private PlayerDecision onPlayerInteractEntity(
       PlayerEntity playerEntity,
       World world,
       Hand hand,
@@ -91,24 +130,25 @@ public class EntityEventHandler {
       /* Nullable */ EntityHitResult hitResult) {
 
     if (playerEntity.isSpectator()) {
-      return ActionResult.PASS;
+      return PlayerDecision.UNCHECKED;
     }
 
     if (!ChunkClaimUtil.isConfiguredWorld(world)) {
-      return ActionResult.PASS;
+      return PlayerDecision.UNCHECKED;
     }
 
     ChunkClaimPlayer player = new ChunkClaimPlayer(playerEntity);
     Chunk chunk =
         this.dataStore.getChunkAt(new EdgestitchLocation(world, entity.getBlockPos()), null);
+    final boolean isProtected = ChunkClaimTags.PROTECTED_ENTITY.contains(entity.getType());
     if (chunk == null) {
       player.sendMessage(ChunkClaimPrompt.get("prompt.chunkclaim.no_permission"));
-    } else if ((ChunkClaimTags.PROTECTED_ENTITY.contains(entity.getType())
-        && !chunk.canModify(player.getName()))) {
+    } else if (isProtected && !chunk.canModify(player.getName())) {
+      FlightEvents.permissionDenied("entity", player.getName(), chunk);
       player.sendMessage(ChunkClaimPrompt.noPermissionFrom(chunk.getOwnerName()));
-      return ActionResult.FAIL;
+      return PlayerDecision.DENY;
     }
-    return ActionResult.PASS;
+    return isProtected ? PlayerDecision.ALLOW : PlayerDecision.EXEMPT;
   }
 
   /**
@@ -156,10 +196,15 @@ public class EntityEventHandler {
 
       // Verify claim permission if a player shot at a protected entity.
       if (ChunkClaimTags.PROTECTED_ENTITY.contains(entityHitResult.getEntity().getType())) {
-        ChunkClaimPlayer player = new ChunkClaimPlayer((PlayerEntity) projectileEntity.getOwner());
-        EdgestitchLocation location =
-            new EdgestitchLocation(world, entityHitResult.getEntity().getBlockPos());
-        if (player.canPlayerModifyAtLocation(location)) {
+        final PlayerEntity owner = (PlayerEntity) projectileEntity.getOwner();
+        ChunkClaimPlayer player = new ChunkClaimPlayer(owner);
+        final BlockPos entityPos = entityHitResult.getEntity().getBlockPos();
+        EdgestitchLocation location = new EdgestitchLocation(world, entityPos);
+        final PlayerDecision decision =
+            player.canPlayerModifyAtLocation(location) ? PlayerDecision.ALLOW : PlayerDecision.DENY;
+        // Recorded here, the callback only sees the projectile.
+        decision.record(this.recorder, ProtectionEventType.PROJECTILE, world, entityPos, owner);
+        if (PlayerDecision.ALLOW == decision) {
           return TypedActionResult.pass(null); // Return value doesn't matter on PASS.
         } else {
           player.sendMessage(ChunkClaimPrompt.get("prompt.chunkclaim.entity_protected"));
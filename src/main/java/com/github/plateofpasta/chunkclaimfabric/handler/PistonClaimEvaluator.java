@@ -0,0 +1,208 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.handler;
+
+import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Counter;
+import com.github.plateofpasta.chunkclaimfabric.metrics.jfr.FlightEvents;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Direction;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates piston movement against chunk claims without allocating per moved block. Whether the
+ * owner of a piston's chunk may modify the neighboring chunk only depends on the claims, so that
+ * decision is cached per piston position and facing until the datastore's claim generation changes.
+ */
+class PistonClaimEvaluator {
+  /** Verdict not cached yet. */
+  static final int UNKNOWN = 0;
+  /** Movement is always allowed. */
+  static final int ALLOW = 1;
+  /** Movement is never allowed. */
+  static final int DENY = 2;
+  /** Movement is allowed unless a moved or broken block starts or ends in the neighbor chunk. */
+  static final int CHECK_NEIGHBOR = 3;
+  /** Upper bound on cached piston positions per world before the cache is flushed. */
+  private static final int MAX_CACHED_PISTONS = 4096;
+
+  private final DataStore dataStore;
+  private final Counter cacheLookups;
+  private final Counter cacheMisses;
+  /**
+   * Per world map of packed piston positions to verdicts. Each verdict takes two bits, one pair for
+   * every {@link Direction} indexed by {@link Direction#getId()}.
+   */
+  private final Map<String, Long2IntOpenHashMap> verdictCaches = new HashMap<>();
+
+  private int cachedGeneration;
+
+  /**
+   * The evaluator requires a reference to the datastore.
+   *
+   * @param dataStore Chunk claim datastore of the plugin's server.
+   */
+  PistonClaimEvaluator(DataStore dataStore) {
+    this.dataStore = dataStore;
+    this.cachedGeneration = dataStore.getClaimGeneration();
+    this.cacheLookups = dataStore.getMetrics().counter("piston.cache_lookups");
+    this.cacheMisses = dataStore.getMetrics().counter("piston.cache_misses");
+  }
+
+  /**
+   * Evaluates a piston movement.
+   *
+   * @param worldName Name of the world the piston is in.
+   * @param pistonPos Piston position in the world.
+   * @param facingDir Direction the piston is facing.
+   * @param movedBlocks Positions of the blocks being moved.
+   * @param brokenBlocks Positions of the blocks being broken.
+   * @param isExtending If the piston is extending (true) or retracting (false).
+   * @return PASS if the movement is allowed, else FAIL.
+   */
+  ActionResult evaluate(
+      String worldName,
+      BlockPos pistonPos,
+      Direction facingDir,
+      List<BlockPos> movedBlocks,
+      List<BlockPos> brokenBlocks,
+      boolean isExtending) {
+    final int verdict = this.getVerdict(worldName, pistonPos, facingDir);
+    if (ALLOW == verdict) {
+      return ActionResult.PASS;
+    } else if (DENY == verdict) {
+      return ActionResult.FAIL;
+    }
+
+    final Direction motionDir = isExtending ? facingDir : facingDir.getOpposite();
+    final long neighborChunk =
+        ChunkPos.toLong(
+            (pistonPos.getX() >> 4) + facingDir.getOffsetX(),
+            (pistonPos.getZ() >> 4) + facingDir.getOffsetZ());
+    if (hasConflict(movedBlocks, motionDir, neighborChunk)
+        || hasConflict(brokenBlocks, motionDir, neighborChunk)) {
+      return ActionResult.FAIL;
+    }
+    return ActionResult.PASS;
+  }
+
+  /**
+   * Checks for a claim conflict, which exists if a block starts in or will be moved to the
+   * neighbor chunk. Exits on the first conflict.
+   *
+   * @param positions Block positions to check.
+   * @param motionDir Direction the blocks are moving.
+   * @param neighborChunk Packed position of the neighbor chunk.
+   * @return {@code true} if any position conflicts, else {@code false}.
+   */
+  static boolean hasConflict(List<BlockPos> positions, Direction motionDir, long neighborChunk) {
+    final int offsetX = motionDir.getOffsetX();
+    final int offsetZ = motionDir.getOffsetZ();
+    // Indexed loop since the piston handler lists are array backed.
+    for (int i = 0, size = positions.size(); i < size; i++) {
+      final BlockPos sourcePos = positions.get(i);
+      final int x = sourcePos.getX();
+      final int z = sourcePos.getZ();
+      if (neighborChunk == ChunkPos.toLong(x >> 4, z >> 4)
+          || neighborChunk == ChunkPos.toLong((x + offsetX) >> 4, (z + offsetZ) >> 4)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the cached verdict for the piston, computing it on a cache miss.
+   *
+   * @param worldName Name of the world the piston is in.
+   * @param pistonPos Piston position in the world.
+   * @param facingDir Direction the piston is facing.
+   * @return Verdict for the piston.
+   */
+  private int getVerdict(String worldName, BlockPos pistonPos, Direction facingDir) {
+    final int generation = this.dataStore.getClaimGeneration();
+    if (generation != this.cachedGeneration) {
+      this.verdictCaches.clear();
+      this.cachedGeneration = generation;
+    }
+
+    Long2IntOpenHashMap verdictCache = this.verdictCaches.get(worldName);
+    if (null == verdictCache) {
+      verdictCache = new Long2IntOpenHashMap();
+      this.verdictCaches.put(worldName, verdictCache);
+    }
+
+    final long key = pistonPos.asLong();
+    final int shift = 2 * facingDir.getId();
+    final int packedVerdicts = verdictCache.get(key);
+    int verdict = (packedVerdicts >>> shift) & 0b11;
+    this.cacheLookups.increment();
+    if (UNKNOWN == verdict) {
+      this.cacheMisses.increment();
+      FlightEvents.claimCacheMiss(
+          "piston", worldName, pistonPos.getX() >> 4, pistonPos.getZ() >> 4);
+      verdict = this.computeVerdict(worldName, pistonPos, facingDir);
+      if (MAX_CACHED_PISTONS <= verdictCache.size()) {
+        verdictCache.clear();
+      }
+      verdictCache.put(key, packedVerdicts | (verdict << shift));
+    }
+    return verdict;
+  }
+
+  /**
+   * Computes the verdict for the piston from the claims. A piston acts with the rights of the
+   * owner of its chunk, since the player who placed it is not known when it moves. Pistons in
+   * chunks of an owner ignoring claims may therefore push into any chunk, and pistons placed by
+   * builders trusted in a chunk push with the owner's rights rather than their own.
+   *
+   * @param worldName Name of the world the piston is in.
+   * @param pistonPos Piston position in the world.
+   * @param facingDir Direction the piston is facing.
+   * @return Verdict for the piston.
+   */
+  private int computeVerdict(String worldName, BlockPos pistonPos, Direction facingDir) {
+    final Chunk pistonChunk =
+        this.dataStore.getChunkAtPos(pistonPos.getX() >> 4, pistonPos.getZ() >> 4, worldName);
+    if (null == pistonChunk) {
+      return DENY;
+    }
+    if (this.dataStore.canIgnoreChunkClaims(pistonChunk.getOwnerName())) {
+      return ALLOW;
+    }
+    final Chunk neighborChunk =
+        this.dataStore.getChunkAtPos(
+            pistonChunk.getCoordX() + facingDir.getOffsetX(),
+            pistonChunk.getCoordZ() + facingDir.getOffsetZ(),
+            worldName);
+    if (null != neighborChunk && neighborChunk.canModify(pistonChunk.getOwnerName())) {
+      return ALLOW;
+    }
+    return CHECK_NEIGHBOR;
+  }
+}
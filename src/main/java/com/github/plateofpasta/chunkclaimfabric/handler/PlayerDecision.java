@@ -0,0 +1,79 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.handler;
+
+import com.github.plateofpasta.chunkclaimfabric.player.ChunkClaimPlayer;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEvent;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventRecorder;
+import com.github.plateofpasta.chunkclaimfabric.recording.ProtectionEventType;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/** Decision of a handler on an action of a player, recorded once by the callback of the handler. */
+enum PlayerDecision {
+  /** The action is outside of claim protection, e.g. in another world. Allowed, not recorded. */
+  UNCHECKED(ActionResult.PASS, 0),
+  /** The action is allowed by the claim. */
+  ALLOW(ActionResult.PASS, 0),
+  /** The action is allowed because it is exempt from claim protection. */
+  EXEMPT(ActionResult.PASS, ProtectionEvent.EXEMPT),
+  /** The action is denied by the claim. */
+  DENY(ActionResult.FAIL, 0),
+  /** The action is denied because the chunk is unclaimed, the player may claim it instead. */
+  CLAIM(ActionResult.FAIL, 0);
+
+  private final ActionResult result;
+  private final int flags;
+
+  /**
+   * @param result Result of the callback.
+   * @param flags Flags of the recorded decision.
+   */
+  PlayerDecision(ActionResult result, int flags) {
+    this.result = result;
+    this.flags = flags;
+  }
+
+  /**
+   * Records the decision, unless {@link #UNCHECKED}.
+   *
+   * @param recorder Recorder of the mod.
+   * @param type Type of the action, one of the player types of {@link ProtectionEventType}.
+   * @param world World the action occurred in.
+   * @param pos Position of the block acted on, or of the entity.
+   * @param player Acting player.
+   * @return Result of the decision, for returning it from the callback.
+   */
+  ActionResult record(
+      ProtectionEventRecorder recorder,
+      ProtectionEventType type,
+      World world,
+      BlockPos pos,
+      PlayerEntity player) {
+    if (UNCHECKED != this && recorder.isRecording()) {
+      recorder.playerAction(
+          type, world, pos, new ChunkClaimPlayer(player).getName(), this.flags, this.result);
+    }
+    return this.result;
+  }
+}
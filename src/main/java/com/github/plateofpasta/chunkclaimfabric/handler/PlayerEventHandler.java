@@ -21,9 +21,11 @@
 
 package com.github.plateofpasta.chunkclaimfabric.handler;
 
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
 import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimTags;
 import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
 import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.server.AsyncScope;
 import com.github.plateofpasta.chunkclaimfabric.util.ChunkClaimUtil;
 import com.github.plateofpasta.edgestitch.event.ServerPlayerEvents;
 import net.minecraft.entity.ItemEntity;
@@ -83,6 +85,7 @@ public class PlayerEventHandler {
     this.dataStore.savePlayerData(playerName, playerData);
     // Drop data about this player.
     this.dataStore.clearCachedPlayerData(playerName);
+    ChunkClaimFabric.getScheduler().getAsync().cancel(AsyncScope.player(playerName));
   }
 
   /**
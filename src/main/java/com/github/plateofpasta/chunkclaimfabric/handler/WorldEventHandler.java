@@ -23,6 +23,7 @@ package com.github.plateofpasta.chunkclaimfabric.handler;
 
 import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
 import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
+import com.github.plateofpasta.chunkclaimfabric.server.AsyncScope;
 import com.github.plateofpasta.chunkclaimfabric.util.ChunkClaimUtil;
 import com.github.plateofpasta.edgestitch.world.EdgestitchWorld;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
@@ -84,6 +85,7 @@ public class WorldEventHandler {
    */
   private void onWorldClose(MinecraftServer server, ServerWorld world) {
     String worldName = EdgestitchWorld.Companion.getName(world);
+    ChunkClaimFabric.getScheduler().getAsync().cancel(AsyncScope.world(worldName));
     if (ChunkClaimUtil.isConfiguredWorld(world)) {
       this.dataStore.unloadWorldData(worldName);
       System.gc();
@@ -0,0 +1,48 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Monotonic event counter, cheap to update from any thread. */
+public class Counter {
+  private final LongAdder count = new LongAdder();
+
+  /** Counts one event. */
+  public void increment() {
+    this.count.increment();
+  }
+
+  /** @param events Number of events to count. */
+  public void add(long events) {
+    this.count.add(events);
+  }
+
+  /** @return Number of events counted. */
+  public long get() {
+    return this.count.sum();
+  }
+
+  /** Clears the count. */
+  public void reset() {
+    this.count.reset();
+  }
+}
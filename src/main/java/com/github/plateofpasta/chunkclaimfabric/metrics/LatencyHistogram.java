@@ -0,0 +1,173 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed size latency histogram in the style of an HDR histogram. Values are bucketed by their
+ * power of two and then linearly into {@link #SUB_BUCKET_COUNT} sub-buckets, so every recorded
+ * value is known to within 1/16th (6.25%) over the full range of a long. Recording is lock-free
+ * and allocation free.
+ */
+public class LatencyHistogram {
+  /** Bits of precision kept below the highest set bit of a value. */
+  private static final int SUB_BUCKET_BITS = 4;
+  /** Number of linear sub-buckets per power of two. */
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  /** Enough buckets for every non-negative long. */
+  static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder totalCount = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * Gets the bucket of a value.
+   *
+   * @param value Non-negative value.
+   * @return Index of the bucket holding the value.
+   */
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    final int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+    final int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+    return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /**
+   * Gets the smallest value of a bucket.
+   *
+   * @param index Index of the bucket.
+   * @return Lowest value mapping to the bucket.
+   */
+  static long bucketLowestValue(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    final int shift = index / SUB_BUCKET_COUNT - 1;
+    final int subBucket = index % SUB_BUCKET_COUNT;
+    return ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+  }
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos Latency in nanoseconds, negative values are recorded as zero.
+   */
+  public void record(long nanos) {
+    final long value = Math.max(0, nanos);
+    this.counts.incrementAndGet(bucketIndex(value));
+    this.totalCount.increment();
+    this.totalNanos.add(value);
+    long max = this.maxNanos.get();
+    while (value > max && !this.maxNanos.compareAndSet(max, value)) {
+      max = this.maxNanos.get();
+    }
+  }
+
+  /** @return Number of recorded latencies. */
+  public long getCount() {
+    return this.totalCount.sum();
+  }
+
+  /** @return Sum of the recorded latencies in nanoseconds. */
+  public long getTotalNanos() {
+    return this.totalNanos.sum();
+  }
+
+  /** @return Largest recorded latency in nanoseconds. */
+  public long getMaxNanos() {
+    return this.maxNanos.get();
+  }
+
+  /** @return Mean of the recorded latencies in nanoseconds, or 0 if nothing was recorded. */
+  public double getMeanNanos() {
+    final long count = this.getCount();
+    return (0 == count) ? 0 : (double) this.getTotalNanos() / count;
+  }
+
+  /**
+   * Gets the latency at a percentile. The result is the lowest value of the bucket holding the
+   * percentile, capped at the largest recorded latency.
+   *
+   * @param percentile Percentile in the range [0, 100].
+   * @return Latency in nanoseconds, or 0 if nothing was recorded.
+   */
+  public long getNanosAtPercentile(double percentile) {
+    final long[] snapshot = new long[BUCKET_COUNT];
+    final long total = this.copyCounts(snapshot);
+    if (0 == total) {
+      return 0;
+    }
+    return Math.min(valueAtPercentile(snapshot, total, percentile), this.getMaxNanos());
+  }
+
+  /**
+   * Copies the bucket counts.
+   *
+   * @param into Array of at least {@link #BUCKET_COUNT} elements to copy into.
+   * @return Sum of the copied counts.
+   */
+  long copyCounts(long[] into) {
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      into[i] = this.counts.get(i);
+      total += into[i];
+    }
+    return total;
+  }
+
+  /**
+   * Gets the value at a percentile of bucket counts.
+   *
+   * @param counts Counts per bucket.
+   * @param total Sum of the counts, must be positive.
+   * @param percentile Percentile in the range [0, 100].
+   * @return Lowest value of the bucket holding the percentile.
+   */
+  static long valueAtPercentile(long[] counts, long total, double percentile) {
+    final long rank = Math.max(1, (long) Math.ceil((percentile / 100.0) * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return bucketLowestValue(i);
+      }
+    }
+    return bucketLowestValue(counts.length - 1);
+  }
+
+  /** Clears every recorded latency. Latencies recorded concurrently may be partially kept. */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      this.counts.set(i, 0);
+    }
+    this.totalCount.reset();
+    this.totalNanos.reset();
+    this.maxNanos.set(0);
+  }
+}
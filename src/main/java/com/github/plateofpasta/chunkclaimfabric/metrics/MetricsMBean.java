@@ -0,0 +1,172 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Exposes a metrics registry over JMX as one read-only MBean. The attributes are built on every
+ * request, so metrics created after registration show up as well. Counters and timer counts are
+ * totals since startup, gauges and latencies come from the rolling window of the registry. Nothing
+ * owned by the server thread is read.
+ */
+public class MetricsMBean implements DynamicMBean {
+  /** Object name the MBean is registered under. */
+  public static final String OBJECT_NAME = "com.github.plateofpasta.chunkclaimfabric:type=Metrics";
+
+  private final MetricsRegistry registry;
+
+  /** @param registry Registry to expose. */
+  public MetricsMBean(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Registers this with the platform MBean server.
+   *
+   * @throws JMException Thrown if registration failed, e.g. because it is already registered.
+   */
+  public void register() throws JMException {
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+  }
+
+  /** Unregisters this from the platform MBean server, if it is registered. */
+  public void unregister() {
+    final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      final ObjectName objectName = new ObjectName(OBJECT_NAME);
+      if (mBeanServer.isRegistered(objectName)) {
+        mBeanServer.unregisterMBean(objectName);
+      }
+    } catch (JMException ignored) {
+      // Nothing left to clean up.
+    }
+  }
+
+  @Override
+  public Object getAttribute(String attribute) throws AttributeNotFoundException {
+    final Object value = this.readAttributes().get(attribute);
+    if (null == value) {
+      throw new AttributeNotFoundException(attribute);
+    }
+    return value;
+  }
+
+  @Override
+  public AttributeList getAttributes(String[] attributes) {
+    final SortedMap<String, Object> values = this.readAttributes();
+    final AttributeList attributeList = new AttributeList();
+    for (String attribute : attributes) {
+      final Object value = values.get(attribute);
+      if (null != value) {
+        attributeList.add(new Attribute(attribute, value));
+      }
+    }
+    return attributeList;
+  }
+
+  @Override
+  public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+    throw new AttributeNotFoundException("Metrics are read only: " + attribute.getName());
+  }
+
+  @Override
+  public AttributeList setAttributes(AttributeList attributes) {
+    return new AttributeList();
+  }
+
+  @Override
+  public Object invoke(String actionName, Object[] params, String[] signature)
+      throws ReflectionException {
+    throw new ReflectionException(new NoSuchMethodException(actionName));
+  }
+
+  @Override
+  public MBeanInfo getMBeanInfo() {
+    final SortedMap<String, Object> values = this.readAttributes();
+    final MBeanAttributeInfo[] attributeInfos = new MBeanAttributeInfo[values.size()];
+    int i = 0;
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      attributeInfos[i++] =
+          new MBeanAttributeInfo(
+              entry.getKey(),
+              entry.getValue().getClass().getName(),
+              entry.getKey(),
+              true,
+              false,
+              false);
+    }
+    return new MBeanInfo(
+        this.getClass().getName(),
+        "Metrics of the ChunkClaimFabric mod",
+        attributeInfos,
+        null,
+        null,
+        null);
+  }
+
+  /** @return Current value of every attribute, by attribute name. */
+  private SortedMap<String, Object> readAttributes() {
+    final WindowStats stats = this.registry.getWindowStats();
+    final SortedMap<String, Object> values = new TreeMap<>();
+    values.put("window.seconds", stats.getSpanNanos() / 1e9);
+    for (Map.Entry<String, Counter> entry : this.registry.getCounters().entrySet()) {
+      values.put(entry.getKey(), entry.getValue().get());
+    }
+    values.putAll(stats.getGauges());
+    for (Map.Entry<String, Timer> entry : this.registry.getTimers().entrySet()) {
+      final String name = entry.getKey();
+      final WindowStats.TimerStats timer = stats.getTimer(name);
+      values.put(name + ".count", entry.getValue().getHistogram().getCount());
+      values.put(name + ".rate", stats.perSecond(timer.getCount()));
+      putLatencies(values, name, timer);
+    }
+    putLatencies(values, "tick", stats.getTick());
+    return values;
+  }
+
+  /**
+   * Adds the window latencies of a timer.
+   *
+   * @param values Attributes to add to.
+   * @param name Name of the timer.
+   * @param timer Stats of the timer.
+   */
+  private static void putLatencies(
+      SortedMap<String, Object> values, String name, WindowStats.TimerStats timer) {
+    values.put(name + ".meanMillis", timer.getMeanNanos() / 1e6);
+    values.put(name + ".p99Millis", timer.getP99Nanos() / 1e6);
+    values.put(name + ".maxMillis", timer.getMaxNanos() / 1e6);
+  }
+}
@@ -0,0 +1,200 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the mod's counters, timers and gauges, keyed by name. Counters and timers are created
+ * on first use and live for the lifetime of the registry, so callers should look them up once and
+ * keep them.
+ *
+ * <p>Besides the individual timers, the registry rolls up the time spent in timed operations on the
+ * server thread once per tick. Nested timed operations (e.g. a datastore write inside a callback)
+ * only count once towards the rollup.
+ *
+ * <p>Every few seconds the tick thread also samples all metrics into a rolling window, see {@link
+ * #getWindowStats()}. Gauges are only read by those samples.
+ */
+public class MetricsRegistry {
+  private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+  private final MetricsWindow window = new MetricsWindow(this);
+  /** Time spent in the mod per server tick. */
+  private final LatencyHistogram tickHistogram = new LatencyHistogram();
+  /** Thread whose timed operations are rolled up per tick. */
+  private volatile Thread tickThread;
+  // Only accessed from the tick thread.
+  private int timedDepth;
+  private long currentTickNanos;
+  private volatile long lastTickNanos;
+  private int ticksSinceSample;
+
+  /** Registers the per-tick rollup to the Fabric server tick events. */
+  public void register() {
+    ServerTickEvents.START_SERVER_TICK.register(minecraftServer -> this.startTick());
+    ServerTickEvents.END_SERVER_TICK.register(minecraftServer -> this.endTick());
+  }
+
+  /**
+   * Gets or creates a counter.
+   *
+   * @param name Name of the counter.
+   * @return Counter registered under the name.
+   */
+  public Counter counter(String name) {
+    return this.counters.computeIfAbsent(name, key -> new Counter());
+  }
+
+  /**
+   * Gets or creates a timer.
+   *
+   * @param name Name of the timer.
+   * @return Timer registered under the name.
+   */
+  public Timer timer(String name) {
+    return this.timers.computeIfAbsent(name, key -> new Timer(this));
+  }
+
+  /**
+   * Registers a gauge, replacing any gauge of the same name. Gauges are read on the tick thread,
+   * so they may read state owned by the server thread.
+   *
+   * @param name Name of the gauge.
+   * @param gauge Supplier of the current value.
+   */
+  public void gauge(String name, LongSupplier gauge) {
+    this.gauges.put(name, gauge);
+  }
+
+  /**
+   * Removes a gauge.
+   *
+   * @param name Name of the gauge.
+   */
+  public void removeGauge(String name) {
+    this.gauges.remove(name);
+  }
+
+  /** @return Snapshot of the counters, sorted by name. */
+  public SortedMap<String, Counter> getCounters() {
+    return Collections.unmodifiableSortedMap(new TreeMap<>(this.counters));
+  }
+
+  /** @return Snapshot of the timers, sorted by name. */
+  public SortedMap<String, Timer> getTimers() {
+    return Collections.unmodifiableSortedMap(new TreeMap<>(this.timers));
+  }
+
+  /** @return Snapshot of the gauges, sorted by name. */
+  public SortedMap<String, LongSupplier> getGauges() {
+    return Collections.unmodifiableSortedMap(new TreeMap<>(this.gauges));
+  }
+
+  /**
+   * Gets the metrics over the last minute. The stats are computed when the window is sampled, so
+   * this is free to call from anywhere.
+   *
+   * @return Stats of the last completed sample.
+   */
+  public WindowStats getWindowStats() {
+    return this.window.getStats();
+  }
+
+  /** @return Time spent in the mod per server tick, in nanoseconds. */
+  public LatencyHistogram getTickHistogram() {
+    return this.tickHistogram;
+  }
+
+  /** @return Time spent in the mod during the last completed tick, in nanoseconds. */
+  public long getLastTickNanos() {
+    return this.lastTickNanos;
+  }
+
+  /** Clears every metric. */
+  public void reset() {
+    for (Map.Entry<String, Counter> entry : this.counters.entrySet()) {
+      entry.getValue().reset();
+    }
+    for (Map.Entry<String, Timer> entry : this.timers.entrySet()) {
+      entry.getValue().getHistogram().reset();
+    }
+    this.tickHistogram.reset();
+  }
+
+  /**
+   * Starts a tick on the calling thread. Called by the server tick event once {@link
+   * #register()}ed, or directly when running without a minecraft server.
+   */
+  public void startTick() {
+    if (Thread.currentThread() != this.tickThread) {
+      this.tickThread = Thread.currentThread();
+      this.timedDepth = 0;
+    }
+    this.currentTickNanos = 0;
+  }
+
+  /**
+   * Ends the tick started by {@link #startTick()} and records the time spent in the mod. Samples
+   * the rolling window every {@link MetricsWindow#SAMPLE_INTERVAL_TICKS} ticks.
+   */
+  public void endTick() {
+    if (Thread.currentThread() != this.tickThread) {
+      return;
+    }
+    this.tickHistogram.record(this.currentTickNanos);
+    this.lastTickNanos = this.currentTickNanos;
+    this.currentTickNanos = 0;
+    if (MetricsWindow.SAMPLE_INTERVAL_TICKS <= ++this.ticksSinceSample) {
+      this.ticksSinceSample = 0;
+      this.window.sample();
+    }
+  }
+
+  /** Called by {@link Timer#start()}. */
+  void enterTimed() {
+    if (Thread.currentThread() == this.tickThread) {
+      this.timedDepth++;
+    }
+  }
+
+  /**
+   * Called by {@link Timer#stop(long)}.
+   *
+   * @param elapsedNanos Duration of the timed operation.
+   */
+  void exitTimed(long elapsedNanos) {
+    if (Thread.currentThread() == this.tickThread && 0 < this.timedDepth) {
+      if (0 == --this.timedDepth) {
+        this.currentTickNanos += elapsedNanos;
+      }
+    }
+  }
+}
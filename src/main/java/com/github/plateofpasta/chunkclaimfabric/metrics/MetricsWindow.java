@@ -0,0 +1,202 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Rolling window over the metrics of a registry. Every {@link #SAMPLE_INTERVAL_TICKS} ticks the
+ * registry samples its metrics into the window and the {@link WindowStats} are recomputed right
+ * away, so reading them costs nothing. The window covers the last {@link #SAMPLE_COUNT} samples,
+ * about one minute.
+ *
+ * <p>Each sample keeps the difference to the previous one, histograms trimmed to their non-empty
+ * buckets, and the window totals are updated by adding the newest sample and dropping the oldest.
+ * Only accessed from the thread ending the ticks.
+ */
+class MetricsWindow {
+  /** Ticks between two samples, five seconds at 20 TPS. */
+  static final int SAMPLE_INTERVAL_TICKS = 100;
+  /** Samples covered by the window. */
+  static final int SAMPLE_COUNT = 12;
+
+  private final MetricsRegistry registry;
+  private final Map<String, CounterSeries> counterSeries = new HashMap<>();
+  private final Map<String, HistogramSeries> timerSeries = new HashMap<>();
+  private final HistogramSeries tickSeries = new HistogramSeries();
+  /** Duration of each sample interval. */
+  private final long[] intervalNanos = new long[SAMPLE_COUNT];
+
+  private long spanNanos;
+  private long lastSampleNanos;
+  /** Slot the next sample is written to. */
+  private int slot;
+
+  private volatile WindowStats stats = WindowStats.EMPTY;
+
+  /** @param registry Registry whose metrics are sampled. */
+  MetricsWindow(MetricsRegistry registry) {
+    this.registry = registry;
+    this.lastSampleNanos = System.nanoTime();
+  }
+
+  /** @return Stats computed on the last sample. */
+  WindowStats getStats() {
+    return this.stats;
+  }
+
+  /** Samples the registry and recomputes the stats. */
+  void sample() {
+    final long now = System.nanoTime();
+    this.spanNanos += (now - this.lastSampleNanos) - this.intervalNanos[this.slot];
+    this.intervalNanos[this.slot] = now - this.lastSampleNanos;
+    this.lastSampleNanos = now;
+
+    final SortedMap<String, Long> counts = new TreeMap<>();
+    for (Map.Entry<String, Counter> entry : this.registry.getCounters().entrySet()) {
+      final CounterSeries series =
+          this.counterSeries.computeIfAbsent(entry.getKey(), key -> new CounterSeries());
+      counts.put(entry.getKey(), series.sample(this.slot, entry.getValue().get()));
+    }
+    final SortedMap<String, WindowStats.TimerStats> timers = new TreeMap<>();
+    for (Map.Entry<String, Timer> entry : this.registry.getTimers().entrySet()) {
+      final HistogramSeries series =
+          this.timerSeries.computeIfAbsent(entry.getKey(), key -> new HistogramSeries());
+      timers.put(entry.getKey(), series.sample(this.slot, entry.getValue().getHistogram()));
+    }
+    final WindowStats.TimerStats tick =
+        this.tickSeries.sample(this.slot, this.registry.getTickHistogram());
+    final SortedMap<String, Long> gauges = new TreeMap<>();
+    for (Map.Entry<String, LongSupplier> entry : this.registry.getGauges().entrySet()) {
+      gauges.put(entry.getKey(), entry.getValue().getAsLong());
+    }
+
+    this.slot = (this.slot + 1) % SAMPLE_COUNT;
+    this.stats = new WindowStats(this.spanNanos, counts, timers, tick, gauges);
+  }
+
+  /** Window of one counter. */
+  private static final class CounterSeries {
+    private final long[] deltas = new long[SAMPLE_COUNT];
+    private long last;
+    private long windowCount;
+
+    /**
+     * @param slot Slot of the sample.
+     * @param current Current counter value.
+     * @return Count within the window.
+     */
+    long sample(int slot, long current) {
+      // A reset counter restarts from zero.
+      final long delta = (current >= this.last) ? current - this.last : current;
+      this.last = current;
+      this.windowCount += delta - this.deltas[slot];
+      this.deltas[slot] = delta;
+      return this.windowCount;
+    }
+  }
+
+  /** Window of one latency histogram. */
+  private static final class HistogramSeries {
+    private final long[] current = new long[LatencyHistogram.BUCKET_COUNT];
+    private final long[] last = new long[LatencyHistogram.BUCKET_COUNT];
+    private final long[] windowCounts = new long[LatencyHistogram.BUCKET_COUNT];
+    /** Bucket count differences per slot, starting at {@link #offsets}. */
+    private final long[][] deltas = new long[SAMPLE_COUNT][];
+    private final int[] offsets = new int[SAMPLE_COUNT];
+    private final long[] deltaNanos = new long[SAMPLE_COUNT];
+    private long lastTotalNanos;
+    private long windowCount;
+    private long windowNanos;
+
+    /**
+     * @param slot Slot of the sample.
+     * @param histogram Histogram to sample.
+     * @return Latency stats within the window.
+     */
+    WindowStats.TimerStats sample(int slot, LatencyHistogram histogram) {
+      final long totalNanos = histogram.getTotalNanos();
+      histogram.copyCounts(this.current);
+
+      // Drop the oldest sample.
+      final long[] oldDeltas = this.deltas[slot];
+      if (null != oldDeltas) {
+        for (int i = 0; i < oldDeltas.length; i++) {
+          this.windowCounts[this.offsets[slot] + i] -= oldDeltas[i];
+          this.windowCount -= oldDeltas[i];
+        }
+        this.windowNanos -= this.deltaNanos[slot];
+      }
+
+      // Keep the difference to the previous sample, trimmed to the changed buckets.
+      int first = -1;
+      int end = 0;
+      for (int i = 0; i < this.current.length; i++) {
+        if (this.current[i] < this.last[i]) {
+          // Reset histogram, restart from zero.
+          this.last[i] = 0;
+        }
+        if (this.current[i] != this.last[i]) {
+          if (-1 == first) {
+            first = i;
+          }
+          end = i + 1;
+        }
+      }
+      if (-1 == first) {
+        this.deltas[slot] = null;
+      } else {
+        final long[] newDeltas = new long[end - first];
+        for (int i = first; i < end; i++) {
+          newDeltas[i - first] = this.current[i] - this.last[i];
+          this.windowCounts[i] += newDeltas[i - first];
+          this.windowCount += newDeltas[i - first];
+        }
+        this.deltas[slot] = newDeltas;
+        this.offsets[slot] = first;
+      }
+      System.arraycopy(this.current, 0, this.last, 0, this.current.length);
+
+      final long newNanos =
+          (totalNanos >= this.lastTotalNanos) ? totalNanos - this.lastTotalNanos : totalNanos;
+      this.lastTotalNanos = totalNanos;
+      this.windowNanos += newNanos;
+      this.deltaNanos[slot] = newNanos;
+
+      if (0 == this.windowCount) {
+        return WindowStats.TimerStats.EMPTY;
+      }
+      int highest = this.windowCounts.length - 1;
+      while (0 < highest && 0 == this.windowCounts[highest]) {
+        highest--;
+      }
+      return new WindowStats.TimerStats(
+          this.windowCount,
+          this.windowNanos,
+          LatencyHistogram.valueAtPercentile(this.windowCounts, this.windowCount, 99),
+          LatencyHistogram.bucketLowestValue(highest));
+    }
+  }
+}
@@ -0,0 +1,221 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics;
+
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Periodically writes a metrics registry to a file in the Prometheus text format, for the textfile
+ * collector of node-exporter. Writes happen on a background thread and replace the file
+ * atomically, so a scrape never sees a partial file. Like {@link MetricsMBean}, only thread-safe
+ * metrics and the rolling window of the registry are read.
+ */
+public class PrometheusTextfile {
+  /** Name of the written file. */
+  public static final String FILE_NAME = ChunkClaimFabric.MOD_ID + ".prom";
+  /** Prefix of every exported metric. */
+  private static final String PREFIX = ChunkClaimFabric.MOD_ID + "_";
+  /** Seconds to wait for a write in progress when stopping. */
+  private static final long STOP_TIMEOUT_SECONDS = 10;
+
+  private final MetricsRegistry registry;
+  private final File file;
+  private ScheduledExecutorService executor;
+
+  /**
+   * @param registry Registry to export.
+   * @param directory Folder to write {@link #FILE_NAME} to.
+   */
+  public PrometheusTextfile(MetricsRegistry registry, File directory) {
+    this.registry = registry;
+    this.file = new File(directory, FILE_NAME);
+  }
+
+  /**
+   * Starts writing the file periodically. Does nothing if already started.
+   *
+   * @param intervalSeconds Seconds between two writes.
+   */
+  public synchronized void start(int intervalSeconds) {
+    if (null != this.executor) {
+      return;
+    }
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, ChunkClaimFabric.MOD_ID + " metrics textfile");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.executor.scheduleWithFixedDelay(
+        this::tryWrite, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Stops writing the file and deletes it, so that stale metrics aren't scraped. Waits for a write
+   * in progress first, otherwise its move could put the file back after it was deleted.
+   */
+  public synchronized void stop() {
+    if (null == this.executor) {
+      return;
+    }
+    // Periodic writes are cancelled by shutdown, only a write in progress is left to finish.
+    this.executor.shutdown();
+    try {
+      if (!this.executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        ChunkClaimFabric.logInfo("Timed out waiting for the metrics textfile at " + this.file);
+        this.executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.executor = null;
+    if (this.file.exists() && !this.file.delete()) {
+      ChunkClaimFabric.logInfo("Unable to delete the metrics textfile at " + this.file);
+    }
+  }
+
+  /** Writes the file, logging failures instead of cancelling the periodic write. */
+  private void tryWrite() {
+    try {
+      this.write();
+    } catch (IOException | RuntimeException e) {
+      ChunkClaimFabric.logger.log(
+          Level.WARNING,
+          String.format(
+              "%s: Unable to write the metrics textfile at %s",
+              ChunkClaimFabric.MOD_ID, this.file),
+          e);
+    }
+  }
+
+  /**
+   * Writes the file once.
+   *
+   * @throws IOException Thrown if the file could not be written.
+   */
+  public void write() throws IOException {
+    final Path target = this.file.toPath();
+    final Path temporary = target.resolveSibling(FILE_NAME + ".tmp");
+    Files.write(temporary, this.render().getBytes(StandardCharsets.UTF_8));
+    Files.move(
+        temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** @return Metrics of the registry in the Prometheus text format. */
+  String render() {
+    final WindowStats stats = this.registry.getWindowStats();
+    final StringBuilder text = new StringBuilder();
+
+    family(text, "events_total", "counter", "Events counted by the mod since startup.");
+    for (Map.Entry<String, Counter> entry : this.registry.getCounters().entrySet()) {
+      sample(text, "events_total", entry.getKey(), null, entry.getValue().get());
+    }
+
+    family(text, "gauge", "gauge", "Values sampled by the mod every few seconds.");
+    for (Map.Entry<String, Long> entry : stats.getGauges().entrySet()) {
+      sample(text, "gauge", entry.getKey(), null, entry.getValue());
+    }
+
+    family(
+        text,
+        "latency_seconds",
+        "summary",
+        "Latency of timed operations, quantiles over the last minute.");
+    for (Map.Entry<String, Timer> entry : this.registry.getTimers().entrySet()) {
+      final LatencyHistogram histogram = entry.getValue().getHistogram();
+      final WindowStats.TimerStats timer = stats.getTimer(entry.getKey());
+      sample(text, "latency_seconds", entry.getKey(), "0.99", timer.getP99Nanos() / 1e9);
+      sample(text, "latency_seconds_sum", entry.getKey(), null, histogram.getTotalNanos() / 1e9);
+      sample(text, "latency_seconds_count", entry.getKey(), null, histogram.getCount());
+    }
+
+    family(
+        text,
+        "tick_seconds",
+        "summary",
+        "Time spent in the mod per server tick, quantiles over the last minute.");
+    final LatencyHistogram tickHistogram = this.registry.getTickHistogram();
+    text.append(PREFIX)
+        .append("tick_seconds{quantile=\"0.99\"} ")
+        .append(stats.getTick().getP99Nanos() / 1e9)
+        .append('\n');
+    text.append(PREFIX)
+        .append("tick_seconds_sum ")
+        .append(tickHistogram.getTotalNanos() / 1e9)
+        .append('\n');
+    text.append(PREFIX).append("tick_seconds_count ").append(tickHistogram.getCount()).append('\n');
+    return text.toString();
+  }
+
+  /**
+   * Appends the help and type lines of a metric family.
+   *
+   * @param text Text to append to.
+   * @param family Family name without prefix.
+   * @param type Prometheus metric type.
+   * @param help Help text.
+   */
+  private static void family(StringBuilder text, String family, String type, String help) {
+    text.append("# HELP ").append(PREFIX).append(family).append(' ').append(help).append('\n');
+    text.append("# TYPE ").append(PREFIX).append(family).append(' ').append(type).append('\n');
+  }
+
+  /**
+   * Appends a sample labelled with the metric name.
+   *
+   * @param text Text to append to.
+   * @param family Family name without prefix.
+   * @param name Metric name in the registry.
+   * @param quantile Quantile label, or null for none.
+   * @param value Sample value.
+   */
+  private static void sample(
+      StringBuilder text, String family, String name, String quantile, Object value) {
+    text.append(PREFIX).append(family).append("{name=\"").append(escape(name)).append('"');
+    if (null != quantile) {
+      text.append(",quantile=\"").append(quantile).append('"');
+    }
+    text.append("} ").append(value).append('\n');
+  }
+
+  /**
+   * Escapes a label value.
+   *
+   * @param value Label value.
+   * @return Value with backslashes, quotes and line feeds escaped.
+   */
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
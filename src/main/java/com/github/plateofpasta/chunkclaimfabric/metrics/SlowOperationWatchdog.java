@@ -0,0 +1,262 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics;
+
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Logs the mod's operations that take longer than a threshold. Use as:
+ *
+ * <pre>{@code
+ * final SlowOperationWatchdog.Operation operation = watchdog.begin("name", argument);
+ * try {
+ *   // Watched operation.
+ * } finally {
+ *   watchdog.end(operation);
+ * }
+ * }</pre>
+ *
+ * While started, a background thread checks the running operations of every thread and samples
+ * the stack of those running past the threshold, so the log shows where the time went instead of
+ * only who called. Operations finishing before they were sampled are logged with the stack at
+ * their end. Logging is rate-limited to {@link #LOGS_PER_MINUTE}, and every slow operation is
+ * counted by the {@code watchdog.slow_operations} counter.
+ *
+ * <p>When stopped, {@link #begin(String, Object)} is a volatile read.
+ */
+public class SlowOperationWatchdog {
+  /** Most slow operations logged per minute, the rest are only counted. */
+  static final int LOGS_PER_MINUTE = 10;
+  /** Shortest interval between two checks of the running operations. */
+  private static final long MIN_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Counter slowOperations;
+  /** Operation state of every thread that began an operation. */
+  private final Set<ThreadState> threadStates = ConcurrentHashMap.newKeySet();
+  private final ThreadLocal<ThreadState> threadState =
+      ThreadLocal.withInitial(
+          () -> {
+            final ThreadState state = new ThreadState(Thread.currentThread());
+            this.threadStates.add(state);
+            return state;
+          });
+  /** Threshold in nanoseconds, 0 while stopped. */
+  private volatile long thresholdNanos;
+
+  private ScheduledExecutorService sampler;
+  // Rate limit state, guarded by this.
+  private double logTokens = LOGS_PER_MINUTE;
+  private long lastRefillNanos = System.nanoTime();
+  private long suppressedLogs;
+
+  /** @param registry Registry counting the slow operations. */
+  public SlowOperationWatchdog(MetricsRegistry registry) {
+    this.slowOperations = registry.counter("watchdog.slow_operations");
+  }
+
+  /**
+   * Starts watching operations. Restarts with the new threshold if already started.
+   *
+   * @param thresholdMillis Duration from which operations are logged, stops the watchdog if not
+   *     positive.
+   */
+  public synchronized void start(double thresholdMillis) {
+    this.stop();
+    final long threshold = (long) (thresholdMillis * 1e6);
+    if (0 >= threshold) {
+      return;
+    }
+    this.sampler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, ChunkClaimFabric.MOD_ID + " watchdog");
+              thread.setDaemon(true);
+              return thread;
+            });
+    final long checkInterval = Math.max(MIN_CHECK_INTERVAL_NANOS, threshold / 2);
+    this.sampler.scheduleAtFixedRate(
+        this::sampleSlowOperations, checkInterval, checkInterval, TimeUnit.NANOSECONDS);
+    this.thresholdNanos = threshold;
+  }
+
+  /** Stops watching operations. Operations already begun are still logged if slow. */
+  public synchronized void stop() {
+    this.thresholdNanos = 0;
+    if (null != this.sampler) {
+      this.sampler.shutdownNow();
+      this.sampler = null;
+    }
+  }
+
+  /** @return {@code true} if operations are watched, else false. */
+  public boolean isStarted() {
+    return 0 < this.thresholdNanos;
+  }
+
+  /**
+   * Begins a watched operation on the calling thread.
+   *
+   * @param name Name of the operation, e.g. {@code "datastore.write_chunk"}.
+   * @param argument Argument identifying what the operation works on, only converted to a string
+   *     when the operation is logged. May be null.
+   * @return Operation to pass to {@link #end(Operation)}, null while stopped.
+   */
+  public Operation begin(String name, Object argument) {
+    final long threshold = this.thresholdNanos;
+    if (0 == threshold) {
+      return null;
+    }
+    final ThreadState state = this.threadState.get();
+    final Operation operation =
+        new Operation(name, argument, threshold, System.nanoTime(), state.current);
+    state.current = operation;
+    return operation;
+  }
+
+  /**
+   * Ends a watched operation, logging it if it was slow.
+   *
+   * @param operation Operation returned by {@link #begin(String, Object)}, may be null.
+   */
+  public void end(Operation operation) {
+    if (null == operation) {
+      return;
+    }
+    final long elapsedNanos = System.nanoTime() - operation.startNanos;
+    this.threadState.get().current = operation.parent;
+    if (elapsedNanos >= operation.thresholdNanos) {
+      this.slowOperations.increment();
+      this.log(operation, elapsedNanos);
+    }
+  }
+
+  /** Samples the stack of every thread running an operation past its threshold. */
+  private void sampleSlowOperations() {
+    final long now = System.nanoTime();
+    for (ThreadState state : this.threadStates) {
+      if (!state.thread.isAlive()) {
+        this.threadStates.remove(state);
+        continue;
+      }
+      StackTraceElement[] stack = null;
+      for (Operation operation = state.current; null != operation; operation = operation.parent) {
+        if (null == operation.sampledStack
+            && now - operation.startNanos >= operation.thresholdNanos) {
+          if (null == stack) {
+            stack = state.thread.getStackTrace();
+          }
+          operation.sampledStack = stack;
+          operation.sampledAfterNanos = now - operation.startNanos;
+        }
+      }
+    }
+  }
+
+  /**
+   * Logs a slow operation unless the rate limit is exceeded.
+   *
+   * @param operation Slow operation.
+   * @param elapsedNanos Duration of the operation.
+   */
+  private void log(Operation operation, long elapsedNanos) {
+    final long suppressed;
+    synchronized (this) {
+      final long now = System.nanoTime();
+      this.logTokens =
+          Math.min(
+              LOGS_PER_MINUTE,
+              this.logTokens + (now - this.lastRefillNanos) * LOGS_PER_MINUTE / 60e9);
+      this.lastRefillNanos = now;
+      if (1 > this.logTokens) {
+        this.suppressedLogs++;
+        return;
+      }
+      this.logTokens--;
+      suppressed = this.suppressedLogs;
+      this.suppressedLogs = 0;
+    }
+
+    final Throwable stack;
+    final StackTraceElement[] sampledStack = operation.sampledStack;
+    if (null != sampledStack) {
+      stack =
+          new Throwable(
+              String.format(
+                  "Stack of thread \"%s\" sampled after %.3f ms",
+                  Thread.currentThread().getName(), operation.sampledAfterNanos / 1e6));
+      stack.setStackTrace(sampledStack);
+    } else {
+      stack = new Throwable("Stack at the end of the operation");
+    }
+    ChunkClaimFabric.logger.log(
+        Level.WARNING,
+        String.format(
+            "%s: Slow operation %s(%s) took %.3f ms.%s",
+            ChunkClaimFabric.MOD_ID,
+            operation.name,
+            (null == operation.argument) ? "" : operation.argument,
+            elapsedNanos / 1e6,
+            (0 == suppressed)
+                ? ""
+                : String.format(" %d slow operations not logged since the last one.", suppressed)),
+        stack);
+  }
+
+  /** A running operation. */
+  public static final class Operation {
+    private final String name;
+    private final Object argument;
+    private final long thresholdNanos;
+    private final long startNanos;
+    /** Operation this one is nested in. */
+    private final Operation parent;
+
+    private volatile StackTraceElement[] sampledStack;
+    private volatile long sampledAfterNanos;
+
+    private Operation(
+        String name, Object argument, long thresholdNanos, long startNanos, Operation parent) {
+      this.name = name;
+      this.argument = argument;
+      this.thresholdNanos = thresholdNanos;
+      this.startNanos = startNanos;
+      this.parent = parent;
+    }
+  }
+
+  /** Operations of one thread. */
+  private static final class ThreadState {
+    private final Thread thread;
+    /** Innermost running operation, read by the sampler. */
+    private volatile Operation current;
+
+    private ThreadState(Thread thread) {
+      this.thread = thread;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * Times an operation into a {@link LatencyHistogram}. Use as:
+ *
+ * <pre>{@code
+ * final long start = timer.start();
+ * try {
+ *   // Timed operation.
+ * } finally {
+ *   timer.stop(start);
+ * }
+ * }</pre>
+ *
+ * Callbacks returning their decision can use {@link #time(Supplier)} instead.
+ *
+ * <p>Time spent on the server thread also counts towards the mod's time of the current tick, see
+ * {@link MetricsRegistry#getTickHistogram()}.
+ */
+public class Timer {
+  private final MetricsRegistry registry;
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  /** @param registry Registry the timer belongs to. */
+  Timer(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  /** @return Start time to pass to {@link #stop(long)}. */
+  public long start() {
+    this.registry.enterTimed();
+    return System.nanoTime();
+  }
+
+  /** @param startNanos Start time returned by {@link #start()}. */
+  public void stop(long startNanos) {
+    final long elapsedNanos = System.nanoTime() - startNanos;
+    this.histogram.record(elapsedNanos);
+    this.registry.exitTimed(elapsedNanos);
+  }
+
+  /**
+   * Times an operation between {@link #start()} and {@link #stop(long)}.
+   *
+   * @param operation Operation to time.
+   * @param <T> Result type of the operation.
+   * @return Result of the operation.
+   */
+  public <T> T time(Supplier<T> operation) {
+    final long start = this.start();
+    try {
+      return operation.get();
+    } finally {
+      this.stop(start);
+    }
+  }
+
+  /** @return Latencies recorded by this timer. */
+  public LatencyHistogram getHistogram() {
+    return this.histogram;
+  }
+}
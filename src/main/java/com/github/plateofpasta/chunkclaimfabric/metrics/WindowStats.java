@@ -0,0 +1,193 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable view of the mod's metrics over the rolling window of a {@link MetricsRegistry}, see
+ * {@link MetricsRegistry#getWindowStats()}. Counter and timer values only cover the window, gauges
+ * hold the value read at the end of it.
+ */
+public class WindowStats {
+  /** Stats before the first sample was taken. */
+  static final WindowStats EMPTY =
+      new WindowStats(
+          0,
+          Collections.emptySortedMap(),
+          Collections.emptySortedMap(),
+          TimerStats.EMPTY,
+          Collections.emptySortedMap());
+
+  private final long spanNanos;
+  private final SortedMap<String, Long> counts;
+  private final SortedMap<String, TimerStats> timers;
+  private final TimerStats tick;
+  private final SortedMap<String, Long> gauges;
+
+  /**
+   * @param spanNanos Time covered by the window.
+   * @param counts Counter increments within the window, by counter name.
+   * @param timers Timer stats within the window, by timer name.
+   * @param tick Stats of the time spent in the mod per tick.
+   * @param gauges Gauge values, by gauge name.
+   */
+  WindowStats(
+      long spanNanos,
+      SortedMap<String, Long> counts,
+      SortedMap<String, TimerStats> timers,
+      TimerStats tick,
+      SortedMap<String, Long> gauges) {
+    this.spanNanos = spanNanos;
+    this.counts = Collections.unmodifiableSortedMap(new TreeMap<>(counts));
+    this.timers = Collections.unmodifiableSortedMap(new TreeMap<>(timers));
+    this.tick = tick;
+    this.gauges = Collections.unmodifiableSortedMap(new TreeMap<>(gauges));
+  }
+
+  /** @return Time covered by the window in nanoseconds, 0 before the first sample. */
+  public long getSpanNanos() {
+    return this.spanNanos;
+  }
+
+  /**
+   * Gets the increments of a counter within the window.
+   *
+   * @param counterName Name of the counter.
+   * @return Counted events, 0 for unknown counters.
+   */
+  public long getCount(String counterName) {
+    final Long count = this.counts.get(counterName);
+    return (null == count) ? 0 : count;
+  }
+
+  /**
+   * Gets the rate of a counter within the window.
+   *
+   * @param counterName Name of the counter.
+   * @return Counted events per second.
+   */
+  public double getRate(String counterName) {
+    return this.perSecond(this.getCount(counterName));
+  }
+
+  /** @return Counter increments within the window, by counter name. */
+  public SortedMap<String, Long> getCounts() {
+    return this.counts;
+  }
+
+  /**
+   * Gets the stats of a timer within the window.
+   *
+   * @param timerName Name of the timer.
+   * @return Timer stats, empty for unknown timers.
+   */
+  public TimerStats getTimer(String timerName) {
+    final TimerStats timer = this.timers.get(timerName);
+    return (null == timer) ? TimerStats.EMPTY : timer;
+  }
+
+  /** @return Timer stats within the window, by timer name. */
+  public SortedMap<String, TimerStats> getTimers() {
+    return this.timers;
+  }
+
+  /** @return Stats of the time spent in the mod per tick within the window. */
+  public TimerStats getTick() {
+    return this.tick;
+  }
+
+  /**
+   * Gets the value of a gauge.
+   *
+   * @param gaugeName Name of the gauge.
+   * @return Gauge value, 0 for unknown gauges.
+   */
+  public long getGauge(String gaugeName) {
+    final Long value = this.gauges.get(gaugeName);
+    return (null == value) ? 0 : value;
+  }
+
+  /** @return Gauge values, by gauge name. */
+  public SortedMap<String, Long> getGauges() {
+    return this.gauges;
+  }
+
+  /**
+   * Converts an amount within the window to a rate.
+   *
+   * @param amount Amount within the window.
+   * @return Amount per second, 0 for an empty window.
+   */
+  public double perSecond(long amount) {
+    return (0 == this.spanNanos) ? 0 : amount * 1e9 / this.spanNanos;
+  }
+
+  /** Latency stats of one timer within the window. */
+  public static class TimerStats {
+    static final TimerStats EMPTY = new TimerStats(0, 0, 0, 0);
+
+    private final long count;
+    private final long totalNanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    /**
+     * @param count Number of timed operations.
+     * @param totalNanos Sum of their latencies.
+     * @param p99Nanos 99th percentile latency.
+     * @param maxNanos Largest latency, rounded down to the histogram precision.
+     */
+    TimerStats(long count, long totalNanos, long p99Nanos, long maxNanos) {
+      this.count = count;
+      this.totalNanos = totalNanos;
+      this.p99Nanos = p99Nanos;
+      this.maxNanos = maxNanos;
+    }
+
+    /** @return Number of timed operations. */
+    public long getCount() {
+      return this.count;
+    }
+
+    /** @return Sum of the latencies in nanoseconds. */
+    public long getTotalNanos() {
+      return this.totalNanos;
+    }
+
+    /** @return Mean latency in nanoseconds, or 0 if nothing was timed. */
+    public double getMeanNanos() {
+      return (0 == this.count) ? 0 : (double) this.totalNanos / this.count;
+    }
+
+    /** @return 99th percentile latency in nanoseconds, or 0 if nothing was timed. */
+    public long getP99Nanos() {
+      return this.p99Nanos;
+    }
+
+    /** @return Largest latency in nanoseconds, or 0 if nothing was timed. */
+    public long getMaxNanos() {
+      return this.maxNanos;
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics.jfr;
+
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+
+/**
+ * Java Flight Recorder events of the mod, see the README for enabling them in a recording. Every
+ * event is disabled by default. The mod still targets Java 8 runtimes without the {@code jdk.jfr}
+ * API, so its presence is checked once and every method is a no-op without it.
+ *
+ * <p>Events carrying an elapsed time take the {@link System#nanoTime()} at which the operation
+ * started and measure up to the call.
+ */
+public final class FlightEvents {
+  /** If the running JVM provides the flight recorder API. */
+  private static final boolean AVAILABLE = isFlightRecorderPresent();
+
+  private FlightEvents() {}
+
+  /**
+   * Records a datastore file operation.
+   *
+   * @param operation Operation name, e.g. {@code "write_chunk"}.
+   * @param path Path of the file.
+   * @param startNanos Start time of the operation.
+   */
+  public static void storageIo(String operation, String path, long startNanos) {
+    if (AVAILABLE) {
+      JfrEvents.storageIo(operation, path, startNanos);
+    }
+  }
+
+  /**
+   * Records a claim lookup that missed a cache.
+   *
+   * @param cache Name of the cache, e.g. {@code "hopper"}.
+   * @param worldName World of the looked up chunk.
+   * @param chunkX Chunk x-coordinate.
+   * @param chunkZ Chunk z-coordinate.
+   */
+  public static void claimCacheMiss(String cache, String worldName, int chunkX, int chunkZ) {
+    if (AVAILABLE) {
+      JfrEvents.claimCacheMiss(cache, worldName, chunkX, chunkZ);
+    }
+  }
+
+  /**
+   * Records a permission check that found no player data in memory.
+   *
+   * @param playerName Name of the player.
+   */
+  public static void playerDataCacheMiss(String playerName) {
+    if (AVAILABLE) {
+      JfrEvents.playerDataCacheMiss(playerName);
+    }
+  }
+
+  /**
+   * Records a player action denied by a claim.
+   *
+   * @param action Denied action, e.g. {@code "block_break"}.
+   * @param playerName Name of the denied player.
+   * @param chunk Claim denying the action.
+   */
+  public static void permissionDenied(String action, String playerName, Chunk chunk) {
+    if (AVAILABLE) {
+      JfrEvents.permissionDenied(
+          action,
+          playerName,
+          chunk.getOwnerName(),
+          chunk.getWorldName(),
+          chunk.getCoordX(),
+          chunk.getCoordZ());
+    }
+  }
+
+  /**
+   * Records a claim cleanup run.
+   *
+   * @param checked Number of claims checked.
+   * @param reclaimed Number of claims deleted.
+   * @param startNanos Start time of the run.
+   */
+  public static void cleanup(int checked, int reclaimed, long startNanos) {
+    if (AVAILABLE) {
+      JfrEvents.cleanup(checked, reclaimed, startNanos);
+    }
+  }
+
+  /**
+   * Records the regeneration of a chunk.
+   *
+   * @param worldName World of the chunk.
+   * @param chunkX Chunk x-coordinate.
+   * @param chunkZ Chunk z-coordinate.
+   * @param startNanos Start time of the regeneration.
+   */
+  public static void regeneration(String worldName, int chunkX, int chunkZ, long startNanos) {
+    if (AVAILABLE) {
+      JfrEvents.regeneration(worldName, chunkX, chunkZ, startNanos);
+    }
+  }
+
+  /**
+   * Records fake blocks sent for a visualization.
+   *
+   * @param playerName Name of the player the blocks were sent to.
+   * @param blocks Number of blocks sent.
+   * @param clear {@code true} if the visualization was cleared, {@code false} if it was shown.
+   * @param startNanos Start time of the send.
+   */
+  public static void visualization(String playerName, int blocks, boolean clear, long startNanos) {
+    if (AVAILABLE) {
+      JfrEvents.visualization(playerName, blocks, clear, startNanos);
+    }
+  }
+
+  /**
+   * Records a tick whose scheduled work took longer than the overrun budget.
+   *
+   * @param tick Server tick.
+   * @param slowestTask Name of the slowest task of the tick.
+   * @param slowestTaskNanos Runtime of the slowest task.
+   * @param completionsNanos Time spent completing async work.
+   * @param tasksNanos Time spent running due tasks.
+   * @param workNanos Time spent on sliced work.
+   * @param startNanos Start time of the scheduled work of the tick.
+   */
+  public static void schedulerOverrun(
+      int tick,
+      String slowestTask,
+      long slowestTaskNanos,
+      long completionsNanos,
+      long tasksNanos,
+      long workNanos,
+      long startNanos) {
+    if (AVAILABLE) {
+      JfrEvents.schedulerOverrun(
+          tick, slowestTask, slowestTaskNanos, completionsNanos, tasksNanos, workNanos, startNanos);
+    }
+  }
+
+  /** @return {@code true} if the {@code jdk.jfr} API can be loaded, else {@code false}. */
+  private static boolean isFlightRecorderPresent() {
+    try {
+      Class.forName("jdk.jfr.Event", false, FlightEvents.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics.jfr;
+
+import java.io.File;
+
+/**
+ * Commits the mod's flight recorder events. This is the only class referencing the event types, so
+ * it must only be reached through {@link FlightEvents} once the {@code jdk.jfr} API is known to be
+ * present. Fields are only filled in for enabled events, so a disabled event costs an allocation
+ * the JIT removes and a flag check.
+ */
+final class JfrEvents {
+  private JfrEvents() {}
+
+  static void storageIo(String operation, String path, long startNanos) {
+    final StorageIoEvent event = new StorageIoEvent();
+    if (event.isEnabled()) {
+      event.elapsed = System.nanoTime() - startNanos;
+      event.operation = operation;
+      event.path = path;
+      event.bytes = new File(path).length();
+      event.commit();
+    }
+  }
+
+  static void claimCacheMiss(String cache, String worldName, int chunkX, int chunkZ) {
+    final ClaimCacheMissEvent event = new ClaimCacheMissEvent();
+    if (event.isEnabled()) {
+      event.cache = cache;
+      event.world = worldName;
+      event.chunkX = chunkX;
+      event.chunkZ = chunkZ;
+      event.commit();
+    }
+  }
+
+  static void playerDataCacheMiss(String playerName) {
+    final ClaimCacheMissEvent event = new ClaimCacheMissEvent();
+    if (event.isEnabled()) {
+      event.cache = "player_data";
+      event.player = playerName;
+      event.commit();
+    }
+  }
+
+  static void permissionDenied(
+      String action,
+      String playerName,
+      String ownerName,
+      String worldName,
+      int chunkX,
+      int chunkZ) {
+    final PermissionDeniedEvent event = new PermissionDeniedEvent();
+    if (event.isEnabled()) {
+      event.action = action;
+      event.player = playerName;
+      event.owner = ownerName;
+      event.world = worldName;
+      event.chunkX = chunkX;
+      event.chunkZ = chunkZ;
+      event.commit();
+    }
+  }
+
+  static void cleanup(int checked, int reclaimed, long startNanos) {
+    final CleanupEvent event = new CleanupEvent();
+    if (event.isEnabled()) {
+      event.elapsed = System.nanoTime() - startNanos;
+      event.checked = checked;
+      event.reclaimed = reclaimed;
+      event.commit();
+    }
+  }
+
+  static void regeneration(String worldName, int chunkX, int chunkZ, long startNanos) {
+    final RegenerationEvent event = new RegenerationEvent();
+    if (event.isEnabled()) {
+      event.elapsed = System.nanoTime() - startNanos;
+      event.world = worldName;
+      event.chunkX = chunkX;
+      event.chunkZ = chunkZ;
+      event.commit();
+    }
+  }
+
+  static void visualization(String playerName, int blocks, boolean clear, long startNanos) {
+    final VisualizationEvent event = new VisualizationEvent();
+    if (event.isEnabled()) {
+      event.elapsed = System.nanoTime() - startNanos;
+      event.player = playerName;
+      event.blocks = blocks;
+      event.clear = clear;
+      event.commit();
+    }
+  }
+
+  static void schedulerOverrun(
+      int tick,
+      String slowestTask,
+      long slowestTaskNanos,
+      long completionsNanos,
+      long tasksNanos,
+      long workNanos,
+      long startNanos) {
+    final SchedulerOverrunEvent event = new SchedulerOverrunEvent();
+    if (event.isEnabled()) {
+      event.elapsed = System.nanoTime() - startNanos;
+      event.tick = tick;
+      event.slowestTask = slowestTask;
+      event.slowestTaskTime = slowestTaskNanos;
+      event.completionsTime = completionsNanos;
+      event.tasksTime = tasksNanos;
+      event.workTime = workNanos;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A player action denied by a claim. */
+@Name("chunkclaimfabric.PermissionDenied")
+@Label("Permission Denied")
+@Category({"ChunkClaimFabric", "Claims"})
+@Description("Player action denied by a chunk claim")
+@Enabled(false)
+@StackTrace(false)
+class PermissionDeniedEvent extends Event {
+  @Label("Action")
+  String action;
+
+  @Label("Player")
+  String player;
+
+  @Label("Owner")
+  String owner;
+
+  @Label("World")
+  String world;
+
+  @Label("Chunk X")
+  int chunkX;
+
+  @Label("Chunk Z")
+  int chunkZ;
+}
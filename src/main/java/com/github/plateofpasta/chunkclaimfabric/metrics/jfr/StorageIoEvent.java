@@ -0,0 +1,55 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** A datastore file read, write or delete. */
+@Name("chunkclaimfabric.StorageIo")
+@Label("Storage I/O")
+@Category({"ChunkClaimFabric", "Storage"})
+@Description("Datastore file read, write or delete")
+@Enabled(false)
+@StackTrace(false)
+class StorageIoEvent extends Event {
+  @Label("Operation")
+  String operation;
+
+  @Label("Path")
+  String path;
+
+  @Label("Bytes")
+  @Description("Size of the file after the operation")
+  @DataAmount
+  long bytes;
+
+  @Label("Elapsed")
+  @Timespan
+  long elapsed;
+}
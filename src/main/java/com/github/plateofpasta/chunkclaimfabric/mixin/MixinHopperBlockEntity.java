@@ -0,0 +1,68 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.mixin;
+
+import com.github.plateofpasta.chunkclaimfabric.util.HopperClaimCache;
+import net.minecraft.block.entity.HopperBlockEntity;
+import net.minecraft.util.ActionResult;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/** Mixin to implement the {@link HopperClaimCache} interface. */
+@Mixin(HopperBlockEntity.class)
+public abstract class MixinHopperBlockEntity implements HopperClaimCache {
+
+  /** Claim generation the cached decision was made in. */
+  @Unique private int claimGeneration;
+  /** Packed position the cached decision was made for. */
+  @Unique private long claimToBlockPos;
+  /** Cached decision, null until the first transfer. */
+  @Unique private ActionResult claimDecision;
+
+  /**
+   * Implements the interface.
+   *
+   * @param claimGeneration Current claim generation of the datastore.
+   * @param toBlockPos Packed position the hopper is transferring to.
+   * @return Cached decision, or null if nothing is cached for the generation and position.
+   */
+  @Override
+  public ActionResult getCachedClaimDecision(int claimGeneration, long toBlockPos) {
+    if (claimGeneration == this.claimGeneration && toBlockPos == this.claimToBlockPos) {
+      return this.claimDecision;
+    }
+    return null;
+  }
+
+  /**
+   * Implements the interface.
+   *
+   * @param claimGeneration Claim generation the decision was made in.
+   * @param toBlockPos Packed position the hopper is transferring to.
+   * @param decision Decision to cache.
+   */
+  @Override
+  public void setCachedClaimDecision(int claimGeneration, long toBlockPos, ActionResult decision) {
+    this.claimGeneration = claimGeneration;
+    this.claimToBlockPos = toBlockPos;
+    this.claimDecision = decision;
+  }
+}
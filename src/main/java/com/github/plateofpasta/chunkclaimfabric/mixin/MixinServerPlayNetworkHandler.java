@@ -0,0 +1,49 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.mixin;
+
+import com.github.plateofpasta.chunkclaimfabric.event.PlayerMoveCallback;
+import net.minecraft.network.packet.c2s.play.PlayerMoveC2SPacket;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/** Mixin dedicated for observing player movement. */
+@Mixin(ServerPlayNetworkHandler.class)
+public abstract class MixinServerPlayNetworkHandler {
+  @Shadow public ServerPlayerEntity player;
+
+  /**
+   * Inject into the tail of ServerPlayNetworkHandler#onPlayerMove, which is only reached on the
+   * server thread once the movement was handled.
+   *
+   * @param packet Movement packet. Ignored.
+   * @param info Mixin callback info.
+   */
+  @Inject(method = "onPlayerMove", at = @At("TAIL"))
+  public void onPlayerMove(PlayerMoveC2SPacket packet, CallbackInfo info) {
+    PlayerMoveCallback.EVENT.invoker().move(this.player);
+  }
+}
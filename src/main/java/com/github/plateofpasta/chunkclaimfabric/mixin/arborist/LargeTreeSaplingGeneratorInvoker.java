@@ -0,0 +1,42 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.mixin.arborist;
+
+import net.minecraft.block.sapling.LargeTreeSaplingGenerator;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
+import net.minecraft.world.gen.feature.TreeFeatureConfig;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+import java.util.Random;
+
+/** Mixin to make the large tree feature factory of any large sapling generator callable. */
+@Mixin(LargeTreeSaplingGenerator.class)
+public interface LargeTreeSaplingGeneratorInvoker {
+  /**
+   * Invokes {@code LargeTreeSaplingGenerator#createLargeTreeFeature}.
+   *
+   * @param random Random used for generation.
+   * @return Large tree feature of the sapling, may be null.
+   */
+  @Invoker("createLargeTreeFeature")
+  ConfiguredFeature<TreeFeatureConfig, ?> invokeCreateLargeTreeFeature(Random random);
+}
@@ -20,40 +20,69 @@
 
 package com.github.plateofpasta.chunkclaimfabric.mixin.arborist;
 
-import com.github.plateofpasta.chunkclaimfabric.util.arborist.SaplingGrowthStyle;
+import com.github.plateofpasta.chunkclaimfabric.util.arborist.SaplingGrowth;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.sapling.LargeTreeSaplingGenerator;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
 import net.minecraft.world.gen.feature.ConfiguredFeature;
 import net.minecraft.world.gen.feature.TreeFeatureConfig;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.ModifyVariable;
+import org.spongepowered.asm.mixin.injection.Redirect;
 
-/** Mixin to implement and utilize the {@link SaplingGrowthStyle} interface. */
+import java.util.Random;
+
+/** Mixin to give each large sapling growth its own tree feature carrying the growth type. */
 @Mixin(LargeTreeSaplingGenerator.class)
 public abstract class MixinLargeSaplingGenerator {
+  /**
+   * Shadow mixin to make the large tree feature factory accessible through this mixin.
+   *
+   * @param random Random used for generation.
+   * @return Large tree feature of the sapling, may be null.
+   */
+  @Shadow
+  protected abstract ConfiguredFeature<TreeFeatureConfig, ?> createLargeTreeFeature(
+      Random random);
 
   /**
-   * Modifies the configured feature to indicate it was grown by a player. Occurs after it is
-   * created by a factory method.
+   * Replaces the shared configured feature with a per-growth copy that indicates growth style. The
+   * growth type is taken from the generator, see {@link SaplingGrowth}.
    *
-   * @param feature Feature to modify.
-   * @return Modified feature.
+   * @param generator Sapling generator creating the feature.
+   * @param random Random used for generation.
+   * @param world Unused, required for mixin signature.
+   * @param chunkGenerator Unused, required for mixin signature.
+   * @param pos Unused, required for mixin signature.
+   * @param state Unused, required for mixin signature.
+   * @param generateRandom Unused, required for mixin signature.
+   * @param x Unused, required for mixin signature.
+   * @param z Unused, required for mixin signature.
+   * @return Copy of the feature for this growth only, may be null.
    */
-  @ModifyVariable(
+  @Redirect(
       method = "generateLargeTree",
       at =
           @At(
-              value = "INVOKE_ASSIGN",
+              value = "INVOKE",
               target =
-                  "net/minecraft/block/sapling/LargeTreeSaplingGenerator.createLargeTreeFeature(Ljava/util/Random;)Lnet/minecraft/world/gen/feature/ConfiguredFeature;",
-              ordinal = 0),
-      name = "configuredFeature")
-  ConfiguredFeature<TreeFeatureConfig, ?> modifyCreateTreeFeature(
-      ConfiguredFeature<TreeFeatureConfig, ?> feature) {
-    if (null != feature) {
-      ((SaplingGrowthStyle) feature.config)
-          .setGrowthType(((SaplingGrowthStyle) this).getGrowthType());
-    }
-    return feature;
+                  "Lnet/minecraft/block/sapling/LargeTreeSaplingGenerator;createLargeTreeFeature(Ljava/util/Random;)Lnet/minecraft/world/gen/feature/ConfiguredFeature;",
+              ordinal = 0))
+  private ConfiguredFeature<TreeFeatureConfig, ?> modifyCreateTreeFeature(
+      LargeTreeSaplingGenerator generator,
+      Random random,
+      ServerWorld world,
+      ChunkGenerator chunkGenerator,
+      BlockPos pos,
+      BlockState state,
+      Random generateRandom,
+      int x,
+      int z) {
+    return SaplingGrowth.configureGrowth(
+        ((MixinLargeSaplingGenerator) (Object) generator).createLargeTreeFeature(random),
+        SaplingGrowth.getGrowthType(generator));
   }
 }
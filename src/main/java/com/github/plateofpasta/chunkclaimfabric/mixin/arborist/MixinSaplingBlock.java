@@ -21,47 +21,66 @@
 package com.github.plateofpasta.chunkclaimfabric.mixin.arborist;
 
 import com.github.plateofpasta.chunkclaimfabric.util.arborist.GrowthType;
-import com.github.plateofpasta.chunkclaimfabric.util.arborist.SaplingGrowthStyle;
+import com.github.plateofpasta.chunkclaimfabric.util.arborist.SaplingGrowth;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.SaplingBlock;
 import net.minecraft.block.sapling.SaplingGenerator;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+import java.util.Random;
 
 /**
- * Mixin to utilize the {@link SaplingGrowthStyle} interface at the "origin" of knowledge for
- * determining if a player grew the tree.
+ * Mixin to mark the growth type at the "origin" of knowledge for determining if a player grew the
+ * tree. Growth that is not marked is natural growth.
  */
 @Mixin(SaplingBlock.class)
 public abstract class MixinSaplingBlock {
-
-  /** Shadow variable used with {@link SaplingGrowthStyle}. */
+  /** Shadow variable holding the sapling's shared generator. */
   @Shadow @Final private SaplingGenerator generator;
 
   /**
-   * Mixin to determine if a sapling was grown naturally.
+   * Shadow mixin to make the generate method accessible through this mixin.
    *
-   * @param info Callback info.
+   * @param world World the sapling is in.
+   * @param pos Position of the sapling.
+   * @param state Block state of the sapling.
+   * @param random Random used for generation.
    */
-  @Inject(method = "generate", at = @At("HEAD"))
-  void mixinPlayerSaplingGenerate(CallbackInfo info) {
-    SaplingGrowthStyle generatorGrowthStyle = (SaplingGrowthStyle) this.generator;
-    if (GrowthType.PLAYER_GROWTH != generatorGrowthStyle.getGrowthType()) {
-      // Natural growth has lower "precedence" than player growth.
-      generatorGrowthStyle.setGrowthType(GrowthType.NATURAL_GROWTH);
-    }
-  }
+  @Shadow
+  public abstract void generate(ServerWorld world, BlockPos pos, BlockState state, Random random);
 
   /**
-   * Mixin to determine if a sapling was grown by a player.
+   * Mixin to mark a sapling as grown by a player. A grown sapling is handed to a generator created
+   * for this growth, which carries the growth type, instead of the sapling's shared generator.
    *
-   * @param info Callback info.
+   * @param block Unused, required for mixin signature.
+   * @param world World the sapling is in.
+   * @param pos Position of the sapling.
+   * @param state Block state of the sapling.
+   * @param random Random used for generation.
    */
-  @Inject(method = "grow", at = @At("HEAD"))
-  void mixinPlayerSaplingGrow(CallbackInfo info) {
-    ((SaplingGrowthStyle) this.generator).setGrowthType(GrowthType.PLAYER_GROWTH);
+  @Redirect(
+      method = "grow",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/block/SaplingBlock;generate(Lnet/minecraft/server/world/ServerWorld;Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/BlockState;Ljava/util/Random;)V",
+              ordinal = 0))
+  private void mixinPlayerSaplingGrow(
+      SaplingBlock block, ServerWorld world, BlockPos pos, BlockState state, Random random) {
+    if (0 == state.get(SaplingBlock.STAGE)) {
+      // Only advances the sapling's stage, no tree is grown.
+      this.generate(world, pos, state, random);
+      return;
+    }
+    SaplingGrowth.createGenerator(this.generator, GrowthType.PLAYER_GROWTH)
+        .generate(world, world.getChunkManager().getChunkGenerator(), pos, state, random);
   }
 }
@@ -20,64 +20,68 @@
 
 package com.github.plateofpasta.chunkclaimfabric.mixin.arborist;
 
-import com.github.plateofpasta.chunkclaimfabric.util.arborist.GrowthType;
-import com.github.plateofpasta.chunkclaimfabric.util.arborist.SaplingGrowthStyle;
+import com.github.plateofpasta.chunkclaimfabric.util.arborist.SaplingGrowth;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.sapling.SaplingGenerator;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
 import net.minecraft.world.gen.feature.ConfiguredFeature;
 import net.minecraft.world.gen.feature.TreeFeatureConfig;
 import org.spongepowered.asm.mixin.Mixin;
-import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.ModifyVariable;
+import org.spongepowered.asm.mixin.injection.Redirect;
 
-/** Mixin to implement and utilize the {@link SaplingGrowthStyle} interface. */
-@Mixin(SaplingGenerator.class)
-public abstract class MixinSaplingGenerator implements SaplingGrowthStyle {
-
-  /** Added unique mixin variable for {@link SaplingGrowthStyle} interface implementation. */
-  @Unique private GrowthType growthType = GrowthType.WORLD_GEN;
-
-  /**
-   * Implements the interface.
-   *
-   * @return {@link GrowthType} of the object.
-   */
-  @Override
-  public GrowthType getGrowthType() {
-    return this.growthType;
-  }
+import java.util.Random;
 
+/** Mixin to give each sapling growth its own tree feature carrying the growth type. */
+@Mixin(SaplingGenerator.class)
+public abstract class MixinSaplingGenerator {
   /**
-   * Implements the interface.
+   * Shadow mixin to make the tree feature factory accessible through this mixin.
    *
-   * @param growthType Growth type.
+   * @param random Random used for generation.
+   * @param bees If the tree may have a bee nest.
+   * @return Tree feature of the sapling, may be null.
    */
-  public void setGrowthType(GrowthType growthType) {
-    this.growthType = growthType;
-  }
+  @Shadow
+  protected abstract ConfiguredFeature<TreeFeatureConfig, ?> createTreeFeature(
+      Random random, boolean bees);
 
   /**
-   * Modifies the configured feature to indicate growth style. Occurs after it is created by a
-   * factory method.
+   * Replaces the shared configured feature with a per-growth copy that indicates growth style. The
+   * growth type is taken from the generator, see {@link SaplingGrowth}.
    *
-   * @param feature Feature to modify.
-   * @return Modified feature.
+   * @param generator Sapling generator creating the feature.
+   * @param random Random used for generation.
+   * @param bees If the tree may have a bee nest.
+   * @param world Unused, required for mixin signature.
+   * @param chunkGenerator Unused, required for mixin signature.
+   * @param pos Unused, required for mixin signature.
+   * @param state Unused, required for mixin signature.
+   * @param generateRandom Unused, required for mixin signature.
+   * @return Copy of the feature for this growth only, may be null.
    */
-  @ModifyVariable(
+  @Redirect(
       method = "generate",
       at =
           @At(
-              value = "INVOKE_ASSIGN",
+              value = "INVOKE",
               target =
-                  "net/minecraft/block/sapling/SaplingGenerator.createTreeFeature(Ljava/util/Random;Z)Lnet/minecraft/world/gen/feature/ConfiguredFeature;",
-              ordinal = 0),
-      name = "configuredFeature")
-  ConfiguredFeature<TreeFeatureConfig, ?> modifyCreateTreeFeature(
-      ConfiguredFeature<TreeFeatureConfig, ?> feature) {
-    if (null != feature) {
-      ((SaplingGrowthStyle) feature.config)
-          .setGrowthType(((SaplingGrowthStyle) this).getGrowthType());
-    }
-    return feature;
+                  "Lnet/minecraft/block/sapling/SaplingGenerator;createTreeFeature(Ljava/util/Random;Z)Lnet/minecraft/world/gen/feature/ConfiguredFeature;",
+              ordinal = 0))
+  private ConfiguredFeature<TreeFeatureConfig, ?> modifyCreateTreeFeature(
+      SaplingGenerator generator,
+      Random random,
+      boolean bees,
+      ServerWorld world,
+      ChunkGenerator chunkGenerator,
+      BlockPos pos,
+      BlockState state,
+      Random generateRandom) {
+    return SaplingGrowth.configureGrowth(
+        ((MixinSaplingGenerator) (Object) generator).createTreeFeature(random, bees),
+        SaplingGrowth.getGrowthType(generator));
   }
 }
@@ -20,11 +20,12 @@
 
 package com.github.plateofpasta.chunkclaimfabric.mixin.arborist;
 
-import com.github.plateofpasta.chunkclaimfabric.event.SaplingGrowCallback;
+import com.github.plateofpasta.chunkclaimfabric.util.arborist.FilteredTreeWorld;
 import com.github.plateofpasta.chunkclaimfabric.util.arborist.GrowthType;
 import com.github.plateofpasta.chunkclaimfabric.util.arborist.SaplingGrowthStyle;
+import com.github.plateofpasta.chunkclaimfabric.util.arborist.TreeGrowthFilter;
 import net.minecraft.block.Blocks;
-import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.ModifiableTestableWorld;
 import net.minecraft.world.StructureWorldAccess;
@@ -33,12 +34,14 @@ import net.minecraft.world.gen.chunk.ChunkGenerator;
 import net.minecraft.world.gen.feature.TreeFeature;
 import net.minecraft.world.gen.feature.TreeFeatureConfig;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import org.spongepowered.asm.mixin.injection.callback.LocalCapture;
 
-import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Random;
 import java.util.Set;
 
@@ -48,18 +51,98 @@ import java.util.Set;
 @Mixin(TreeFeature.class)
 public abstract class MixinTreeFeature {
   /**
-   * Mixin that redirects the tree generation function.
+   * Shadow mixin to make the trunk and foliage placement method accessible through this mixin.
+   *
+   * @param world World generation is occurring in.
+   * @param random Random used for generation.
+   * @param pos Position of the "root" of generation.
+   * @param logPositions Collects the positions of the tree's log blocks.
+   * @param leavesPositions Collects the positions of the tree's leaf blocks.
+   * @param box Bounding box of the generated blocks.
+   * @param config Tree generation config.
+   * @return {@code true} if the tree was generated, else {@code false}.
+   */
+  @Shadow
+  private boolean generate(
+      ModifiableTestableWorld world,
+      Random random,
+      BlockPos pos,
+      Set<BlockPos> logPositions,
+      Set<BlockPos> leavesPositions,
+      BlockBox box,
+      TreeFeatureConfig config) {
+    throw new AssertionError();
+  }
+
+  /**
+   * Redirects trunk and foliage placement through a {@link FilteredTreeWorld}, so logs and leaves
+   * are never written to chunks the tree may not grow into. Positions in those chunks are removed
+   * from the position sets afterwards so decorators only attach to blocks that exist. The filter
+   * is kept on the per-growth config so decorations reuse its decisions.
+   *
+   * @param feature Tree feature that performs generation.
+   * @param world World generation is occurring in.
+   * @param random Random used for generation.
+   * @param rootPos Position of the "root" of generation.
+   * @param logs Collects the positions of the tree's log blocks.
+   * @param leaves Collects the positions of the tree's leaf blocks.
+   * @param box Bounding box of the generated blocks.
+   * @param treeFeatureConfig Tree generation config.
+   * @return {@code true} if the tree was generated, else {@code false}.
+   */
+  @Redirect(
+      method =
+          "Lnet/minecraft/world/gen/feature/TreeFeature;generate(Lnet/minecraft/world/StructureWorldAccess;Lnet/minecraft/world/gen/chunk/ChunkGenerator;Ljava/util/Random;Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/world/gen/feature/TreeFeatureConfig;)Z",
+      at =
+          @At(
+              value = "INVOKE",
+              target =
+                  "Lnet/minecraft/world/gen/feature/TreeFeature;generate(Lnet/minecraft/world/ModifiableTestableWorld;Ljava/util/Random;Lnet/minecraft/util/math/BlockPos;Ljava/util/Set;Ljava/util/Set;Lnet/minecraft/util/math/BlockBox;Lnet/minecraft/world/gen/feature/TreeFeatureConfig;)Z",
+              ordinal = 0))
+  private boolean filterTrunkAndFoliageMixin(
+      TreeFeature feature,
+      ModifiableTestableWorld world,
+      Random random,
+      BlockPos rootPos,
+      Set<BlockPos> logs,
+      Set<BlockPos> leaves,
+      BlockBox box,
+      TreeFeatureConfig treeFeatureConfig) {
+    // Generate as normal if this generation occurred due to world generation.
+    GrowthType growthType = ((SaplingGrowthStyle) treeFeatureConfig).getGrowthType();
+    if (GrowthType.WORLD_GEN == growthType || !(world instanceof World)) {
+      return this.generate(world, random, rootPos, logs, leaves, box, treeFeatureConfig);
+    }
+    TreeGrowthFilter filter = new TreeGrowthFilter(growthType, feature, (World) world, rootPos);
+    ((SaplingGrowthStyle) treeFeatureConfig).setGrowthFilter(filter);
+    boolean generated =
+        this.generate(
+            new FilteredTreeWorld(world, filter),
+            random,
+            rootPos,
+            logs,
+            leaves,
+            box,
+            treeFeatureConfig);
+    filter.removeRejected(logs);
+    filter.removeRejected(leaves);
+    return generated;
+  }
+
+  /**
+   * Mixin that removes tree decorations from chunks the tree may not grow into. Decorators are
+   * given the full world access, so their blocks can only be removed after placement. The filter
+   * made for the trunk and foliage is reused, so the claim callbacks run once per chunk.
    *
    * @param world World generation is occurring in.
    * @param chunkGenerator Unused, required for mixin signature.
    * @param random Unused, required for mixin signature.
-   * @param rootPos Position of the "root" of generation. This is from the {@code
-   *     TreeFeature;generate} parameter list.
+   * @param rootPos Unused, required for mixin signature.
    * @param treeFeatureConfig Tree generation config. This is from the {@code TreeFeature;generate}
    *     parameter list.
    * @param info Mixin callback info.
-   * @param logs Contains all coordinate positions of the tree's log blocks **after** generation.
-   * @param leaves Contains all coordinate positions of the tree's leaf blocks **after** generation.
+   * @param logs Unused, required for mixin signature.
+   * @param leaves Unused, required for mixin signature.
    * @param decorations Contains all coordinate positions of the tree's decoration blocks **after**
    *     generation.
    */
@@ -83,38 +166,17 @@ public abstract class MixinTreeFeature {
       Set<BlockPos> logs,
       Set<BlockPos> leaves,
       Set<BlockPos> decorations) {
-    TreeFeature feature = (TreeFeature) (Object) this;
-    // Early return if this generation occurred due to world generation.
-    GrowthType growthType = ((SaplingGrowthStyle) treeFeatureConfig).getGrowthType();
-    if (GrowthType.WORLD_GEN == growthType) {
+    // Early return if this generation was not filtered or nothing was decorated.
+    TreeGrowthFilter filter = ((SaplingGrowthStyle) treeFeatureConfig).getGrowthFilter();
+    if (null == filter || decorations.isEmpty()) {
       return;
     }
-    // Invoke sapling growth event callback.
-    ActionResult result =
-        SaplingGrowCallback.EVENT
-            .invoker()
-            .grow(growthType, feature, (World) world, rootPos, logs, leaves, decorations);
-    if (ActionResult.PASS != result) {
-      this.removeGeneratedBlock(world, logs, leaves, decorations);
-    }
-  }
-
-  /**
-   * Helper for removing generated blocks.
-   *
-   * @param world World generation is occurring in.
-   * @param logPositions Collection of coordinates for the generated tree's logs.
-   * @param leavesPositions Collection of coordinates for the generated tree's leaves.
-   */
-  private void removeGeneratedBlock(
-      ModifiableTestableWorld world,
-      Set<BlockPos> logPositions,
-      Set<BlockPos> leavesPositions,
-      Set<BlockPos> decoratorPositions) {
-    for (Set<BlockPos> posSet : Arrays.asList(logPositions, leavesPositions, decoratorPositions)) {
-      for (BlockPos blockPos : posSet) {
+    for (Iterator<BlockPos> iterator = decorations.iterator(); iterator.hasNext(); ) {
+      BlockPos blockPos = iterator.next();
+      if (!filter.allows(blockPos)) {
         TreeFeature.setBlockStateWithoutUpdatingNeighbors(
             world, blockPos, Blocks.AIR.getDefaultState());
+        iterator.remove();
       }
     }
   }
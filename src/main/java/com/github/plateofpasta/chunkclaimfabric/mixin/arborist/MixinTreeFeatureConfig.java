@@ -22,6 +22,7 @@ package com.github.plateofpasta.chunkclaimfabric.mixin.arborist;
 
 import com.github.plateofpasta.chunkclaimfabric.util.arborist.GrowthType;
 import com.github.plateofpasta.chunkclaimfabric.util.arborist.SaplingGrowthStyle;
+import com.github.plateofpasta.chunkclaimfabric.util.arborist.TreeGrowthFilter;
 import net.minecraft.world.gen.feature.TreeFeatureConfig;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
@@ -30,9 +31,16 @@ import org.spongepowered.asm.mixin.Unique;
 @Mixin(TreeFeatureConfig.class)
 public abstract class MixinTreeFeatureConfig implements SaplingGrowthStyle {
 
-  /** Added unique mixin variable for {@link SaplingGrowthStyle} interface implementation. */
+  /**
+   * Added unique mixin variable for {@link SaplingGrowthStyle} interface implementation. Only set on
+   * per-growth copies before they are used, so shared configs read by world generation threads never
+   * see a write.
+   */
   @Unique private GrowthType growthType = GrowthType.WORLD_GEN;
 
+  /** Added unique mixin variable for the filter of the growth using this per-growth copy. */
+  @Unique private TreeGrowthFilter growthFilter = null;
+
   /**
    * Implements the interface.
    *
@@ -51,4 +59,24 @@ public abstract class MixinTreeFeatureConfig implements SaplingGrowthStyle {
   public void setGrowthType(GrowthType growthType) {
     this.growthType = growthType;
   }
+
+  /**
+   * Implements the interface.
+   *
+   * @return Filter of the growth, or null if the growth is not filtered.
+   */
+  @Override
+  public TreeGrowthFilter getGrowthFilter() {
+    return this.growthFilter;
+  }
+
+  /**
+   * Implements the interface.
+   *
+   * @param growthFilter Filter of the growth.
+   */
+  @Override
+  public void setGrowthFilter(TreeGrowthFilter growthFilter) {
+    this.growthFilter = growthFilter;
+  }
 }
@@ -0,0 +1,43 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.mixin.arborist;
+
+import net.minecraft.block.sapling.SaplingGenerator;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
+import net.minecraft.world.gen.feature.TreeFeatureConfig;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+import java.util.Random;
+
+/** Mixin to make the tree feature factory of any sapling generator callable. */
+@Mixin(SaplingGenerator.class)
+public interface SaplingGeneratorInvoker {
+  /**
+   * Invokes {@code SaplingGenerator#createTreeFeature}.
+   *
+   * @param random Random used for generation.
+   * @param bees If the tree may have a bee nest.
+   * @return Tree feature of the sapling, may be null.
+   */
+  @Invoker("createTreeFeature")
+  ConfiguredFeature<TreeFeatureConfig, ?> invokeCreateTreeFeature(Random random, boolean bees);
+}
@@ -21,6 +21,7 @@
 package com.github.plateofpasta.chunkclaimfabric.player;
 
 import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
 import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
 import com.github.plateofpasta.edgestitch.permission.Permissible;
 import com.github.plateofpasta.edgestitch.player.EdgestitchPlayer;
@@ -35,17 +36,13 @@ public class ChunkClaimPlayer extends EdgestitchPlayer {
   }
 
   /**
-   * Wrapper for looking up player data in the datastore and checking the player's ignore
-   * permission.
+   * Wrapper for checking the player's ignore permission in the datastore. Never reads from storage.
    *
    * @param playerName Player name to check.
    * @return {@code true} if the player can ignore, else false.
    */
   public static boolean hasIgnorePermission(String playerName) {
-    return ChunkClaimFabric.getPlugin()
-        .getDataStore()
-        .getPlayerData(playerName)
-        .canIgnoreChunkClaims();
+    return ChunkClaimFabric.getPlugin().getDataStore().canIgnoreChunkClaims(playerName);
   }
 
   /**
@@ -88,11 +85,11 @@ public class ChunkClaimPlayer extends EdgestitchPlayer {
    * @return true if modifiable by the player, else false.
    */
   public boolean canPlayerModifyAtLocation(EdgestitchLocation location) {
-    final PlayerData playerData =
-        ChunkClaimFabric.getPlugin().getDataStore().getPlayerData(this.getName());
+    final DataStore dataStore = ChunkClaimFabric.getPlugin().getDataStore();
+    // Only use data already in memory, a missing last chunk is just a missed cache hint.
+    final PlayerData playerData = dataStore.getCachedPlayerData(this.getName());
     final Chunk chunk =
-        ChunkClaimFabric.getPlugin().getDataStore().getChunkAt(location, playerData.getLastChunk());
-    return (null != chunk)
-        && ((playerData.canIgnoreChunkClaims()) || (chunk.canModify(this.getName())));
+        dataStore.getChunkAt(location, (null == playerData) ? null : playerData.getLastChunk());
+    return (null != chunk) && chunk.canModify(this.getName());
   }
 }
@@ -0,0 +1,180 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.player;
+
+import com.google.common.math.LongMath;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Credit balance of a player, held as a fixed-point number of {@link #UNITS_PER_CREDIT} units so
+ * that repeated additions don't drift like floating-point sums do. Every update is a single
+ * compare-and-set, so any thread may change a balance without locking the datastore. Balances
+ * saturate at about 9.2 trillion credits instead of overflowing.
+ *
+ * <p>Balances are stored as plain credit numbers, which keeps the player data files compatible.
+ */
+@JsonAdapter(CreditBalance.Adapter.class)
+public final class CreditBalance {
+  /** Fixed-point units per credit, balances are exact to a millionth of a credit. */
+  public static final long UNITS_PER_CREDIT = 1_000_000L;
+
+  private final AtomicLong units;
+
+  /** @param credits Initial balance. */
+  public CreditBalance(double credits) {
+    this.units = new AtomicLong(toUnits(credits));
+  }
+
+  /**
+   * Converts credits to fixed-point units, rounding to the nearest unit.
+   *
+   * @param credits Credits to convert.
+   * @return Units, saturated at the range of a long.
+   */
+  public static long toUnits(double credits) {
+    return Math.round(credits * UNITS_PER_CREDIT);
+  }
+
+  /**
+   * Converts fixed-point units to credits.
+   *
+   * @param units Units to convert.
+   * @return Credits.
+   */
+  public static double toCredits(long units) {
+    return (double) units / UNITS_PER_CREDIT;
+  }
+
+  /** @return Current balance in credits. */
+  public double get() {
+    return toCredits(this.units.get());
+  }
+
+  /** @return Current balance in fixed-point units. */
+  public long getUnits() {
+    return this.units.get();
+  }
+
+  /**
+   * Sets the balance.
+   *
+   * @param credits New balance.
+   * @return Previous balance in fixed-point units.
+   */
+  public long set(double credits) {
+    return this.units.getAndSet(toUnits(credits));
+  }
+
+  /**
+   * Adds to the balance. Negative amounts may take the balance below zero.
+   *
+   * @param credits Credits to add.
+   * @return New balance in fixed-point units.
+   */
+  public long add(double credits) {
+    return this.addUnits(toUnits(credits));
+  }
+
+  /**
+   * Adds fixed-point units to the balance, see {@link #add(double)}.
+   *
+   * @param deltaUnits Units to add.
+   * @return New balance in fixed-point units.
+   */
+  public long addUnits(long deltaUnits) {
+    return this.units.accumulateAndGet(deltaUnits, LongMath::saturatedAdd);
+  }
+
+  /**
+   * Checks if the balance covers an amount.
+   *
+   * @param credits Amount to check.
+   * @return {@code true} if the balance is at least the amount, else {@code false}.
+   */
+  public boolean covers(double credits) {
+    return this.units.get() >= toUnits(credits);
+  }
+
+  /**
+   * Withdraws an amount if the balance covers it. The overdraft check and the withdrawal are one
+   * atomic step, so concurrent withdrawals can't take the balance below the amount checked.
+   *
+   * @param credits Credits to withdraw.
+   * @return {@code true} if withdrawn, else {@code false} and the balance is unchanged.
+   */
+  public boolean tryWithdraw(double credits) {
+    final long amount = toUnits(credits);
+    final long negated = toUnits(-credits);
+    long current;
+    do {
+      current = this.units.get();
+      if (current < amount) {
+        return false;
+      }
+    } while (!this.units.compareAndSet(current, LongMath.saturatedAdd(current, negated)));
+    return true;
+  }
+
+  /**
+   * Adds earned units up to a cap. A balance already at or above the cap is left unchanged, e.g.
+   * if the cap was lowered after the balance was reached.
+   *
+   * @param earnedUnits Units to add.
+   * @param capUnits Most units the balance may reach by earning.
+   * @return Units actually added.
+   */
+  public long addCapped(long earnedUnits, long capUnits) {
+    long current;
+    long next;
+    do {
+      current = this.units.get();
+      if (current >= capUnits) {
+        return 0;
+      }
+      next = Math.min(capUnits, LongMath.saturatedAdd(current, earnedUnits));
+    } while (!this.units.compareAndSet(current, next));
+    return next - current;
+  }
+
+  @Override
+  public String toString() {
+    return Double.toString(this.get());
+  }
+
+  /** Reads and writes a balance as its number of credits. */
+  static final class Adapter extends TypeAdapter<CreditBalance> {
+    @Override
+    public void write(JsonWriter out, CreditBalance balance) throws IOException {
+      out.value(balance.get());
+    }
+
+    @Override
+    public CreditBalance read(JsonReader in) throws IOException {
+      return new CreditBalance(in.nextDouble());
+    }
+  }
+}
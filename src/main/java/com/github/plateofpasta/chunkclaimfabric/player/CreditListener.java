@@ -0,0 +1,34 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.player;
+
+/** Listener notified of every change to the credits of a player, see {@link PlayerData}. */
+@FunctionalInterface
+public interface CreditListener {
+  /**
+   * Called after the credits of a player changed. May be called on any thread.
+   *
+   * @param playerName Name of the player.
+   * @param deltaUnits Change of the balance in {@link CreditBalance} units.
+   * @param balanceUnits Balance after the change in {@link CreditBalance} units.
+   */
+  void creditsChanged(String playerName, long deltaUnits, long balanceUnits);
+}
@@ -21,7 +21,7 @@
 
 package com.github.plateofpasta.chunkclaimfabric.player;
 
-import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.config.ChunkClaimConfig;
 import com.github.plateofpasta.chunkclaimfabric.util.TimeDateUtil;
 import com.github.plateofpasta.chunkclaimfabric.visual.Visualization;
 import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
@@ -30,27 +30,76 @@ import com.github.plateofpasta.edgestitch.world.EdgestitchLocation;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-
-/** Player metadata related to ChunkClaim. */
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Player metadata related to ChunkClaim.
+ *
+ * <p>Credits accrue from the active play time collected by {@link #sampleActivity(boolean, long)},
+ * which is turned into credits at the end of each sample window, see {@link #accrueCredits()}.
+ * Credits are held in a {@link CreditBalance}, so the credit methods may be called from any
+ * thread. Every change is reported to the {@link CreditListener}, which the datastore uses to log
+ * it to its credit ledger. A change is applied and reported under a per-player lock, so {@link
+ * #copyForSave(LongSupplier)} never sees one without the other.
+ */
 public class PlayerData {
+  /** Length of an activity sample window, a player is active in it if they moved. */
+  public static final long ACTIVITY_SAMPLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  /** Most time a single sample counts as active, in case samples arrive late. */
+  private static final long MAX_ACTIVE_SAMPLE_MILLIS = 2 * ACTIVITY_SAMPLE_MILLIS;
+  private static final double MILLIS_PER_HOUR = TimeUnit.HOURS.toMillis(1);
+
   public transient Chunk lastChunk = null;
-  private double credits = ChunkClaimFabric.getClaimConfig().getStartCredits();
+  private CreditBalance credits = new CreditBalance(0);
   private float bonus = 0L;
   private String playerName;
   private ArrayList<String> builderNames = new ArrayList<String>();
   private Date lastLogin = new Date();
   private Date firstJoin = new Date();
+  /** Sequence number of the last credit ledger entry included in the saved credits. */
+  private long ledgerSequence = 0;
   private transient Visualization currentVisualization = null;
   private transient EdgestitchLocation lastAfkCheckLocation = null;
   private transient boolean ignoreChunks = false;
+  /** Time of the last activity sample, or -1 before the first sample. Server thread only. */
+  private transient long lastActivitySampleMillis = -1;
+  /** Active play time not turned into credits yet. */
+  private final transient AtomicLong unaccruedActiveMillis = new AtomicLong();
+  /** Notified of credit changes, or null. */
+  private transient volatile CreditListener creditListener = null;
+  /** Held while a credit change is applied and reported. */
+  private final transient Object creditLock = new Object();
+  /** Configuration of the mod, for the credit rates and prices. */
+  private transient ChunkClaimConfig config;
+
+  /**
+   * Creates the data of a new player, starting with the configured credits.
+   *
+   * @param config Configuration of the mod.
+   */
+  public PlayerData(ChunkClaimConfig config) {
+    this.config = config;
+    this.credits = new CreditBalance(config.getStartCredits());
+  }
+
+  /** For Gson and {@link #copyForSave(LongSupplier)}, loaded data is given its configuration. */
+  private PlayerData() {}
+
+  /** @param config Configuration of the mod, set by the datastore when loading the data. */
+  public void setConfig(ChunkClaimConfig config) {
+    this.config = config;
+  }
 
   /**
-   * Gets the amount of credits allocated to a player.
+   * Gets the amount of credits allocated to a player, including the credits accrued so far.
    *
    * @return Number of starting credits.
    */
   public double getCredits() {
-    return this.credits;
+    this.accrueCredits();
+    return this.credits.get();
   }
 
   /**
@@ -59,7 +108,11 @@ public class PlayerData {
    * @param credits Value to set.
    */
   public void setCredits(double credits) {
-    this.credits = credits;
+    synchronized (this.creditLock) {
+      final long previousUnits = this.credits.set(credits);
+      final long balanceUnits = CreditBalance.toUnits(credits);
+      this.creditsChanged(balanceUnits - previousUnits, balanceUnits);
+    }
   }
 
   /**
@@ -68,16 +121,151 @@ public class PlayerData {
    * @param credits Credits to add.
    */
   public void addCredits(double credits) {
-    this.credits += credits;
+    this.accrueCredits();
+    synchronized (this.creditLock) {
+      this.creditsChanged(CreditBalance.toUnits(credits), this.credits.add(credits));
+    }
   }
 
   /**
-   * Removes credits to the credit counter.
+   * Removes credits to the credit counter, even if that takes them below zero.
    *
    * @param credits Credits to remove.
    */
   public void removeCredits(double credits) {
-    this.credits -= credits;
+    this.accrueCredits();
+    synchronized (this.creditLock) {
+      this.creditsChanged(CreditBalance.toUnits(-credits), this.credits.add(-credits));
+    }
+  }
+
+  /**
+   * Removes credits from the credit counter if they cover them, checking and removing in one atomic
+   * step.
+   *
+   * @param credits Credits to remove.
+   * @return {@code true} if the credits were removed, else {@code false}.
+   */
+  public boolean tryRemoveCredits(double credits) {
+    this.accrueCredits();
+    synchronized (this.creditLock) {
+      if (!this.credits.tryWithdraw(credits)) {
+        return false;
+      }
+      this.creditsChanged(CreditBalance.toUnits(-credits), this.credits.getUnits());
+    }
+    return true;
+  }
+
+  /**
+   * Ends an activity sample window. The time since the previous sample counts as active play time
+   * if the player was active in the window and is accrued right away, so that the credit ledger
+   * logs it. The first sample only starts the window.
+   *
+   * @param active {@code true} if the player was active since the previous sample, else false.
+   * @param nowMillis Time of the sample.
+   */
+  public void sampleActivity(boolean active, long nowMillis) {
+    if (active && 0 <= this.lastActivitySampleMillis) {
+      this.unaccruedActiveMillis.addAndGet(
+          Math.min(
+              MAX_ACTIVE_SAMPLE_MILLIS, Math.max(0, nowMillis - this.lastActivitySampleMillis)));
+    }
+    this.lastActivitySampleMillis = nowMillis;
+    this.accrueCredits();
+  }
+
+  /**
+   * Turns the active play time collected so far into credits at the configured credits per hour.
+   * Credits are capped at the configured maximum, but credits already above it are kept, e.g. if
+   * the maximum was lowered after they were accrued. Called at every sample, whenever credits are
+   * read or changed, and before the data is saved.
+   */
+  public void accrueCredits() {
+    if (0 == this.unaccruedActiveMillis.get()) {
+      return;
+    }
+    // Taking the time and zeroing it is one step, so concurrent calls never accrue it twice.
+    final long activeMillis = this.unaccruedActiveMillis.getAndSet(0);
+    final double earned = this.config.getCreditsPerHour() * (activeMillis / MILLIS_PER_HOUR);
+    synchronized (this.creditLock) {
+      final long addedUnits =
+          this.credits.addCapped(
+              CreditBalance.toUnits(earned),
+              CreditBalance.toUnits(this.config.getMaxCredits()));
+      if (0 != addedUnits) {
+        this.creditsChanged(addedUnits, this.credits.getUnits());
+      }
+    }
+  }
+
+  /**
+   * Reports a credit change to the listener.
+   *
+   * @param deltaUnits Change of the balance in fixed-point units.
+   * @param balanceUnits Balance after the change in fixed-point units.
+   */
+  private void creditsChanged(long deltaUnits, long balanceUnits) {
+    final CreditListener listener = this.creditListener;
+    if (null != listener && 0 != deltaUnits) {
+      listener.creditsChanged(this.playerName, deltaUnits, balanceUnits);
+    }
+  }
+
+  /** @param creditListener Listener notified of credit changes from now on, or null. */
+  public void setCreditListener(CreditListener creditListener) {
+    this.creditListener = creditListener;
+  }
+
+  /**
+   * Copies the data to be saved, accruing the credits first. The credits and the credit ledger
+   * sequence are taken together under the credit lock, so every entry of this player up to the
+   * sequence number is included in the copied credits and every later entry is not.
+   *
+   * @param ledgerSequence Supplies the sequence number of the last logged credit ledger entry.
+   * @return Copy of the saved data.
+   */
+  public PlayerData copyForSave(LongSupplier ledgerSequence) {
+    this.accrueCredits();
+    final PlayerData copy = new PlayerData();
+    copy.config = this.config;
+    synchronized (this.creditLock) {
+      copy.credits = new CreditBalance(this.credits.get());
+      copy.ledgerSequence = ledgerSequence.getAsLong();
+    }
+    copy.bonus = this.bonus;
+    copy.playerName = this.playerName;
+    copy.builderNames = new ArrayList<>(this.builderNames);
+    copy.lastLogin = this.lastLogin;
+    copy.firstJoin = this.firstJoin;
+    return copy;
+  }
+
+  /** @return Sequence number of the last credit ledger entry included in the credits. */
+  public long getLedgerSequence() {
+    return this.ledgerSequence;
+  }
+
+  /**
+   * Replays a credit ledger entry onto the credits, unless the credits already include it. Does
+   * not notify the listener.
+   *
+   * @param sequence Sequence number of the entry.
+   * @param deltaUnits Change of the balance in fixed-point units.
+   * @return {@code true} if the entry was applied, else {@code false}.
+   */
+  public boolean replayLedgerEntry(long sequence, long deltaUnits) {
+    if (sequence <= this.ledgerSequence) {
+      return false;
+    }
+    this.credits.addUnits(deltaUnits);
+    this.ledgerSequence = sequence;
+    return true;
+  }
+
+  /** @return Active play time in milliseconds not turned into credits yet. */
+  public long getUnaccruedActiveMillis() {
+    return this.unaccruedActiveMillis.get();
   }
 
   public float getBonus() {
@@ -226,12 +414,13 @@ public class PlayerData {
 
   /** @return {@code true} if the player can afford to claim a chunk, else {@code false}. */
   public boolean canAffordClaim() {
-    return 0
-        <= Double.compare(this.getCredits(), ChunkClaimFabric.getClaimConfig().getChunkPrice());
+    this.accrueCredits();
+    return this.credits.covers(this.config.getChunkPrice());
   }
 
   /** @return {@code true} if the player can afford to claim a chunk, else {@code false}. */
   public boolean canAffordMob() {
-    return 0 <= Double.compare(this.getCredits(), ChunkClaimFabric.getClaimConfig().getMobPrice());
+    this.accrueCredits();
+    return this.credits.covers(this.config.getMobPrice());
   }
 }
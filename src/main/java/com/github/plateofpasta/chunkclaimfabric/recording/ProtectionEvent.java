@@ -0,0 +1,141 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.recording;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Record of a protection event log, decoded by the {@link ProtectionEventReader}. The reader reuses
+ * a single instance, so copy anything that has to outlive the next read. Which fields are set
+ * depends on the {@link ProtectionEventType}.
+ */
+public class ProtectionEvent {
+  /** The protection decision was FAIL. */
+  public static final int DENIED = 1;
+  /**
+   * The action is exempt from claim protection, e.g. a switch while switches aren't protected or
+   * an entity that isn't protected.
+   */
+  public static final int EXEMPT = 1 << 1;
+  /** The piston is extending. */
+  public static final int EXTENDING = 1 << 2;
+  /** The player is ignoring claims. */
+  public static final int IGNORING = 1 << 3;
+
+  ProtectionEventType type;
+  String worldName;
+  int x;
+  int y;
+  int z;
+  int toX;
+  int toY;
+  int toZ;
+  String playerName;
+  int flags;
+  Direction facing;
+  final List<String> builderNames = new ArrayList<>();
+  final List<BlockPos> movedBlocks = new ArrayList<>();
+  final List<BlockPos> brokenBlocks = new ArrayList<>();
+
+  /** @return Type of the event. */
+  public ProtectionEventType getType() {
+    return this.type;
+  }
+
+  /** @return Name of the world the event occurred in. */
+  public String getWorldName() {
+    return this.worldName;
+  }
+
+  /**
+   * @return X coordinate of the block acted on, the origin of a movement, the piston or the root of
+   *     a tree. Chunk coordinate for claim records.
+   */
+  public int getX() {
+    return this.x;
+  }
+
+  /** @return Y coordinate of the block, see {@link #getX()}. Zero for claim records. */
+  public int getY() {
+    return this.y;
+  }
+
+  /** @return Z coordinate of the block, see {@link #getX()}. */
+  public int getZ() {
+    return this.z;
+  }
+
+  /**
+   * @return X coordinate of the destination of a movement, or of the chunk a tree is growing into.
+   */
+  public int getToX() {
+    return this.toX;
+  }
+
+  /** @return Y coordinate of the destination of a movement. */
+  public int getToY() {
+    return this.toY;
+  }
+
+  /**
+   * @return Z coordinate of the destination of a movement, or of the chunk a tree is growing into.
+   */
+  public int getToZ() {
+    return this.toZ;
+  }
+
+  /** @return Name of the acting player, or the owner for claim records. */
+  public String getPlayerName() {
+    return this.playerName;
+  }
+
+  /** @return Trusted builders of a claim record. */
+  public List<String> getBuilderNames() {
+    return this.builderNames;
+  }
+
+  /**
+   * @param flag Flag to check, e.g. {@link #DENIED}.
+   * @return {@code true} if the flag is set, else false.
+   */
+  public boolean hasFlag(int flag) {
+    return 0 != (this.flags & flag);
+  }
+
+  /** @return Direction the piston is facing. */
+  public Direction getFacing() {
+    return this.facing;
+  }
+
+  /** @return Positions of the blocks moved by the piston. */
+  public List<BlockPos> getMovedBlocks() {
+    return this.movedBlocks;
+  }
+
+  /** @return Positions of the blocks broken by the piston. */
+  public List<BlockPos> getBrokenBlocks() {
+    return this.brokenBlocks;
+  }
+}
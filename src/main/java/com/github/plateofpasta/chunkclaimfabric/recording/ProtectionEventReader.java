@@ -0,0 +1,254 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.recording;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a log written by the {@link ProtectionEventRecorder}. String table records are resolved
+ * while reading and never returned.
+ */
+public class ProtectionEventReader implements Closeable {
+  private final DataInputStream in;
+  private final long startMillis;
+  private final List<String> strings = new ArrayList<>();
+  private final ProtectionEvent event = new ProtectionEvent();
+
+  /**
+   * Opens a log and reads its header.
+   *
+   * @param file Log to read.
+   * @throws IOException Thrown if the file can't be read or is not a log of a supported version.
+   */
+  public ProtectionEventReader(File file) throws IOException {
+    this(new FileInputStream(file));
+  }
+
+  /**
+   * Reads the header of a log.
+   *
+   * @param in Stream of the log, closed with this reader.
+   * @throws IOException Thrown if the stream can't be read or is not a log of a supported version.
+   */
+  public ProtectionEventReader(InputStream in) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+    try {
+      if (ProtectionEventRecorder.MAGIC != this.in.readInt()) {
+        throw new IOException("Not a protection event log");
+      }
+      final int version = this.readVarInt();
+      if (ProtectionEventRecorder.VERSION != version) {
+        throw new IOException("Unsupported protection event log version " + version);
+      }
+      this.startMillis = this.in.readLong();
+    } catch (IOException e) {
+      this.in.close();
+      throw e;
+    }
+  }
+
+  /** @return Epoch milliseconds at which the recording started. */
+  public long getStartMillis() {
+    return this.startMillis;
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return The next record, which is overwritten by the next call, or null at the end of the log.
+   * @throws IOException Thrown if the log can't be read or is corrupt.
+   */
+  public ProtectionEvent next() throws IOException {
+    while (true) {
+      final int typeId = this.in.read();
+      if (-1 == typeId) {
+        return null;
+      }
+      final ProtectionEventType type = ProtectionEventType.byId(typeId);
+      if (null == type) {
+        throw new IOException("Unknown record type " + typeId);
+      }
+      if (ProtectionEventType.STRING == type) {
+        final byte[] bytes = new byte[this.readVarInt()];
+        this.in.readFully(bytes);
+        this.strings.add(new String(bytes, StandardCharsets.UTF_8));
+        continue;
+      }
+      return this.readRecord(type);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.in.close();
+  }
+
+  /**
+   * Reads the payload of a record into the reused event.
+   *
+   * @param type Type of the record.
+   * @return The reused event.
+   * @throws IOException Thrown if the log can't be read or is corrupt.
+   */
+  private ProtectionEvent readRecord(ProtectionEventType type) throws IOException {
+    final ProtectionEvent event = this.event;
+    event.type = type;
+    event.worldName = null;
+    event.x = 0;
+    event.y = 0;
+    event.z = 0;
+    event.toX = 0;
+    event.toY = 0;
+    event.toZ = 0;
+    event.playerName = null;
+    event.flags = 0;
+    event.facing = null;
+    event.builderNames.clear();
+    event.movedBlocks.clear();
+    event.brokenBlocks.clear();
+    switch (type.getLayout()) {
+      case CLAIM:
+        event.worldName = this.readString();
+        event.x = this.readSignedVarInt();
+        event.z = this.readSignedVarInt();
+        event.playerName = this.readString();
+        for (int count = this.readVarInt(); 0 < count; count--) {
+          event.builderNames.add(this.readString());
+        }
+        break;
+      case IGNORE:
+        event.playerName = this.readString();
+        event.flags = this.readVarInt();
+        break;
+      case PLAYER:
+        this.readPosition(event);
+        event.playerName = this.readString();
+        event.flags = this.readVarInt();
+        break;
+      case FROM_TO:
+        this.readPosition(event);
+        event.toX = event.x + this.readSignedVarInt();
+        event.toY = event.y + this.readSignedVarInt();
+        event.toZ = event.z + this.readSignedVarInt();
+        event.flags = this.readVarInt();
+        break;
+      case PISTON:
+        this.readPosition(event);
+        event.facing = Direction.byId(this.readVarInt());
+        event.flags = this.readVarInt();
+        this.readPositions(event, event.movedBlocks);
+        this.readPositions(event, event.brokenBlocks);
+        break;
+      case TREE:
+        this.readPosition(event);
+        event.toX = (event.x >> 4) + this.readSignedVarInt();
+        event.toZ = (event.z >> 4) + this.readSignedVarInt();
+        event.flags = this.readVarInt();
+        break;
+      default:
+        break;
+    }
+    return event;
+  }
+
+  /**
+   * Reads the world and first position of a decision.
+   *
+   * @param event Event to read into.
+   * @throws IOException Thrown if the log can't be read or is corrupt.
+   */
+  private void readPosition(ProtectionEvent event) throws IOException {
+    event.worldName = this.readString();
+    event.x = this.readSignedVarInt();
+    event.y = this.readSignedVarInt();
+    event.z = this.readSignedVarInt();
+  }
+
+  /**
+   * Reads positions written as deltas to the first position of the event.
+   *
+   * @param event Event whose first position the deltas are relative to.
+   * @param positions List to add the positions to.
+   * @throws IOException Thrown if the log can't be read or is corrupt.
+   */
+  private void readPositions(ProtectionEvent event, List<BlockPos> positions) throws IOException {
+    for (int count = this.readVarInt(); 0 < count; count--) {
+      positions.add(
+          new BlockPos(
+              event.x + this.readSignedVarInt(),
+              event.y + this.readSignedVarInt(),
+              event.z + this.readSignedVarInt()));
+    }
+  }
+
+  /**
+   * @return String referenced by the next index.
+   * @throws IOException Thrown if the log can't be read or the index is undefined.
+   */
+  private String readString() throws IOException {
+    final int index = this.readVarInt();
+    if (this.strings.size() <= index) {
+      throw new IOException("Undefined string " + index);
+    }
+    return this.strings.get(index);
+  }
+
+  /**
+   * @return Next zigzag varint.
+   * @throws IOException Thrown if the log can't be read or is corrupt.
+   */
+  private int readSignedVarInt() throws IOException {
+    final int value = this.readVarInt();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * @return Next unsigned varint.
+   * @throws IOException Thrown if the log can't be read or is corrupt.
+   */
+  private int readVarInt() throws IOException {
+    int value = 0;
+    for (int shift = 0; 35 > shift; shift += 7) {
+      final int b = this.in.read();
+      if (-1 == b) {
+        throw new EOFException("Truncated protection event log");
+      }
+      value |= (b & 0x7F) << shift;
+      if (0 == (b & 0x80)) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+}
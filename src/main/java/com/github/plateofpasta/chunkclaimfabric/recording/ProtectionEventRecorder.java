@@ -0,0 +1,574 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.recording;
+
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
+import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
+import com.github.plateofpasta.chunkclaimfabric.world.ChunkWorld;
+import com.github.plateofpasta.edgestitch.world.EdgestitchWorld;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Records the protection decisions of the handlers, and the claim changes they depend on, to a
+ * compact binary log that the replay tool of the benchmark source set feeds back through the claim
+ * engine.
+ *
+ * <p>A log starts with a header and the state of every claim, so it replays without the claim
+ * files. Every record is a type id followed by its payload. Coordinates are zigzag varints,
+ * positions of the same record are deltas to its first position, and strings are written once to a
+ * string table and referenced by index afterwards.
+ *
+ * <p>Records are encoded into memory on the calling thread and written to disk by a background
+ * thread. While not recording, every recording method is a volatile read.
+ */
+public class ProtectionEventRecorder {
+  /** Folder the recordings are written to, relative to the server folder. */
+  public static final String RECORDINGS_FOLDER_PATH =
+      "plugins" + File.separator + "ChunkClaimFabric" + File.separator + "Recordings";
+  /** File extension of the recordings. */
+  public static final String FILE_EXTENSION = ".ccfr";
+  /** Magic number the log starts with, "CCFR". */
+  static final int MAGIC = 0x43434652;
+  /** Version of the log format. */
+  static final int VERSION = 1;
+  /** Encoded bytes handed to the writer thread at once. */
+  private static final int FLUSH_BYTES = 1 << 16;
+
+  private volatile boolean recording;
+  // Recording state, guarded by this.
+  private final Object2IntOpenHashMap<String> stringIds = new Object2IntOpenHashMap<>();
+  private byte[] buffer = new byte[FLUSH_BYTES];
+  private int size;
+  private long eventCount;
+  private File file;
+  private OutputStream out;
+  private ExecutorService fileWriter;
+
+  /** @return {@code true} while recording, else false. */
+  public boolean isRecording() {
+    return this.recording;
+  }
+
+  /**
+   * Starts recording. Takes the datastore lock to capture the state of every claim.
+   *
+   * @param file File to write the recording to. Its folder is created if needed.
+   * @param dataStore Datastore whose claims are captured.
+   * @throws IOException Thrown if the file can't be created.
+   * @throws IllegalStateException Thrown if already recording.
+   */
+  public void start(File file, DataStore dataStore) throws IOException {
+    final File folder = file.getAbsoluteFile().getParentFile();
+    if (!folder.isDirectory() && !folder.mkdirs()) {
+      throw new IOException("Unable to create the folder " + folder);
+    }
+    // Same lock order as claim changes, which are recorded while holding the datastore lock.
+    synchronized (dataStore) {
+      synchronized (this) {
+        if (this.recording) {
+          throw new IllegalStateException("Already recording to " + this.file);
+        }
+        this.out = new FileOutputStream(file);
+        this.file = file;
+        this.fileWriter =
+            Executors.newSingleThreadExecutor(
+                runnable -> {
+                  Thread thread = new Thread(runnable, ChunkClaimFabric.MOD_ID + " recorder");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+        this.stringIds.clear();
+        this.size = 0;
+        this.eventCount = 0;
+        this.writeFixedInt(MAGIC);
+        this.writeVarInt(VERSION);
+        this.writeFixedLong(System.currentTimeMillis());
+        for (ChunkWorld world : dataStore.getWorlds().values()) {
+          for (Chunk chunk : world.chunkTable.values()) {
+            this.writeClaim(ProtectionEventType.CLAIM, chunk);
+          }
+        }
+        for (String playerName : dataStore.getIgnoringPlayerNames()) {
+          this.writeIgnore(playerName, true);
+        }
+        this.writeType(ProtectionEventType.SNAPSHOT_END);
+        this.recording = true;
+      }
+    }
+  }
+
+  /**
+   * Stops recording and waits for the log to be written.
+   *
+   * @return Number of protection decisions recorded.
+   */
+  public synchronized long stop() {
+    if (!this.recording) {
+      return 0;
+    }
+    this.recording = false;
+    this.flush();
+    final OutputStream stream = this.out;
+    final File target = this.file;
+    this.fileWriter.execute(() -> closeQuietly(stream, target));
+    this.fileWriter.shutdown();
+    try {
+      if (!this.fileWriter.awaitTermination(10, TimeUnit.SECONDS)) {
+        ChunkClaimFabric.logInfo("Timed out writing the recording " + this.file);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.out = null;
+    this.fileWriter = null;
+    return this.eventCount;
+  }
+
+  /** @return File of the current or last recording, null if nothing was recorded. */
+  public synchronized File getFile() {
+    return this.file;
+  }
+
+  /** @return Number of protection decisions recorded so far. */
+  public synchronized long getEventCount() {
+    return this.eventCount;
+  }
+
+  /**
+   * Records the state of a claim after a change, e.g. a new claim or a trusted builder.
+   *
+   * @param chunk Claimed chunk.
+   */
+  public void claim(Chunk chunk) {
+    if (this.recording) {
+      synchronized (this) {
+        if (this.recording) {
+          this.writeClaim(ProtectionEventType.CLAIM, chunk);
+          this.flushIfFull();
+        }
+      }
+    }
+  }
+
+  /**
+   * Records the deletion of a claim.
+   *
+   * @param chunk Chunk no longer claimed.
+   */
+  public void unclaim(Chunk chunk) {
+    if (this.recording) {
+      synchronized (this) {
+        if (this.recording) {
+          this.writeClaim(ProtectionEventType.UNCLAIM, chunk);
+          this.flushIfFull();
+        }
+      }
+    }
+  }
+
+  /**
+   * Records a player starting or stopping to ignore claims.
+   *
+   * @param playerName Name of the player.
+   * @param ignoring {@code true} if the player now ignores claims, else false.
+   */
+  public void ignore(String playerName, boolean ignoring) {
+    if (this.recording) {
+      synchronized (this) {
+        if (this.recording) {
+          this.writeIgnore(playerName, ignoring);
+          this.flushIfFull();
+        }
+      }
+    }
+  }
+
+  /**
+   * Records the decision on an action of a player.
+   *
+   * @param type Type of the action, one of the player types of {@link ProtectionEventType}.
+   * @param world World the action occurred in.
+   * @param pos Position of the block acted on, or of the entity.
+   * @param playerName Name of the acting player.
+   * @param flags {@link ProtectionEvent#EXEMPT} if the action is exempt from claim protection, else
+   *     zero.
+   * @param result Decision of the handler.
+   * @return The decision, for returning it from the handler.
+   */
+  public ActionResult playerAction(
+      ProtectionEventType type,
+      World world,
+      BlockPos pos,
+      String playerName,
+      int flags,
+      ActionResult result) {
+    if (this.recording) {
+      synchronized (this) {
+        if (this.recording) {
+          this.prepareString(playerName);
+          this.writeDecision(type, world, pos);
+          this.writeString(playerName);
+          this.writeFlags(flags, result);
+          this.flushIfFull();
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Records the decision on something moving from one position to another.
+   *
+   * @param type Type of the movement, one of the from-to types of {@link ProtectionEventType}.
+   * @param world World the movement occurred in.
+   * @param fromPos Position the movement starts at.
+   * @param toPos Position the movement ends at.
+   * @param result Decision of the handler.
+   * @return The decision, for returning it from the handler.
+   */
+  public ActionResult fromTo(
+      ProtectionEventType type,
+      World world,
+      BlockPos fromPos,
+      BlockPos toPos,
+      ActionResult result) {
+    if (this.recording) {
+      synchronized (this) {
+        if (this.recording) {
+          this.writeDecision(type, world, fromPos);
+          this.writeDelta(fromPos, toPos.getX(), toPos.getY(), toPos.getZ());
+          this.writeFlags(0, result);
+          this.flushIfFull();
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Records the decision on a fluid flow.
+   *
+   * @param world World the fluid flows in.
+   * @param toPos Position the fluid flows to.
+   * @param direction Direction the fluid flows in.
+   * @param result Decision of the handler.
+   * @return The decision, for returning it from the handler.
+   */
+  public ActionResult fluid(World world, BlockPos toPos, Direction direction, ActionResult result) {
+    if (this.recording) {
+      synchronized (this) {
+        if (this.recording) {
+          final BlockPos fromPos = toPos.offset(direction.getOpposite());
+          this.writeDecision(ProtectionEventType.FLUID, world, fromPos);
+          this.writeDelta(fromPos, toPos.getX(), toPos.getY(), toPos.getZ());
+          this.writeFlags(0, result);
+          this.flushIfFull();
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Records the decision on a piston movement.
+   *
+   * @param world World the piston is in.
+   * @param pistonPos Position of the piston.
+   * @param facingDir Direction the piston is facing.
+   * @param movedBlocks Positions of the blocks being moved.
+   * @param brokenBlocks Positions of the blocks being broken.
+   * @param isExtending If the piston is extending (true) or retracting (false).
+   * @param result Decision of the handler.
+   * @return The decision, for returning it from the handler.
+   */
+  public ActionResult piston(
+      World world,
+      BlockPos pistonPos,
+      Direction facingDir,
+      List<BlockPos> movedBlocks,
+      List<BlockPos> brokenBlocks,
+      boolean isExtending,
+      ActionResult result) {
+    if (this.recording) {
+      synchronized (this) {
+        if (this.recording) {
+          this.writeDecision(ProtectionEventType.PISTON, world, pistonPos);
+          this.writeVarInt(facingDir.getId());
+          this.writeFlags(isExtending ? ProtectionEvent.EXTENDING : 0, result);
+          this.writePositions(pistonPos, movedBlocks);
+          this.writePositions(pistonPos, brokenBlocks);
+          this.flushIfFull();
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Records the decision on a tree growing into a chunk.
+   *
+   * @param world World the tree grows in.
+   * @param rootBlockPos Root position of the growth.
+   * @param chunkX X coordinate of the chunk the tree reaches into.
+   * @param chunkZ Z coordinate of the chunk the tree reaches into.
+   * @param result Decision of the handler.
+   * @return The decision, for returning it from the handler.
+   */
+  public ActionResult tree(
+      World world, BlockPos rootBlockPos, int chunkX, int chunkZ, ActionResult result) {
+    if (this.recording) {
+      synchronized (this) {
+        if (this.recording) {
+          this.writeDecision(ProtectionEventType.TREE, world, rootBlockPos);
+          this.writeSignedVarInt(chunkX - (rootBlockPos.getX() >> 4));
+          this.writeSignedVarInt(chunkZ - (rootBlockPos.getZ() >> 4));
+          this.writeFlags(0, result);
+          this.flushIfFull();
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Writes the type, world and position shared by every decision.
+   *
+   * @param type Type of the decision.
+   * @param world World the decision is in.
+   * @param pos First position of the record.
+   */
+  private void writeDecision(ProtectionEventType type, World world, BlockPos pos) {
+    final String worldName = EdgestitchWorld.Companion.getName(world);
+    this.prepareString(worldName);
+    this.writeType(type);
+    this.writeString(worldName);
+    this.writeSignedVarInt(pos.getX());
+    this.writeSignedVarInt(pos.getY());
+    this.writeSignedVarInt(pos.getZ());
+    this.eventCount++;
+  }
+
+  /**
+   * Writes a claim record.
+   *
+   * @param type {@link ProtectionEventType#CLAIM} or {@link ProtectionEventType#UNCLAIM}.
+   * @param chunk Claimed chunk.
+   */
+  private void writeClaim(ProtectionEventType type, Chunk chunk) {
+    final List<String> builderNames = chunk.getBuilderNames();
+    this.prepareString(chunk.getWorldName());
+    this.prepareString(chunk.getOwnerName());
+    for (String builderName : builderNames) {
+      this.prepareString(builderName);
+    }
+    this.writeType(type);
+    this.writeString(chunk.getWorldName());
+    this.writeSignedVarInt(chunk.getCoordX());
+    this.writeSignedVarInt(chunk.getCoordZ());
+    this.writeString(chunk.getOwnerName());
+    this.writeVarInt(builderNames.size());
+    for (String builderName : builderNames) {
+      this.writeString(builderName);
+    }
+  }
+
+  /**
+   * Writes an ignore record.
+   *
+   * @param playerName Name of the player.
+   * @param ignoring {@code true} if the player ignores claims, else false.
+   */
+  private void writeIgnore(String playerName, boolean ignoring) {
+    this.prepareString(playerName);
+    this.writeType(ProtectionEventType.IGNORE);
+    this.writeString(playerName);
+    this.writeVarInt(ignoring ? ProtectionEvent.IGNORING : 0);
+  }
+
+  /**
+   * Writes the flags of a decision.
+   *
+   * @param flags Flags besides {@link ProtectionEvent#DENIED}.
+   * @param result Decision of the handler.
+   */
+  private void writeFlags(int flags, ActionResult result) {
+    this.writeVarInt((ActionResult.FAIL == result) ? (flags | ProtectionEvent.DENIED) : flags);
+  }
+
+  /**
+   * Writes positions as deltas to a base position.
+   *
+   * @param base Base position.
+   * @param positions Positions to write.
+   */
+  private void writePositions(BlockPos base, List<BlockPos> positions) {
+    final int count = positions.size();
+    this.writeVarInt(count);
+    // Indexed loop since the piston handler lists are array backed.
+    for (int i = 0; i < count; i++) {
+      final BlockPos pos = positions.get(i);
+      this.writeDelta(base, pos.getX(), pos.getY(), pos.getZ());
+    }
+  }
+
+  /**
+   * Writes a position as a delta to a base position.
+   *
+   * @param base Base position.
+   * @param x X coordinate of the position.
+   * @param y Y coordinate of the position.
+   * @param z Z coordinate of the position.
+   */
+  private void writeDelta(BlockPos base, int x, int y, int z) {
+    this.writeSignedVarInt(x - base.getX());
+    this.writeSignedVarInt(y - base.getY());
+    this.writeSignedVarInt(z - base.getZ());
+  }
+
+  /**
+   * Adds the string to the string table, writing its definition if new. Must be called before the
+   * type of the record referencing it is written.
+   *
+   * @param string String to add.
+   */
+  private void prepareString(String string) {
+    if (!this.stringIds.containsKey(string)) {
+      this.stringIds.put(string, this.stringIds.size());
+      final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      this.writeType(ProtectionEventType.STRING);
+      this.writeVarInt(bytes.length);
+      this.ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, this.buffer, this.size, bytes.length);
+      this.size += bytes.length;
+    }
+  }
+
+  /**
+   * Writes the index of a string added with {@link #prepareString(String)}.
+   *
+   * @param string String to reference.
+   */
+  private void writeString(String string) {
+    this.writeVarInt(this.stringIds.getInt(string));
+  }
+
+  /** @param type Type of the record to start. */
+  private void writeType(ProtectionEventType type) {
+    this.writeVarInt(type.getId());
+  }
+
+  /** @param value Value to write as zigzag varint. */
+  private void writeSignedVarInt(int value) {
+    this.writeVarInt((value << 1) ^ (value >> 31));
+  }
+
+  /** @param value Value to write as unsigned varint. */
+  private void writeVarInt(int value) {
+    this.ensureCapacity(5);
+    while (0 != (value & ~0x7F)) {
+      this.buffer[this.size++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    this.buffer[this.size++] = (byte) value;
+  }
+
+  /** @param value Value to write as four big-endian bytes. */
+  private void writeFixedInt(int value) {
+    this.ensureCapacity(4);
+    for (int shift = 24; 0 <= shift; shift -= 8) {
+      this.buffer[this.size++] = (byte) (value >>> shift);
+    }
+  }
+
+  /** @param value Value to write as eight big-endian bytes. */
+  private void writeFixedLong(long value) {
+    this.writeFixedInt((int) (value >>> 32));
+    this.writeFixedInt((int) value);
+  }
+
+  /** @param bytes Number of bytes about to be written. */
+  private void ensureCapacity(int bytes) {
+    if (this.buffer.length < this.size + bytes) {
+      this.buffer = Arrays.copyOf(this.buffer, Math.max(2 * this.buffer.length, this.size + bytes));
+    }
+  }
+
+  /** Hands the encoded records to the writer thread once enough have been buffered. */
+  private void flushIfFull() {
+    if (FLUSH_BYTES <= this.size) {
+      this.flush();
+    }
+  }
+
+  /** Hands the encoded records to the writer thread. */
+  private void flush() {
+    if (0 == this.size) {
+      return;
+    }
+    final byte[] bytes = Arrays.copyOf(this.buffer, this.size);
+    final OutputStream stream = this.out;
+    final File target = this.file;
+    this.size = 0;
+    this.fileWriter.execute(
+        () -> {
+          try {
+            stream.write(bytes);
+          } catch (IOException e) {
+            ChunkClaimFabric.logger.log(
+                Level.WARNING,
+                String.format(
+                    "%s: Unable to write the recording %s.", ChunkClaimFabric.MOD_ID, target),
+                e);
+          }
+        });
+  }
+
+  /**
+   * Closes the stream of a recording, logging failures.
+   *
+   * @param stream Stream to close.
+   * @param target File of the recording.
+   */
+  private static void closeQuietly(OutputStream stream, File target) {
+    try {
+      stream.close();
+    } catch (IOException e) {
+      ChunkClaimFabric.logInfo("Unable to close the recording " + target + ": " + e.getMessage());
+    }
+  }
+}
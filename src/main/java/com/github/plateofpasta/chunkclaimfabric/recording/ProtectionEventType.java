@@ -0,0 +1,120 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.recording;
+
+/**
+ * Enumerates the records of a protection event log. The id of a type is written to the log, so ids
+ * must never be reused for another type.
+ */
+public enum ProtectionEventType {
+  /** Defines the next entry of the log's string table. */
+  STRING(0, Layout.STRING),
+  /** Claim state, written for every claim at the start of the log and whenever a claim is saved. */
+  CLAIM(1, Layout.CLAIM),
+  /** Claim deleted. */
+  UNCLAIM(2, Layout.CLAIM),
+  /** Player started or stopped ignoring claims. */
+  IGNORE(3, Layout.IGNORE),
+  /** Ends the claim state captured when the recording started. */
+  SNAPSHOT_END(4, Layout.NONE),
+  /** Player entering a bed. */
+  BED(10, Layout.PLAYER),
+  /** Player using a checked item on a block, e.g. a bucket. */
+  BLOCK_USE(11, Layout.PLAYER),
+  /** Player breaking a block. */
+  BLOCK_BREAK(12, Layout.PLAYER),
+  /** Player placing or interacting with a block. */
+  BLOCK_PLACE(13, Layout.PLAYER),
+  /** Player using or attacking an entity. */
+  ENTITY(14, Layout.PLAYER),
+  /** Projectile shot by a player hitting a protected entity. */
+  PROJECTILE(15, Layout.PLAYER),
+  /** Block spreading, e.g. fire or grass. */
+  SPREAD(20, Layout.FROM_TO),
+  /** Fluid flowing. */
+  FLUID(21, Layout.FROM_TO),
+  /** Dispenser or dropper dispensing. */
+  DISPENSE(22, Layout.FROM_TO),
+  /** Hopper inserting into a container. */
+  HOPPER(23, Layout.FROM_TO),
+  /** Piston extending or retracting. */
+  PISTON(30, Layout.PISTON),
+  /** Tree growing into a chunk. */
+  TREE(31, Layout.TREE);
+
+  private static final ProtectionEventType[] BY_ID = new ProtectionEventType[32];
+
+  static {
+    for (ProtectionEventType type : values()) {
+      BY_ID[type.id] = type;
+    }
+  }
+
+  private final int id;
+  private final Layout layout;
+
+  /**
+   * @param id Id of the type in the log.
+   * @param layout Layout of the record payload.
+   */
+  ProtectionEventType(int id, Layout layout) {
+    this.id = id;
+    this.layout = layout;
+  }
+
+  /**
+   * @param id Id of a type in the log.
+   * @return Type with the id, null if unknown.
+   */
+  public static ProtectionEventType byId(int id) {
+    return (0 <= id && id < BY_ID.length) ? BY_ID[id] : null;
+  }
+
+  /** @return Id of the type in the log. */
+  public int getId() {
+    return this.id;
+  }
+
+  /** @return {@code true} if the type is a protection decision, else it changes claim state. */
+  public boolean isDecision() {
+    return Layout.PLAYER == this.layout
+        || Layout.FROM_TO == this.layout
+        || Layout.PISTON == this.layout
+        || Layout.TREE == this.layout;
+  }
+
+  /** @return Layout of the record payload. */
+  Layout getLayout() {
+    return this.layout;
+  }
+
+  /** Payload layouts, shared by types carrying the same fields. */
+  enum Layout {
+    NONE,
+    STRING,
+    CLAIM,
+    IGNORE,
+    PLAYER,
+    FROM_TO,
+    PISTON,
+    TREE
+  }
+}
@@ -0,0 +1,362 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Counter;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.SlowOperationWatchdog;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Timer;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Runs work off the server thread and hands the results back to it. Blocking storage access runs
+ * on a bounded I/O pool, computations on a CPU pool. The returned futures are completed by the
+ * {@link Scheduler} at the end of a tick, so stages chained without an executor run on the server
+ * thread and may touch game state.
+ *
+ * <p>Work is bound to an {@link AsyncScope}. Cancelling the scope, e.g. when its player disconnects
+ * or its world unloads, cancels the futures of its pending work right away. Work that has not
+ * started is skipped, work that is already running finishes but its result is dropped.
+ *
+ * <p>The I/O pool rejects work once its queue is full. The future is then completed exceptionally
+ * with a {@link RejectedExecutionException} on the submitting thread, which never blocks.
+ */
+public class AsyncExecutor {
+  /** Seconds {@link #stop()} waits for running and queued work. */
+  private static final int STOP_TIMEOUT_SECONDS = 10;
+
+  /** Work finished off the server thread, waiting to be completed on it. */
+  private final ConcurrentLinkedQueue<Job<?>> completions = new ConcurrentLinkedQueue<>();
+  /** Unfinished work by scope. Sets are only changed within the atomic map operations. */
+  private final Map<AsyncScope, Set<Job<?>>> scopes = new ConcurrentHashMap<>();
+  private volatile Pool io;
+  private volatile Pool cpu;
+  private Counter tasksRejected = new Counter();
+  private Counter tasksCancelled = new Counter();
+  private Counter tasksFailed = new Counter();
+  private Timer completionDelay;
+
+  /**
+   * Starts the pools. Does nothing if already started.
+   *
+   * @param ioThreads Threads of the I/O pool.
+   * @param ioQueueCapacity Work the I/O pool queues before rejecting more.
+   * @param cpuThreads Threads of the CPU pool, zero for half of the available processors.
+   */
+  public synchronized void start(int ioThreads, int ioQueueCapacity, int cpuThreads) {
+    if (null != this.io) {
+      return;
+    }
+    final MetricsRegistry metrics = ChunkClaimFabric.getMetrics();
+    this.tasksRejected = metrics.counter("async.tasks_rejected");
+    this.tasksCancelled = metrics.counter("async.tasks_cancelled");
+    this.tasksFailed = metrics.counter("async.tasks_failed");
+    this.completionDelay = metrics.timer("async.completion_delay");
+    metrics.gauge("async.pending_completions", this.completions::size);
+    if (0 >= cpuThreads) {
+      cpuThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+    this.io =
+        new Pool(
+            "io", Math.max(1, ioThreads), new ArrayBlockingQueue<>(Math.max(1, ioQueueCapacity)));
+    this.cpu = new Pool("cpu", cpuThreads, new LinkedBlockingQueue<>());
+  }
+
+  /**
+   * Stops the pools after the queued work finished, then completes the finished work. Must be
+   * called on the server thread. Does nothing if not started.
+   */
+  public synchronized void stop() {
+    if (null == this.io) {
+      return;
+    }
+    final Pool[] pools = {this.io, this.cpu};
+    this.io = null;
+    this.cpu = null;
+    for (Pool pool : pools) {
+      pool.stop();
+    }
+    this.runCompletions();
+    ChunkClaimFabric.getMetrics().removeGauge("async.pending_completions");
+  }
+
+  /**
+   * Runs blocking I/O off the server thread.
+   *
+   * @param scope Scope the work is cancelled with.
+   * @param name Name of the work, e.g. for logging.
+   * @param work Work to run, may throw.
+   * @param <T> Result type.
+   * @return Future completed on the server thread with the result of the work.
+   */
+  public <T> CompletableFuture<T> supplyIo(AsyncScope scope, String name, Callable<T> work) {
+    return this.submit(this.io, scope, name, work);
+  }
+
+  /**
+   * Runs a computation off the server thread.
+   *
+   * @param scope Scope the work is cancelled with.
+   * @param name Name of the work, e.g. for logging.
+   * @param work Work to run, may throw.
+   * @param <T> Result type.
+   * @return Future completed on the server thread with the result of the work.
+   */
+  public <T> CompletableFuture<T> supplyCpu(AsyncScope scope, String name, Callable<T> work) {
+    return this.submit(this.cpu, scope, name, work);
+  }
+
+  /**
+   * Cancels the pending work of a scope.
+   *
+   * @param scope Scope to cancel.
+   * @return Number of cancelled futures.
+   */
+  public int cancel(AsyncScope scope) {
+    final Set<Job<?>> jobs = this.scopes.remove(scope);
+    if (null == jobs) {
+      return 0;
+    }
+    int cancelled = 0;
+    for (Job<?> job : jobs) {
+      if (job.future.cancel(false)) {
+        cancelled++;
+      }
+    }
+    this.tasksCancelled.add(cancelled);
+    return cancelled;
+  }
+
+  /** Completes the futures of finished work. Called by the scheduler on the server thread. */
+  void runCompletions() {
+    if (this.completions.isEmpty()) {
+      return;
+    }
+    final SlowOperationWatchdog watchdog = ChunkClaimFabric.getWatchdog();
+    Job<?> job;
+    while (null != (job = this.completions.poll())) {
+      final SlowOperationWatchdog.Operation operation = watchdog.begin("scheduler.async", job);
+      try {
+        job.complete();
+      } finally {
+        watchdog.end(operation);
+      }
+    }
+  }
+
+  /**
+   * Submits work to a pool.
+   *
+   * @param pool Pool to run the work on, null if not started.
+   * @param scope Scope the work is cancelled with.
+   * @param name Name of the work.
+   * @param work Work to run.
+   * @param <T> Result type.
+   * @return Future completed on the server thread with the result of the work.
+   */
+  private <T> CompletableFuture<T> submit(
+      Pool pool, AsyncScope scope, String name, Callable<T> work) {
+    final Job<T> job = new Job<>(pool, scope, name, work);
+    if (null == pool) {
+      job.future.completeExceptionally(
+          new RejectedExecutionException("Async executor not started, rejected " + name));
+      return job.future;
+    }
+    this.scopes.compute(
+        scope,
+        (key, jobs) -> {
+          final Set<Job<?>> scoped = (null == jobs) ? new HashSet<>() : jobs;
+          scoped.add(job);
+          return scoped;
+        });
+    try {
+      pool.executor.execute(job);
+    } catch (RejectedExecutionException e) {
+      this.untrack(job);
+      this.tasksRejected.increment();
+      job.future.completeExceptionally(e);
+    }
+    return job.future;
+  }
+
+  /**
+   * Removes work from its scope.
+   *
+   * @param job Work to remove.
+   */
+  private void untrack(Job<?> job) {
+    this.scopes.computeIfPresent(
+        job.scope,
+        (key, jobs) -> {
+          jobs.remove(job);
+          return jobs.isEmpty() ? null : jobs;
+        });
+  }
+
+  /** Thread pool with its metrics. */
+  private static final class Pool {
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    /** Time from submitting work until a thread picks it up. */
+    private final Timer queueLatency;
+    /** Time spent running work. */
+    private final Timer runLatency;
+
+    /**
+     * @param name Name of the pool, used for its threads and metrics.
+     * @param threads Number of threads.
+     * @param queue Queue of work waiting for a thread.
+     */
+    private Pool(String name, int threads, BlockingQueue<Runnable> queue) {
+      this.name = name;
+      this.executor =
+          new ThreadPoolExecutor(
+              threads,
+              threads,
+              0,
+              TimeUnit.MILLISECONDS,
+              queue,
+              runnable -> {
+                Thread thread =
+                    new Thread(runnable, ChunkClaimFabric.MOD_ID + " async " + name);
+                thread.setDaemon(true);
+                return thread;
+              });
+      final MetricsRegistry metrics = ChunkClaimFabric.getMetrics();
+      this.queueLatency = metrics.timer("async." + name + ".queue_latency");
+      this.runLatency = metrics.timer("async." + name + ".run");
+      metrics.gauge("async." + name + ".queue_depth", queue::size);
+      metrics.gauge("async." + name + ".active", this.executor::getActiveCount);
+    }
+
+    /** Waits for the queued work, then stops the threads. */
+    private void stop() {
+      this.executor.shutdown();
+      try {
+        if (!this.executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          ChunkClaimFabric.logInfo(
+              String.format(
+                  "Timed out waiting for %d %s tasks, dropping them.",
+                  this.executor.shutdownNow().size(), this.name));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      final MetricsRegistry metrics = ChunkClaimFabric.getMetrics();
+      metrics.removeGauge("async." + this.name + ".queue_depth");
+      metrics.removeGauge("async." + this.name + ".active");
+    }
+  }
+
+  /**
+   * Work running on a pool, finished on the server thread.
+   *
+   * @param <T> Result type.
+   */
+  private final class Job<T> implements Runnable {
+    private final Pool pool;
+    private final AsyncScope scope;
+    private final String name;
+    private final Callable<T> work;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private final long submitNanos = System.nanoTime();
+    // Written by the pool thread, read on the server thread after the completions queue hand off.
+    private T result;
+    private Throwable failure;
+    private long finishNanos;
+
+    /**
+     * @param pool Pool running the work.
+     * @param scope Scope the work is cancelled with.
+     * @param name Name of the work.
+     * @param work Work to run.
+     */
+    private Job(Pool pool, AsyncScope scope, String name, Callable<T> work) {
+      this.pool = pool;
+      this.scope = scope;
+      this.name = name;
+      this.work = work;
+    }
+
+    @Override
+    public void run() {
+      this.pool.queueLatency.getHistogram().record(System.nanoTime() - this.submitNanos);
+      // Skips work cancelled while queued, it is still handed back to be untracked.
+      if (!this.future.isDone()) {
+        final long start = this.pool.runLatency.start();
+        try {
+          this.result = this.work.call();
+        } catch (Throwable t) {
+          this.failure = t;
+        } finally {
+          this.pool.runLatency.stop(start);
+        }
+      }
+      this.finishNanos = System.nanoTime();
+      AsyncExecutor.this.completions.add(this);
+    }
+
+    /** Completes the future on the server thread, unless cancelled. */
+    private void complete() {
+      AsyncExecutor.this.untrack(this);
+      if (null != AsyncExecutor.this.completionDelay) {
+        AsyncExecutor.this
+            .completionDelay
+            .getHistogram()
+            .record(System.nanoTime() - this.finishNanos);
+      }
+      if (this.future.isDone()) {
+        return;
+      }
+      if (null == this.failure) {
+        this.future.complete(this.result);
+      } else {
+        AsyncExecutor.this.tasksFailed.increment();
+        ChunkClaimFabric.logger.log(
+            Level.WARNING,
+            String.format("%s: Async task %s failed", ChunkClaimFabric.MOD_ID, this.name),
+            this.failure);
+        this.future.completeExceptionally(this.failure);
+      }
+    }
+
+    /** @return Name of the work, e.g. for logging. */
+    @Override
+    public String toString() {
+      return this.name;
+    }
+  }
+}
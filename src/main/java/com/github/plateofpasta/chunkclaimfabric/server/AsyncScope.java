@@ -0,0 +1,86 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+/**
+ * Lifetime that work of the {@link AsyncExecutor} is bound to. Cancelling a scope cancels all of
+ * its pending work, see {@link AsyncExecutor#cancel(AsyncScope)}. Scopes are equal by kind and
+ * name, so they can be recreated wherever they are needed.
+ */
+public final class AsyncScope {
+  /** Scope of work that lives as long as the server, which is never cancelled by an event. */
+  public static final AsyncScope SERVER = new AsyncScope("server", "");
+
+  private final String kind;
+  private final String name;
+
+  /**
+   * @param kind Kind of the scope.
+   * @param name Name of the scoped object.
+   */
+  private AsyncScope(String kind, String name) {
+    this.kind = kind;
+    this.name = name;
+  }
+
+  /**
+   * Creates the scope of a player, cancelled once the player disconnects.
+   *
+   * @param playerName Name of the player.
+   * @return Scope of the player.
+   */
+  public static AsyncScope player(String playerName) {
+    return new AsyncScope("player", playerName);
+  }
+
+  /**
+   * Creates the scope of a world, cancelled once the world unloads.
+   *
+   * @param worldName Name of the world.
+   * @return Scope of the world.
+   */
+  public static AsyncScope world(String worldName) {
+    return new AsyncScope("world", worldName);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof AsyncScope)) {
+      return false;
+    }
+    AsyncScope that = (AsyncScope) o;
+    return this.kind.equals(that.kind) && this.name.equals(that.name);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * this.kind.hashCode() + this.name.hashCode();
+  }
+
+  /** @return Kind and name of the scope, e.g. for logging. */
+  @Override
+  public String toString() {
+    return this.kind + ":" + this.name;
+  }
+}
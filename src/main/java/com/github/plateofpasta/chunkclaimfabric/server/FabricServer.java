@@ -0,0 +1,103 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+import com.github.plateofpasta.edgestitch.world.EdgestitchWorld;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+
+import java.io.File;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Abstracts a dedicated minecraft server. */
+public class FabricServer implements Server {
+  private final MinecraftServer minecraftServer;
+
+  /**
+   * Constructor for the server API.
+   *
+   * @param minecraftServer Minecraft dedicated server that is wrapped by this.
+   */
+  public FabricServer(MinecraftServer minecraftServer) {
+    this.minecraftServer = minecraftServer;
+  }
+
+  @Override
+  public EdgestitchWorld getWorld(String worldName) {
+    for (ServerWorld world : minecraftServer.getWorlds()) {
+      EdgestitchWorld EdgestitchWorld = new EdgestitchWorld(world);
+      if (EdgestitchWorld.getName().equals(worldName)) {
+        return EdgestitchWorld;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean hasWorld(String worldName) {
+    return null != this.getWorld(worldName);
+  }
+
+  @Override
+  public void regenerateChunk(String worldName, ChunkPos chunkPos) {
+    EdgestitchWorld world = this.getWorld(worldName);
+    if (null != world) {
+      world.regenerateChunk(chunkPos);
+    }
+  }
+
+  @Override
+  public List<String> getAvailableWorldNames() {
+    List<String> worldNames = new ArrayList<>(3);
+    for (ServerWorld world : minecraftServer.getWorlds()) {
+      worldNames.add(EdgestitchWorld.Companion.getName(world));
+    }
+    return worldNames;
+  }
+
+  @Override
+  public String[] getOnlinePlayerNames() {
+    return minecraftServer.getPlayerNames();
+  }
+
+  @Override
+  public boolean isOnThread() {
+    return this.minecraftServer.isOnThread();
+  }
+
+  @Override
+  public File getRunDirectory() {
+    return this.minecraftServer.getRunDirectory();
+  }
+
+  @Override
+  public Clock getClock() {
+    return Clock.systemUTC();
+  }
+
+  @Override
+  public double getAverageTickMillis() {
+    return this.minecraftServer.getTickTime();
+  }
+}
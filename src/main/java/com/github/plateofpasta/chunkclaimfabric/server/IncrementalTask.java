@@ -0,0 +1,58 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Work split into slices, so it can be spread over ticks by the {@link WorkQueue}. The task keeps
+ * its own progress between slices, which run on the server thread. Each slice should be a small
+ * step, e.g. one claim, so the queue can stop close to its time budget.
+ */
+@FunctionalInterface
+public interface IncrementalTask {
+  /**
+   * Runs the next slice of the work.
+   *
+   * @return {@code true} if slices remain, {@code false} once the work is done.
+   */
+  boolean runSlice();
+
+  /**
+   * Creates a task that performs an action on one item per slice.
+   *
+   * @param items Items to perform the action on, must not change until the task is done.
+   * @param action Action to perform on each item.
+   * @param <T> Item type.
+   * @return Task performing the action on all items.
+   */
+  static <T> IncrementalTask forEach(List<T> items, Consumer<? super T> action) {
+    final Iterator<T> iterator = items.iterator();
+    return () -> {
+      if (iterator.hasNext()) {
+        action.accept(iterator.next());
+      }
+      return iterator.hasNext();
+    };
+  }
+}
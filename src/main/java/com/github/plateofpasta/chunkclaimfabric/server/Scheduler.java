@@ -20,124 +20,537 @@
 
 package com.github.plateofpasta.chunkclaimfabric.server;
 
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Counter;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.SlowOperationWatchdog;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Timer;
+import com.github.plateofpasta.chunkclaimfabric.metrics.jfr.FlightEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.server.MinecraftServer;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.IntPredicate;
 
 /**
  * Fabric event class for running operations at specific times in the future. If anyone knows what
  * originally made this please open a github issue.
+ *
+ * <p>Tasks are kept in a hierarchical timing wheel of {@link #LEVELS} levels with {@link #SLOTS}
+ * slots each. Level 0 holds the tasks due within the next {@link #SLOTS} ticks, one slot per tick,
+ * and every further level covers {@link #SLOTS} times the span of the level below. Whenever a slot
+ * of a higher level comes due, its tasks cascade down to the levels below. Queueing and cancelling
+ * a task are constant time, and a tick only looks at the slots that come due.
+ *
+ * <p>Delays count ticks of this scheduler. If the server tick passed to {@link #tick(int,
+ * MinecraftServer)} skips ahead, the skipped ticks are caught up in that call and every overdue
+ * task runs, in the order of its due tick. If the server tick goes backwards, e.g. after a restart
+ * of an integrated server, the scheduler advances by a single tick.
+ *
+ * <p>Delays beyond the span of the wheel, {@code SLOTS^LEVELS} ticks or about 9.7 days at 20 ticks
+ * per second, wait in an overflow list that is checked once per rotation of the wheel. They still
+ * run on their exact tick, at the cost of one pass over the overflow list per rotation.
+ *
+ * <p>Long work can also be split into slices with {@link #submit(String, IncrementalTask)}, which
+ * runs the slices after the due tasks of each tick under the time budget of the {@link WorkQueue}.
+ * Work run off the server thread by the {@link AsyncExecutor} is completed before the due tasks.
+ *
+ * <p>Tasks are measured per name, see {@link TaskStats}. A tick whose scheduled work, including
+ * async completions and sliced work, takes longer than the overrun budget is counted as {@code
+ * scheduler.overruns}, recorded as a flight recorder event and logged with its slowest task.
+ *
+ * <p>The scheduler is not thread safe and must only be used on the server thread.
  */
 public class Scheduler {
-  private final Int2ObjectMap<List<Consumer<MinecraftServer>>> scheduledTasks =
-      new Int2ObjectOpenHashMap<>();
+  /** Bits of the due tick indexing the slots of each level. */
+  private static final int SLOT_BITS = 6;
+  /** Slots per level. */
+  static final int SLOTS = 1 << SLOT_BITS;
+  /** Levels of the wheel. */
+  static final int LEVELS = 4;
+  /** Ticks covered by the wheel, longer delays wait in the overflow list. */
+  static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+  /** Overrun budget used until {@link #setOverrunMillis(double)} is called. */
+  static final double DEFAULT_OVERRUN_MILLIS = 5;
+  /** Least time between two logged overruns. */
+  private static final long OVERRUN_LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  /** Heads of the task lists of all slots, level by level. */
+  private final TaskHandle[] slots = new TaskHandle[LEVELS * SLOTS];
+  /** Head of the list of tasks due beyond the span of the wheel. */
+  private TaskHandle overflow;
+  /** Tick of this scheduler, which only ever increases. */
+  private long wheelTick = 0;
+  /** Server tick of the last {@link #tick(int, MinecraftServer)}, passed to repeat conditions. */
   private int currentTick = 0;
+  private boolean ticked = false;
+  /** Task that is currently running, if any. */
+  private TaskHandle runningTask;
+  /** Number of queued task runs. */
+  private int pendingTasks = 0;
+  /** Counts task runs once {@link #register()}ed. */
+  private Counter tasksRun = new Counter();
+  /** Counts cancelled tasks once {@link #register()}ed. */
+  private Counter tasksCancelled = new Counter();
+  /** Sliced work run after the due tasks of each tick. */
+  private final WorkQueue workQueue = new WorkQueue();
+  /** Work run off the server thread, completed before the due tasks of each tick. */
+  private final AsyncExecutor async = new AsyncExecutor();
+  /** Metrics of the task types by name. */
+  private final Map<String, TaskStats> taskStats = new HashMap<>();
+  /** Wheel tick the current {@link #tick(int, MinecraftServer)} catches up to. */
+  private long targetTick = 0;
+  /** Slowest task of the current tick and its runtime. */
+  private TaskHandle slowestTask;
+  private long slowestTaskNanos;
+  /** Time per tick from which scheduled work is an overrun, zero if disabled. */
+  private long overrunNanos = (long) (DEFAULT_OVERRUN_MILLIS * 1_000_000);
+  /** Counts overruns once {@link #register()}ed. */
+  private Counter overruns = new Counter();
+  private long lastOverrunLogNanos;
+  private long unloggedOverruns;
 
   /** Registers this object to the Fabric ServerTickCallback event registry. */
-  public Scheduler() {
+  public void register() {
+    final MetricsRegistry metrics = ChunkClaimFabric.getMetrics();
+    this.tasksRun = metrics.counter("scheduler.tasks_run");
+    this.tasksCancelled = metrics.counter("scheduler.tasks_cancelled");
+    this.overruns = metrics.counter("scheduler.overruns");
+    metrics.gauge("scheduler.pending_tasks", this::getPendingTaskCount);
+    this.workQueue.register(metrics);
+    final Timer timer = metrics.timer("scheduler.tick");
     ServerTickEvents.END_SERVER_TICK.register(
         minecraftServer -> {
-          this.currentTick = minecraftServer.getTicks();
-          final List<Consumer<MinecraftServer>> runnables =
-              this.scheduledTasks.remove(this.currentTick);
-          if (runnables != null) {
-            for (Consumer<MinecraftServer> runnable : runnables) {
-              runnable.accept(minecraftServer);
-              if (runnable instanceof Repeating) { // reschedule repeating tasks
-                Repeating repeating = ((Repeating) runnable);
-                if (repeating.shouldQueue(this.currentTick)) {
-                  this.queue(runnable, ((Repeating) runnable).next);
-                }
-              }
-            }
+          final long start = timer.start();
+          try {
+            this.tick(minecraftServer.getTicks(), minecraftServer);
+          } finally {
+            timer.stop(start);
           }
         });
   }
 
+  /**
+   * Completes finished off-thread work, runs the tasks due at the end of the tick, then sliced work
+   * within the budget of the tick. Called by the server tick event once {@link #register()}ed, or
+   * directly to drive this scheduler without a minecraft server.
+   *
+   * @param serverTick Tick that is ending.
+   * @param minecraftServer Server passed to the tasks, null when driven without a server.
+   */
+  public void tick(int serverTick, MinecraftServer minecraftServer) {
+    final long startNanos = System.nanoTime();
+    long elapsed = 1;
+    if (this.ticked && serverTick > this.currentTick) {
+      elapsed = (long) serverTick - this.currentTick;
+    }
+    this.currentTick = serverTick;
+    this.ticked = true;
+    this.async.runCompletions();
+
+    final long tasksStartNanos = System.nanoTime();
+    this.targetTick = this.wheelTick + elapsed;
+    this.slowestTask = null;
+    this.slowestTaskNanos = 0;
+    while (this.wheelTick < this.targetTick) {
+      if (0 == this.pendingTasks) {
+        // Nothing to catch up on.
+        this.wheelTick = this.targetTick;
+        break;
+      }
+      this.wheelTick++;
+      this.cascade();
+      this.runSlot(minecraftServer);
+    }
+
+    final long workStartNanos = System.nanoTime();
+    this.workQueue.run();
+    final long endNanos = System.nanoTime();
+    if (0 < this.overrunNanos && endNanos - startNanos > this.overrunNanos) {
+      this.flagOverrun(
+          serverTick,
+          startNanos,
+          tasksStartNanos - startNanos,
+          workStartNanos - tasksStartNanos,
+          endNanos - workStartNanos);
+    }
+  }
+
+  /**
+   * Counts, records and logs a tick whose scheduled work took longer than the overrun budget.
+   * Logs at most once a minute.
+   *
+   * @param serverTick Tick that is ending.
+   * @param startNanos Start time of the scheduled work of the tick.
+   * @param completionsNanos Time spent completing async work.
+   * @param tasksNanos Time spent running due tasks.
+   * @param workNanos Time spent on sliced work.
+   */
+  private void flagOverrun(
+      int serverTick, long startNanos, long completionsNanos, long tasksNanos, long workNanos) {
+    this.overruns.increment();
+    final String slowest = (null == this.slowestTask) ? "none" : this.slowestTask.stats.name;
+    FlightEvents.schedulerOverrun(
+        serverTick,
+        slowest,
+        this.slowestTaskNanos,
+        completionsNanos,
+        tasksNanos,
+        workNanos,
+        startNanos);
+    final long now = System.nanoTime();
+    if (0 != this.lastOverrunLogNanos
+        && now - this.lastOverrunLogNanos < OVERRUN_LOG_INTERVAL_NANOS) {
+      this.unloggedOverruns++;
+      return;
+    }
+    final String unlogged =
+        (0 == this.unloggedOverruns)
+            ? ""
+            : String.format(" %d overruns not logged since the last one.", this.unloggedOverruns);
+    ChunkClaimFabric.logInfo(
+        String.format(
+            "Scheduled work took %.1f ms in tick %d, over the budget of %.1f ms: tasks %.1f ms "
+                + "(slowest %s, %.1f ms), sliced work %.1f ms, async completions %.1f ms.%s",
+            (completionsNanos + tasksNanos + workNanos) / 1e6,
+            serverTick,
+            this.overrunNanos / 1e6,
+            tasksNanos / 1e6,
+            slowest,
+            this.slowestTaskNanos / 1e6,
+            workNanos / 1e6,
+            completionsNanos / 1e6,
+            unlogged));
+    this.lastOverrunLogNanos = now;
+    this.unloggedOverruns = 0;
+  }
+
+  /**
+   * Sets the overrun budget.
+   *
+   * @param overrunMillis Milliseconds of scheduled work per tick from which the tick is flagged as
+   *     an overrun, zero to disable.
+   */
+  public void setOverrunMillis(double overrunMillis) {
+    this.overrunNanos = (long) (Math.max(0, overrunMillis) * 1_000_000);
+  }
+
+  /**
+   * Moves the tasks of every higher level slot that came due at the current tick down the wheel.
+   * A level's slot comes due when the bits of all levels below it are zero, and the overflow list
+   * is checked whenever the whole wheel has turned.
+   */
+  private void cascade() {
+    for (int level = 1; level < LEVELS; level++) {
+      if (0 != (this.wheelTick & ((1L << (SLOT_BITS * level)) - 1))) {
+        return;
+      }
+      this.relinkAll(level * SLOTS + slotIndex(this.wheelTick, level));
+    }
+    if (0 == (this.wheelTick & (SPAN - 1))) {
+      TaskHandle handle = this.overflow;
+      this.overflow = null;
+      while (null != handle) {
+        final TaskHandle next = handle.next;
+        this.link(handle);
+        handle = next;
+      }
+    }
+  }
+
+  /**
+   * Relinks all tasks of a slot, which places them on lower levels once their slot came due.
+   *
+   * @param slot Index of the slot.
+   */
+  private void relinkAll(int slot) {
+    TaskHandle handle = this.slots[slot];
+    this.slots[slot] = null;
+    while (null != handle) {
+      final TaskHandle next = handle.next;
+      this.link(handle);
+      handle = next;
+    }
+  }
+
+  /**
+   * Runs the tasks of the level 0 slot of the current tick. Each task is unlinked before it runs,
+   * so tasks may queue or cancel tasks, including themselves.
+   *
+   * @param minecraftServer Server passed to the tasks.
+   */
+  private void runSlot(MinecraftServer minecraftServer) {
+    final int slot = slotIndex(this.wheelTick, 0);
+    final SlowOperationWatchdog watchdog = ChunkClaimFabric.getWatchdog();
+    TaskHandle handle;
+    while (null != (handle = this.slots[slot])) {
+      this.unlink(handle);
+      this.pendingTasks--;
+      this.tasksRun.increment();
+      this.runningTask = handle;
+      handle.stats.recordLateness(this.targetTick - this.wheelTick);
+      final SlowOperationWatchdog.Operation operation = watchdog.begin("scheduler.task", handle);
+      final long start = handle.stats.runtime.start();
+      try {
+        handle.task.accept(minecraftServer);
+      } finally {
+        handle.stats.runtime.stop(start);
+        watchdog.end(operation);
+        this.runningTask = null;
+        final long runtimeNanos = System.nanoTime() - start;
+        if (runtimeNanos > this.slowestTaskNanos) {
+          this.slowestTask = handle;
+          this.slowestTaskNanos = runtimeNanos;
+        }
+      }
+      // Reschedule repeating tasks.
+      if (handle.isRepeating()
+          && !handle.isCancelled()
+          && (null == handle.requeue || handle.requeue.test(this.currentTick))) {
+        this.schedule(handle, handle.interval);
+      }
+    }
+  }
+
+  /**
+   * Queue a one time task to be executed on the server thread, measured under the name of the
+   * task's class.
+   *
+   * @param task The action to perform.
+   * @param tick How many ticks in the future this should be called, where 0 means at the end of the
+   *     current tick. Negative delays are treated as 0.
+   * @return Handle for cancelling the task.
+   */
+  public TaskHandle queue(Consumer<MinecraftServer> task, int tick) {
+    return this.queue(nameOf(task), task, tick);
+  }
+
   /**
    * Queue a one time task to be executed on the server thread.
    *
+   * @param name Name of the task type the task is measured under, e.g. {@code "cleanup"}.
    * @param task The action to perform.
    * @param tick How many ticks in the future this should be called, where 0 means at the end of the
-   *     current tick.
+   *     current tick. Negative delays are treated as 0.
+   * @return Handle for cancelling the task.
+   */
+  public TaskHandle queue(String name, Consumer<MinecraftServer> task, int tick) {
+    return this.schedule(
+        new TaskHandle(this, this.getTaskStats(name), task, null, 0), (long) Math.max(0, tick) + 1);
+  }
+
+  /**
+   * Queues work to run in slices over the coming ticks, see {@link WorkQueue}.
+   *
+   * @param name Name of the work, e.g. for logging.
+   * @param task Work to run.
+   * @return Future completed on the server thread once the work is done.
+   */
+  public CompletableFuture<Void> submit(String name, IncrementalTask task) {
+    return this.workQueue.submit(name, task);
+  }
+
+  /** @return Queue running the work passed to {@link #submit(String, IncrementalTask)}. */
+  public WorkQueue getWorkQueue() {
+    return this.workQueue;
+  }
+
+  /** @return Executor running work off the server thread, completed on the tick. */
+  public AsyncExecutor getAsync() {
+    return this.async;
+  }
+
+  /** @return Number of queued task runs, including the next run of every repeating task. */
+  public int getPendingTaskCount() {
+    return this.pendingTasks;
+  }
+
+  /**
+   * Schedule a repeating task that is executed infinitely every n ticks, measured under the name of
+   * the task's class.
+   *
+   * @param task The action to perform.
+   * @param tick How many ticks in the future this event should first be called.
+   * @param interval The number of ticks in between each execution, at least 1.
+   * @return Handle for cancelling the task.
    */
-  public void queue(Consumer<MinecraftServer> task, int tick) {
-    // Make the initial ArrayList smaller than the default size (10 elements) since it's unlikely,
-    // on average, that there will be more than a few tasks per tick.
-    this.scheduledTasks
-        .computeIfAbsent(this.currentTick + tick + 1, t -> new ArrayList<>(4))
-        .add(task);
+  public TaskHandle repeating(Consumer<MinecraftServer> task, int tick, int interval) {
+    return this.repeating(nameOf(task), task, tick, interval);
   }
 
   /**
    * Schedule a repeating task that is executed infinitely every n ticks.
    *
+   * @param name Name of the task type the task is measured under, e.g. {@code "cleanup"}.
    * @param task The action to perform.
    * @param tick How many ticks in the future this event should first be called.
-   * @param interval The number of ticks in between each execution.
+   * @param interval The number of ticks in between each execution, at least 1.
+   * @return Handle for cancelling the task.
    */
-  public void repeating(Consumer<MinecraftServer> task, int tick, int interval) {
-    this.repeatWhile(task, null, tick, interval);
+  public TaskHandle repeating(String name, Consumer<MinecraftServer> task, int tick, int interval) {
+    return this.repeatWhile(name, task, null, tick, interval);
   }
 
   /**
-   * Repeat the given task until the predicate returns false.
+   * Repeat the given task until the predicate returns false, measured under the name of the task's
+   * class.
    *
    * @param task The action to perform.
    * @param requeue Whether or not to reschedule the task again, with the parameter being the
    *     current tick.
    * @param tick How many ticks in the future this event should first be called.
-   * @param interval The number of ticks in between each execution.
+   * @param interval The number of ticks in between each execution, at least 1.
+   * @return Handle for cancelling the task.
    */
-  public void repeatWhile(
+  public TaskHandle repeatWhile(
       Consumer<MinecraftServer> task, IntPredicate requeue, int tick, int interval) {
-    this.queue(new Repeating(task, requeue, interval), tick);
-  }
-
-  /** Consumer implementation for repeating tasks. */
-  private static final class Repeating implements Consumer<MinecraftServer> {
-    public final int next;
-    private final Consumer<MinecraftServer> task;
-    private final IntPredicate requeue;
-
-    /**
-     * @param task Delegated task.
-     * @param requeue Predicate functional object for determining the exact repeat condition.
-     * @param interval Interval between repetitions (in ticks)
-     */
-    private Repeating(Consumer<MinecraftServer> task, IntPredicate requeue, int interval) {
-      this.task = task;
-      this.requeue = requeue;
-      this.next = interval;
+    return this.repeatWhile(nameOf(task), task, requeue, tick, interval);
+  }
+
+  /**
+   * Repeat the given task until the predicate returns false.
+   *
+   * @param name Name of the task type the task is measured under, e.g. {@code "cleanup"}.
+   * @param task The action to perform.
+   * @param requeue Whether or not to reschedule the task again, with the parameter being the
+   *     current tick.
+   * @param tick How many ticks in the future this event should first be called.
+   * @param interval The number of ticks in between each execution, at least 1.
+   * @return Handle for cancelling the task.
+   */
+  public TaskHandle repeatWhile(
+      String name, Consumer<MinecraftServer> task, IntPredicate requeue, int tick, int interval) {
+    return this.schedule(
+        new TaskHandle(this, this.getTaskStats(name), task, requeue, Math.max(1, interval)),
+        (long) Math.max(0, tick) + 1);
+  }
+
+  /**
+   * Gets or creates the metrics of a task type.
+   *
+   * @param name Name of the task type.
+   * @return Metrics of the task type.
+   */
+  private TaskStats getTaskStats(String name) {
+    TaskStats stats = this.taskStats.get(name);
+    if (null == stats) {
+      stats = new TaskStats(ChunkClaimFabric.getMetrics(), name);
+      this.taskStats.put(name, stats);
     }
+    return stats;
+  }
 
-    /**
-     * Determines if this task should be re-queued based on the current tick.
-     *
-     * @param predicate Current tick.
-     * @return true if it should requeue, else false.
-     */
-    public boolean shouldQueue(int predicate) {
-      if (this.requeue == null) {
-        return true;
+  /**
+   * Names an unnamed task after its class, dropping the suffix of lambdas and method references.
+   *
+   * @param task Task to name.
+   * @return Name of the task type, e.g. {@code "Visualization"}.
+   */
+  static String nameOf(Object task) {
+    final String className = task.getClass().getName();
+    final int lambda = className.indexOf("$$Lambda");
+    return className.substring(
+        className.lastIndexOf('.') + 1, (0 < lambda) ? lambda : className.length());
+  }
+
+  /**
+   * Cancels a task. Called by {@link TaskHandle#cancel()}, which marks the handle as cancelled if
+   * this returns {@code true}.
+   *
+   * @param handle Handle of the task.
+   * @return {@code true} if a pending run was cancelled, else {@code false}.
+   */
+  boolean cancel(TaskHandle handle) {
+    if (!handle.isPending()) {
+      // A running repeating task cancelling itself cancels its next run.
+      final boolean cancelled = (handle == this.runningTask) && handle.isRepeating();
+      if (cancelled) {
+        this.tasksCancelled.increment();
       }
-      return this.requeue.test(predicate);
+      return cancelled;
     }
+    this.unlink(handle);
+    this.pendingTasks--;
+    this.tasksCancelled.increment();
+    return true;
+  }
 
-    /**
-     * Performs this task on the given argument.
-     *
-     * @param server Server to perform the task on.
-     */
-    @Override
-    public void accept(MinecraftServer server) {
-      this.task.accept(server);
+  /**
+   * Queues a task to run after a delay.
+   *
+   * @param handle Handle of the task, not linked into any slot.
+   * @param delay Ticks from the current tick until the task runs, at least 1.
+   * @return The handle.
+   */
+  private TaskHandle schedule(TaskHandle handle, long delay) {
+    handle.deadline = this.wheelTick + delay;
+    this.link(handle);
+    this.pendingTasks++;
+    return handle;
+  }
+
+  /**
+   * Links a task into the slot of the lowest level that can hold its due tick, or into the
+   * overflow list. The level is that of the highest slot bits in which the due tick differs from
+   * the current tick, so a task only cascades when the slots of its level come due.
+   *
+   * @param handle Handle of the task, not linked into any slot.
+   */
+  private void link(TaskHandle handle) {
+    final long difference = handle.deadline ^ this.wheelTick;
+    if (difference >= SPAN) {
+      handle.slot = TaskHandle.OVERFLOW;
+      handle.previous = null;
+      handle.next = this.overflow;
+      if (null != this.overflow) {
+        this.overflow.previous = handle;
+      }
+      this.overflow = handle;
+      return;
+    }
+    final int level =
+        (0 == difference) ? 0 : (63 - Long.numberOfLeadingZeros(difference)) / SLOT_BITS;
+    final int slot = level * SLOTS + slotIndex(handle.deadline, level);
+    handle.slot = slot;
+    handle.previous = null;
+    handle.next = this.slots[slot];
+    if (null != handle.next) {
+      handle.next.previous = handle;
+    }
+    this.slots[slot] = handle;
+  }
+
+  /**
+   * Unlinks a task from its slot or the overflow list.
+   *
+   * @param handle Handle of a linked task.
+   */
+  private void unlink(TaskHandle handle) {
+    if (null != handle.previous) {
+      handle.previous.next = handle.next;
+    } else if (TaskHandle.OVERFLOW == handle.slot) {
+      this.overflow = handle.next;
+    } else {
+      this.slots[handle.slot] = handle.next;
     }
+    if (null != handle.next) {
+      handle.next.previous = handle.previous;
+    }
+    handle.previous = null;
+    handle.next = null;
+    handle.slot = TaskHandle.UNLINKED;
+  }
+
+  /**
+   * @param tick Tick of this scheduler.
+   * @param level Level of the wheel.
+   * @return Index of the slot of the tick within the level.
+   */
+  private static int slotIndex(long tick, int level) {
+    return (int) (tick >>> (SLOT_BITS * level)) & (SLOTS - 1);
   }
 }
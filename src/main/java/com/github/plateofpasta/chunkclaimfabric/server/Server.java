@@ -21,58 +21,61 @@
 package com.github.plateofpasta.chunkclaimfabric.server;
 
 import com.github.plateofpasta.edgestitch.world.EdgestitchWorld;
-import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
 
 import java.io.File;
-import java.util.ArrayList;
+import java.time.Clock;
 import java.util.List;
 
-/** Abstracts a dedicated minecraft server. */
-public class Server {
-  private final MinecraftServer minecraftServer;
+/**
+ * Abstracts the server the mod runs on. {@link FabricServer} wraps a dedicated minecraft server,
+ * other implementations allow the claim engine to run without one, e.g. in benchmarks.
+ */
+public interface Server {
+  /**
+   * Gets a world by name.
+   *
+   * @param worldName Name of the world to get.
+   * @return World object, or null if there is no such world or no minecraft world backs it.
+   */
+  EdgestitchWorld getWorld(String worldName);
 
   /**
-   * Constructor for the server API.
+   * Checks if a world exists.
    *
-   * @param minecraftServer Minecraft dedicated server that is wrapped by this.
+   * @param worldName Name of the world.
+   * @return {@code true} if the server has the world, else false.
    */
-  public Server(MinecraftServer minecraftServer) {
-    this.minecraftServer = minecraftServer;
-  }
+  boolean hasWorld(String worldName);
 
   /**
-   * Gets a world by name.
+   * Regenerates a chunk to its world generation state.
    *
-   * @param worldName Name of the world to get.
-   * @return World object.
+   * @param worldName Name of the world the chunk is in.
+   * @param chunkPos Position of the chunk.
    */
-  public EdgestitchWorld getWorld(String worldName) {
-    for (ServerWorld world : minecraftServer.getWorlds()) {
-      EdgestitchWorld EdgestitchWorld = new EdgestitchWorld(world);
-      if (EdgestitchWorld.getName().equals(worldName)) {
-        return EdgestitchWorld;
-      }
-    }
-    return null;
-  }
+  void regenerateChunk(String worldName, ChunkPos chunkPos);
 
   /** @return List of world name(s) available to this server. */
-  public List<String> getAvailableWorldNames() {
-    List<String> worldNames = new ArrayList<>(3);
-    for (ServerWorld world : minecraftServer.getWorlds()) {
-      worldNames.add(EdgestitchWorld.Companion.getName(world));
-    }
-    return worldNames;
-  }
+  List<String> getAvailableWorldNames();
 
   /** @return Array of player names. */
-  public String[] getOnlinePlayerNames() {
-    return minecraftServer.getPlayerNames();
-  }
-
-  /** @return Run directory of the minecraft server. */
-  public File getRunDirectory() {
-    return this.minecraftServer.getRunDirectory();
-  }
+  String[] getOnlinePlayerNames();
+
+  /** @return {@code true} if called from the server thread, else false. */
+  boolean isOnThread();
+
+  /** @return Run directory of the server. */
+  File getRunDirectory();
+
+  /**
+   * Gets the clock that claims are aged against, e.g. when deciding if an unbuilt claim is old
+   * enough to be auto-deleted.
+   *
+   * @return Clock of the server.
+   */
+  Clock getClock();
+
+  /** @return Average time the server took per tick recently, in milliseconds. */
+  double getAverageTickMillis();
 }
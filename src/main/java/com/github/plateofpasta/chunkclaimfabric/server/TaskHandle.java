@@ -0,0 +1,113 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+import net.minecraft.server.MinecraftServer;
+
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Handle of a task queued on the {@link Scheduler}, for cancelling it. The handle is also the node
+ * linking the task into its slot of the scheduler's timing wheel, so queueing a task allocates
+ * nothing else and repeating tasks reuse their handle for every run.
+ */
+public final class TaskHandle {
+  /** Slot value of a handle that is not queued. */
+  static final int UNLINKED = -1;
+  /** Slot value of a handle in the overflow list of the scheduler. */
+  static final int OVERFLOW = -2;
+
+  final Consumer<MinecraftServer> task;
+  /** Metrics of the task type, named after it. */
+  final TaskStats stats;
+  /** Repeat condition, null to repeat forever. Unused by one time tasks. */
+  final IntPredicate requeue;
+  /** Ticks between runs, or 0 for a one time task. */
+  final int interval;
+  private final Scheduler scheduler;
+  /** Scheduler tick the task is due at. */
+  long deadline;
+  /** Index of the wheel slot holding the handle, {@link #OVERFLOW} or {@link #UNLINKED}. */
+  int slot = UNLINKED;
+  TaskHandle previous;
+  TaskHandle next;
+  private boolean cancelled;
+
+  /**
+   * @param scheduler Scheduler the task is queued on.
+   * @param stats Metrics of the task type.
+   * @param task Task to run.
+   * @param requeue Repeat condition, null to repeat forever.
+   * @param interval Ticks between runs, or 0 for a one time task.
+   */
+  TaskHandle(
+      Scheduler scheduler,
+      TaskStats stats,
+      Consumer<MinecraftServer> task,
+      IntPredicate requeue,
+      int interval) {
+    this.scheduler = scheduler;
+    this.stats = stats;
+    this.task = task;
+    this.requeue = requeue;
+    this.interval = interval;
+  }
+
+  /**
+   * Cancels the task, so it doesn't run again. Cancelling a task from within another task of the
+   * same tick is allowed, as is a repeating task cancelling itself. Must be called on the server
+   * thread.
+   *
+   * @return {@code true} if a pending run was cancelled, {@code false} if the task already ran for
+   *     the last time or was cancelled before.
+   */
+  public boolean cancel() {
+    if (this.cancelled || !this.scheduler.cancel(this)) {
+      return false;
+    }
+    this.cancelled = true;
+    return true;
+  }
+
+  /** @return {@code true} if the task was cancelled, else {@code false}. */
+  public boolean isCancelled() {
+    return this.cancelled;
+  }
+
+  /** @return {@code true} if the task will run again unless cancelled, else {@code false}. */
+  public boolean isPending() {
+    return UNLINKED != this.slot;
+  }
+
+  /** @return {@code true} if this is a repeating task, else {@code false}. */
+  boolean isRepeating() {
+    return 0 != this.interval;
+  }
+
+  /** @return Description of the task, e.g. for logging. */
+  @Override
+  public String toString() {
+    return this.isRepeating()
+        ? String.format("%s every %d ticks", this.stats, this.interval)
+        : this.stats.toString();
+  }
+}
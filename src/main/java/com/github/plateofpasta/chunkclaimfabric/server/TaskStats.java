@@ -0,0 +1,65 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+import com.github.plateofpasta.chunkclaimfabric.metrics.Counter;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Timer;
+
+/**
+ * Metrics of one type of scheduled task, shared by all tasks queued under the same name. The timer
+ * {@code scheduler.task.<name>} counts the runs with their total and max runtime. Lateness is the
+ * number of ticks a run started after its intended tick, which happens when the scheduler catches
+ * up on skipped server ticks.
+ */
+final class TaskStats {
+  private static final String PREFIX = "scheduler.task.";
+
+  final String name;
+  final Timer runtime;
+  private final Counter lateTicks;
+  private long maxLateTicks;
+
+  /**
+   * @param metrics Registry to register the metrics with.
+   * @param name Name of the task type.
+   */
+  TaskStats(MetricsRegistry metrics, String name) {
+    this.name = name;
+    this.runtime = metrics.timer(PREFIX + name);
+    this.lateTicks = metrics.counter(PREFIX + name + ".late_ticks");
+    metrics.gauge(PREFIX + name + ".max_late_ticks", () -> this.maxLateTicks);
+  }
+
+  /** @param ticks Ticks a run started after its intended tick. */
+  void recordLateness(long ticks) {
+    if (0 < ticks) {
+      this.lateTicks.add(ticks);
+      this.maxLateTicks = Math.max(this.maxLateTicks, ticks);
+    }
+  }
+
+  /** @return Name of the task type. */
+  @Override
+  public String toString() {
+    return this.name;
+  }
+}
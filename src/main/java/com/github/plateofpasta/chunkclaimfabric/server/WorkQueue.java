@@ -0,0 +1,212 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.server;
+
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Counter;
+import com.github.plateofpasta.chunkclaimfabric.metrics.MetricsRegistry;
+import com.github.plateofpasta.chunkclaimfabric.metrics.SlowOperationWatchdog;
+import com.github.plateofpasta.chunkclaimfabric.metrics.Timer;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+
+/**
+ * Runs {@link IncrementalTask}s on the server thread under a time budget per tick, so that long
+ * maintenance work is spread over ticks instead of freezing the server. Pending tasks take turns
+ * slice by slice. At least one slice runs per tick, so work always makes progress.
+ *
+ * <p>The budget shrinks while the server's average tick time is high: it is the full budget up to
+ * {@link #FULL_BUDGET_TICK_MILLIS}, then drops linearly down to {@link #MIN_BUDGET_FRACTION} of it
+ * at {@link #MIN_BUDGET_TICK_MILLIS}, the length of a tick at 20 ticks per second.
+ *
+ * <p>Slices are timed per name of their work as {@code scheduler.work.<name>}.
+ *
+ * <p>Driven by the {@link Scheduler} and not thread safe, so it must only be used on the server
+ * thread.
+ */
+public class WorkQueue {
+  /** Budget used until {@link #configure(double, DoubleSupplier)} is called. */
+  static final double DEFAULT_BUDGET_MILLIS = 2;
+  /** Average tick time up to which the full budget is used. */
+  static final double FULL_BUDGET_TICK_MILLIS = 35;
+  /** Average tick time from which only the minimum budget is used. */
+  static final double MIN_BUDGET_TICK_MILLIS = 50;
+  /** Fraction of the budget left while the server is lagging. */
+  static final double MIN_BUDGET_FRACTION = 0.1;
+
+  private final ArrayDeque<Work> pending = new ArrayDeque<>();
+  /** Slice timers by name of the work. */
+  private final Map<String, Timer> sliceTimers = new HashMap<>();
+  private long budgetNanos = (long) (DEFAULT_BUDGET_MILLIS * 1_000_000);
+  private DoubleSupplier averageTickMillis = () -> 0;
+  /** Counts slices once {@link #register(MetricsRegistry)}ed. */
+  private Counter slicesRun = new Counter();
+  /** Counts ticks that used up their budget once {@link #register(MetricsRegistry)}ed. */
+  private Counter budgetExhausted = new Counter();
+
+  /**
+   * Registers the metrics of this queue.
+   *
+   * @param metrics Registry to register with.
+   */
+  void register(MetricsRegistry metrics) {
+    this.slicesRun = metrics.counter("scheduler.work_slices");
+    this.budgetExhausted = metrics.counter("scheduler.work_budget_exhausted");
+    metrics.gauge("scheduler.pending_work", this::getPendingCount);
+  }
+
+  /**
+   * Configures the time budget.
+   *
+   * @param budgetMillis Milliseconds per tick the work may take while the server keeps up.
+   * @param averageTickMillis Supplies the average tick time of the server in milliseconds.
+   */
+  public void configure(double budgetMillis, DoubleSupplier averageTickMillis) {
+    this.budgetNanos = (long) (Math.max(0, budgetMillis) * 1_000_000);
+    this.averageTickMillis = averageTickMillis;
+  }
+
+  /**
+   * Queues a task. Cancelling the returned future stops the task before its next slice.
+   *
+   * @param name Name of the task, e.g. for logging.
+   * @param task Task to run.
+   * @return Future completed on the server thread once the task is done, or completed
+   *     exceptionally with whatever a slice threw.
+   */
+  public CompletableFuture<Void> submit(String name, IncrementalTask task) {
+    Timer sliceTimer = this.sliceTimers.get(name);
+    if (null == sliceTimer) {
+      sliceTimer = ChunkClaimFabric.getMetrics().timer("scheduler.work." + name);
+      this.sliceTimers.put(name, sliceTimer);
+    }
+    final Work work = new Work(name, task, sliceTimer);
+    this.pending.addLast(work);
+    return work.future;
+  }
+
+  /** @return Number of tasks that are not done yet. */
+  public int getPendingCount() {
+    return this.pending.size();
+  }
+
+  /**
+   * Gets the budget for the current tick, shrunk by the server's average tick time.
+   *
+   * @return Nanoseconds the work may take this tick.
+   */
+  long getTickBudgetNanos() {
+    final double tickMillis = this.averageTickMillis.getAsDouble();
+    final double fraction =
+        (MIN_BUDGET_TICK_MILLIS - tickMillis) / (MIN_BUDGET_TICK_MILLIS - FULL_BUDGET_TICK_MILLIS);
+    return (long) (this.budgetNanos * Math.min(1, Math.max(MIN_BUDGET_FRACTION, fraction)));
+  }
+
+  /** Runs slices of the pending tasks until they are done or the budget of the tick is used. */
+  void run() {
+    if (this.pending.isEmpty()) {
+      return;
+    }
+    final long deadline = System.nanoTime() + this.getTickBudgetNanos();
+    final SlowOperationWatchdog watchdog = ChunkClaimFabric.getWatchdog();
+    final SlowOperationWatchdog.Operation operation =
+        watchdog.begin("scheduler.work", this.pending.peekFirst());
+    try {
+      do {
+        this.runSlice(this.pending.pollFirst());
+      } while (!this.pending.isEmpty() && System.nanoTime() < deadline);
+      if (!this.pending.isEmpty()) {
+        this.budgetExhausted.increment();
+      }
+    } finally {
+      watchdog.end(operation);
+    }
+  }
+
+  /** Runs all pending tasks to completion, e.g. before the server stops. */
+  public void drain() {
+    while (!this.pending.isEmpty()) {
+      this.runSlice(this.pending.pollFirst());
+    }
+  }
+
+  /**
+   * Runs a slice of a task, queueing the task again if it has slices left.
+   *
+   * @param work Task to run a slice of.
+   */
+  private void runSlice(Work work) {
+    if (work.future.isDone()) {
+      // Cancelled.
+      return;
+    }
+    final boolean more;
+    final long start = work.sliceTimer.start();
+    try {
+      more = work.task.runSlice();
+    } catch (RuntimeException e) {
+      ChunkClaimFabric.logger.log(
+          Level.SEVERE,
+          String.format("%s: Queued work %s failed", ChunkClaimFabric.MOD_ID, work.name),
+          e);
+      work.future.completeExceptionally(e);
+      return;
+    } finally {
+      work.sliceTimer.stop(start);
+      this.slicesRun.increment();
+    }
+    if (more) {
+      this.pending.addLast(work);
+    } else {
+      work.future.complete(null);
+    }
+  }
+
+  /** Task queued with its name and future. */
+  private static final class Work {
+    private final String name;
+    private final IncrementalTask task;
+    private final Timer sliceTimer;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    /**
+     * @param name Name of the task.
+     * @param task Task to run.
+     * @param sliceTimer Timer of the slices of tasks of the same name.
+     */
+    private Work(String name, IncrementalTask task, Timer sliceTimer) {
+      this.name = name;
+      this.task = task;
+      this.sliceTimer = sliceTimer;
+    }
+
+    /** @return Name of the task, e.g. for logging. */
+    @Override
+    public String toString() {
+      return this.name;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.util;
+
+import net.minecraft.util.ActionResult;
+
+/**
+ * Interface for caching a hopper's claim decision on the hopper itself. A hopper always transfers
+ * between the same two positions, so the decision only changes when the claims do.
+ */
+public interface HopperClaimCache {
+
+  /**
+   * Getter for the interface.
+   *
+   * @param claimGeneration Current claim generation of the datastore.
+   * @param toBlockPos Packed position the hopper is transferring to.
+   * @return Cached decision, or null if nothing is cached for the generation and position.
+   */
+  ActionResult getCachedClaimDecision(int claimGeneration, long toBlockPos);
+
+  /**
+   * Setter for the interface.
+   *
+   * @param claimGeneration Claim generation the decision was made in.
+   * @param toBlockPos Packed position the hopper is transferring to.
+   * @param decision Decision to cache.
+   */
+  void setCachedClaimDecision(int claimGeneration, long toBlockPos, ActionResult decision);
+}
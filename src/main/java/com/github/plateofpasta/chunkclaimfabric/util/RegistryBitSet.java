@@ -0,0 +1,162 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.util;
+
+import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import net.minecraft.tag.Tag;
+import net.minecraft.tag.TagGroup;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.Registry;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Set of registry entries compiled into a dense table indexed by raw registry id. A membership
+ * check costs one registry lookup to get the raw id of the entry, the same lookup a {@link Tag}
+ * does, and then a single array read. The set is built from three sources: hard coded defaults, a
+ * data pack tag and identifiers from the mod configuration. Call {@link #compile(TagGroup, List)}
+ * whenever any of those sources may have changed.
+ *
+ * @param <T> Registry entry type.
+ */
+public class RegistryBitSet<T> {
+  private final Registry<T> registry;
+  private final Identifier dataPackTagId;
+  private final List<T> defaultEntries = new ArrayList<>();
+  private final List<Tag.Identified<T>> defaultTags = new ArrayList<>();
+  /**
+   * Membership by raw id, up to the highest raw id in the set. Replaced as a whole on compile so
+   * readers never observe a partially built set.
+   */
+  private volatile boolean[] rawIds = new boolean[0];
+
+  /**
+   * @param registry Global registry associated with the entry type for this set.
+   * @param dataPackTagId Identifier of the data pack tag whose values are merged into this set.
+   */
+  public RegistryBitSet(Registry<T> registry, Identifier dataPackTagId) {
+    this.registry = registry;
+    this.dataPackTagId = dataPackTagId;
+  }
+
+  /**
+   * Builder function for adding default entries to this set.
+   *
+   * @param entries Entries to add to this.
+   * @return {@code this} builder.
+   */
+  @SafeVarargs
+  public final RegistryBitSet<T> add(T... entries) {
+    Collections.addAll(this.defaultEntries, entries);
+    return this;
+  }
+
+  /**
+   * Builder function for adding the contents of existing tags to this. Tags are resolved on each
+   * compile, so data pack changes to them are picked up.
+   *
+   * @param tagEntries Tags to add to this.
+   * @return {@code this} builder.
+   */
+  @SafeVarargs
+  public final RegistryBitSet<T> add(Tag.Identified<T>... tagEntries) {
+    Collections.addAll(this.defaultTags, tagEntries);
+    return this;
+  }
+
+  /** @return Identifier of the data pack tag merged into this set. */
+  public Identifier getDataPackTagId() {
+    return dataPackTagId;
+  }
+
+  /**
+   * Rebuilds the table from the defaults, the data pack tag and the configured identifiers.
+   *
+   * @param tagGroup Currently loaded tags for the entry type of this set.
+   * @param configuredIds Additional entry identifiers, e.g. {@code "minecraft:shears"}.
+   */
+  public void compile(TagGroup<T> tagGroup, List<String> configuredIds) {
+    BitSet compiled = new BitSet();
+    for (T entry : this.defaultEntries) {
+      this.set(compiled, entry);
+    }
+    for (Tag.Identified<T> tag : this.defaultTags) {
+      Tag<T> loadedTag = tagGroup.getTag(tag.getId());
+      if (null != loadedTag) {
+        loadedTag.values().forEach(entry -> this.set(compiled, entry));
+      }
+    }
+    Tag<T> dataPackTag = tagGroup.getTag(this.dataPackTagId);
+    if (null != dataPackTag) {
+      dataPackTag.values().forEach(entry -> this.set(compiled, entry));
+    }
+    if (null != configuredIds) {
+      for (String configuredId : configuredIds) {
+        Identifier identifier = Identifier.tryParse(configuredId);
+        Optional<T> entry =
+            (null == identifier) ? Optional.empty() : this.registry.getOrEmpty(identifier);
+        if (entry.isPresent()) {
+          this.set(compiled, entry.get());
+        } else {
+          ChunkClaimFabric.logInfo(
+              String.format(
+                  "Unknown registry entry \"%s\" configured for %s, ignoring it.",
+                  configuredId, this.dataPackTagId));
+        }
+      }
+    }
+    final boolean[] table = new boolean[compiled.length()];
+    for (int rawId = compiled.nextSetBit(0); 0 <= rawId; rawId = compiled.nextSetBit(rawId + 1)) {
+      table[rawId] = true;
+    }
+    this.rawIds = table;
+  }
+
+  /**
+   * Checks if the entry is in this set. Looks up the raw id of the entry in the registry, then
+   * reads it from the table.
+   *
+   * @param entry Entry to check.
+   * @return {@code true} if the entry is in this set, else {@code false}.
+   */
+  public boolean contains(T entry) {
+    final int rawId = this.registry.getRawId(entry);
+    final boolean[] table = this.rawIds;
+    return 0 <= rawId && rawId < table.length && table[rawId];
+  }
+
+  /**
+   * Helper for setting the bit of an entry.
+   *
+   * @param bits Bit set to modify.
+   * @param entry Entry whose raw id bit is set.
+   */
+  private void set(BitSet bits, T entry) {
+    int rawId = this.registry.getRawId(entry);
+    if (0 <= rawId) {
+      bits.set(rawId);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.util.arborist;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.ModifiableTestableWorld;
+
+import java.util.function.Predicate;
+
+/**
+ * World access handed to tree trunk and foliage placers. Writes to positions rejected by the {@link
+ * TreeGrowthFilter} are dropped before they reach the world, so blocked trees never cost a world
+ * write. Reads are passed through unchanged.
+ */
+public class FilteredTreeWorld implements ModifiableTestableWorld {
+  private final ModifiableTestableWorld delegate;
+  private final TreeGrowthFilter filter;
+
+  /**
+   * @param delegate World the tree is being grown in.
+   * @param filter Filter deciding where the tree may place blocks.
+   */
+  public FilteredTreeWorld(ModifiableTestableWorld delegate, TreeGrowthFilter filter) {
+    this.delegate = delegate;
+    this.filter = filter;
+  }
+
+  @Override
+  public boolean testBlockState(BlockPos pos, Predicate<BlockState> state) {
+    return this.delegate.testBlockState(pos, state);
+  }
+
+  @Override
+  public BlockPos getTopPosition(Heightmap.Type heightmap, BlockPos pos) {
+    return this.delegate.getTopPosition(heightmap, pos);
+  }
+
+  @Override
+  public boolean setBlockState(BlockPos pos, BlockState state, int flags, int maxUpdateDepth) {
+    return this.filter.allows(pos)
+        && this.delegate.setBlockState(pos, state, flags, maxUpdateDepth);
+  }
+
+  @Override
+  public boolean removeBlock(BlockPos pos, boolean move) {
+    return this.filter.allows(pos) && this.delegate.removeBlock(pos, move);
+  }
+
+  @Override
+  public boolean breakBlock(
+      BlockPos pos, boolean drop, Entity breakingEntity, int maxUpdateDepth) {
+    return this.filter.allows(pos)
+        && this.delegate.breakBlock(pos, drop, breakingEntity, maxUpdateDepth);
+  }
+}
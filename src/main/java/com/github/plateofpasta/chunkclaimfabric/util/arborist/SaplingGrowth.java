@@ -0,0 +1,153 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.util.arborist;
+
+import com.github.plateofpasta.chunkclaimfabric.mixin.arborist.LargeTreeSaplingGeneratorInvoker;
+import com.github.plateofpasta.chunkclaimfabric.mixin.arborist.SaplingGeneratorInvoker;
+import net.minecraft.block.sapling.LargeTreeSaplingGenerator;
+import net.minecraft.block.sapling.SaplingGenerator;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
+import net.minecraft.world.gen.feature.TreeFeatureConfig;
+
+import java.util.Random;
+
+/**
+ * Carries the growth type of a sapling growth. A growth that is not natural runs on a sapling
+ * generator created for that growth alone, which hands out the tree features of the sapling's own
+ * generator and reports the growth type. The sapling generators held by blocks are shared, so they
+ * are never modified and always report natural growth.
+ */
+public final class SaplingGrowth {
+  private SaplingGrowth() {}
+
+  /**
+   * Creates a sapling generator for a single growth.
+   *
+   * @param generator Generator of the sapling.
+   * @param growthType Growth type of the growth.
+   * @return Generator growing the same trees as {@code generator}, for this growth only.
+   */
+  public static SaplingGenerator createGenerator(
+      SaplingGenerator generator, GrowthType growthType) {
+    if (generator instanceof LargeTreeSaplingGenerator) {
+      return new LargeGrowthGenerator((LargeTreeSaplingGenerator) generator, growthType);
+    }
+    return new GrowthGenerator(generator, growthType);
+  }
+
+  /**
+   * Gets the growth type of a sapling generator. Generators not created by {@link
+   * #createGenerator} grow naturally.
+   *
+   * @param generator Generator growing the sapling.
+   * @return {@link GrowthType} of the growth.
+   */
+  public static GrowthType getGrowthType(SaplingGenerator generator) {
+    if (generator instanceof GrowthTyped) {
+      return ((GrowthTyped) generator).getGrowthType();
+    }
+    return GrowthType.NATURAL_GROWTH;
+  }
+
+  /**
+   * Copies a sapling's tree feature so that the copy carries the growth type. The feature configs
+   * created by sapling generators are shared with world generation, which may read them from worker
+   * threads, so they are never modified.
+   *
+   * @param feature Tree feature created by the sapling generator, may be null.
+   * @param growthType Growth type of the growth.
+   * @return Copy of the feature for this growth only, or null if the feature is null.
+   */
+  public static ConfiguredFeature<TreeFeatureConfig, ?> configureGrowth(
+      ConfiguredFeature<TreeFeatureConfig, ?> feature, GrowthType growthType) {
+    if (null == feature) {
+      return null;
+    }
+    TreeFeatureConfig config = feature.config.setTreeDecorators(feature.config.decorators);
+    ((SaplingGrowthStyle) config).setGrowthType(growthType);
+    return feature.feature.configure(config);
+  }
+
+  /** Implemented by the generators created for a single growth. */
+  private interface GrowthTyped {
+    /** @return {@link GrowthType} of the growth. */
+    GrowthType getGrowthType();
+  }
+
+  /** Generator for a single growth of a sapling that grows one tree. */
+  private static class GrowthGenerator extends SaplingGenerator implements GrowthTyped {
+    private final SaplingGenerator generator;
+    private final GrowthType growthType;
+
+    /**
+     * @param generator Generator of the sapling.
+     * @param growthType Growth type of the growth.
+     */
+    private GrowthGenerator(SaplingGenerator generator, GrowthType growthType) {
+      this.generator = generator;
+      this.growthType = growthType;
+    }
+
+    @Override
+    protected ConfiguredFeature<TreeFeatureConfig, ?> createTreeFeature(
+        Random random, boolean bees) {
+      return ((SaplingGeneratorInvoker) this.generator).invokeCreateTreeFeature(random, bees);
+    }
+
+    @Override
+    public GrowthType getGrowthType() {
+      return this.growthType;
+    }
+  }
+
+  /** Generator for a single growth of a sapling that may grow a 2x2 tree. */
+  private static class LargeGrowthGenerator extends LargeTreeSaplingGenerator
+      implements GrowthTyped {
+    private final LargeTreeSaplingGenerator generator;
+    private final GrowthType growthType;
+
+    /**
+     * @param generator Generator of the sapling.
+     * @param growthType Growth type of the growth.
+     */
+    private LargeGrowthGenerator(LargeTreeSaplingGenerator generator, GrowthType growthType) {
+      this.generator = generator;
+      this.growthType = growthType;
+    }
+
+    @Override
+    protected ConfiguredFeature<TreeFeatureConfig, ?> createTreeFeature(
+        Random random, boolean bees) {
+      return ((SaplingGeneratorInvoker) this.generator).invokeCreateTreeFeature(random, bees);
+    }
+
+    @Override
+    protected ConfiguredFeature<TreeFeatureConfig, ?> createLargeTreeFeature(Random random) {
+      return ((LargeTreeSaplingGeneratorInvoker) this.generator)
+          .invokeCreateLargeTreeFeature(random);
+    }
+
+    @Override
+    public GrowthType getGrowthType() {
+      return this.growthType;
+    }
+  }
+}
@@ -20,7 +20,12 @@
 
 package com.github.plateofpasta.chunkclaimfabric.util.arborist;
 
-/** Interface for determining if a Minecraft tree was grown by a player. */
+/**
+ * Interface for determining if a Minecraft tree was grown by a player. Implemented by tree feature
+ * configs. The growth type is only ever set on the per-growth copy created by {@link
+ * SaplingGrowth#configureGrowth}, before that copy is used, so shared configs always report
+ * {@link GrowthType#WORLD_GEN}.
+ */
 public interface SaplingGrowthStyle {
 
   /**
@@ -36,4 +41,19 @@ public interface SaplingGrowthStyle {
    * @param growthType Growth type.
    */
   void setGrowthType(GrowthType growthType);
+
+  /**
+   * Getter for the filter of the growth using this config. Set while the trunk and foliage are
+   * placed, so decorations are checked against the same per-chunk decisions.
+   *
+   * @return Filter of the growth, or null if the growth is not filtered.
+   */
+  TreeGrowthFilter getGrowthFilter();
+
+  /**
+   * Setter for the filter of the growth using this config.
+   *
+   * @param growthFilter Filter of the growth.
+   */
+  void setGrowthFilter(TreeGrowthFilter growthFilter);
 }
@@ -0,0 +1,94 @@
+/*
+   ChunkClaim Plugin for Minecraft Fabric Servers
+   Copyright (C) 2020 PlateOfPasta
+
+   This file is part of ChunkClaim and derivative work ChunkClaimFabric.
+
+   ChunkClaim is free software: you can redistribute it and/or modify
+   it under the terms of the GNU General Public License as published by
+   the Free Software Foundation, either version 3 of the License, or
+   (at your option) any later version.
+
+   ChunkClaim is distributed in the hope that it will be useful,
+   but WITHOUT ANY WARRANTY; without even the implied warranty of
+   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+   GNU General Public License for more details.
+
+   You should have received a copy of the GNU General Public License
+   along with ChunkClaim.  If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package com.github.plateofpasta.chunkclaimfabric.util.arborist;
+
+import com.github.plateofpasta.chunkclaimfabric.event.SaplingGrowCallback;
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.gen.feature.TreeFeature;
+
+import java.util.Set;
+
+/**
+ * Decides which positions a single tree growth may place blocks at. The {@link SaplingGrowCallback}
+ * is invoked once per distinct chunk column and the result is remembered for the rest of the
+ * growth. Instances are scoped to one growth and must not be shared.
+ */
+public class TreeGrowthFilter {
+  private static final byte UNDECIDED = 0;
+  private static final byte ALLOWED = 1;
+  private static final byte REJECTED = 2;
+
+  private final GrowthType growthType;
+  private final TreeFeature feature;
+  private final World world;
+  private final BlockPos rootBlockPos;
+  private final Long2ByteOpenHashMap decisions = new Long2ByteOpenHashMap();
+
+  /**
+   * @param growthType Growth type of the sapling.
+   * @param feature Feature used to generate the tree.
+   * @param world World the tree growth is occurring in.
+   * @param rootBlockPos The "root" position of the tree growth.
+   */
+  public TreeGrowthFilter(
+      GrowthType growthType, TreeFeature feature, World world, BlockPos rootBlockPos) {
+    this.growthType = growthType;
+    this.feature = feature;
+    this.world = world;
+    this.rootBlockPos = rootBlockPos;
+  }
+
+  /**
+   * Checks if the tree may place a block at the position.
+   *
+   * @param pos Position to check.
+   * @return {@code true} if placement is allowed, else {@code false}.
+   */
+  public boolean allows(BlockPos pos) {
+    final int chunkX = pos.getX() >> 4;
+    final int chunkZ = pos.getZ() >> 4;
+    final long chunkKey = ChunkPos.toLong(chunkX, chunkZ);
+    byte decision = this.decisions.get(chunkKey);
+    if (UNDECIDED == decision) {
+      ActionResult result =
+          SaplingGrowCallback.EVENT
+              .invoker()
+              .grow(
+                  this.growthType, this.feature, this.world, this.rootBlockPos, chunkX, chunkZ);
+      decision = (ActionResult.PASS == result) ? ALLOWED : REJECTED;
+      this.decisions.put(chunkKey, decision);
+    }
+    return ALLOWED == decision;
+  }
+
+  /**
+   * Removes every position the tree may not place a block at.
+   *
+   * @param positions Positions to filter in place.
+   */
+  public void removeRejected(Set<BlockPos> positions) {
+    positions.removeIf(pos -> !this.allows(pos));
+  }
+}
@@ -22,8 +22,11 @@
 package com.github.plateofpasta.chunkclaimfabric.visual;
 
 import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.metrics.jfr.FlightEvents;
 import com.github.plateofpasta.chunkclaimfabric.player.ChunkClaimPlayer;
 import com.github.plateofpasta.chunkclaimfabric.player.PlayerData;
+import com.github.plateofpasta.chunkclaimfabric.server.Scheduler;
+import com.github.plateofpasta.chunkclaimfabric.server.TaskHandle;
 import com.github.plateofpasta.chunkclaimfabric.world.Chunk;
 import com.github.plateofpasta.edgestitch.world.EdgestitchLocation;
 import com.github.plateofpasta.edgestitch.world.EdgestitchWorld;
@@ -39,6 +42,10 @@ import java.util.ArrayList;
 /** Represents a visualization sent to a player. */
 public class Visualization {
   public ArrayList<VisualizationElement> elements = new ArrayList<>();
+  /** Queued task sending the visualization, null until applied. */
+  private TaskHandle applicationTask;
+  /** Queued task clearing the visualization, null until applied. */
+  private TaskHandle clearTask;
 
   /**
    * Factory method to build a visualization from a claim. VisualizationType determines the style
@@ -73,14 +80,21 @@ public class Visualization {
     }
 
     playerData.setCurrentVisualization(visualization);
+    visualization.cancelTasks();
+    final Scheduler scheduler = ChunkClaimFabric.getScheduler();
     // Create a task to send the player the visualization in about half a second.
-    ChunkClaimFabric.getScheduler()
-        .queue(
-            minecraftServer -> visualizationApplicationTask(player, playerData, visualization), 10);
+    visualization.applicationTask =
+        scheduler.queue(
+            "visualization_apply",
+            minecraftServer -> visualizationApplicationTask(player, playerData, visualization),
+            10);
 
     // Clear the visualization after 20 seconds.
-    ChunkClaimFabric.getScheduler()
-        .queue(minecraftServer -> visualizationClearTask(player, playerData, visualization), 400);
+    visualization.clearTask =
+        scheduler.queue(
+            "visualization_clear",
+            minecraftServer -> visualizationClearTask(player, playerData, visualization),
+            400);
   }
 
   public static void applyWithMessage(
@@ -103,6 +117,20 @@ public class Visualization {
     if (null != visualization) {
       visualizationClearTask(player, playerData, visualization);
       playerData.setCurrentVisualization(null);
+      // Its queued tasks would do nothing once it is no longer current.
+      visualization.cancelTasks();
+    }
+  }
+
+  /** Cancels the queued tasks of this visualization, if it was applied. */
+  private void cancelTasks() {
+    if (null != this.applicationTask) {
+      this.applicationTask.cancel();
+      this.applicationTask = null;
+    }
+    if (null != this.clearTask) {
+      this.clearTask.cancel();
+      this.clearTask = null;
     }
   }
 
@@ -117,13 +145,17 @@ public class Visualization {
       ChunkClaimPlayer player, PlayerData playerData, Visualization visualization) {
     // For each element (=block) of the visualization
     if (playerData.getCurrentVisualization() == visualization) {
+      final long start = System.nanoTime();
+      int sentBlocks = 0;
       for (VisualizationElement element : visualization.elements) {
         // Send the player a fake block change event.
         if (element.location != null) {
           player.sendFakeBlock(
               element.getVisualizedMaterial().getVisualizedBlock(), element.getBlockVector3());
+          sentBlocks++;
         }
       }
+      FlightEvents.visualization(player.getName(), sentBlocks, false, start);
     }
   }
 
@@ -137,12 +169,16 @@ public class Visualization {
   private static void visualizationClearTask(
       ChunkClaimPlayer player, PlayerData playerData, Visualization visualization) {
     if (playerData.getCurrentVisualization() == visualization) {
+      final long start = System.nanoTime();
+      int sentBlocks = 0;
       for (VisualizationElement element : visualization.elements) {
         if (element.location != null) {
           BlockState block = element.location.getBlockState();
           player.sendFakeBlock(block, element.getBlockVector3());
+          sentBlocks++;
         }
       }
+      FlightEvents.visualization(player.getName(), sentBlocks, true, start);
     }
   }
 
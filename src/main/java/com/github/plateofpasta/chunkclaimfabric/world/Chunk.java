@@ -21,7 +21,7 @@
 
 package com.github.plateofpasta.chunkclaimfabric.world;
 
-import com.github.plateofpasta.chunkclaimfabric.ChunkClaimFabric;
+import com.github.plateofpasta.chunkclaimfabric.datastore.DataStore;
 import com.github.plateofpasta.edgestitch.world.EdgestitchLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
@@ -41,6 +41,8 @@ public class Chunk {
   private Date claimDate;
   private boolean markedForDelete = false;
   private transient boolean inDataStore;
+  /** Datastore the chunk was added to, kept after it is removed. */
+  private transient DataStore dataStore;
   private ChunkPos chunkPos;
   private transient boolean marked = false;
   private transient boolean inspected = false;
@@ -191,7 +193,7 @@ public class Chunk {
    *     required for this chunk to be considered "built," else {@code false}.
    */
   public boolean hasMetMinimum() {
-    return this.getModifiedBlocks() >= ChunkClaimFabric.getClaimConfig().getMinModBlocks();
+    return this.getModifiedBlocks() >= this.dataStore.getConfig().getMinModBlocks();
   }
 
   /**
@@ -256,6 +258,15 @@ public class Chunk {
     return this.claimDate;
   }
 
+  /**
+   * Setter for the claim date.
+   *
+   * @param d New claim date.
+   */
+  public void setClaimDate(Date d) {
+    this.claimDate = d;
+  }
+
   /**
    * Checks if this chunk should be in the datastore.
    *
@@ -270,6 +281,16 @@ public class Chunk {
     this.inDataStore = b;
   }
 
+  /**
+   * Sets the datastore the chunk is added to. The chunk reads the configuration and the players
+   * ignoring claims from it, and writes itself to it.
+   *
+   * @param dataStore Datastore holding the chunk.
+   */
+  public void setDataStore(DataStore dataStore) {
+    this.dataStore = dataStore;
+  }
+
   /**
    * Gets the chunk X-coordinate of this chunk.
    *
@@ -377,10 +398,10 @@ public class Chunk {
         && (locationWorldName.equals(this.worldName));
   }
 
-  /** Writes this chunk to the plugin's datastore. */
+  /** Writes this chunk to its datastore. */
   public void writeChunkToStorage() {
     // todo maybe make writeChunkToStorage private and use AddChunk?
-    ChunkClaimFabric.getPlugin().getDataStore().writeChunkToStorage(this);
+    this.dataStore.writeChunkToStorage(this);
   }
 
   /**
@@ -409,7 +430,7 @@ public class Chunk {
 
   /**
    * Checks if the player is capable of modifying in this chunk. Either the owner, a builder, or
-   * someone who can ignore chunk policies.
+   * someone who can ignore chunk policies. No one ignores a chunk that isn't in a datastore.
    *
    * @param playerName Player name to check.
    * @return True if trusted, else false.
@@ -417,12 +438,7 @@ public class Chunk {
   public boolean canModify(String playerName) {
     return (this.builderNames.contains(playerName))
         || (this.ownerName.equals(playerName))
-        ||
-        // todo modify this to be more agnostic of the singleton and public member.
-        (ChunkClaimFabric.getPlugin()
-            .getDataStore()
-            .getPlayerData(playerName)
-            .canIgnoreChunkClaims());
+        || (null != this.dataStore && this.dataStore.canIgnoreChunkClaims(playerName));
   }
 
   /**